@@ -35,9 +35,9 @@ import org.apache.dubbo.rpc.cluster.router.tag.model.TagRouterRule;
 import org.apache.dubbo.rpc.cluster.router.tag.model.TagRuleParser;
 
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static org.apache.dubbo.common.Constants.FORCE_USE_TAG;
 import static org.apache.dubbo.common.Constants.TAG_KEY;
@@ -192,9 +192,19 @@ public class TagRouter extends AbstractRouter implements ConfigurationListener {
     }
 
     private <T> List<Invoker<T>> filterInvoker(List<Invoker<T>> invokers, Predicate<Invoker<T>> predicate) {
-        return invokers.stream()
-                .filter(predicate)
-                .collect(Collectors.toList());
+        // the same list is returned when nothing is filtered out, so the cluster invoker keeps its index of the list
+        List<Invoker<T>> result = null;
+        int index = 0;
+        for (Invoker<T> invoker : invokers) {
+            boolean matched = predicate.test(invoker);
+            if (result == null && !matched) {
+                result = new ArrayList<>(invokers.subList(0, index));
+            } else if (result != null && matched) {
+                result.add(invoker);
+            }
+            index++;
+        }
+        return result == null ? invokers : result;
     }
 
     private boolean addressMatches(URL url, List<String> addresses) {
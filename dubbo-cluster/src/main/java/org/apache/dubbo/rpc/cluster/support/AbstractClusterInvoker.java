@@ -25,19 +25,29 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -47,6 +57,11 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractClusterInvoker.class);
 
+    /**
+     * The max number of invokers left out of a reselection through a view, more are left out by copying the others
+     */
+    private static final int MAX_EXCLUDED_IN_VIEW = 16;
+
     protected final Directory<T> directory;
 
     protected final boolean availablecheck;
@@ -55,6 +70,17 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
 
     private volatile Invoker<T> stickyInvoker = null;
 
+    /**
+     * The index of the sticky invoker in the snapshot of the given generation
+     */
+    private volatile int stickyIndex;
+
+    private volatile long stickyGeneration = -1;
+
+    private volatile InvokerSnapshot<T> snapshot;
+
+    private volatile List<Invoker<T>> lastInvokers;
+
     public AbstractClusterInvoker(Directory<T> directory) {
         this(directory, directory.getUrl());
     }
@@ -122,8 +148,10 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
         boolean sticky = invokers.get(0).getUrl()
                 .getMethodParameter(methodName, Constants.CLUSTER_STICKY_KEY, Constants.DEFAULT_CLUSTER_STICKY);
 
+        InvokerSnapshot<T> indexed = snapshot(invokers);
+
         //ignore overloaded method
-        if (stickyInvoker != null && !invokers.contains(stickyInvoker)) {
+        if (stickyInvoker != null && !isListed(indexed, invokers, stickyInvoker)) {
             stickyInvoker = null;
         }
         //ignore concurrency problem
@@ -133,7 +161,7 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
             }
         }
 
-        Invoker<T> invoker = doSelect(loadbalance, invocation, invokers, selected);
+        Invoker<T> invoker = doSelect(loadbalance, invocation, invokers, selected, indexed);
 
         if (sticky) {
             stickyInvoker = invoker;
@@ -141,8 +169,48 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
         return invoker;
     }
 
+    /**
+     * Index the invokers once the directory gives out the same list twice in a row. Lists routed anew for each call
+     * are scanned as before, indexing them would cost more than it saves.
+     *
+     * @return the snapshot of the invokers, or null if they are not indexed
+     */
+    private InvokerSnapshot<T> snapshot(List<Invoker<T>> invokers) {
+        InvokerSnapshot<T> current = snapshot;
+        if (current != null && current.isSnapshotOf(invokers)) {
+            return current;
+        }
+        if (!(invokers instanceof RandomAccess)) {
+            return null;
+        }
+        if (invokers != lastInvokers) {
+            lastInvokers = invokers;
+            return null;
+        }
+        current = new InvokerSnapshot<>(invokers);
+        snapshot = current;
+        return current;
+    }
+
+    private boolean isListed(InvokerSnapshot<T> indexed, List<Invoker<T>> invokers, Invoker<T> invoker) {
+        if (indexed == null) {
+            return invokers.contains(invoker);
+        }
+        if (stickyGeneration == indexed.getGeneration() && indexed.isAt(invoker, stickyIndex)) {
+            return true;
+        }
+        int index = indexed.indexOf(invoker);
+        if (index < 0) {
+            return false;
+        }
+        stickyIndex = index;
+        stickyGeneration = indexed.getGeneration();
+        return true;
+    }
+
     private Invoker<T> doSelect(LoadBalance loadbalance, Invocation invocation,
-                                List<Invoker<T>> invokers, List<Invoker<T>> selected) throws RpcException {
+                                List<Invoker<T>> invokers, List<Invoker<T>> selected,
+                                InvokerSnapshot<T> indexed) throws RpcException {
 
         if (CollectionUtils.isEmpty(invokers)) {
             return null;
@@ -156,12 +224,12 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
         if ((selected != null && selected.contains(invoker))
                 || (!invoker.isAvailable() && getUrl() != null && availablecheck)) {
             try {
-                Invoker<T> rInvoker = reselect(loadbalance, invocation, invokers, selected, availablecheck);
+                Invoker<T> rInvoker = reselect(loadbalance, invocation, invokers, selected, availablecheck, indexed);
                 if (rInvoker != null) {
                     invoker = rInvoker;
                 } else {
                     //Check the index of current selected invoker, if it's not the last one, choose the one at index+1.
-                    int index = invokers.indexOf(invoker);
+                    int index = indexed != null ? indexed.indexOf(invoker) : invokers.indexOf(invoker);
                     try {
                         //Avoid collision
                         invoker = invokers.get((index + 1) % invokers.size());
@@ -185,11 +253,23 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
      * @param invokers       invoker candidates
      * @param selected       exclude selected invokers or not
      * @param availablecheck check invoker available if true
+     * @param indexed        the snapshot of the invokers, null if they are not indexed
      * @return the reselect result to do invoke
      * @throws RpcException exception
      */
     private Invoker<T> reselect(LoadBalance loadbalance, Invocation invocation,
-                                List<Invoker<T>> invokers, List<Invoker<T>> selected, boolean availablecheck) throws RpcException {
+                                List<Invoker<T>> invokers, List<Invoker<T>> selected, boolean availablecheck,
+                                InvokerSnapshot<T> indexed) throws RpcException {
+
+        if (indexed != null) {
+            List<Invoker<T>> candidates = exclude(indexed, invokers, selected, availablecheck);
+            if (candidates != null) {
+                if (!candidates.isEmpty()) {
+                    return loadbalance.select(candidates, getUrl(), invocation);
+                }
+                return reselectFromSelected(loadbalance, invocation, selected);
+            }
+        }
 
         //Allocating one in advance, this list is certain to be used.
         List<Invoker<T>> reselectInvokers = new ArrayList<>(
@@ -210,6 +290,47 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
             return loadbalance.select(reselectInvokers, getUrl(), invocation);
         }
 
+        return reselectFromSelected(loadbalance, invocation, selected);
+    }
+
+    /**
+     * Leave out the selected and the unavailable invokers through a view of the snapshot, instead of copying the
+     * others to a new list.
+     *
+     * @return the invokers left, or null if too many are left out for a view
+     */
+    private List<Invoker<T>> exclude(InvokerSnapshot<T> indexed, List<Invoker<T>> invokers,
+                                     List<Invoker<T>> selected, boolean availablecheck) {
+        int[] excluded = new int[MAX_EXCLUDED_IN_VIEW];
+        int count = 0;
+        if (selected != null) {
+            for (Invoker<T> invoker : selected) {
+                int index = indexed.indexOf(invoker);
+                if (index >= 0) {
+                    if (count == excluded.length) {
+                        return null;
+                    }
+                    excluded[count++] = index;
+                }
+            }
+        }
+        if (availablecheck) {
+            for (int i = 0; i < invokers.size(); i++) {
+                if (!invokers.get(i).isAvailable()) {
+                    if (count == excluded.length) {
+                        return null;
+                    }
+                    excluded[count++] = i;
+                }
+            }
+        }
+        return indexed.exclude(excluded, count);
+    }
+
+    private Invoker<T> reselectFromSelected(LoadBalance loadbalance, Invocation invocation,
+                                            List<Invoker<T>> selected) throws RpcException {
+        List<Invoker<T>> reselectInvokers = new ArrayList<>();
+
         // Just pick an available invoker using loadbalance policy
         if (selected != null) {
             for (Invoker<T> invoker : selected) {
@@ -270,6 +391,99 @@ public abstract class AbstractClusterInvoker<T> implements Invoker<T> {
     protected abstract Result doInvoke(Invocation invocation, List<Invoker<T>> invokers,
                                        LoadBalance loadbalance) throws RpcException;
 
+    /**
+     * Invoke the invoker asynchronously, without blocking the calling thread on the response.
+     * <p>
+     * The invoker gets its own copy of the invocation, marked as async. Invokers which do not support async
+     * invocation answer synchronously, their result completes the future immediately. Cancelling the future
+     * stops waiting for the response.
+     *
+     * @return future completed with the result, or completed exceptionally if the invocation failed
+     */
+    protected CompletableFuture<Result> invokeAsync(Invoker<T> invoker, Invocation invocation) {
+        Map<String, String> attachments = invocation.getAttachments();
+        RpcInvocation inv = new RpcInvocation(invocation.getMethodName(), invocation.getParameterTypes(),
+                invocation.getArguments(), attachments == null ? new HashMap<String, String>() : new HashMap<>(attachments),
+                invocation.getInvoker());
+        inv.setAttachment(Constants.ASYNC_KEY, Boolean.TRUE.toString());
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        try {
+            Result result = invoker.invoke(inv);
+            if (result instanceof AsyncRpcResult) {
+                AsyncRpcResult asyncResult = (AsyncRpcResult) result;
+                asyncResult.getResultFuture().whenComplete((r, t) -> {
+                    if (t != null) {
+                        future.completeExceptionally(unwrap(t));
+                    } else {
+                        future.complete(r);
+                    }
+                });
+                // timeout and network errors only fail the value future, the result future is never completed
+                asyncResult.getValueFuture().whenComplete((v, t) -> {
+                    if (t != null && !asyncResult.getResultFuture().isDone()) {
+                        future.completeExceptionally(unwrap((Throwable) t));
+                    }
+                });
+                // cancelling the future stops waiting for the response
+                future.whenComplete((r, t) -> {
+                    if (future.isCancelled()) {
+                        asyncResult.getValueFuture().cancel(true);
+                    }
+                });
+            } else {
+                future.complete(result);
+            }
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Convert the future of a fan-out invocation to the result expected by the caller: an async result if
+     * the caller invokes asynchronously, otherwise the result waited for at most timeout milliseconds.
+     */
+    protected Result toResult(Invocation invocation, CompletableFuture<Result> future, int timeout) throws RpcException {
+        if (RpcUtils.isAsync(getUrl(), invocation)) {
+            CompletableFuture<Result> resultFuture = future.handle((r, t) -> t == null ? r : new RpcResult(unwrap(t)));
+            CompletableFuture<Object> valueFuture = new CompletableFuture<>();
+            resultFuture.whenComplete((r, t) -> {
+                if (r.hasException()) {
+                    valueFuture.completeExceptionally(r.getException());
+                } else {
+                    valueFuture.complete(r.getValue());
+                }
+            });
+            RpcContext.getContext().setFuture(valueFuture);
+            if (RpcUtils.isReturnTypeFuture(invocation)) {
+                return new AsyncRpcResult(valueFuture, resultFuture, false);
+            }
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        }
+
+        RpcContext.getContext().setFuture(null);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Invoke method " + invocation.getMethodName()
+                    + " of service " + getInterface().getName() + " timeout after " + timeout + "ms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof RpcException) {
+                throw (RpcException) cause;
+            }
+            throw new RpcException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while invoking method " + invocation.getMethodName()
+                    + " of service " + getInterface().getName(), e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+
     protected List<Invoker<T>> list(Invocation invocation) throws RpcException {
         return directory.list(invocation);
     }
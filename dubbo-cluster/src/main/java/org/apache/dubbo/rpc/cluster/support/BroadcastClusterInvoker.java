@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.rpc.cluster.support;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.rpc.Invocation;
@@ -26,11 +27,16 @@ import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * BroadcastClusterInvoker
- *
+ * <p>
+ * Sends the request to all the invokers at once, without waiting for each response in turn. Fails if any of
+ * them fails, otherwise returns the result of the last invoker.
  */
 public class BroadcastClusterInvoker<T> extends AbstractClusterInvoker<T> {
 
@@ -45,23 +51,34 @@ public class BroadcastClusterInvoker<T> extends AbstractClusterInvoker<T> {
     public Result doInvoke(final Invocation invocation, List<Invoker<T>> invokers, LoadBalance loadbalance) throws RpcException {
         checkInvokers(invokers, invocation);
         RpcContext.getContext().setInvokers((List) invokers);
-        RpcException exception = null;
-        Result result = null;
+        final List<CompletableFuture<Result>> futures = new ArrayList<>(invokers.size());
         for (Invoker<T> invoker : invokers) {
-            try {
-                result = invoker.invoke(invocation);
-            } catch (RpcException e) {
-                exception = e;
-                logger.warn(e.getMessage(), e);
-            } catch (Throwable e) {
-                exception = new RpcException(e.getMessage(), e);
-                logger.warn(e.getMessage(), e);
-            }
-        }
-        if (exception != null) {
-            throw exception;
+            futures.add(invokeAsync(invoker, invocation));
         }
-        return result;
+        CompletableFuture<Result> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((v, t) -> {
+                    RpcException exception = null;
+                    Result result = null;
+                    for (CompletableFuture<Result> future : futures) {
+                        try {
+                            result = future.join();
+                        } catch (CompletionException e) {
+                            Throwable cause = e.getCause();
+                            if (cause instanceof RpcException) {
+                                exception = (RpcException) cause;
+                            } else {
+                                exception = new RpcException(cause.getMessage(), cause);
+                            }
+                            logger.warn(cause.getMessage(), cause);
+                        }
+                    }
+                    if (exception != null) {
+                        throw exception;
+                    }
+                    return result;
+                });
+        int timeout = getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        return toResult(invocation, all, timeout);
     }
 
 }
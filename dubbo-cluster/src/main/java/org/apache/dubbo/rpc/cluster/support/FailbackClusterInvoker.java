@@ -17,28 +17,56 @@
 package org.apache.dubbo.rpc.cluster.support;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.UnsafeByteArrayInputStream;
+import org.apache.dubbo.common.io.UnsafeByteArrayOutputStream;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.common.store.DataStore;
 import org.apache.dubbo.common.timer.HashedWheelTimer;
 import org.apache.dubbo.common.timer.Timeout;
 import org.apache.dubbo.common.timer.Timer;
 import org.apache.dubbo.common.timer.TimerTask;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.common.utils.ReflectUtils;
+import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.RpcResult;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * When fails, record failure requests and schedule for retry on a regular interval.
  * Especially useful for services of notification.
+ * <p>
+ * With <code>failback.journal</code> set to a directory, the failed requests are appended to a memory-mapped journal
+ * of at most <code>failback.journal.size</code> bytes instead of the heap, so they survive a restart. They are
+ * replayed by <code>failbacktasks</code> threads at most, at no more than <code>failback.replay.rate</code> per
+ * second, and a round of replays stops at the first failure until the next period. Every service has a journal of its
+ * own, mapped as a whole, so the size is 4 MB by default, room for thousands of small invocations.
+ * <p>
+ * The failback clusters are published in the {@link DataStore} as long as they are not destroyed, under the name of
+ * this class, so that their pending retries can be read by the qos command <code>cluster</code>.
  *
  * <a href="http://en.wikipedia.org/wiki/Failback">Failback</a>
  */
@@ -54,6 +82,22 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
 
     private volatile Timer failTimer;
 
+    private final Set<RetryTimerTask> retryTasks = ConcurrentHashMap.newKeySet();
+
+    private final FailbackJournal journal;
+
+    private final int replayRate;
+
+    private final Semaphore replayPermits;
+
+    private final Set<Long> replaying = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean replayFailed;
+
+    private volatile ScheduledExecutorService replayExecutor;
+
+    private final String dataStoreKey;
+
     public FailbackClusterInvoker(Directory<T> directory) {
         super(directory);
 
@@ -67,9 +111,178 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
         }
         retries = retriesConfig;
         failbackTasks = failbackTasksConfig;
+
+        int replayRateConfig = getUrl().getParameter(Constants.FAIL_BACK_REPLAY_RATE_KEY, Constants.DEFAULT_FAILBACK_REPLAY_RATE);
+        if (replayRateConfig <= 0) {
+            replayRateConfig = Constants.DEFAULT_FAILBACK_REPLAY_RATE;
+        }
+        replayRate = replayRateConfig;
+        replayPermits = new Semaphore(failbackTasks);
+        journal = openJournal();
+        if (journal != null && journal.getPendingCount() > 0) {
+            startReplay();
+        }
+        dataStoreKey = getUrl().getServiceKey() + "@" + Integer.toHexString(System.identityHashCode(this));
+        getDataStore().put(FailbackClusterInvoker.class.getName(), dataStoreKey, this);
+    }
+
+    private static DataStore getDataStore() {
+        return ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+    }
+
+    /**
+     * @return the number of failed invocations waiting for a retry
+     */
+    public int getPendingRetryCount() {
+        return (journal != null ? journal.getPendingCount() : 0) + retryTasks.size();
+    }
+
+    /**
+     * @return the milliseconds since the oldest failed invocation waiting for a retry failed, 0 if there is none
+     */
+    public long getOldestPendingRetryAge() {
+        long oldest = journal != null ? journal.getOldestPendingTime() : 0;
+        for (RetryTimerTask task : retryTasks) {
+            if (oldest == 0 || task.created < oldest) {
+                oldest = task.created;
+            }
+        }
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    private FailbackJournal openJournal() {
+        String dir = getUrl().getParameter(Constants.FAIL_BACK_JOURNAL_KEY);
+        if (StringUtils.isEmpty(dir)) {
+            return null;
+        }
+        File file = new File(dir, getUrl().getServiceKey().replaceAll("[^\\w.-]", "_") + ".journal");
+        try {
+            return new FailbackJournal(file, getUrl().getParameter(Constants.FAIL_BACK_JOURNAL_SIZE_KEY, Constants.DEFAULT_FAILBACK_JOURNAL_SIZE));
+        } catch (Throwable e) {
+            logger.error("Failed to open failback journal " + file + ", keep the failed invocations in memory instead. cause: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private boolean addJournal(Invocation invocation) {
+        byte[] payload;
+        try {
+            payload = encode(invocation);
+        } catch (Throwable e) {
+            logger.warn("Failed to write invocation->" + invocation + " to failback journal, retry it in memory. cause: " + e.getMessage(), e);
+            return false;
+        }
+        if (journal.append(payload)) {
+            startReplay();
+        } else {
+            logger.error("Failback journal " + journal.getFile() + " of " + journal.getSize() + " bytes is full, we have to abandon invocation->" + invocation);
+        }
+        return true;
+    }
+
+    private void startReplay() {
+        if (replayExecutor == null) {
+            synchronized (this) {
+                if (replayExecutor == null) {
+                    replayExecutor = Executors.newScheduledThreadPool(failbackTasks + 1,
+                            new NamedThreadFactory("failback-cluster-replay", true));
+                    replayExecutor.scheduleWithFixedDelay(this::replay, RETRY_FAILED_PERIOD, RETRY_FAILED_PERIOD, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    private void replay() {
+        try {
+            replayFailed = false;
+            long interval = TimeUnit.SECONDS.toNanos(1) / replayRate;
+            for (long position = journal.next(0); position >= 0 && !replayFailed; position = journal.next(journal.skip(position))) {
+                if (!replaying.add(position)) {
+                    continue;
+                }
+                replayPermits.acquire();
+                final long record = position;
+                replayExecutor.execute(() -> {
+                    try {
+                        replay(record);
+                    } finally {
+                        replaying.remove(record);
+                        replayPermits.release();
+                    }
+                });
+                LockSupport.parkNanos(interval);
+            }
+            journal.force();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            logger.error("Failback background works error, failback journal " + journal.getFile() + ", exception: " + e.getMessage(), e);
+        }
+    }
+
+    private void replay(long record) {
+        RpcInvocation invocation;
+        try {
+            invocation = decode(journal.read(record));
+        } catch (Throwable e) {
+            logger.error("Failed to read invocation from failback journal " + journal.getFile() + ", we have to abandon it.", e);
+            journal.complete(record);
+            return;
+        }
+        try {
+            List<Invoker<T>> invokers = list(invocation);
+            checkInvokers(invokers, invocation);
+            Invoker<T> invoker = select(initLoadBalance(invokers, invocation), invocation, invokers, null);
+            invoker.invoke(invocation);
+            journal.complete(record);
+        } catch (Throwable e) {
+            // the providers have not recovered yet, wait for the next round
+            replayFailed = true;
+            logger.error("Failed retry to invoke method " + invocation.getMethodName() + ", waiting again.", e);
+            if (journal.attempt(record) >= retries) {
+                logger.error("Failed retry times exceed threshold (" + retries + "), We have to abandon, invocation->" + invocation);
+                journal.complete(record);
+            }
+        }
+    }
+
+    private Serialization getSerialization() {
+        return ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(
+                getUrl().getParameter(Constants.SERIALIZATION_KEY, Constants.DEFAULT_REMOTING_SERIALIZATION));
+    }
+
+    private byte[] encode(Invocation invocation) throws IOException {
+        UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(256);
+        ObjectOutput out = getSerialization().serialize(getUrl(), bos);
+        Class<?>[] types = invocation.getParameterTypes() != null ? invocation.getParameterTypes() : new Class<?>[0];
+        Object[] args = invocation.getArguments();
+        out.writeUTF(invocation.getMethodName());
+        out.writeUTF(ReflectUtils.getDesc(types));
+        for (int i = 0; i < types.length; i++) {
+            out.writeObject(args[i]);
+        }
+        out.writeObject(invocation.getAttachments());
+        out.flushBuffer();
+        return bos.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RpcInvocation decode(byte[] payload) throws IOException, ClassNotFoundException {
+        ObjectInput in = getSerialization().deserialize(getUrl(), new UnsafeByteArrayInputStream(payload));
+        String methodName = in.readUTF();
+        Class<?>[] types = ReflectUtils.desc2classArray(in.readUTF());
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = in.readObject(types[i]);
+        }
+        Map<String, String> attachments = in.readObject(Map.class);
+        return new RpcInvocation(methodName, types, args, attachments);
     }
 
     private void addFailed(LoadBalance loadbalance, Invocation invocation, List<Invoker<T>> invokers, Invoker<T> lastInvoker) {
+        if (journal != null && addJournal(invocation)) {
+            return;
+        }
         if (failTimer == null) {
             synchronized (this) {
                 if (failTimer == null) {
@@ -83,6 +296,7 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
         RetryTimerTask retryTimerTask = new RetryTimerTask(loadbalance, invocation, invokers, lastInvoker, retries, RETRY_FAILED_PERIOD);
         try {
             failTimer.newTimeout(retryTimerTask, RETRY_FAILED_PERIOD, TimeUnit.SECONDS);
+            retryTasks.add(retryTimerTask);
         } catch (Throwable e) {
             logger.error("Failback background works error,invocation->" + invocation + ", exception: " + e.getMessage());
         }
@@ -106,8 +320,20 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
     @Override
     public void destroy() {
         super.destroy();
+        getDataStore().remove(FailbackClusterInvoker.class.getName(), dataStoreKey);
         if (failTimer != null) {
             failTimer.stop();
+            retryTasks.clear();
+        }
+        if (replayExecutor != null) {
+            replayExecutor.shutdownNow();
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close failback journal " + journal.getFile() + ", cause: " + e.getMessage(), e);
+            }
         }
     }
 
@@ -120,6 +346,7 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
         private final List<Invoker<T>> invokers;
         private final int retries;
         private final long tick;
+        private final long created = System.currentTimeMillis();
         private Invoker<T> lastInvoker;
         private int retryTimes = 0;
 
@@ -138,10 +365,12 @@ public class FailbackClusterInvoker<T> extends AbstractClusterInvoker<T> {
                 Invoker<T> retryInvoker = select(loadbalance, invocation, invokers, Collections.singletonList(lastInvoker));
                 lastInvoker = retryInvoker;
                 retryInvoker.invoke(invocation);
+                retryTasks.remove(this);
             } catch (Throwable e) {
                 logger.error("Failed retry to invoke method " + invocation.getMethodName() + ", waiting again.", e);
                 if ((++retryTimes) >= retries) {
                     logger.error("Failed retry times exceed threshold (" + retries + "), We have to abandon, invocation->" + invocation);
+                    retryTasks.remove(this);
                 } else {
                     rePut(timeout);
                 }
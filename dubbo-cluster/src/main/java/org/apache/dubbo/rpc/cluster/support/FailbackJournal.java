@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped journal of fixed size that keeps the failed invocations of a failback cluster until they are
+ * replayed, so they survive a restart and are bounded off the heap.
+ * <p>
+ * The file starts with a header of the magic, the head and the tail offsets, followed by the records: the payload
+ * length, the state, the attempts, the time of the failure and the payload. A record is written before the tail
+ * moves over it, so a crash in the middle of an append loses that record only. Records are completed in any order
+ * and the head moves over the completed ones; when the end of the file is reached, the records left are moved to
+ * its start, and a crash in the middle of that move may lose them. The positions given out are logical, so that they
+ * stay valid across these moves.
+ */
+class FailbackJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailbackJournal.class);
+
+    private static final int MAGIC = 0xdabb0f01;
+
+    private static final int HEADER_LENGTH = 4 + 8 + 8;
+
+    private static final int RECORD_HEADER_LENGTH = 4 + 1 + 4 + 8;
+
+    private static final byte PENDING = 1;
+
+    private static final byte DONE = 2;
+
+    private final File file;
+
+    private final FileChannel channel;
+
+    private final FileLock lock;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The logical position of the start of the file, moved forward by each compaction
+     */
+    private long base;
+
+    private long head;
+
+    private long tail;
+
+    private int pending;
+
+    FailbackJournal(File file, int size) throws IOException {
+        if (size <= HEADER_LENGTH + RECORD_HEADER_LENGTH) {
+            throw new IllegalArgumentException("Illegal failback journal size " + size);
+        }
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock;
+            try {
+                fileLock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // held by another journal of this process
+                fileLock = null;
+            }
+            this.lock = fileLock;
+            if (lock == null) {
+                throw new IOException("Failback journal " + file + " is used by another process");
+            }
+            // an existing journal keeps its size, so that none of its records is cut off
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        load();
+    }
+
+    private void load() {
+        head = HEADER_LENGTH;
+        tail = HEADER_LENGTH;
+        if (buffer.getInt(0) == MAGIC) {
+            long savedHead = buffer.getLong(4);
+            long savedTail = buffer.getLong(12);
+            if (HEADER_LENGTH <= savedHead && savedHead <= savedTail && savedTail <= buffer.capacity()) {
+                head = savedHead;
+                tail = savedTail;
+            } else {
+                logger.warn("Failback journal " + file + " is corrupted, discard its records");
+            }
+        }
+        for (long position = head; position < tail; position = position + RECORD_HEADER_LENGTH + length(position)) {
+            if (tail - position < RECORD_HEADER_LENGTH || length(position) < 0
+                    || tail - position - RECORD_HEADER_LENGTH < length(position)) {
+                logger.warn("Failback journal " + file + " is corrupted at " + position + ", discard the records after it");
+                tail = position;
+                break;
+            }
+            if (state(position) == PENDING) {
+                pending++;
+            }
+        }
+        buffer.putInt(0, MAGIC);
+        writeHeader();
+        if (pending > 0) {
+            logger.info("Load " + pending + " failed invocations from failback journal " + file);
+        }
+    }
+
+    /**
+     * @return false if the journal is full
+     */
+    synchronized boolean append(byte[] payload) {
+        int length = RECORD_HEADER_LENGTH + payload.length;
+        if (tail - base + length > buffer.capacity()) {
+            compact();
+            if (tail - base + length > buffer.capacity()) {
+                return false;
+            }
+        }
+        int index = (int) (tail - base);
+        buffer.putInt(index, payload.length);
+        buffer.put(index + 4, PENDING);
+        buffer.putInt(index + 5, 0);
+        buffer.putLong(index + 9, System.currentTimeMillis());
+        ByteBuffer record = buffer.duplicate();
+        record.position(index + RECORD_HEADER_LENGTH);
+        record.put(payload);
+        tail += length;
+        pending++;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * @return the position of the first pending record at or after the given position, or -1 if there is none
+     */
+    synchronized long next(long position) {
+        for (position = Math.max(position, head); position < tail; position = position + RECORD_HEADER_LENGTH + length(position)) {
+            if (state(position) == PENDING) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position right after the record, or the head if the head has moved over it
+     */
+    synchronized long skip(long position) {
+        if (position < head) {
+            return head;
+        }
+        return position + RECORD_HEADER_LENGTH + length(position);
+    }
+
+    synchronized byte[] read(long position) {
+        byte[] payload = new byte[length(position)];
+        ByteBuffer record = buffer.duplicate();
+        record.position((int) (position - base) + RECORD_HEADER_LENGTH);
+        record.get(payload);
+        return payload;
+    }
+
+    /**
+     * Record a failed replay of the record.
+     *
+     * @return the number of failed replays
+     */
+    synchronized int attempt(long position) {
+        int index = (int) (position - base) + 5;
+        int attempts = buffer.getInt(index) + 1;
+        buffer.putInt(index, attempts);
+        return attempts;
+    }
+
+    /**
+     * Mark the record as replayed or abandoned, and move the head over the completed records.
+     */
+    synchronized void complete(long position) {
+        if (position < head || position >= tail || state(position) != PENDING) {
+            return;
+        }
+        buffer.put((int) (position - base) + 4, DONE);
+        pending--;
+        while (head < tail && state(head) == DONE) {
+            head += RECORD_HEADER_LENGTH + length(head);
+        }
+        if (head == tail) {
+            // nothing left, start over from the beginning of the file
+            base = head - HEADER_LENGTH;
+        }
+        writeHeader();
+    }
+
+    synchronized int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * @return the time of the oldest pending failure, or 0 if none is pending
+     */
+    synchronized long getOldestPendingTime() {
+        long position = next(head);
+        return position < 0 ? 0 : buffer.getLong((int) (position - base) + 9);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    int getSize() {
+        return buffer.capacity();
+    }
+
+    synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void compact() {
+        int from = (int) (head - base);
+        int length = (int) (tail - head);
+        if (from == HEADER_LENGTH) {
+            return;
+        }
+        // copied forward by chunks, each one read before it overwrites anything not yet copied
+        byte[] chunk = new byte[Math.min(length, 64 * 1024)];
+        ByteBuffer src = buffer.duplicate();
+        ByteBuffer dst = buffer.duplicate();
+        src.position(from);
+        dst.position(HEADER_LENGTH);
+        for (int copied = 0; copied < length; copied += chunk.length) {
+            int count = Math.min(chunk.length, length - copied);
+            src.get(chunk, 0, count);
+            dst.put(chunk, 0, count);
+        }
+        base += from - HEADER_LENGTH;
+        writeHeader();
+    }
+
+    private int length(long position) {
+        return buffer.getInt((int) (position - base));
+    }
+
+    private byte state(long position) {
+        return buffer.get((int) (position - base) + 4);
+    }
+
+    private void writeHeader() {
+        buffer.putLong(4, head - base);
+        buffer.putLong(12, tail - base);
+    }
+}
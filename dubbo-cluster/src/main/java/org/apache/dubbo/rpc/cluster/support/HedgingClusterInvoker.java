@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.common.timer.HashedWheelTimer;
+import org.apache.dubbo.common.timer.Timeout;
+import org.apache.dubbo.common.utils.LatencyHistogram;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.cluster.Directory;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Send the request to one invoker, and if it has not answered after a delay, send it again to another invoker.
+ * The first result returned wins and the response of the other one is no longer waited for.
+ * <p>
+ * The delay is the <code>hedging.percentile</code> percentile of the latency of the method, so only the slowest
+ * requests are hedged. Until enough latencies are recorded, <code>hedging.delay</code> milliseconds is used.
+ * Hedges are limited by a budget shared by all the hedging clusters: every request earns
+ * <code>hedging.budget</code> percent of a hedge.
+ * <p>
+ * The hedge is sent from a shared pool of threads rather than from the timer thread, so that an invoker answering
+ * synchronously does not hold up the hedges of the other requests, though the invokers are still expected to support
+ * async invocation, like the dubbo protocol does, for the first result to win.
+ * <p>
+ * The hedging clusters are published in the {@link DataStore} as long as they are not destroyed, under the name of
+ * this class, so that their hedge and win rates can be read by the qos command <code>cluster</code>.
+ */
+public class HedgingClusterInvoker<T> extends AbstractClusterInvoker<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingClusterInvoker.class);
+
+    /**
+     * latencies recorded before the delay is derived from them
+     */
+    private static final int MIN_SAMPLES = 100;
+
+    /**
+     * latencies recorded before a new window is started, so the delay follows the current latency
+     */
+    private static final int WINDOW_SAMPLES = 10000;
+
+    private static final HashedWheelTimer HEDGING_TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("dubbo-hedging-timer", true), 10, TimeUnit.MILLISECONDS);
+
+    private static final ExecutorService HEDGING_EXECUTOR = Executors.newCachedThreadPool(
+            new NamedThreadFactory("dubbo-hedging", true));
+
+    private static final HedgingBudget BUDGET = new HedgingBudget();
+
+    private final ConcurrentMap<String, MethodLatency> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    private final String dataStoreKey;
+
+    public HedgingClusterInvoker(Directory<T> directory) {
+        super(directory);
+        this.dataStoreKey = getUrl().getServiceKey() + "@" + Integer.toHexString(System.identityHashCode(this));
+        getDataStore().put(HedgingClusterInvoker.class.getName(), dataStoreKey, this);
+    }
+
+    private static DataStore getDataStore() {
+        return ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        getDataStore().remove(HedgingClusterInvoker.class.getName(), dataStoreKey);
+    }
+
+    @Override
+    public Result doInvoke(final Invocation invocation, final List<Invoker<T>> invokers, final LoadBalance loadbalance) throws RpcException {
+        checkInvokers(invokers, invocation);
+        String methodName = RpcUtils.getMethodName(invocation);
+        int timeout = getUrl().getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        requests.increment();
+        BUDGET.deposit(getUrl().getMethodParameter(methodName, Constants.HEDGING_BUDGET_KEY, Constants.DEFAULT_HEDGING_BUDGET));
+
+        HedgedInvocation hedged = new HedgedInvocation(invocation, invokers, loadbalance, getLatency(methodName));
+        hedged.start();
+        return toResult(invocation, hedged.result, timeout);
+    }
+
+    private MethodLatency getLatency(String methodName) {
+        MethodLatency latency = latencies.get(methodName);
+        if (latency == null) {
+            latencies.putIfAbsent(methodName, new MethodLatency(
+                    getUrl().getMethodParameter(methodName, Constants.HEDGING_PERCENTILE_KEY, Constants.DEFAULT_HEDGING_PERCENTILE),
+                    getUrl().getMethodParameter(methodName, Constants.HEDGING_DELAY_KEY, Constants.DEFAULT_HEDGING_DELAY)));
+            latency = latencies.get(methodName);
+        }
+        return latency;
+    }
+
+    /**
+     * @return the number of invocations
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return the number of hedges which answered before the first request
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * @return the number of hedges not sent because the budget was exhausted
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * @return the part of the invocations that were hedged, 0 if there are none
+     */
+    public double getHedgeRate() {
+        long n = requests.sum();
+        return n == 0 ? 0 : (double) hedges.sum() / n;
+    }
+
+    /**
+     * @return the part of the hedges which answered before the first request, 0 if there are none
+     */
+    public double getHedgeWinRate() {
+        long n = hedges.sum();
+        return n == 0 ? 0 : (double) hedgeWins.sum() / n;
+    }
+
+    /**
+     * @return the current hedging delay of the method in milliseconds
+     */
+    public long getHedgingDelay(String methodName) {
+        return TimeUnit.NANOSECONDS.toMillis(getLatency(methodName).getDelayNanos());
+    }
+
+    private class HedgedInvocation {
+
+        private final Invocation invocation;
+
+        private final List<Invoker<T>> invokers;
+
+        private final LoadBalance loadbalance;
+
+        private final MethodLatency latency;
+
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        private final long startNanos = System.nanoTime();
+
+        private Invoker<T> primaryInvoker;
+
+        private CompletableFuture<Result> primary;
+
+        private CompletableFuture<Result> hedge;
+
+        private Timeout timer;
+
+        private int attempts;
+
+        private int failures;
+
+        HedgedInvocation(Invocation invocation, List<Invoker<T>> invokers, LoadBalance loadbalance, MethodLatency latency) {
+            this.invocation = invocation;
+            this.invokers = invokers;
+            this.loadbalance = loadbalance;
+            this.latency = latency;
+        }
+
+        synchronized void start() {
+            primaryInvoker = select(loadbalance, invocation, invokers, null);
+            attempts = 1;
+            primary = send(primaryInvoker, false);
+            if (invokers.size() > 1 && !result.isDone()) {
+                timer = HEDGING_TIMER.newTimeout(t -> HEDGING_EXECUTOR.execute(this::hedge),
+                        latency.getDelayNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private synchronized void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!BUDGET.tryAcquire()) {
+                budgetExhausted.increment();
+                return;
+            }
+            Invoker<T> invoker;
+            try {
+                invoker = select(loadbalance, invocation, invokers, Collections.singletonList(primaryInvoker));
+            } catch (Throwable e) {
+                logger.warn("Failed to select the invoker to hedge method " + invocation.getMethodName()
+                        + ", cause: " + e.getMessage(), e);
+                return;
+            }
+            if (invoker == null || invoker == primaryInvoker) {
+                return;
+            }
+            hedges.increment();
+            attempts++;
+            hedge = send(invoker, true);
+        }
+
+        private CompletableFuture<Result> send(Invoker<T> invoker, boolean isHedge) {
+            CompletableFuture<Result> future = invokeAsync(invoker, invocation);
+            future.whenComplete((r, t) -> {
+                if (t == null) {
+                    onSuccess(r, isHedge);
+                } else {
+                    onFailure(t);
+                }
+            });
+            return future;
+        }
+
+        private void onSuccess(Result r, boolean isHedge) {
+            if (!result.complete(r)) {
+                return;
+            }
+            latency.record(System.nanoTime() - startNanos);
+            if (isHedge) {
+                hedgeWins.increment();
+            }
+            cancelOthers();
+        }
+
+        private void onFailure(Throwable t) {
+            synchronized (this) {
+                // a hedge may be being sent, the failure is final only when all the attempts failed
+                if (++failures < attempts || result.isDone()) {
+                    return;
+                }
+            }
+            result.completeExceptionally(t);
+            cancelOthers();
+        }
+
+        private synchronized void cancelOthers() {
+            if (timer != null) {
+                timer.cancel();
+            }
+            if (primary != null) {
+                primary.cancel(false);
+            }
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Latency of a method, recorded in windows of {@link #WINDOW_SAMPLES}. The delay is recalculated from the
+     * current window every {@link #MIN_SAMPLES} latencies.
+     */
+    static class MethodLatency {
+
+        private final double percentile;
+
+        private final AtomicLong samples = new AtomicLong();
+
+        private volatile LatencyHistogram current = new LatencyHistogram();
+
+        private volatile long delayNanos;
+
+        MethodLatency(double percentile, long defaultDelay) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Invalid " + Constants.HEDGING_PERCENTILE_KEY + " " + percentile
+                        + ", it must be in (0, 100]");
+            }
+            this.percentile = percentile;
+            this.delayNanos = TimeUnit.MILLISECONDS.toNanos(defaultDelay);
+        }
+
+        void record(long nanos) {
+            current.record(nanos);
+            long n = samples.incrementAndGet();
+            if (n % MIN_SAMPLES == 0) {
+                update(n);
+            }
+        }
+
+        private synchronized void update(long n) {
+            delayNanos = current.getPercentile(percentile);
+            if (n % WINDOW_SAMPLES == 0) {
+                current = new LatencyHistogram();
+            }
+        }
+
+        long getDelayNanos() {
+            return delayNanos;
+        }
+    }
+
+    /**
+     * Tokens shared by all the hedging clusters, so the hedges stay within the budget even when many services
+     * slow down together. Every request earns a part of a hedge, up to a burst of {@link #MAX_HEDGES} hedges.
+     */
+    static class HedgingBudget {
+
+        private static final long TOKENS_PER_HEDGE = 1000;
+
+        static final int MAX_HEDGES = 10;
+
+        private final AtomicLong tokens = new AtomicLong(MAX_HEDGES * TOKENS_PER_HEDGE);
+
+        /**
+         * @param percent the percent of a hedge earned by the request
+         */
+        void deposit(int percent) {
+            long earned = percent * TOKENS_PER_HEDGE / 100;
+            long current;
+            long next;
+            do {
+                current = tokens.get();
+                next = Math.min(MAX_HEDGES * TOKENS_PER_HEDGE, current + earned);
+            } while (current != next && !tokens.compareAndSet(current, next));
+        }
+
+        boolean tryAcquire() {
+            long current;
+            do {
+                current = tokens.get();
+                if (current < TOKENS_PER_HEDGE) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - TOKENS_PER_HEDGE));
+            return true;
+        }
+    }
+}
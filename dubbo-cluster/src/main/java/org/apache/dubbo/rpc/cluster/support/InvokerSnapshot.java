@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.rpc.Invoker;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An index of the invokers listed by the directory, built once per list so that the cluster invoker finds an
+ * invoker in constant time instead of scanning the list on every call. Each snapshot has its own generation, so a
+ * position found in a snapshot is known to be valid as long as the generation is the same.
+ */
+final class InvokerSnapshot<T> {
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private final List<Invoker<T>> invokers;
+
+    private final int size;
+
+    private final long generation;
+
+    private final Map<Invoker<T>, Integer> indexes;
+
+    InvokerSnapshot(List<Invoker<T>> invokers) {
+        this.invokers = invokers;
+        this.size = invokers.size();
+        this.generation = GENERATION.incrementAndGet();
+        this.indexes = new IdentityHashMap<>(size);
+        int index = 0;
+        for (Invoker<T> invoker : invokers) {
+            indexes.putIfAbsent(invoker, index++);
+        }
+    }
+
+    /**
+     * @return true if this is a snapshot of the list, which has not changed in size since
+     */
+    boolean isSnapshotOf(List<Invoker<T>> list) {
+        return list == invokers && list.size() == size;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the index of the invoker, or -1 if it is not listed
+     */
+    int indexOf(Invoker<T> invoker) {
+        if (invoker == null) {
+            return -1;
+        }
+        Integer index = indexes.get(invoker);
+        // the list may have been changed in place, trust the index only when it still points to the invoker
+        if (index == null || index >= invokers.size() || invokers.get(index) != invoker) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the invoker is still at the given index
+     */
+    boolean isAt(Invoker<T> invoker, int index) {
+        return index >= 0 && index < invokers.size() && invokers.get(index) == invoker;
+    }
+
+    /**
+     * @param excluded the indexes to leave out, in any order and with duplicates, only the first count are used
+     * @return a view of the invokers without the excluded ones, read through on each access
+     */
+    List<Invoker<T>> exclude(int[] excluded, int count) {
+        int[] sorted = Arrays.copyOf(excluded, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return new ExcludingList<>(invokers, Arrays.copyOf(sorted, distinct));
+    }
+
+    private static class ExcludingList<T> extends AbstractList<Invoker<T>> implements RandomAccess {
+
+        private final List<Invoker<T>> invokers;
+
+        private final int[] excluded;
+
+        ExcludingList(List<Invoker<T>> invokers, int[] excluded) {
+            this.invokers = invokers;
+            this.excluded = excluded;
+        }
+
+        @Override
+        public Invoker<T> get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            // few invokers are excluded, skip over them in order
+            int position = index;
+            for (int e : excluded) {
+                if (e > position) {
+                    break;
+                }
+                position++;
+            }
+            return invokers.get(position);
+        }
+
+        @Override
+        public int size() {
+            return invokers.size() - excluded.length;
+        }
+    }
+}
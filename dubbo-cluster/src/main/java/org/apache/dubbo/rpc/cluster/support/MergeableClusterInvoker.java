@@ -22,7 +22,6 @@ import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ConfigUtils;
-import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
@@ -38,20 +37,16 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @SuppressWarnings("unchecked")
 public class MergeableClusterInvoker<T> extends AbstractClusterInvoker<T> {
 
     private static final Logger log = LoggerFactory.getLogger(MergeableClusterInvoker.class);
-    private ExecutorService executor = Executors.newCachedThreadPool(new NamedThreadFactory("mergeable-cluster-executor", true));
 
     public MergeableClusterInvoker(Directory<T> directory) {
         super(directory);
@@ -86,26 +81,28 @@ public class MergeableClusterInvoker<T> extends AbstractClusterInvoker<T> {
             returnType = null;
         }
 
-        Map<String, Future<Result>> results = new HashMap<String, Future<Result>>();
+        final Map<String, CompletableFuture<Result>> results = new LinkedHashMap<String, CompletableFuture<Result>>();
         for (final Invoker<T> invoker : invokers) {
-            Future<Result> future = executor.submit(new Callable<Result>() {
-                @Override
-                public Result call() throws Exception {
-                    return invoker.invoke(new RpcInvocation(invocation, invoker));
-                }
-            });
-            results.put(invoker.getUrl().getServiceKey(), future);
+            results.put(invoker.getUrl().getServiceKey(), invokeAsync(invoker, new RpcInvocation(invocation, invoker)));
         }
 
+        final String mergerName = merger;
+        final Class<?> resultType = returnType;
+        CompletableFuture<Result> merged = CompletableFuture.allOf(results.values().toArray(new CompletableFuture[0]))
+                .handle((v, t) -> mergeResults(results, mergerName, resultType));
+
+        int timeout = getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        return toResult(invocation, merged, timeout);
+    }
+
+    private Result mergeResults(Map<String, CompletableFuture<Result>> results, String merger, Class<?> returnType) {
         Object result = null;
 
         List<Result> resultList = new ArrayList<Result>(results.size());
 
-        int timeout = getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
-        for (Map.Entry<String, Future<Result>> entry : results.entrySet()) {
-            Future<Result> future = entry.getValue();
+        for (Map.Entry<String, CompletableFuture<Result>> entry : results.entrySet()) {
             try {
-                Result r = future.get(timeout, TimeUnit.MILLISECONDS);
+                Result r = entry.getValue().join();
                 if (r.hasException()) {
                     log.error("Invoke " + getGroupDescFromServiceKey(entry.getKey()) +
                                     " failed: " + r.getException().getMessage(),
@@ -113,8 +110,9 @@ public class MergeableClusterInvoker<T> extends AbstractClusterInvoker<T> {
                 } else {
                     resultList.add(r);
                 }
-            } catch (Exception e) {
-                throw new RpcException("Failed to invoke service " + entry.getKey() + ": " + e.getMessage(), e);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw new RpcException("Failed to invoke service " + entry.getKey() + ": " + cause.getMessage(), cause);
             }
         }
 
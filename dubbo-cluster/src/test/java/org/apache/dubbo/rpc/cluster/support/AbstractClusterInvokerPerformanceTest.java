@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.cluster.directory.StaticDirectory;
+import org.apache.dubbo.rpc.cluster.filter.DemoService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the sticky check and the reselection on indexed invokers with the scans done on lists that are not
+ * indexed, which are given by alternating two copies of the same list.
+ * <p>
+ * mvn test -Dtest=AbstractClusterInvokerPerformanceTest -Dbenchmark=true -Dproviders=1000 -Druns=1000000
+ */
+public class AbstractClusterInvokerPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractClusterInvokerPerformanceTest.class);
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the cluster invoker select benchmark");
+            return;
+        }
+        int providers = Integer.getInteger("providers", 1000);
+        int runs = Integer.getInteger("runs", 1000000);
+
+        List<Invoker<DemoService>> sticky = newInvokers(providers, true);
+        List<Invoker<DemoService>> plain = newInvokers(providers, false);
+        // the load balance picks the last invoker, which was tried already, so that each call reselects
+        LoadBalance last = new LoadBalance() {
+            @Override
+            public <T> Invoker<T> select(List<Invoker<T>> invokers, URL url, Invocation invocation) throws RpcException {
+                return invokers.get(invokers.size() - 1);
+            }
+        };
+        List<Invoker<DemoService>> selected = Collections.singletonList(plain.get(providers - 1));
+
+        long stickyScan = measure(runs, sticky, new ArrayList<>(sticky), last, null);
+        long stickyIndexed = measure(runs, sticky, sticky, last, null);
+        long reselectScan = measure(runs, plain, new ArrayList<>(plain), last, selected);
+        long reselectIndexed = measure(runs, plain, plain, last, selected);
+
+        logger.info("Cluster invoker select of " + runs + " runs with " + providers + " providers, sticky scanned: "
+                + stickyScan / runs + " ns/op, indexed: " + stickyIndexed / runs + " ns/op; reselect scanned: "
+                + reselectScan / runs + " ns/op, indexed: " + reselectIndexed / runs + " ns/op");
+    }
+
+    private static long measure(int runs, List<Invoker<DemoService>> even, List<Invoker<DemoService>> odd,
+                                LoadBalance loadBalance, List<Invoker<DemoService>> selected) {
+        AbstractClusterInvoker<DemoService> cluster = new AbstractClusterInvoker<DemoService>(
+                new StaticDirectory<DemoService>(even.get(0).getUrl(), even, null)) {
+            @Override
+            protected Result doInvoke(Invocation invocation, List<Invoker<DemoService>> invokers, LoadBalance loadbalance) {
+                return null;
+            }
+        };
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("sayHello");
+        // warm up before measuring
+        for (int i = 0; i < runs / 10; i++) {
+            cluster.select(loadBalance, invocation, (i & 1) == 0 ? even : odd, selected);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            Invoker<DemoService> invoker = cluster.select(loadBalance, invocation, (i & 1) == 0 ? even : odd, selected);
+            Assertions.assertNotSame(selected == null ? null : selected.get(0), invoker);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<Invoker<DemoService>> newInvokers(int providers, boolean sticky) {
+        List<Invoker<DemoService>> invokers = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            URL url = URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250) + ":20880/" + DemoService.class.getName()
+                    + "?sticky=" + sticky);
+            invokers.add(new Invoker<DemoService>() {
+                @Override
+                public Class<DemoService> getInterface() {
+                    return DemoService.class;
+                }
+
+                @Override
+                public Result invoke(Invocation invocation) throws RpcException {
+                    return null;
+                }
+
+                @Override
+                public URL getUrl() {
+                    return url;
+                }
+
+                @Override
+                public boolean isAvailable() {
+                    return true;
+                }
+
+                @Override
+                public void destroy() {
+                }
+            });
+        }
+        return invokers;
+    }
+}
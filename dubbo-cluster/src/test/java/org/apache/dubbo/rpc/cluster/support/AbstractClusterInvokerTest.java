@@ -446,6 +446,50 @@ public class AbstractClusterInvokerTest {
 
     }
 
+    @SuppressWarnings({"unchecked"})
+    @Test
+    public void testStickyFollowsInvokersChange() {
+        LoadBalance lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(RandomLoadBalance.NAME);
+        List<Invoker<IHelloService>> stickyInvokers = new ArrayList<Invoker<IHelloService>>();
+        for (int i = 0; i < 10; i++) {
+            stickyInvokers.add(mockStickyInvoker(i));
+        }
+        Invoker<IHelloService> first = cluster.select(lb, invocation, stickyInvokers, null);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertSame(first, cluster.select(lb, invocation, stickyInvokers, null));
+        }
+
+        // replaced in place, the sticky invoker is not listed any more
+        stickyInvokers.set(stickyInvokers.indexOf(first), mockStickyInvoker(10));
+        Invoker<IHelloService> second = cluster.select(lb, invocation, stickyInvokers, null);
+        Assertions.assertNotSame(first, second);
+
+        // a new list from the directory keeps the sticky invoker while it is listed
+        List<Invoker<IHelloService>> changed = new ArrayList<Invoker<IHelloService>>(stickyInvokers);
+        changed.add(mockStickyInvoker(11));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertSame(second, cluster.select(lb, invocation, changed, null));
+        }
+
+        // the tried invokers are left out
+        List<Invoker<IHelloService>> selected = new ArrayList<Invoker<IHelloService>>(changed.subList(0, 5));
+        selected.add(second);
+        for (int i = 0; i < 100; i++) {
+            Invoker<IHelloService> invoker = cluster.select(lb, invocation, changed, selected);
+            Assertions.assertTrue(changed.contains(invoker));
+            Assertions.assertFalse(selected.contains(invoker));
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private Invoker<IHelloService> mockStickyInvoker(int port) {
+        Invoker<IHelloService> invoker = mock(Invoker.class);
+        given(invoker.isAvailable()).willReturn(true);
+        given(invoker.getInterface()).willReturn(IHelloService.class);
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://test:" + (port + 1) + "/test?sticky=true"));
+        return invoker;
+    }
+
     private void initlistsize5() {
         invokers.clear();
         selectedInvokers.clear();//Clear first, previous test case will make sure that the right invoker2 will be used.
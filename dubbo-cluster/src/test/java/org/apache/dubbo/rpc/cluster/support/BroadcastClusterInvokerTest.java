@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.cluster.Directory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * BroadcastClusterInvokerTest
+ */
+@SuppressWarnings("unchecked")
+public class BroadcastClusterInvokerTest {
+
+    private List<Invoker<BroadcastClusterInvokerTest>> invokers = new ArrayList<Invoker<BroadcastClusterInvokerTest>>();
+    private URL url = URL.valueOf("test://test:11/test?timeout=3000");
+    private RpcInvocation invocation = new RpcInvocation();
+    private Directory<BroadcastClusterInvokerTest> dic;
+    private CountDownLatch sent;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dic = mock(Directory.class);
+
+        given(dic.getUrl()).willReturn(url);
+        given(dic.list(invocation)).willReturn(invokers);
+        given(dic.getInterface()).willReturn(BroadcastClusterInvokerTest.class);
+
+        invocation.setMethodName("method1");
+        sent = new CountDownLatch(3);
+    }
+
+    /**
+     * the response of the invoker is only returned after the requests to all the invokers are sent
+     */
+    private Invoker<BroadcastClusterInvokerTest> addInvoker(Result result) {
+        Invoker<BroadcastClusterInvokerTest> invoker = mock(Invoker.class);
+        given(invoker.getUrl()).willReturn(url);
+        given(invoker.isAvailable()).willReturn(true);
+        given(invoker.getInterface()).willReturn(BroadcastClusterInvokerTest.class);
+        given(invoker.invoke(any(Invocation.class))).willAnswer(invocationOnMock -> {
+            sent.countDown();
+            CompletableFuture<Result> future = new CompletableFuture<>();
+            new Thread(() -> {
+                try {
+                    if (sent.await(1, TimeUnit.SECONDS)) {
+                        future.complete(result);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }).start();
+            return new SimpleAsyncRpcResult(new CompletableFuture<>(), future, false);
+        });
+        invokers.add(invoker);
+        return invoker;
+    }
+
+    @Test
+    public void testInvokeAllBeforeResponses() {
+        addInvoker(new RpcResult("1"));
+        addInvoker(new RpcResult("2"));
+        addInvoker(new RpcResult("3"));
+
+        BroadcastClusterInvoker<BroadcastClusterInvokerTest> invoker = new BroadcastClusterInvoker<BroadcastClusterInvokerTest>(dic);
+        Result result = invoker.invoke(invocation);
+        Assertions.assertEquals("3", result.getValue());
+    }
+
+    @Test
+    public void testInvokeException() {
+        addInvoker(new RpcResult("1"));
+        Invoker<BroadcastClusterInvokerTest> failed = mock(Invoker.class);
+        given(failed.getUrl()).willReturn(url);
+        given(failed.isAvailable()).willReturn(true);
+        given(failed.invoke(any(Invocation.class))).willAnswer(invocationOnMock -> {
+            sent.countDown();
+            throw new RpcException(RpcException.NETWORK_EXCEPTION, "broken");
+        });
+        invokers.add(failed);
+        addInvoker(new RpcResult("3"));
+
+        BroadcastClusterInvoker<BroadcastClusterInvokerTest> invoker = new BroadcastClusterInvoker<BroadcastClusterInvokerTest>(dic);
+        try {
+            invoker.invoke(invocation);
+            Assertions.fail();
+        } catch (RpcException expected) {
+            Assertions.assertEquals(RpcException.NETWORK_EXCEPTION, expected.getCode());
+            Assertions.assertEquals("broken", expected.getMessage());
+        }
+    }
+
+}
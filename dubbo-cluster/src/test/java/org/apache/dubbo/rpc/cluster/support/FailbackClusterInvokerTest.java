@@ -17,9 +17,13 @@
  */
 package org.apache.dubbo.rpc.cluster.support;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.store.DataStore;
 import org.apache.dubbo.common.utils.DubboAppender;
 import org.apache.dubbo.common.utils.LogUtil;
+import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcContext;
@@ -36,14 +40,20 @@ import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -172,4 +182,47 @@ public class FailbackClusterInvokerTest {
         Assertions.assertEquals(1, LogUtil.findMessage(Level.ERROR, "Failback background works error"), "must have one error message ");
         // it can be invoke successfully
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(5)
+    public void testReplayFromJournal(@TempDir Path dir) throws Exception {
+        URL journalUrl = url.addParameter(Constants.FAIL_BACK_JOURNAL_KEY, dir.toString());
+        given(dic.getUrl()).willReturn(journalUrl);
+        given(dic.list(any(Invocation.class))).willReturn(invokers);
+        given(invoker.getUrl()).willReturn(journalUrl);
+        given(invoker.getInterface()).willReturn(FailbackClusterInvokerTest.class);
+        willThrow(new RuntimeException()).given(invoker).invoke(any(Invocation.class));
+        invocation.setParameterTypes(new Class<?>[]{String.class});
+        invocation.setArguments(new Object[]{"hello"});
+        invocation.setAttachment("key", "value");
+
+        FailbackClusterInvoker<FailbackClusterInvokerTest> failback = new FailbackClusterInvoker<FailbackClusterInvokerTest>(dic);
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Assertions.assertTrue(dataStore.get(FailbackClusterInvoker.class.getName()).containsValue(failback));
+        failback.invoke(invocation);
+        Assertions.assertEquals(1, failback.getPendingRetryCount());
+        failback.destroy();
+        Assertions.assertFalse(dataStore.get(FailbackClusterInvoker.class.getName()).containsValue(failback));
+
+        // the provider recovers while the consumer restarts
+        List<Invocation> replayed = new CopyOnWriteArrayList<Invocation>();
+        willAnswer(i -> {
+            replayed.add(i.getArgument(0));
+            return result;
+        }).given(invoker).invoke(any(Invocation.class));
+        failback = new FailbackClusterInvoker<FailbackClusterInvokerTest>(dic);
+        Assertions.assertEquals(1, failback.getPendingRetryCount());
+        Assertions.assertTrue(failback.getOldestPendingRetryAge() >= 0);
+        long deadline = System.currentTimeMillis() + 15000;
+        while (failback.getPendingRetryCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        failback.destroy();
+
+        Assertions.assertEquals(0, failback.getPendingRetryCount());
+        Assertions.assertEquals(1, replayed.size());
+        Assertions.assertEquals("method1", replayed.get(0).getMethodName());
+        Assertions.assertArrayEquals(new Object[]{"hello"}, replayed.get(0).getArguments());
+        Assertions.assertEquals("value", replayed.get(0).getAttachment("key"));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+public class FailbackJournalTest {
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(FailbackJournal journal, long position) {
+        return new String(journal.read(position), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAppendAndComplete(@TempDir Path dir) throws Exception {
+        try (FailbackJournal journal = new FailbackJournal(new File(dir.toFile(), "test.journal"), 1024)) {
+            Assertions.assertEquals(0, journal.getOldestPendingTime());
+            Assertions.assertTrue(journal.append(payload("a")));
+            Assertions.assertTrue(journal.append(payload("bb")));
+            Assertions.assertTrue(journal.append(payload("ccc")));
+            Assertions.assertEquals(3, journal.getPendingCount());
+            Assertions.assertTrue(journal.getOldestPendingTime() > 0);
+
+            long a = journal.next(0);
+            long b = journal.next(journal.skip(a));
+            long c = journal.next(journal.skip(b));
+            Assertions.assertEquals("a", read(journal, a));
+            Assertions.assertEquals("bb", read(journal, b));
+            Assertions.assertEquals("ccc", read(journal, c));
+            Assertions.assertEquals(-1, journal.next(journal.skip(c)));
+
+            // completed out of order
+            journal.complete(b);
+            Assertions.assertEquals(2, journal.getPendingCount());
+            Assertions.assertEquals(c, journal.next(journal.skip(a)));
+            journal.complete(a);
+            Assertions.assertEquals(c, journal.next(0));
+            Assertions.assertEquals(1, journal.attempt(c));
+            Assertions.assertEquals(2, journal.attempt(c));
+            journal.complete(c);
+            journal.complete(c);
+            Assertions.assertEquals(0, journal.getPendingCount());
+            Assertions.assertEquals(-1, journal.next(0));
+        }
+    }
+
+    @Test
+    public void testReopen(@TempDir Path dir) throws Exception {
+        File file = new File(dir.toFile(), "test.journal");
+        try (FailbackJournal journal = new FailbackJournal(file, 1024)) {
+            journal.append(payload("a"));
+            journal.append(payload("b"));
+            journal.append(payload("c"));
+            long a = journal.next(0);
+            journal.attempt(a);
+            journal.complete(journal.next(journal.skip(a)));
+
+            Assertions.assertThrows(IOException.class, () -> new FailbackJournal(file, 1024));
+        }
+        try (FailbackJournal journal = new FailbackJournal(file, 1024)) {
+            Assertions.assertEquals(2, journal.getPendingCount());
+            long a = journal.next(0);
+            Assertions.assertEquals("a", read(journal, a));
+            Assertions.assertEquals(2, journal.attempt(a));
+            Assertions.assertEquals("c", read(journal, journal.next(journal.skip(a))));
+        }
+    }
+
+    @Test
+    public void testBounded(@TempDir Path dir) throws Exception {
+        try (FailbackJournal journal = new FailbackJournal(new File(dir.toFile(), "test.journal"), 256)) {
+            byte[] payload = new byte[50];
+            int appended = 0;
+            while (journal.append(payload)) {
+                appended++;
+            }
+            // header of 20 bytes, records of 17 + 50 bytes
+            Assertions.assertEquals(3, appended);
+            Assertions.assertEquals(256, journal.getSize());
+
+            // completing the first record makes room, the others are moved to the start of the file
+            long first = journal.next(0);
+            long second = journal.next(journal.skip(first));
+            journal.complete(first);
+            Assertions.assertTrue(journal.append(payload));
+            Assertions.assertTrue(journal.append(payload("d")));
+            Assertions.assertFalse(journal.append(payload));
+
+            // positions given out before the move are still valid
+            Assertions.assertEquals(second, journal.next(0));
+            Assertions.assertEquals(50, journal.read(second).length);
+            long third = journal.next(journal.skip(second));
+            long fourth = journal.next(journal.skip(third));
+            long fifth = journal.next(journal.skip(fourth));
+            Assertions.assertEquals("d", read(journal, fifth));
+            Assertions.assertEquals(4, journal.getPendingCount());
+            journal.complete(second);
+            journal.complete(third);
+            journal.complete(fourth);
+            journal.complete(fifth);
+            Assertions.assertEquals(0, journal.getPendingCount());
+
+            appended = 0;
+            while (journal.append(payload)) {
+                appended++;
+            }
+            Assertions.assertEquals(3, appended);
+        }
+    }
+}
@@ -16,13 +16,17 @@
  */
 package org.apache.dubbo.rpc.cluster.support;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.RpcResult;
 import org.apache.dubbo.rpc.RpcContext;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
 import org.apache.dubbo.rpc.cluster.Directory;
 
 import org.junit.jupiter.api.Assertions;
@@ -32,8 +36,12 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
@@ -70,34 +78,34 @@ public class ForkingClusterInvokerTest {
     }
 
     private void resetInvokerToException() {
-        given(invoker1.invoke(invocation)).willThrow(new RuntimeException());
+        given(invoker1.invoke(any(Invocation.class))).willThrow(new RuntimeException());
         given(invoker1.getUrl()).willReturn(url);
         given(invoker1.isAvailable()).willReturn(true);
         given(invoker1.getInterface()).willReturn(ForkingClusterInvokerTest.class);
 
-        given(invoker2.invoke(invocation)).willThrow(new RuntimeException());
+        given(invoker2.invoke(any(Invocation.class))).willThrow(new RuntimeException());
         given(invoker2.getUrl()).willReturn(url);
         given(invoker2.isAvailable()).willReturn(true);
         given(invoker2.getInterface()).willReturn(ForkingClusterInvokerTest.class);
 
-        given(invoker3.invoke(invocation)).willThrow(new RuntimeException());
+        given(invoker3.invoke(any(Invocation.class))).willThrow(new RuntimeException());
         given(invoker3.getUrl()).willReturn(url);
         given(invoker3.isAvailable()).willReturn(true);
         given(invoker3.getInterface()).willReturn(ForkingClusterInvokerTest.class);
     }
 
     private void resetInvokerToNoException() {
-        given(invoker1.invoke(invocation)).willReturn(result);
+        given(invoker1.invoke(any(Invocation.class))).willReturn(result);
         given(invoker1.getUrl()).willReturn(url);
         given(invoker1.isAvailable()).willReturn(true);
         given(invoker1.getInterface()).willReturn(ForkingClusterInvokerTest.class);
 
-        given(invoker2.invoke(invocation)).willReturn(result);
+        given(invoker2.invoke(any(Invocation.class))).willReturn(result);
         given(invoker2.getUrl()).willReturn(url);
         given(invoker2.isAvailable()).willReturn(true);
         given(invoker2.getInterface()).willReturn(ForkingClusterInvokerTest.class);
 
-        given(invoker3.invoke(invocation)).willReturn(result);
+        given(invoker3.invoke(any(Invocation.class))).willReturn(result);
         given(invoker3.getUrl()).willReturn(url);
         given(invoker3.isAvailable()).willReturn(true);
         given(invoker3.getInterface()).willReturn(ForkingClusterInvokerTest.class);
@@ -153,4 +161,49 @@ public class ForkingClusterInvokerTest {
         Assertions.assertSame(result, ret);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testInvokeAsyncFirstResultWins() {
+        CompletableFuture<Result> slow = new CompletableFuture<>();
+        RpcResult fast = new RpcResult("fast");
+        resetInvokerToNoException();
+        given(invoker1.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(new CompletableFuture<>(), slow, false));
+        given(invoker2.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(CompletableFuture.completedFuture("fast"), CompletableFuture.completedFuture(fast), false));
+        given(invoker3.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(new CompletableFuture<>(), slow, false));
+
+        URL forkAll = URL.valueOf("test://test:11/test?forks=3&timeout=1000");
+        given(dic.getUrl()).willReturn(forkAll);
+        ForkingClusterInvoker<ForkingClusterInvokerTest> invoker = new ForkingClusterInvoker<ForkingClusterInvokerTest>(
+                dic);
+        Result ret = invoker.invoke(invocation);
+        Assertions.assertSame(fast, ret);
+    }
+
+    @Test
+    public void testInvokeAsyncCaller() throws Exception {
+        CompletableFuture<Result> first = new CompletableFuture<>();
+        resetInvokerToNoException();
+        given(invoker1.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(new CompletableFuture<>(), first, false));
+        given(invoker2.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(new CompletableFuture<>(), new CompletableFuture<>(), false));
+        given(invoker3.invoke(any(Invocation.class))).willReturn(
+                new SimpleAsyncRpcResult(new CompletableFuture<>(), new CompletableFuture<>(), false));
+
+        given(dic.getUrl()).willReturn(URL.valueOf("test://test:11/test?forks=3"));
+        invocation.setAttachment(Constants.ASYNC_KEY, "true");
+        ForkingClusterInvoker<ForkingClusterInvokerTest> invoker = new ForkingClusterInvoker<ForkingClusterInvokerTest>(
+                dic);
+        Result ret = invoker.invoke(invocation);
+        Assertions.assertTrue(ret instanceof AsyncRpcResult);
+        Future<Object> future = RpcContext.getContext().getFuture();
+        assertFalse(future.isDone());
+
+        first.complete(new RpcResult("value"));
+        Assertions.assertEquals("value", future.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals("value", ret.getValue());
+    }
+
+}
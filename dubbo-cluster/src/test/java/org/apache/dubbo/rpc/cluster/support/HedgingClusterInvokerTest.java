@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.cluster.Directory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * HedgingClusterInvokerTest
+ */
+@SuppressWarnings("unchecked")
+public class HedgingClusterInvokerTest {
+
+    private List<Invoker<HedgingClusterInvokerTest>> invokers = new ArrayList<Invoker<HedgingClusterInvokerTest>>();
+    private URL url = URL.valueOf("test://test:11/test?hedging.delay=20&timeout=3000");
+    private Invoker<HedgingClusterInvokerTest> invoker1 = mock(Invoker.class);
+    private Invoker<HedgingClusterInvokerTest> invoker2 = mock(Invoker.class);
+    private RpcInvocation invocation = new RpcInvocation();
+    private Directory<HedgingClusterInvokerTest> dic;
+    private AtomicInteger calls = new AtomicInteger();
+    private List<CompletableFuture<Object>> valueFutures = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dic = mock(Directory.class);
+
+        given(dic.getUrl()).willReturn(url);
+        given(dic.list(invocation)).willReturn(invokers);
+        given(dic.getInterface()).willReturn(HedgingClusterInvokerTest.class);
+
+        invocation.setMethodName("method1");
+
+        for (Invoker<HedgingClusterInvokerTest> invoker : new Invoker[]{invoker1, invoker2}) {
+            given(invoker.getUrl()).willReturn(url);
+            given(invoker.isAvailable()).willReturn(true);
+            given(invoker.getInterface()).willReturn(HedgingClusterInvokerTest.class);
+            invokers.add(invoker);
+        }
+    }
+
+    /**
+     * the n-th request of the cluster is answered with the result, or never answered if it is null
+     */
+    private void answer(Result... results) {
+        for (Invoker<HedgingClusterInvokerTest> invoker : invokers) {
+            given(invoker.invoke(any(Invocation.class))).willAnswer(invocationOnMock -> {
+                Result result = results[calls.getAndIncrement()];
+                CompletableFuture<Object> valueFuture = new CompletableFuture<>();
+                valueFutures.add(valueFuture);
+                if (result == null) {
+                    return new SimpleAsyncRpcResult(valueFuture, new CompletableFuture<>(), false);
+                }
+                if (result.hasException()) {
+                    throw result.getException();
+                }
+                return new SimpleAsyncRpcResult(valueFuture, CompletableFuture.completedFuture(result), false);
+            });
+        }
+    }
+
+    @Test
+    public void testNoHedgeWhenFast() {
+        answer(new RpcResult("first"));
+
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+        Result result = invoker.invoke(invocation);
+        Assertions.assertEquals("first", result.getValue());
+        Assertions.assertEquals(1, invoker.getRequestCount());
+        Assertions.assertEquals(0, invoker.getHedgeCount());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testHedgeWhenSlow() {
+        answer(null, new RpcResult("hedge"));
+
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+        Result result = invoker.invoke(invocation);
+        Assertions.assertEquals("hedge", result.getValue());
+        Assertions.assertEquals(1, invoker.getHedgeCount());
+        Assertions.assertEquals(1, invoker.getHedgeWinCount());
+        // the first request is no longer waited for
+        Assertions.assertTrue(valueFutures.get(0).isCancelled());
+    }
+
+    @Test
+    public void testHedgeSentOffTimerThread() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        for (Invoker<HedgingClusterInvokerTest> invoker : invokers) {
+            given(invoker.invoke(any(Invocation.class))).willAnswer(invocationOnMock -> {
+                threads.add(Thread.currentThread().getName());
+                if (calls.getAndIncrement() == 0) {
+                    return new SimpleAsyncRpcResult(new CompletableFuture<>(), new CompletableFuture<>(), false);
+                }
+                return new RpcResult("hedge");
+            });
+        }
+
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+        Assertions.assertEquals("hedge", invoker.invoke(invocation).getValue());
+        Assertions.assertEquals(2, threads.size());
+        Assertions.assertTrue(threads.get(1).startsWith("dubbo-hedging-thread"), threads.get(1));
+    }
+
+    @Test
+    public void testPublishedInDataStore() {
+        answer(null, new RpcResult("hedge"), new RpcResult("first"));
+
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Assertions.assertTrue(dataStore.get(HedgingClusterInvoker.class.getName()).containsValue(invoker));
+        invoker.invoke(invocation);
+        invoker.invoke(invocation);
+        Assertions.assertEquals(0.5, invoker.getHedgeRate());
+        Assertions.assertEquals(1.0, invoker.getHedgeWinRate());
+
+        invoker.destroy();
+        Assertions.assertFalse(dataStore.get(HedgingClusterInvoker.class.getName()).containsValue(invoker));
+    }
+
+    @Test
+    public void testFailWhenFirstFailsBeforeHedge() {
+        answer(new RpcResult(new RpcException(RpcException.NETWORK_EXCEPTION, "broken")), new RpcResult("hedge"));
+
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+        try {
+            invoker.invoke(invocation);
+            Assertions.fail();
+        } catch (RpcException expected) {
+            Assertions.assertEquals(RpcException.NETWORK_EXCEPTION, expected.getCode());
+        }
+        Assertions.assertEquals(0, invoker.getHedgeCount());
+    }
+
+    @Test
+    public void testDelayFollowsLatency() {
+        HedgingClusterInvoker.MethodLatency latency = new HedgingClusterInvoker.MethodLatency(90, 100);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), latency.getDelayNanos());
+        for (int i = 1; i <= 100; i++) {
+            latency.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        long delay = TimeUnit.NANOSECONDS.toMillis(latency.getDelayNanos());
+        Assertions.assertTrue(delay >= 90 && delay <= 90 * 1.25, "delay " + delay);
+    }
+
+    @Test
+    public void testBudget() {
+        HedgingClusterInvoker.HedgingBudget budget = new HedgingClusterInvoker.HedgingBudget();
+        for (int i = 0; i < HedgingClusterInvoker.HedgingBudget.MAX_HEDGES; i++) {
+            Assertions.assertTrue(budget.tryAcquire());
+        }
+        Assertions.assertFalse(budget.tryAcquire());
+
+        for (int i = 0; i < 9; i++) {
+            budget.deposit(10);
+        }
+        Assertions.assertFalse(budget.tryAcquire());
+        budget.deposit(10);
+        Assertions.assertTrue(budget.tryAcquire());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.cluster.filter.DemoService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings("unchecked")
+public class InvokerSnapshotTest {
+
+    private static List<Invoker<DemoService>> newInvokers(int size) {
+        List<Invoker<DemoService>> invokers = new ArrayList<Invoker<DemoService>>();
+        for (int i = 0; i < size; i++) {
+            invokers.add(mock(Invoker.class));
+        }
+        return invokers;
+    }
+
+    @Test
+    public void testIndexOf() {
+        List<Invoker<DemoService>> invokers = newInvokers(10);
+        InvokerSnapshot<DemoService> snapshot = new InvokerSnapshot<DemoService>(invokers);
+        InvokerSnapshot<DemoService> other = new InvokerSnapshot<DemoService>(invokers);
+        Assertions.assertNotEquals(snapshot.getGeneration(), other.getGeneration());
+        Assertions.assertTrue(snapshot.isSnapshotOf(invokers));
+        Assertions.assertFalse(snapshot.isSnapshotOf(new ArrayList<Invoker<DemoService>>(invokers)));
+        for (int i = 0; i < invokers.size(); i++) {
+            Assertions.assertEquals(i, snapshot.indexOf(invokers.get(i)));
+            Assertions.assertTrue(snapshot.isAt(invokers.get(i), i));
+        }
+        Assertions.assertEquals(-1, snapshot.indexOf(mock(Invoker.class)));
+        Assertions.assertEquals(-1, snapshot.indexOf(null));
+
+        // changed in place
+        Invoker<DemoService> removed = invokers.set(3, mock(Invoker.class));
+        Assertions.assertEquals(-1, snapshot.indexOf(removed));
+        Assertions.assertFalse(snapshot.isAt(removed, 3));
+        invokers.remove(9);
+        Assertions.assertFalse(snapshot.isSnapshotOf(invokers));
+    }
+
+    @Test
+    public void testExclude() {
+        List<Invoker<DemoService>> invokers = newInvokers(10);
+        InvokerSnapshot<DemoService> snapshot = new InvokerSnapshot<DemoService>(invokers);
+
+        List<Invoker<DemoService>> view = snapshot.exclude(new int[]{9, 0, 4, 4, 5, -1}, 5);
+        List<Invoker<DemoService>> expected = new ArrayList<Invoker<DemoService>>(invokers);
+        expected.removeAll(Arrays.asList(invokers.get(0), invokers.get(4), invokers.get(5), invokers.get(9)));
+        Assertions.assertEquals(expected, view);
+        Assertions.assertEquals(6, view.size());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> view.get(6));
+
+        Assertions.assertEquals(invokers, snapshot.exclude(new int[0], 0));
+        Assertions.assertTrue(snapshot.exclude(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, 10).isEmpty());
+    }
+}
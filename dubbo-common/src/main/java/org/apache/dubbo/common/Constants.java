@@ -77,6 +77,10 @@ public class Constants {
 
     public static final String CACHE_KEY = "cache";
 
+    public static final String CACHE_KEY_GENERATOR_KEY = "cache.key";
+
+    public static final String COALESCE_KEY = "coalesce";
+
     public static final String DYNAMIC_KEY = "dynamic";
 
     public static final String STATUS_KEY = "status";
@@ -142,6 +146,12 @@ public class Constants {
 
     public static final int DEFAULT_FORKS = 2;
 
+    public static final int DEFAULT_HEDGING_PERCENTILE = 95;
+
+    public static final int DEFAULT_HEDGING_DELAY = 100;
+
+    public static final int DEFAULT_HEDGING_BUDGET = 10;
+
     public static final String DEFAULT_THREAD_NAME = "Dubbo";
 
     public static final int DEFAULT_CORE_THREADS = 0;
@@ -181,6 +191,10 @@ public class Constants {
 
     public static final int DEFAULT_FAILBACK_TIMES = 3;
 
+    public static final int DEFAULT_FAILBACK_JOURNAL_SIZE = 4 * 1024 * 1024;
+
+    public static final int DEFAULT_FAILBACK_REPLAY_RATE = 100;
+
     public static final int MAX_PROXY_COUNT = 65535;
 
     /**
@@ -267,6 +281,12 @@ public class Constants {
 
     public static final String FORKS_KEY = "forks";
 
+    public static final String HEDGING_PERCENTILE_KEY = "hedging.percentile";
+
+    public static final String HEDGING_DELAY_KEY = "hedging.delay";
+
+    public static final String HEDGING_BUDGET_KEY = "hedging.budget";
+
     public static final String DEFAULT_THREADPOOL = "limited";
 
     public static final String DEFAULT_CLIENT_THREADPOOL = "cached";
@@ -285,6 +305,15 @@ public class Constants {
 
     public static final String ALIVE_KEY = "alive";
 
+    /**
+     * the queue wait target in milliseconds of the monitored thread pool, the core threads are resized to meet it
+     */
+    public static final String QUEUE_WAIT_TARGET_KEY = "queue.wait.target";
+
+    public static final String CORE_THREADS_ADJUST_INTERVAL_KEY = "corethreads.adjust.interval";
+
+    public static final int DEFAULT_CORE_THREADS_ADJUST_INTERVAL = 1000;
+
     public static final String EXECUTES_KEY = "executes";
 
     public static final String BUFFER_KEY = "buffer";
@@ -301,6 +330,19 @@ public class Constants {
 
     public static final String ACCESS_LOG_KEY = "accesslog";
 
+    /**
+     * The number of access log entries buffered for the writer, rounded up to a power of two
+     */
+    public static final String ACCESS_LOG_BUFFER_KEY = "accesslog.buffer";
+
+    public static final int DEFAULT_ACCESS_LOG_BUFFER = 8192;
+
+    /**
+     * What to do when the access log buffer is full: "drop" the entry, or "block" the caller until the writer makes
+     * room or the flush interval elapses
+     */
+    public static final String ACCESS_LOG_POLICY_KEY = "accesslog.policy";
+
     public static final String ACTIVES_KEY = "actives";
 
     public static final String CONNECTIONS_KEY = "connections";
@@ -338,6 +380,21 @@ public class Constants {
 
     public static final String FAIL_BACK_TASKS_KEY = "failbacktasks";
 
+    /**
+     * The directory of the journals that keep the failed invocations of the failback cluster across restarts
+     */
+    public static final String FAIL_BACK_JOURNAL_KEY = "failback.journal";
+
+    /**
+     * The max size in bytes of a failback journal, failed invocations that do not fit are abandoned
+     */
+    public static final String FAIL_BACK_JOURNAL_SIZE_KEY = "failback.journal.size";
+
+    /**
+     * The max number of failed invocations replayed per second from a failback journal
+     */
+    public static final String FAIL_BACK_REPLAY_RATE_KEY = "failback.replay.rate";
+
     public static final String PROMPT_KEY = "prompt";
 
     public static final String DEFAULT_PROMPT = "dubbo>";
@@ -638,6 +695,30 @@ public class Constants {
 
     public static final String SHUTDOWN_WAIT_KEY = "dubbo.service.shutdown.wait";
 
+    /**
+     * Export and refer services concurrently on startup
+     */
+    public static final String PARALLEL_BOOTSTRAP_KEY = "dubbo.bootstrap.parallel";
+
+    public static final String PARALLEL_BOOTSTRAP_THREADS_KEY = "dubbo.bootstrap.threads";
+
+    /**
+     * Record nested phase timings of service export and reference on startup
+     */
+    public static final String STARTUP_TRACE_KEY = "dubbo.startup.trace";
+
+    /**
+     * Warm up the generated Wrapper and Proxy classes of exported and referred services in background
+     */
+    public static final String STARTUP_WARMUP_KEY = "dubbo.startup.warmup";
+
+    public static final String STARTUP_WARMUP_ITERATIONS_KEY = "dubbo.startup.warmup.iterations";
+
+    /**
+     * File to write the AppCDS class list of the generated classes into
+     */
+    public static final String STARTUP_CLASS_LIST_KEY = "dubbo.startup.classlist";
+
     public static final String IS_SERVER_KEY = "isserver";
 
     /**
@@ -715,6 +796,37 @@ public class Constants {
 
     public static final boolean DEFAULT_DECODE_IN_IO_THREAD = true;
 
+    /**
+     * Whether the provider accepts requests encoded with a per connection string dictionary
+     */
+    public static final String CODEC_DICTIONARY_KEY = "codec.dictionary";
+
+    /**
+     * The compressor of the message bodies, negotiated through the provider url
+     */
+    public static final String COMPRESSOR_KEY = "compressor";
+
+    /**
+     * Message bodies not larger than the threshold in bytes are sent uncompressed, a negative value disables
+     * compression, can be set per method
+     */
+    public static final String COMPRESS_THRESHOLD_KEY = "compress.threshold";
+
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 8 * 1024;
+
+    /**
+     * The attachment asking the provider to send the elements of the returned iterator or stream one by one, its
+     * value is the number of elements the provider may send ahead of the ones taken by the consumer
+     */
+    public static final String STREAM_KEY = "stream";
+
+    /**
+     * The number of elements of a streamed result sent ahead of the ones taken by the consumer, can be set per method
+     */
+    public static final String STREAM_WINDOW_KEY = "stream.window";
+
+    public static final int DEFAULT_STREAM_WINDOW = 64;
+
     public static final String INPUT_KEY = "input";
 
     public static final String OUTPUT_KEY = "output";
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the names of the adaptive extension, {@link Wrapper} and {@link Proxy} classes created in this JVM, keyed by
+ * their {@link PrecompiledClassGenerator} spec. Only names are kept, so no class loader is held.
+ * <p>
+ * Classes generated at runtime are defined by javassist and can not be archived by AppCDS, so
+ * {@link #writeClassList(File)} lists the classes they are made for and the precompiled ones, and
+ * {@link #writeSpecs(File)} lists the specs of the runtime generated ones to be precompiled by the next build.
+ */
+public final class GeneratedClasses {
+
+    private static final Map<String, Entry> ENTRIES = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private GeneratedClasses() {
+    }
+
+    public static void addAdaptive(Class<?> type, Class<?> adaptive, boolean precompiled) {
+        add("adaptive:" + type.getName(), adaptive, precompiled, type);
+    }
+
+    static void addWrapper(Class<?> type, Class<?> wrapper, boolean precompiled) {
+        add("wrapper:" + type.getName(), wrapper, precompiled, type);
+    }
+
+    static void addProxy(Class<?>[] interfaces, Class<?> proxy, boolean precompiled) {
+        StringBuilder spec = new StringBuilder("proxy:");
+        for (int i = 0; i < interfaces.length; i++) {
+            if (i > 0) {
+                spec.append(',');
+            }
+            spec.append(interfaces[i].getName());
+        }
+        add(spec.toString(), proxy, precompiled, interfaces);
+    }
+
+    private static void add(String spec, Class<?> generated, boolean precompiled, Class<?>... sources) {
+        List<String> classList = new ArrayList<>();
+        for (Class<?> source : sources) {
+            addClassName(classList, source);
+        }
+        if (precompiled) {
+            addClassName(classList, generated);
+            for (Class<?> nested : generated.getDeclaredClasses()) {
+                addClassName(classList, nested);
+            }
+        }
+        ENTRIES.put(spec, new Entry(generated.getName(), precompiled, classList));
+        VERSION.incrementAndGet();
+    }
+
+    private static void addClassName(List<String> names, Class<?> type) {
+        // classes of the bootstrap class loader are in the default class list of the JDK already
+        if (type.getClassLoader() != null) {
+            names.add(type.getName().replace('.', '/'));
+        }
+    }
+
+    /**
+     * @return spec -> name of the generated class, in creation order
+     */
+    public static Map<String, String> getClasses() {
+        Map<String, String> classes = new LinkedHashMap<>();
+        synchronized (ENTRIES) {
+            for (Map.Entry<String, Entry> entry : ENTRIES.entrySet()) {
+                classes.put(entry.getKey(), entry.getValue().generated);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * @return a number changed by every recorded class
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * @return specs of the classes generated at runtime, the arguments of {@link PrecompiledClassGenerator}
+     */
+    public static List<String> getRuntimeSpecs() {
+        List<String> specs = new ArrayList<>();
+        synchronized (ENTRIES) {
+            for (Map.Entry<String, Entry> entry : ENTRIES.entrySet()) {
+                if (!entry.getValue().precompiled) {
+                    specs.add(entry.getKey());
+                }
+            }
+        }
+        return specs;
+    }
+
+    /**
+     * @return names of the classes which can be archived, in the internal form of an AppCDS class list
+     */
+    public static List<String> getClassList() {
+        Set<String> names = new LinkedHashSet<>();
+        synchronized (ENTRIES) {
+            for (Entry entry : ENTRIES.values()) {
+                names.addAll(entry.classList);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * write the class list for <code>-XX:SharedClassListFile</code>
+     */
+    public static void writeClassList(File file) throws IOException {
+        write(file, getClassList());
+    }
+
+    /**
+     * write the specs of the runtime generated classes, one per line
+     */
+    public static void writeSpecs(File file) throws IOException {
+        write(file, getRuntimeSpecs());
+    }
+
+    private static void write(File file, List<String> lines) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory " + parent);
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+
+        private final String generated;
+
+        private final boolean precompiled;
+
+        /**
+         * archivable class names in the internal form
+         */
+        private final List<String> classList;
+
+        Entry(String generated, boolean precompiled, List<String> classList) {
+            this.generated = generated;
+            this.precompiled = precompiled;
+            this.classList = classList;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import org.apache.dubbo.common.extension.AdaptiveClassCodeGenerator;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.ReflectUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Build time generator of the adaptive extension, {@link Wrapper} and {@link Proxy} classes.
+ * <p>
+ * Usage: <code>PrecompiledClassGenerator &lt;output dir&gt; &lt;spec&gt;...</code>, each spec is one of
+ * <ul>
+ * <li><code>adaptive:org.apache.dubbo.rpc.Protocol</code></li>
+ * <li><code>wrapper:com.foo.DemoServiceImpl</code></li>
+ * <li><code>proxy:com.foo.DemoService,org.apache.dubbo.rpc.service.EchoService</code></li>
+ * </ul>
+ * Run it with the exec-maven-plugin in the <code>generate-sources</code> phase and add the output dir as a source
+ * root, the classes are then compiled into the jar and preferred at runtime over the javassist generated ones.
+ */
+public class PrecompiledClassGenerator {
+
+    private static final String ADAPTIVE = "adaptive:";
+
+    private static final String WRAPPER = "wrapper:";
+
+    private static final String PROXY = "proxy:";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: PrecompiledClassGenerator <output dir> <adaptive:type|wrapper:type|proxy:type,type...>...");
+            System.exit(1);
+        }
+        File output = new File(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            generate(output, args[i]);
+        }
+    }
+
+    /**
+     * generate the source of one spec into the output directory, and return the written file.
+     */
+    public static File generate(File output, String spec) throws IOException {
+        String className;
+        String code;
+        if (spec.startsWith(ADAPTIVE)) {
+            Class<?> type = ReflectUtils.forName(spec.substring(ADAPTIVE.length()).trim());
+            String defaultName = ExtensionLoader.getExtensionLoader(type).getDefaultExtensionName();
+            className = type.getPackage().getName() + "." + type.getSimpleName() + "$Adaptive";
+            code = new AdaptiveClassCodeGenerator(type, defaultName).generate();
+        } else if (spec.startsWith(WRAPPER)) {
+            WrapperClassCodeGenerator generator = new WrapperClassCodeGenerator(
+                    ReflectUtils.forName(spec.substring(WRAPPER.length()).trim()));
+            className = generator.getClassName();
+            code = generator.generate();
+        } else if (spec.startsWith(PROXY)) {
+            String[] names = spec.substring(PROXY.length()).split(",");
+            Class<?>[] interfaces = new Class<?>[names.length];
+            for (int i = 0; i < names.length; i++) {
+                interfaces[i] = ReflectUtils.forName(names[i].trim());
+            }
+            ProxyClassCodeGenerator generator = new ProxyClassCodeGenerator(interfaces);
+            className = generator.getClassName();
+            code = generator.generate();
+        } else {
+            throw new IllegalArgumentException("Unknown class spec " + spec + ", should start with "
+                    + ADAPTIVE + ", " + WRAPPER + " or " + PROXY);
+        }
+
+        File file = new File(output, className.replace('.', File.separatorChar) + ".java");
+        File dir = file.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+        Files.write(file.toPath(), code.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
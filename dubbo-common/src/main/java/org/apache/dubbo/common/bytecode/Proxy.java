@@ -17,6 +17,8 @@
 package org.apache.dubbo.common.bytecode;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.ReflectUtils;
 
@@ -133,7 +135,20 @@ public abstract class Proxy {
         long id = PROXY_CLASS_COUNTER.getAndIncrement();
         String pkg = null;
         ClassGenerator ccp = null, ccm = null;
-        try {
+        try (StartupPhase phase = StartupTracer.start("proxy", key.substring(0, key.length() - 1))) {
+            // prefer the proxy compiled at build time, see PrecompiledClassGenerator
+            try {
+                Class<?> pc = Class.forName(ProxyClassCodeGenerator.getClassName(ics), true, cl);
+                if (Proxy.class.isAssignableFrom(pc)) {
+                    proxy = (Proxy) pc.newInstance();
+                    return proxy;
+                }
+            } catch (ClassNotFoundException e) {
+                // fall back to generate the proxy with javassist
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create precompiled proxy of " + key, e);
+            }
+
             ccp = ClassGenerator.newInstance(cl);
 
             Set<String> worked = new HashSet<>();
@@ -217,6 +232,7 @@ public abstract class Proxy {
                     cache.remove(key);
                 } else {
                     cache.put(key, new WeakReference<Proxy>(proxy));
+                    GeneratedClasses.addProxy(ics, proxy.getClass(), !ClassGenerator.isDynamicClass(proxy.getClass()));
                 }
                 cache.notifyAll();
             }
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import org.apache.dubbo.common.utils.ReflectUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.dubbo.common.bytecode.WrapperClassCodeGenerator.typeName;
+
+/**
+ * Code generator for precompiled {@link Proxy} classes.
+ * <p>
+ * The name of the generated class is derived from the interface list, so {@link Proxy#getProxy(ClassLoader, Class[])}
+ * can find the class compiled at build time for exactly the same interfaces.
+ */
+public class ProxyClassCodeGenerator {
+
+    static final String CLASS_NAME_INFIX = "$DubboProxy";
+
+    private static final String DEFAULT_PACKAGE = Proxy.class.getPackage().getName();
+
+    private final Class<?>[] interfaces;
+
+    public ProxyClassCodeGenerator(Class<?>... interfaces) {
+        if (interfaces == null || interfaces.length == 0) {
+            throw new IllegalArgumentException("interfaces == null");
+        }
+        for (Class<?> itf : interfaces) {
+            if (!itf.isInterface()) {
+                throw new IllegalArgumentException(itf.getName() + " is not a interface.");
+            }
+        }
+        this.interfaces = interfaces;
+    }
+
+    /**
+     * get the name of the precompiled proxy class of the given interfaces.
+     */
+    public static String getClassName(Class<?>... interfaces) {
+        String pkg = null;
+        StringBuilder key = new StringBuilder();
+        for (Class<?> itf : interfaces) {
+            if (!Modifier.isPublic(itf.getModifiers())) {
+                pkg = itf.getPackage().getName();
+            }
+            key.append(itf.getName()).append(';');
+        }
+        Class<?> first = interfaces[0];
+        if (pkg == null) {
+            pkg = first.getPackage() == null || first.getPackage().getName().startsWith("java.")
+                    ? DEFAULT_PACKAGE : first.getPackage().getName();
+        }
+        String simpleName = first.getName().substring(first.getName().lastIndexOf('.') + 1);
+        return pkg + "." + simpleName + CLASS_NAME_INFIX + Integer.toHexString(key.toString().hashCode());
+    }
+
+    public String getClassName() {
+        return getClassName(interfaces);
+    }
+
+    /**
+     * generate and return class code
+     */
+    public String generate() {
+        String className = getClassName();
+        String pkg = className.substring(0, className.lastIndexOf('.'));
+        String simpleName = className.substring(pkg.length() + 1);
+
+        Set<String> worked = new HashSet<>();
+        List<Method> methods = new ArrayList<>();
+        List<Class<?>> owners = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        for (Class<?> itf : interfaces) {
+            for (Method method : itf.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || !worked.add(ReflectUtils.getDesc(method))) {
+                    continue;
+                }
+                body.append(generateMethod(method, methods.size()));
+                methods.add(method);
+                owners.add(itf);
+            }
+        }
+
+        StringBuilder code = new StringBuilder();
+        code.append("package ").append(pkg).append(";\n");
+        code.append("public class ").append(simpleName).append(" extends ").append(Proxy.class.getName()).append(" {\n");
+        code.append("private static final java.lang.reflect.Method[] METHODS = new java.lang.reflect.Method[").append(methods.size()).append("];\n");
+        code.append("static {\n");
+        code.append("try {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            code.append("METHODS[").append(i).append("] = ").append(typeName(owners.get(i))).append(".class.getMethod(\"")
+                    .append(method.getName()).append("\", new Class<?>[]{");
+            Class<?>[] pts = method.getParameterTypes();
+            for (int j = 0; j < pts.length; j++) {
+                if (j > 0) {
+                    code.append(", ");
+                }
+                code.append(typeName(pts[j])).append(".class");
+            }
+            code.append("});\n");
+        }
+        code.append("} catch (java.lang.NoSuchMethodException e) { throw new ExceptionInInitializerError(e); }\n");
+        code.append("}\n");
+        code.append("public Object newInstance(").append(InvocationHandler.class.getName()).append(" h) { return new Instance(h); }\n");
+
+        code.append("public static class Instance implements ");
+        for (Class<?> itf : interfaces) {
+            code.append(typeName(itf)).append(", ");
+        }
+        code.append(typeName(ClassGenerator.DC.class)).append(" {\n");
+        code.append("private final ").append(InvocationHandler.class.getName()).append(" handler;\n");
+        code.append("public Instance(").append(InvocationHandler.class.getName()).append(" handler) { this.handler = handler; }\n");
+        code.append("@SuppressWarnings(\"unchecked\")\n");
+        code.append("private static <E extends Throwable> RuntimeException rethrow(Throwable e) throws E { throw (E) e; }\n");
+        code.append(body);
+        code.append("}\n");
+        code.append("}");
+        return code.toString();
+    }
+
+    private String generateMethod(Method method, int index) {
+        Class<?> rt = method.getReturnType();
+        Class<?>[] pts = method.getParameterTypes();
+        StringBuilder code = new StringBuilder("public ");
+        code.append(rt == Void.TYPE ? "void" : typeName(rt)).append(' ').append(method.getName()).append('(');
+        for (int i = 0; i < pts.length; i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            code.append(typeName(pts[i])).append(" arg").append(i);
+        }
+        code.append(')');
+        Class<?>[] ets = method.getExceptionTypes();
+        for (int i = 0; i < ets.length; i++) {
+            code.append(i == 0 ? " throws " : ", ").append(typeName(ets[i]));
+        }
+        code.append(" {\n");
+        code.append("Object[] args = new Object[]{");
+        for (int i = 0; i < pts.length; i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            code.append("arg").append(i);
+        }
+        code.append("};\n");
+        code.append("Object ret;\n");
+        code.append("try { ret = handler.invoke(this, METHODS[").append(index).append("], args); }");
+        code.append(" catch (Throwable e) { throw Instance.<RuntimeException>rethrow(e); }\n");
+        if (rt != Void.TYPE) {
+            code.append("return ").append(asArgument(rt, "ret")).append(";\n");
+        }
+        code.append("}\n");
+        return code.toString();
+    }
+
+    private static String asArgument(Class<?> cl, String name) {
+        if (cl.isPrimitive()) {
+            if (Boolean.TYPE == cl) {
+                return name + " == null ? false : ((Boolean) " + name + ").booleanValue()";
+            }
+            if (Byte.TYPE == cl) {
+                return name + " == null ? (byte) 0 : ((Byte) " + name + ").byteValue()";
+            }
+            if (Character.TYPE == cl) {
+                return name + " == null ? (char) 0 : ((Character) " + name + ").charValue()";
+            }
+            if (Double.TYPE == cl) {
+                return name + " == null ? (double) 0 : ((Double) " + name + ").doubleValue()";
+            }
+            if (Float.TYPE == cl) {
+                return name + " == null ? (float) 0 : ((Float) " + name + ").floatValue()";
+            }
+            if (Integer.TYPE == cl) {
+                return name + " == null ? (int) 0 : ((Integer) " + name + ").intValue()";
+            }
+            if (Long.TYPE == cl) {
+                return name + " == null ? (long) 0 : ((Long) " + name + ").longValue()";
+            }
+            if (Short.TYPE == cl) {
+                return name + " == null ? (short) 0 : ((Short) " + name + ").shortValue()";
+            }
+            throw new RuntimeException(name + " is unknown primitive type.");
+        }
+        return "(" + typeName(cl) + ") " + name;
+    }
+}
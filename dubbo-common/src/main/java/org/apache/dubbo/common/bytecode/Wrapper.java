@@ -16,6 +16,8 @@
  */
 package org.apache.dubbo.common.bytecode;
 
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.ReflectUtils;
 
@@ -115,8 +117,11 @@ public abstract class Wrapper {
 
         Wrapper ret = WRAPPER_MAP.get(c);
         if (ret == null) {
-            ret = makeWrapper(c);
+            try (StartupPhase phase = StartupTracer.start("wrapper", c.getName())) {
+                ret = makeWrapper(c);
+            }
             WRAPPER_MAP.put(c, ret);
+            GeneratedClasses.addWrapper(c, ret.getClass(), !ClassGenerator.isDynamicClass(ret.getClass()));
         }
         return ret;
     }
@@ -129,6 +134,18 @@ public abstract class Wrapper {
         String name = c.getName();
         ClassLoader cl = ClassUtils.getClassLoader(c);
 
+        // prefer the wrapper compiled at build time, see PrecompiledClassGenerator
+        try {
+            Class<?> wc = Class.forName(WrapperClassCodeGenerator.getClassName(c), true, cl);
+            if (Wrapper.class.isAssignableFrom(wc)) {
+                return (Wrapper) wc.newInstance();
+            }
+        } catch (ClassNotFoundException e) {
+            // fall back to generate the wrapper with javassist
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create precompiled wrapper of " + name, e);
+        }
+
         StringBuilder c1 = new StringBuilder("public void setPropertyValue(Object o, String n, Object v){ ");
         StringBuilder c2 = new StringBuilder("public Object getPropertyValue(Object o, String n){ ");
         StringBuilder c3 = new StringBuilder("public Object invokeMethod(Object o, String n, Class[] p, Object[] v) throws " + InvocationTargetException.class.getName() + "{ ");
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import org.apache.dubbo.common.utils.ReflectUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Code generator for precompiled {@link Wrapper} classes.
+ * <p>
+ * The generated source is plain java, so it can be compiled into the application jar at build time.
+ * {@link Wrapper#getWrapper(Class)} picks the class up by its name and only falls back to javassist
+ * when it is absent.
+ */
+public class WrapperClassCodeGenerator {
+
+    static final String CLASS_NAME_SUFFIX = "$DubboWrapper";
+
+    private final Class<?> type;
+
+    public WrapperClassCodeGenerator(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.getCanonicalName() == null) {
+            throw new IllegalArgumentException("Can not create wrapper for type: " + type);
+        }
+        this.type = type;
+    }
+
+    /**
+     * get the name of the precompiled wrapper class of the given type.
+     */
+    public static String getClassName(Class<?> type) {
+        return type.getName() + CLASS_NAME_SUFFIX;
+    }
+
+    public String getClassName() {
+        return getClassName(type);
+    }
+
+    /**
+     * generate and return class code
+     */
+    public String generate() {
+        String name = type.getCanonicalName();
+        String className = getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+        StringBuilder c1 = new StringBuilder("public void setPropertyValue(Object o, String n, Object v) {\n");
+        StringBuilder c2 = new StringBuilder("public Object getPropertyValue(Object o, String n) {\n");
+        StringBuilder c3 = new StringBuilder("public Object invokeMethod(Object o, String n, Class<?>[] p, Object[] v) throws "
+                + InvocationTargetException.class.getName() + " {\n");
+
+        String cast = name + " w; try { w = (" + name + ") o; } catch (Throwable e) { throw new IllegalArgumentException(e); }\n";
+        c1.append(cast);
+        c2.append(cast);
+        c3.append(cast);
+
+        Map<String, Class<?>> pts = new LinkedHashMap<>(); // <property name, property types>
+        Map<String, Method> ms = new LinkedHashMap<>(); // <method desc, Method instance>
+        List<String> mns = new ArrayList<>(); // method names.
+        List<String> dmns = new ArrayList<>(); // declaring method names.
+
+        for (Field f : type.getFields()) {
+            String fn = f.getName();
+            Class<?> ft = f.getType();
+            if (Modifier.isStatic(f.getModifiers()) || Modifier.isTransient(f.getModifiers())) {
+                continue;
+            }
+            c1.append("if (n.equals(\"").append(fn).append("\")) { w.").append(fn).append(" = ").append(arg(ft, "v")).append("; return; }\n");
+            c2.append("if (n.equals(\"").append(fn).append("\")) { return w.").append(fn).append("; }\n");
+            pts.put(fn, ft);
+        }
+
+        Method[] methods = type.getMethods();
+        boolean hasMethod = false;
+        for (Method m : methods) {
+            if (m.getDeclaringClass() != Object.class) {
+                hasMethod = true;
+                break;
+            }
+        }
+        if (hasMethod) {
+            c3.append("try {\n");
+            for (Method m : methods) {
+                if (m.getDeclaringClass() == Object.class) {
+                    continue;
+                }
+                String mn = m.getName();
+                Class<?>[] parameterTypes = m.getParameterTypes();
+                c3.append("if (\"").append(mn).append("\".equals(n) && p.length == ").append(parameterTypes.length);
+                boolean override = false;
+                for (Method m2 : methods) {
+                    if (m != m2 && m.getName().equals(m2.getName())) {
+                        override = true;
+                        break;
+                    }
+                }
+                if (override) {
+                    for (int l = 0; l < parameterTypes.length; l++) {
+                        c3.append(" && p[").append(l).append("].getName().equals(\"").append(parameterTypes[l].getName()).append("\")");
+                    }
+                }
+                c3.append(") { ");
+                if (m.getReturnType() == Void.TYPE) {
+                    c3.append("w.").append(mn).append('(').append(args(parameterTypes, "v")).append("); return null;");
+                } else {
+                    c3.append("return w.").append(mn).append('(').append(args(parameterTypes, "v")).append(");");
+                }
+                c3.append(" }\n");
+
+                mns.add(mn);
+                if (m.getDeclaringClass() == type) {
+                    dmns.add(mn);
+                }
+                ms.put(ReflectUtils.getDesc(m), m);
+            }
+            c3.append("} catch (Throwable e) { throw new ").append(InvocationTargetException.class.getName()).append("(e); }\n");
+        }
+        c3.append("throw new ").append(NoSuchMethodException.class.getName())
+                .append("(\"Not found method \\\"\" + n + \"\\\" in class ").append(type.getName()).append(".\");\n}\n");
+
+        Matcher matcher;
+        for (Map.Entry<String, Method> entry : ms.entrySet()) {
+            String md = entry.getKey();
+            Method method = entry.getValue();
+            if ((matcher = ReflectUtils.GETTER_METHOD_DESC_PATTERN.matcher(md)).matches()
+                    || (matcher = ReflectUtils.IS_HAS_CAN_METHOD_DESC_PATTERN.matcher(md)).matches()) {
+                String pn = propertyName(matcher.group(1));
+                c2.append("if (n.equals(\"").append(pn).append("\")) { return w.").append(method.getName()).append("(); }\n");
+                pts.put(pn, method.getReturnType());
+            } else if ((matcher = ReflectUtils.SETTER_METHOD_DESC_PATTERN.matcher(md)).matches()) {
+                Class<?> pt = method.getParameterTypes()[0];
+                String pn = propertyName(matcher.group(1));
+                c1.append("if (n.equals(\"").append(pn).append("\")) { w.").append(method.getName()).append('(').append(arg(pt, "v")).append("); return; }\n");
+                pts.put(pn, pt);
+            }
+        }
+        String notFound = "throw new " + NoSuchPropertyException.class.getName()
+                + "(\"Not found property \\\"\" + n + \"\\\" field or setter method in class " + type.getName() + ".\");\n}\n";
+        c1.append(notFound);
+        c2.append(notFound);
+
+        StringBuilder code = new StringBuilder();
+        if (type.getPackage() != null) {
+            code.append("package ").append(type.getPackage().getName()).append(";\n");
+        }
+        code.append("public class ").append(simpleName).append(" extends ").append(Wrapper.class.getName()).append(" {\n");
+        code.append("private static final java.util.Map<String, Class<?>> PTS = new java.util.HashMap<>();\n");
+        code.append("private static final String[] PNS;\n");
+        code.append("private static final String[] MNS = new String[]{").append(strings(mns)).append("};\n");
+        code.append("private static final String[] DMNS = new String[]{").append(strings(dmns)).append("};\n");
+        code.append("static {\n");
+        for (Map.Entry<String, Class<?>> entry : pts.entrySet()) {
+            code.append("PTS.put(\"").append(entry.getKey()).append("\", ").append(typeName(entry.getValue())).append(".class);\n");
+        }
+        code.append("PNS = PTS.keySet().toArray(new String[0]);\n");
+        code.append("}\n");
+        code.append("public String[] getPropertyNames() { return PNS; }\n");
+        code.append("public boolean hasProperty(String n) { return PTS.containsKey(n); }\n");
+        code.append("public Class<?> getPropertyType(String n) { return PTS.get(n); }\n");
+        code.append("public String[] getMethodNames() { return MNS; }\n");
+        code.append("public String[] getDeclaredMethodNames() { return DMNS; }\n");
+        code.append(c1).append(c2).append(c3);
+        code.append("}");
+        return code.toString();
+    }
+
+    static String typeName(Class<?> cl) {
+        String name = cl.getCanonicalName();
+        if (name == null) {
+            throw new IllegalArgumentException("Can not reference type " + cl.getName() + " from generated code.");
+        }
+        return name;
+    }
+
+    private static String arg(Class<?> cl, String name) {
+        if (cl.isPrimitive()) {
+            if (cl == Boolean.TYPE) {
+                return "((Boolean) " + name + ").booleanValue()";
+            }
+            if (cl == Byte.TYPE) {
+                return "((Byte) " + name + ").byteValue()";
+            }
+            if (cl == Character.TYPE) {
+                return "((Character) " + name + ").charValue()";
+            }
+            if (cl == Double.TYPE) {
+                return "((Number) " + name + ").doubleValue()";
+            }
+            if (cl == Float.TYPE) {
+                return "((Number) " + name + ").floatValue()";
+            }
+            if (cl == Integer.TYPE) {
+                return "((Number) " + name + ").intValue()";
+            }
+            if (cl == Long.TYPE) {
+                return "((Number) " + name + ").longValue()";
+            }
+            if (cl == Short.TYPE) {
+                return "((Number) " + name + ").shortValue()";
+            }
+            throw new RuntimeException("Unknown primitive type: " + cl.getName());
+        }
+        return "(" + typeName(cl) + ") " + name;
+    }
+
+    private static String args(Class<?>[] cs, String name) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cs.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(arg(cs[i], name + "[" + i + "]"));
+        }
+        return sb.toString();
+    }
+
+    private static String strings(List<String> values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(values.get(i)).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String propertyName(String pn) {
+        return pn.length() == 1 || Character.isLowerCase(pn.charAt(1)) ? Character.toLowerCase(pn.charAt(0)) + pn.substring(1) : pn;
+    }
+}
@@ -18,12 +18,19 @@ package org.apache.dubbo.common.config;
 
 import org.apache.dubbo.common.utils.StringUtils;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * This is an abstraction specially customized for the sequence Dubbo retrieves properties.
  */
 public abstract class AbstractPrefixConfiguration implements Configuration {
     protected String id;
     protected String prefix;
+    // prefix + id + ".", computed once as every lookup would otherwise concatenate it again
+    private final String idPrefix;
 
     public AbstractPrefixConfiguration(String prefix, String id) {
         super();
@@ -33,13 +40,14 @@ public abstract class AbstractPrefixConfiguration implements Configuration {
             this.prefix = prefix;
         }
         this.id = id;
+        this.idPrefix = StringUtils.isNotEmpty(this.prefix) && StringUtils.isNotEmpty(id) ? this.prefix + id + "." : null;
     }
 
     @Override
     public Object getProperty(String key, Object defaultValue) {
         Object value = null;
-        if (StringUtils.isNotEmpty(prefix) && StringUtils.isNotEmpty(id)) {
-            value = getInternalProperty(prefix + id + "." + key);
+        if (idPrefix != null) {
+            value = getInternalProperty(idPrefix + key);
         }
         if (value == null && StringUtils.isNotEmpty(prefix)) {
             value = getInternalProperty(prefix + key);
@@ -50,4 +58,56 @@ public abstract class AbstractPrefixConfiguration implements Configuration {
         }
         return value != null ? value : defaultValue;
     }
+
+    /**
+     * @return all the keys this configuration may have a value for, or null if they can not be listed
+     */
+    protected Collection<String> getKeys() {
+        return null;
+    }
+
+    /**
+     * Puts into the snapshot the value of every one of the given properties this configuration has, unless the
+     * snapshot already has one. A property is looked up the same way as {@link #getProperty(String, Object)} does,
+     * but by matching the keys of this configuration against the properties instead of probing every prefixed key.
+     *
+     * @return false if the keys of this configuration can not be listed, in which case nothing is put
+     */
+    boolean snapshot(Set<String> properties, Map<String, String> snapshot) {
+        Collection<String> keys = getKeys();
+        if (keys == null) {
+            return false;
+        }
+        boolean prefixed = StringUtils.isNotEmpty(prefix);
+        Map<String, String> idKeys = new HashMap<>();
+        Map<String, String> prefixKeys = new HashMap<>();
+        Map<String, String> plainKeys = new HashMap<>();
+        for (String key : keys) {
+            if (idPrefix != null && key.startsWith(idPrefix) && properties.contains(key.substring(idPrefix.length()))) {
+                idKeys.put(key.substring(idPrefix.length()), key);
+            }
+            if (prefixed && key.startsWith(prefix) && properties.contains(key.substring(prefix.length()))) {
+                prefixKeys.put(key.substring(prefix.length()), key);
+            }
+            if (properties.contains(key)) {
+                plainKeys.put(key, key);
+            }
+        }
+        // the most specific key of a property wins
+        putMissing(idKeys, snapshot);
+        putMissing(prefixKeys, snapshot);
+        putMissing(plainKeys, snapshot);
+        return true;
+    }
+
+    private void putMissing(Map<String, String> propertyKeys, Map<String, String> snapshot) {
+        for (Map.Entry<String, String> entry : propertyKeys.entrySet()) {
+            if (!snapshot.containsKey(entry.getKey())) {
+                Object value = getInternalProperty(entry.getValue());
+                if (value != null) {
+                    snapshot.put(entry.getKey(), (String) value);
+                }
+            }
+        }
+    }
 }
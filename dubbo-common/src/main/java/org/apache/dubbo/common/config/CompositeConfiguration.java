@@ -19,9 +19,14 @@ package org.apache.dubbo.common.config;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -32,7 +37,7 @@ public class CompositeConfiguration implements Configuration {
     /**
      * List holding all the configuration
      */
-    private List<Configuration> configList = new LinkedList<Configuration>();
+    private List<Configuration> configList = new ArrayList<Configuration>();
 
     public CompositeConfiguration() {
 
@@ -61,22 +66,59 @@ public class CompositeConfiguration implements Configuration {
 
     @Override
     public Object getInternalProperty(String key) {
-        Configuration firstMatchingConfiguration = null;
         for (Configuration config : configList) {
             try {
-                if (config.containsKey(key)) {
-                    firstMatchingConfiguration = config;
-                    break;
+                Object value = config.getProperty(key);
+                if (value != null) {
+                    return value;
                 }
             } catch (Exception e) {
                 logger.error("Error when trying to get value for key " + key + " from " + config + ", will continue to try the next one.");
             }
         }
-        if (firstMatchingConfiguration != null) {
-            return firstMatchingConfiguration.getProperty(key);
-        } else {
-            return null;
+        return null;
+    }
+
+    /**
+     * Resolves the given keys against all the configurations at once into a flat snapshot, each configuration being
+     * consulted only for the keys none of the configurations before it has. A configuration able to list its keys is
+     * merged by matching them against the wanted keys, the others are asked key by key. Later changes of the
+     * underlying configurations are not reflected in the snapshot.
+     *
+     * @param keys the keys to resolve
+     * @return the value of every key found in any configuration, keys without a value are absent
+     */
+    public Map<String, String> snapshot(Collection<String> keys) {
+        Set<String> properties = new HashSet<>(keys);
+        Map<String, String> snapshot = new HashMap<>(properties.size() * 2);
+        for (Configuration config : configList) {
+            if (snapshot.size() == properties.size()) {
+                break;
+            }
+            if (config instanceof AbstractPrefixConfiguration) {
+                try {
+                    if (((AbstractPrefixConfiguration) config).snapshot(properties, snapshot)) {
+                        continue;
+                    }
+                } catch (Exception e) {
+                    logger.error("Error when trying to list the keys of " + config + ", will get the values one by one.");
+                }
+            }
+            for (String key : properties) {
+                if (snapshot.containsKey(key)) {
+                    continue;
+                }
+                try {
+                    Object value = config.getProperty(key);
+                    if (value != null) {
+                        snapshot.put(key, (String) value);
+                    }
+                } catch (Exception e) {
+                    logger.error("Error when trying to get value for key " + key + " from " + config + ", will continue to try the next one.");
+                }
+            }
         }
+        return snapshot;
     }
 
     @Override
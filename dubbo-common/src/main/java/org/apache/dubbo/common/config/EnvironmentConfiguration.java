@@ -16,6 +16,8 @@
  */
 package org.apache.dubbo.common.config;
 
+import java.util.Collection;
+
 /**
  * Configuration from system environment
  */
@@ -34,4 +36,8 @@ public class EnvironmentConfiguration extends AbstractPrefixConfiguration {
         return System.getenv(key);
     }
 
+    @Override
+    protected Collection<String> getKeys() {
+        return System.getenv().keySet();
+    }
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.common.config;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -64,4 +65,9 @@ public class InmemoryConfiguration extends AbstractPrefixConfiguration {
             this.store = properties;
         }
     }
+
+    @Override
+    protected Collection<String> getKeys() {
+        return store.keySet();
+    }
 }
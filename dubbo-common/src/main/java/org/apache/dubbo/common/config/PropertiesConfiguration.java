@@ -20,6 +20,10 @@ import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ConfigUtils;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Configuration from system properties and dubbo.properties
  */
@@ -38,4 +42,12 @@ public class PropertiesConfiguration extends AbstractPrefixConfiguration {
     public Object getInternalProperty(String key) {
         return ConfigUtils.getProperty(key);
     }
+
+    @Override
+    protected Collection<String> getKeys() {
+        // ConfigUtils looks into the system properties before dubbo.properties
+        Set<String> keys = new HashSet<>(ConfigUtils.getProperties().stringPropertyNames());
+        keys.addAll(System.getProperties().stringPropertyNames());
+        return keys;
+    }
 }
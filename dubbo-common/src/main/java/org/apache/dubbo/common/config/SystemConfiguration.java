@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.common.config;
 
+import java.util.Collection;
 
 /**
  * FIXME: is this really necessary? PropertiesConfiguration should have already covered this:
@@ -37,4 +38,8 @@ public class SystemConfiguration extends AbstractPrefixConfiguration {
         return System.getProperty(key);
     }
 
+    @Override
+    protected Collection<String> getKeys() {
+        return System.getProperties().stringPropertyNames();
+    }
 }
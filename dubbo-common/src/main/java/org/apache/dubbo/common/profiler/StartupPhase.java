@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.profiler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A timed phase of the startup, closed by try-with-resources. Phases started while another one is open on the same
+ * thread become its children.
+ *
+ * @see StartupTracer
+ */
+public class StartupPhase implements AutoCloseable {
+
+    /**
+     * Returned when tracing is disabled, records nothing
+     */
+    static final StartupPhase NOOP = new StartupPhase(null, null, 0) {
+        @Override
+        public void close() {
+        }
+    };
+
+    private final String name;
+
+    private final StartupPhase parent;
+
+    private final long startNanos;
+
+    private volatile long endNanos;
+
+    private final List<StartupPhase> children = new CopyOnWriteArrayList<>();
+
+    StartupPhase(String name, StartupPhase parent, long startNanos) {
+        this.name = name;
+        this.parent = parent;
+        this.startNanos = startNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StartupPhase getParent() {
+        return parent;
+    }
+
+    public List<StartupPhase> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return true if recorded without any enclosing phase
+     */
+    public boolean isRoot() {
+        return parent == null && this != NOOP;
+    }
+
+    public boolean isClosed() {
+        return endNanos != 0;
+    }
+
+    /**
+     * @return elapsed time in nanoseconds, up to now if not closed yet
+     */
+    public long getElapsedNanos() {
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    /**
+     * @return elapsed time not spent in any child phase
+     */
+    public long getSelfNanos() {
+        long self = getElapsedNanos();
+        for (StartupPhase child : children) {
+            self -= child.getElapsedNanos();
+        }
+        return Math.max(self, 0);
+    }
+
+    void addChild(StartupPhase child) {
+        children.add(child);
+    }
+
+    @Override
+    public void close() {
+        if (endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        StartupTracer.finish(this);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + getElapsedNanos() / 1000 + "us";
+    }
+}
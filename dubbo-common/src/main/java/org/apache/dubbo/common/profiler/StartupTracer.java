@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.profiler;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.utils.ConfigUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Records nested phase timings of the startup, e.g. config refresh, proxy generation, port bind, registry and
+ * metadata report of every exported or referred service. Enabled by <code>-Ddubbo.startup.trace=true</code> or the same
+ * key in dubbo.properties, when disabled {@link #start(String)} returns a shared no-op phase without any allocation.
+ * <pre>
+ * try (StartupPhase phase = StartupTracer.start("bind")) {
+ *     doOpen();
+ * }
+ * </pre>
+ */
+public final class StartupTracer {
+
+    private static final int MAX_ROOTS = 1000;
+
+    private static final ThreadLocal<StartupPhase> CURRENT = new ThreadLocal<>();
+
+    private static final Deque<StartupPhase> ROOTS = new ArrayDeque<>();
+
+    private static volatile Boolean enabled;
+
+    private static boolean resolving;
+
+    private StartupTracer() {
+    }
+
+    public static boolean isEnabled() {
+        Boolean value = enabled;
+        return value != null ? value : resolveEnabled();
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StartupTracer.enabled = enabled;
+    }
+
+    private static synchronized boolean resolveEnabled() {
+        if (enabled == null) {
+            // loading dubbo.properties may start phases itself, they are not traced
+            if (resolving) {
+                return false;
+            }
+            resolving = true;
+            try {
+                enabled = Boolean.parseBoolean(ConfigUtils.getProperty(Constants.STARTUP_TRACE_KEY));
+            } finally {
+                resolving = false;
+            }
+        }
+        return enabled;
+    }
+
+    public static StartupPhase start(String name) {
+        if (!isEnabled()) {
+            return StartupPhase.NOOP;
+        }
+        StartupPhase parent = CURRENT.get();
+        StartupPhase phase = new StartupPhase(name, parent, System.nanoTime());
+        if (parent != null) {
+            parent.addChild(phase);
+        }
+        CURRENT.set(phase);
+        return phase;
+    }
+
+    /**
+     * Same as {@link #start(String)}, the name is only concatenated when tracing is enabled
+     */
+    public static StartupPhase start(String name, String detail) {
+        if (!isEnabled()) {
+            return StartupPhase.NOOP;
+        }
+        return start(name + " " + detail);
+    }
+
+    /**
+     * Same as {@link #start(String, String)} within an open phase of the current thread, a no-op otherwise. For the
+     * code also running outside of the startup, e.g. extension loading, which is then attributed to the service it is
+     * loaded for. It does not resolve {@link #isEnabled()}, so it is safe in code that resolution runs itself.
+     */
+    public static StartupPhase startNested(String name, String detail) {
+        if (CURRENT.get() == null) {
+            return StartupPhase.NOOP;
+        }
+        return start(name + " " + detail);
+    }
+
+    static void finish(StartupPhase phase) {
+        if (CURRENT.get() == phase) {
+            if (phase.getParent() == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(phase.getParent());
+            }
+        }
+        if (phase.getParent() == null) {
+            synchronized (ROOTS) {
+                if (ROOTS.size() >= MAX_ROOTS) {
+                    ROOTS.pollFirst();
+                }
+                ROOTS.addLast(phase);
+            }
+        }
+    }
+
+    /**
+     * @return closed top level phases, the oldest first
+     */
+    public static List<StartupPhase> getPhases() {
+        synchronized (ROOTS) {
+            return new ArrayList<>(ROOTS);
+        }
+    }
+
+    public static void clear() {
+        synchronized (ROOTS) {
+            ROOTS.clear();
+        }
+    }
+
+    /**
+     * @return all recorded phases as an indented tree with the elapsed milliseconds
+     */
+    public static String report() {
+        StringBuilder buf = new StringBuilder();
+        for (StartupPhase phase : getPhases()) {
+            appendTree(buf, phase, 0);
+        }
+        return buf.toString();
+    }
+
+    public static String report(StartupPhase phase) {
+        StringBuilder buf = new StringBuilder();
+        appendTree(buf, phase, 0);
+        return buf.toString();
+    }
+
+    private static void appendTree(StringBuilder buf, StartupPhase phase, int depth) {
+        for (int i = 0; i < depth; i++) {
+            buf.append("  ");
+        }
+        buf.append(phase.getName()).append(' ').append(String.format("%.3f", phase.getElapsedNanos() / 1e6)).append("ms\n");
+        for (StartupPhase child : phase.getChildren()) {
+            appendTree(buf, child, depth + 1);
+        }
+    }
+
+    /**
+     * @return all recorded phases as collapsed stacks with the self microseconds, one per line, the input format of
+     * flame graph tools
+     */
+    public static String folded() {
+        StringBuilder buf = new StringBuilder();
+        for (StartupPhase phase : getPhases()) {
+            appendFolded(buf, phase, "");
+        }
+        return buf.toString();
+    }
+
+    private static void appendFolded(StringBuilder buf, StartupPhase phase, String prefix) {
+        String stack = prefix + phase.getName().replace(';', ',');
+        buf.append(stack).append(' ').append(phase.getSelfNanos() / 1000).append('\n');
+        for (StartupPhase child : phase.getChildren()) {
+            appendFolded(buf, child, stack + ";");
+        }
+    }
+}
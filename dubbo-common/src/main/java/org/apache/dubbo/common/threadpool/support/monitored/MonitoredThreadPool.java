@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.monitored;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.threadlocal.NamedInternalThreadFactory;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.support.AbortPolicyWithReport;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a bounded thread pool which records the queue wait and execution time of every task.
+ * <p>
+ * Without <code>queue.wait.target</code> it behaves like the fixed thread pool. With a target in milliseconds,
+ * it starts with <code>corethreads</code> core threads and resizes them up to <code>threads</code> to keep the
+ * queue wait under the target.
+ *
+ * @see MonitoredThreadPoolExecutor
+ */
+public class MonitoredThreadPool implements ThreadPool {
+
+    @Override
+    public Executor getExecutor(URL url) {
+        String name = url.getParameter(Constants.THREAD_NAME_KEY, Constants.DEFAULT_THREAD_NAME);
+        int threads = url.getParameter(Constants.THREADS_KEY, Constants.DEFAULT_THREADS);
+        int queues = url.getParameter(Constants.QUEUES_KEY, Constants.DEFAULT_QUEUES);
+        int alive = url.getParameter(Constants.ALIVE_KEY, Constants.DEFAULT_ALIVE);
+        int target = url.getParameter(Constants.QUEUE_WAIT_TARGET_KEY, 0);
+        int interval = url.getParameter(Constants.CORE_THREADS_ADJUST_INTERVAL_KEY, Constants.DEFAULT_CORE_THREADS_ADJUST_INTERVAL);
+        int cores = target > 0 ? url.getParameter(Constants.CORE_THREADS_KEY, Constants.DEFAULT_CORE_THREADS) : threads;
+        cores = Math.min(Math.max(cores, 1), threads);
+        return new MonitoredThreadPoolExecutor(cores, threads, alive, TimeUnit.MILLISECONDS,
+                queues == 0 ? new SynchronousQueue<Runnable>() :
+                        (queues < 0 ? new LinkedBlockingQueue<Runnable>()
+                                : new LinkedBlockingQueue<Runnable>(queues)),
+                new NamedInternalThreadFactory(name, true), new AbortPolicyWithReport(name, url),
+                target, interval, TimeUnit.MILLISECONDS);
+    }
+
+}
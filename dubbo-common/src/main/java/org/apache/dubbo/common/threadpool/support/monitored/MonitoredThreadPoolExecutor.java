@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.monitored;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.LatencyHistogram;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MonitoredThreadPoolExecutor
+ * <p>
+ * Records how long every task waits in the queue and how long it runs, over the last minute. With a queue wait
+ * target, the core pool size is adjusted at most once per interval: it grows when the mean queue wait of the last
+ * interval exceeds the target, and shrinks back towards the initial core size when it stays well below the target.
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitoredThreadPoolExecutor.class);
+
+    private static final long HISTOGRAM_WINDOW_SECONDS = 60;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram(HISTOGRAM_WINDOW_SECONDS, TimeUnit.SECONDS);
+
+    private final LatencyHistogram execution = new LatencyHistogram(HISTOGRAM_WINDOW_SECONDS, TimeUnit.SECONDS);
+
+    private final int minCorePoolSize;
+
+    private final long queueWaitTargetNanos;
+
+    private final long adjustIntervalNanos;
+
+    private final AtomicLong lastAdjustNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * queue wait sum and task count since the last adjustment
+     */
+    private final AtomicLong windowQueueWait = new AtomicLong();
+
+    private final AtomicLong windowTasks = new AtomicLong();
+
+    private volatile long lastWindowQueueWait;
+
+    public MonitoredThreadPoolExecutor(int corePoolSize,
+                                       int maximumPoolSize,
+                                       long keepAliveTime,
+                                       TimeUnit unit,
+                                       BlockingQueue<Runnable> workQueue,
+                                       ThreadFactory threadFactory,
+                                       RejectedExecutionHandler handler,
+                                       long queueWaitTarget,
+                                       long adjustInterval,
+                                       TimeUnit targetUnit) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        this.minCorePoolSize = corePoolSize;
+        this.queueWaitTargetNanos = targetUnit.toNanos(queueWaitTarget);
+        this.adjustIntervalNanos = targetUnit.toNanos(adjustInterval);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        long now = System.nanoTime();
+        super.execute(new MonitoredTask(command, now));
+        adjustIfNeeded(now);
+    }
+
+    private void adjustIfNeeded(long now) {
+        if (queueWaitTargetNanos <= 0) {
+            return;
+        }
+        long last = lastAdjustNanos.get();
+        if (now - last < adjustIntervalNanos || !lastAdjustNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        long tasks = windowTasks.getAndSet(0);
+        long wait = windowQueueWait.getAndSet(0);
+        // nothing dequeued in the last interval while tasks are waiting, all threads are busy
+        long meanWait = tasks == 0 ? (getQueue().isEmpty() ? 0 : now - last) : wait / tasks;
+        lastWindowQueueWait = meanWait;
+
+        int core = getCorePoolSize();
+        int newCore = core;
+        if (meanWait > queueWaitTargetNanos && core < getMaximumPoolSize()) {
+            newCore = Math.min(getMaximumPoolSize(), core + Math.max(1, core / 2));
+        } else if (meanWait < queueWaitTargetNanos / 2 && core > minCorePoolSize && getQueue().isEmpty()) {
+            newCore = Math.max(minCorePoolSize, core - Math.max(1, core / 4));
+        }
+        if (newCore != core) {
+            setCorePoolSize(newCore);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Resize core pool size from " + core + " to " + newCore + ", mean queue wait "
+                        + TimeUnit.NANOSECONDS.toMicros(meanWait) + "us, target "
+                        + TimeUnit.NANOSECONDS.toMicros(queueWaitTargetNanos) + "us");
+            }
+        }
+    }
+
+    /**
+     * @return the queue wait of the tasks of the last minute, in nanoseconds
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * @return the execution time of the tasks of the last minute, in nanoseconds
+     */
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    public int getMinCorePoolSize() {
+        return minCorePoolSize;
+    }
+
+    /**
+     * @return the queue wait target in nanoseconds, not greater than 0 if the core pool size is not adjusted
+     */
+    public long getQueueWaitTargetNanos() {
+        return queueWaitTargetNanos;
+    }
+
+    /**
+     * @return whether the pool can not grow any more while the queue wait of the last interval exceeds the target
+     */
+    public boolean isQueueWaitTargetMissed() {
+        return queueWaitTargetNanos > 0 && lastWindowQueueWait > queueWaitTargetNanos
+                && getCorePoolSize() >= getMaximumPoolSize();
+    }
+
+    private class MonitoredTask implements Runnable {
+
+        private final Runnable task;
+
+        private final long submitNanos;
+
+        MonitoredTask(Runnable task, long submitNanos) {
+            this.task = task;
+            this.submitNanos = submitNanos;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long wait = start - submitNanos;
+            queueWait.record(wait);
+            windowQueueWait.addAndGet(wait);
+            windowTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                long end = System.nanoTime();
+                execution.record(end - start);
+                adjustIfNeeded(end);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadlocal.InternalThreadLocal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a new thread for every task, meant to be used with a virtual thread factory.
+ * <p>
+ * There is no queue. With a positive limit, the tasks running at the same time are bounded and the excess tasks
+ * are rejected, just like a saturated thread pool. The {@link InternalThreadLocal}s, and so the
+ * <code>RpcContext</code>, are removed when a task finishes, so nothing is kept alive with the thread.
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutor.class);
+
+    private final ThreadFactory threadFactory;
+
+    private final String name;
+
+    private final int limit;
+
+    private final Semaphore permits;
+
+    private final Object lock = new Object();
+
+    private int running;
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param limit the maximum running tasks, not greater than 0 for unlimited
+     */
+    public VirtualThreadExecutor(ThreadFactory threadFactory, String name, int limit) {
+        this.threadFactory = threadFactory;
+        this.name = name;
+        this.limit = limit;
+        this.permits = limit > 0 ? new Semaphore(limit) : null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (permits != null && !permits.tryAcquire()) {
+            String msg = "Thread pool is EXHAUSTED! Thread Name: " + name + ", running: " + getRunningCount()
+                    + ", max: " + limit;
+            logger.warn(msg);
+            throw new RejectedExecutionException(msg);
+        }
+        synchronized (lock) {
+            if (shutdown) {
+                release();
+                throw new RejectedExecutionException("Executor " + name + " has been shutdown");
+            }
+            running++;
+        }
+        try {
+            threadFactory.newThread(() -> run(command)).start();
+        } catch (Throwable t) {
+            finish();
+            throw new RejectedExecutionException("Failed to start thread for " + name, t);
+        }
+    }
+
+    private void run(Runnable command) {
+        try {
+            command.run();
+        } finally {
+            InternalThreadLocal.removeAll();
+            finish();
+        }
+    }
+
+    private void finish() {
+        release();
+        synchronized (lock) {
+            running--;
+            if (running == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public int getRunningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * the running tasks are not interrupted, there is no waiting task.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (lock) {
+            return shutdown && running == 0;
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!(shutdown && running == 0)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.support.cached.CachedThreadPool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task on a new virtual thread, so blocking services are not capped by the thread count.
+ * <p>
+ * The running tasks are unlimited unless <code>threads</code> is configured explicitly. On a JDK without virtual
+ * threads it falls back to the {@link CachedThreadPool}.
+ */
+public class VirtualThreadPool implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method NAME;
+
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (Throwable t) {
+            // virtual threads are not supported before JDK 21
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    /**
+     * @return whether the running JDK supports virtual threads
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    @Override
+    public Executor getExecutor(URL url) {
+        String name = url.getParameter(Constants.THREAD_NAME_KEY, Constants.DEFAULT_THREAD_NAME);
+        ThreadFactory threadFactory = newVirtualThreadFactory(name);
+        if (threadFactory == null) {
+            logger.warn("Virtual threads are not supported by JDK " + System.getProperty("java.version")
+                    + ", fall back to the cached thread pool for " + url.getAddress());
+            // no queue, a thread for each concurrent task like a virtual thread
+            return new CachedThreadPool().getExecutor(url.removeParameter(Constants.QUEUES_KEY));
+        }
+        return new VirtualThreadExecutor(threadFactory, name, url.getParameter(Constants.THREADS_KEY, 0));
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String name) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name + "-virtual-", 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (Throwable t) {
+            logger.warn("Failed to create virtual thread factory, cause: " + t.getMessage(), t);
+            return null;
+        }
+    }
+}
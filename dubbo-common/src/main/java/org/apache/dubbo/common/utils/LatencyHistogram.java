@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of non-negative values, usually latencies in nanoseconds.
+ * <p>
+ * Every power of two is split into 4 buckets, so a percentile is at most 25% above the real value.
+ * <p>
+ * Created with a window, the values are recorded in {@link #SLOTS} slots rotating over the window, and only the slots
+ * of the last window are read, so that the statistics show the current values rather than all of them since the
+ * start. A value recorded while its slot rotates may be dropped.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS);
+
+    private static final int SLOTS = 6;
+
+    private final Slot[] slots;
+
+    /**
+     * The time a slot covers in nanoseconds, 0 if the histogram is not windowed
+     */
+    private final long slotNanos;
+
+    public LatencyHistogram() {
+        this.slots = new Slot[]{new Slot()};
+        this.slotNanos = 0;
+    }
+
+    /**
+     * @param window the time the values are read over
+     * @param unit   the unit of the window
+     */
+    public LatencyHistogram(long window, TimeUnit unit) {
+        long nanos = unit.toNanos(window);
+        if (nanos < SLOTS) {
+            throw new IllegalArgumentException("window must be at least " + SLOTS + "ns, but was " + nanos + "ns");
+        }
+        this.slots = new Slot[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new Slot();
+        }
+        this.slotNanos = nanos / SLOTS;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        Slot slot = slots[0];
+        if (slotNanos > 0) {
+            long epoch = Math.floorDiv(System.nanoTime(), slotNanos);
+            slot = slots[(int) Math.floorMod(epoch, SLOTS)];
+            if (slot.epoch != epoch) {
+                synchronized (slot) {
+                    if (slot.epoch != epoch) {
+                        slot.reset();
+                        slot.epoch = epoch;
+                    }
+                }
+            }
+        }
+        slot.record(value);
+    }
+
+    /**
+     * @return the slots of the last window, or the only one if not windowed
+     */
+    private List<Slot> liveSlots() {
+        List<Slot> live = new ArrayList<>(slots.length);
+        if (slotNanos == 0) {
+            live.add(slots[0]);
+            return live;
+        }
+        long epoch = Math.floorDiv(System.nanoTime(), slotNanos);
+        for (Slot slot : slots) {
+            if (slot.epoch > epoch - SLOTS) {
+                live.add(slot);
+            }
+        }
+        return live;
+    }
+
+    public long getCount() {
+        long n = 0;
+        for (Slot slot : liveSlots()) {
+            n += slot.count.sum();
+        }
+        return n;
+    }
+
+    public long getMax() {
+        return maxOf(liveSlots());
+    }
+
+    public long getMean() {
+        long n = 0;
+        long sum = 0;
+        for (Slot slot : liveSlots()) {
+            n += slot.count.sum();
+            sum += slot.sum.sum();
+        }
+        return n == 0 ? 0 : sum / n;
+    }
+
+    /**
+     * @param percentile in (0, 100]
+     * @return the upper bound of the bucket of the percentile, 0 if nothing recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100], but was " + percentile);
+        }
+        List<Slot> live = liveSlots();
+        long n = 0;
+        for (Slot slot : live) {
+            n += slot.count.sum();
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long max = maxOf(live);
+        long rank = (long) Math.ceil(n * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            for (Slot slot : live) {
+                seen += slot.buckets.get(i);
+            }
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                slot.reset();
+            }
+        }
+    }
+
+    private static long maxOf(List<Slot> live) {
+        long max = 0;
+        for (Slot slot : live) {
+            max = Math.max(max, slot.max.get());
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        // the highest bits below the leading one select the sub bucket
+        return SUB_BUCKETS * (shift + 1) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count: " + getCount() + ", mean: " + getMean() + ", p50: " + getPercentile(50)
+                + ", p99: " + getPercentile(99) + ", max: " + getMax();
+    }
+
+    private static class Slot {
+
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        final LongAdder count = new LongAdder();
+
+        final LongAdder sum = new LongAdder();
+
+        final AtomicLong max = new AtomicLong();
+
+        /**
+         * The number of slot times since the origin of the nano time when the values were recorded, none before
+         */
+        volatile long epoch = Long.MIN_VALUE;
+
+        void record(long value) {
+            buckets.incrementAndGet(indexOf(value));
+            count.increment();
+            sum.add(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry until the max is not less than the value
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeneratedClassesTest {
+
+    @Test
+    public void testRuntimeGenerated() throws Exception {
+        Wrapper wrapper = Wrapper.getWrapper(Service.class);
+        Proxy proxy = Proxy.getProxy(IService.class);
+
+        String wrapperSpec = "wrapper:" + Service.class.getName();
+        String proxySpec = "proxy:" + IService.class.getName();
+        assertEquals(wrapper.getClass().getName(), GeneratedClasses.getClasses().get(wrapperSpec));
+        assertEquals(proxy.getClass().getName(), GeneratedClasses.getClasses().get(proxySpec));
+        assertTrue(GeneratedClasses.getRuntimeSpecs().contains(wrapperSpec));
+        assertTrue(GeneratedClasses.getRuntimeSpecs().contains(proxySpec));
+        assertTrue(GeneratedClasses.getVersion() > 0);
+
+        // javassist classes can not be archived, the classes they are made for can
+        List<String> classList = GeneratedClasses.getClassList();
+        assertTrue(classList.contains("org/apache/dubbo/common/bytecode/GeneratedClassesTest$Service"));
+        assertTrue(classList.contains("org/apache/dubbo/common/bytecode/GeneratedClassesTest$IService"));
+        assertFalse(classList.contains(wrapper.getClass().getName().replace('.', '/')));
+    }
+
+    @Test
+    public void testWrite(@TempDir Path dir) throws Exception {
+        Wrapper.getWrapper(Service.class);
+
+        File classList = dir.resolve("cds/dubbo.classlist").toFile();
+        GeneratedClasses.writeClassList(classList);
+        assertEquals(GeneratedClasses.getClassList(), Files.readAllLines(classList.toPath(), StandardCharsets.UTF_8));
+
+        File specs = dir.resolve("dubbo.precompile").toFile();
+        GeneratedClasses.writeSpecs(specs);
+        assertTrue(Files.readAllLines(specs.toPath(), StandardCharsets.UTF_8).contains("wrapper:" + Service.class.getName()));
+    }
+
+    public interface IService {
+        String sayHello(String name);
+    }
+
+    public static class Service implements IService {
+        @Override
+        public String sayHello(String name) {
+            return "hello " + name;
+        }
+    }
+}
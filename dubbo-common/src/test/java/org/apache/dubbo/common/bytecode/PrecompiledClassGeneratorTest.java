@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.bytecode;
+
+import org.apache.dubbo.common.extension.ext1.SimpleExt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrecompiledClassGeneratorTest {
+
+    @Test
+    public void testWrapper(@TempDir Path dir) throws Exception {
+        ClassLoader cl = compile(dir, "wrapper:" + WrapperTest.Impl1.class.getName(),
+                "wrapper:" + WrapperTest.Impl0.class.getName());
+
+        Wrapper w = (Wrapper) cl.loadClass(WrapperClassCodeGenerator.getClassName(WrapperTest.Impl1.class)).newInstance();
+        Wrapper javassist = Wrapper.getWrapper(WrapperTest.Impl1.class);
+        assertArrayEquals(javassist.getMethodNames(), w.getMethodNames());
+        assertArrayEquals(javassist.getDeclaredMethodNames(), w.getDeclaredMethodNames());
+        assertEquals(float.class, w.getPropertyType("float"));
+
+        Object obj = new WrapperTest.Impl1();
+        assertEquals("you name", w.getPropertyValue(obj, "name"));
+        w.setPropertyValue(obj, "name", "changed");
+        assertEquals("changed", w.getPropertyValue(obj, "name"));
+        assertEquals(3, w.invokeMethod(obj, "showInt", new Class<?>[]{int.class}, new Object[]{3}));
+        Assertions.assertThrows(NoSuchMethodException.class,
+                () -> w.invokeMethod(obj, "hello", new Class<?>[]{String.class, String.class}, new Object[]{"a", "b"}));
+        Assertions.assertThrows(NoSuchPropertyException.class, () -> w.getPropertyValue(obj, "notExist"));
+
+        Wrapper fields = (Wrapper) cl.loadClass(WrapperClassCodeGenerator.getClassName(WrapperTest.Impl0.class)).newInstance();
+        WrapperTest.Impl0 impl0 = new WrapperTest.Impl0();
+        fields.setPropertyValue(impl0, "a", 1.5f);
+        assertEquals(1.5f, impl0.a);
+        assertEquals(1.5f, fields.getPropertyValue(impl0, "a"));
+    }
+
+    @Test
+    public void testProxy(@TempDir Path dir) throws Exception {
+        ClassLoader cl = compile(dir, "proxy:" + ProxyTest.ITest.class.getName());
+
+        Proxy proxy = Proxy.getProxy(cl, ProxyTest.ITest.class);
+        assertEquals(ProxyClassCodeGenerator.getClassName(ProxyTest.ITest.class), proxy.getClass().getName());
+        assertSame(proxy, Proxy.getProxy(cl, ProxyTest.ITest.class));
+        String internalName = proxy.getClass().getName().replace('.', '/');
+        assertTrue(GeneratedClasses.getClassList().contains(internalName));
+        assertTrue(GeneratedClasses.getClassList().contains(internalName + "$Instance"));
+        assertFalse(GeneratedClasses.getRuntimeSpecs().contains("proxy:" + ProxyTest.ITest.class.getName()));
+
+        ProxyTest.ITest instance = (ProxyTest.ITest) proxy.newInstance((p, method, args) -> {
+            if ("setName".equals(method.getName())) {
+                assertArrayEquals(new Object[]{"qianlei", "hello"}, args);
+                throw new IllegalStateException("setName");
+            }
+            return null;
+        });
+        assertTrue(instance instanceof ClassGenerator.DC);
+        assertNull(instance.getName());
+        Assertions.assertThrows(IllegalStateException.class, () -> instance.setName("qianlei", "hello"));
+    }
+
+    @Test
+    public void testAdaptive(@TempDir Path dir) throws Exception {
+        ClassLoader cl = compile(dir, "adaptive:" + SimpleExt.class.getName());
+        Class<?> adaptive = cl.loadClass(SimpleExt.class.getName() + "$Adaptive");
+        assertTrue(SimpleExt.class.isAssignableFrom(adaptive));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> PrecompiledClassGenerator.generate(dir.toFile(), "unknown:" + SimpleExt.class.getName()));
+    }
+
+    private ClassLoader compile(Path dir, String... specs) throws Exception {
+        File source = dir.resolve("source").toFile();
+        File output = dir.resolve("output").toFile();
+        assertTrue(output.mkdirs());
+        String[] args = new String[specs.length + 4];
+        args[0] = "-classpath";
+        args[1] = System.getProperty("java.class.path") + File.pathSeparator
+                + new File(Wrapper.class.getProtectionDomain().getCodeSource().getLocation().toURI()) + File.pathSeparator
+                + new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+        args[2] = "-d";
+        args[3] = output.getAbsolutePath();
+        for (int i = 0; i < specs.length; i++) {
+            args[i + 4] = PrecompiledClassGenerator.generate(source, specs[i]).getAbsolutePath();
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args));
+        return new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+    }
+}
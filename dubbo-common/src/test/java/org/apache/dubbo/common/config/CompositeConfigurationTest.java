@@ -16,8 +16,75 @@
  */
 package org.apache.dubbo.common.config;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  *
  */
 public class CompositeConfigurationTest {
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty("dubbo.composite.timeout");
+        System.clearProperty("dubbo.composite.one.retries");
+    }
+
+    @Test
+    public void testFirstConfigurationWins() {
+        InmemoryConfiguration first = new InmemoryConfiguration("dubbo.composite", "one");
+        first.addProperty("dubbo.composite.timeout", "1000");
+        InmemoryConfiguration second = new InmemoryConfiguration("dubbo.composite", "one");
+        second.addProperty("dubbo.composite.one.timeout", "2000");
+        second.addProperty("retries", "3");
+        CompositeConfiguration configuration = new CompositeConfiguration(first, second);
+
+        // the id specific key of the second configuration does not beat the prefixed key of the first one
+        Assertions.assertEquals("1000", configuration.getString("timeout"));
+        Assertions.assertEquals("3", configuration.getString("retries"));
+        Assertions.assertNull(configuration.getString("loadbalance"));
+        Assertions.assertTrue(configuration.containsKey("retries"));
+        Assertions.assertFalse(configuration.containsKey("loadbalance"));
+    }
+
+    @Test
+    public void testSnapshot() {
+        System.setProperty("dubbo.composite.timeout", "1000");
+        System.setProperty("dubbo.composite.one.retries", "2");
+        InmemoryConfiguration inmemory = new InmemoryConfiguration("dubbo.composite", "one");
+        Map<String, String> properties = new HashMap<>();
+        properties.put("timeout", "3000");
+        properties.put("retries", "4");
+        properties.put("dubbo.composite.loadbalance", "random");
+        inmemory.addProperties(properties);
+        // a configuration which can not list its keys
+        Configuration custom = key -> "loadbalance".equals(key) || "timeout".equals(key) ? "custom" : null;
+        CompositeConfiguration configuration = new CompositeConfiguration(new SystemConfiguration("dubbo.composite", "one"), custom, inmemory);
+
+        Map<String, String> snapshot = configuration.snapshot(Arrays.asList("timeout", "retries", "loadbalance", "cluster"));
+
+        Assertions.assertEquals(3, snapshot.size());
+        Assertions.assertEquals("1000", snapshot.get("timeout"));
+        Assertions.assertEquals("2", snapshot.get("retries"));
+        Assertions.assertEquals("custom", snapshot.get("loadbalance"));
+        Assertions.assertFalse(snapshot.containsKey("cluster"));
+        for (Map.Entry<String, String> entry : snapshot.entrySet()) {
+            Assertions.assertEquals(configuration.getString(entry.getKey()), entry.getValue());
+        }
+
+        // the id specific key beats the prefixed one, which beats the plain one
+        Assertions.assertEquals("random", new CompositeConfiguration(inmemory).snapshot(Arrays.asList("loadbalance")).get("loadbalance"));
+        inmemory.addProperty("dubbo.composite.one.loadbalance", "roundrobin");
+        Assertions.assertEquals("roundrobin", new CompositeConfiguration(inmemory).snapshot(Arrays.asList("loadbalance")).get("loadbalance"));
+
+        // a snapshot does not follow later changes
+        System.setProperty("dubbo.composite.timeout", "5000");
+        Assertions.assertEquals("1000", snapshot.get("timeout"));
+        Assertions.assertEquals("5000", configuration.snapshot(Arrays.asList("timeout")).get("timeout"));
+    }
 }
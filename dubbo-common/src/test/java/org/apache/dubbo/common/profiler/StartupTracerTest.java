@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.profiler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class StartupTracerTest {
+
+    @AfterEach
+    public void tearDown() {
+        StartupTracer.clear();
+        StartupTracer.setEnabled(false);
+    }
+
+    @Test
+    public void testNestedPhases() throws Exception {
+        StartupTracer.setEnabled(true);
+        try (StartupPhase service = StartupTracer.start("service", "demo")) {
+            try (StartupPhase config = StartupTracer.start("config")) {
+                Thread.sleep(1);
+            }
+            try (StartupPhase export = StartupTracer.start("export")) {
+                try (StartupPhase bind = StartupTracer.start("bind")) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        List<StartupPhase> phases = StartupTracer.getPhases();
+        Assertions.assertEquals(1, phases.size());
+        StartupPhase service = phases.get(0);
+        Assertions.assertEquals("service demo", service.getName());
+        Assertions.assertTrue(service.isRoot());
+        Assertions.assertTrue(service.isClosed());
+        Assertions.assertEquals(2, service.getChildren().size());
+        Assertions.assertEquals("config", service.getChildren().get(0).getName());
+        StartupPhase export = service.getChildren().get(1);
+        Assertions.assertEquals("bind", export.getChildren().get(0).getName());
+        Assertions.assertTrue(service.getElapsedNanos() >= export.getElapsedNanos());
+        Assertions.assertTrue(export.getSelfNanos() < export.getElapsedNanos());
+
+        String report = StartupTracer.report();
+        Assertions.assertTrue(report.startsWith("service demo "), report);
+        Assertions.assertTrue(report.contains("\n    bind "), report);
+
+        String[] folded = StartupTracer.folded().split("\n");
+        Assertions.assertEquals(4, folded.length);
+        Assertions.assertTrue(folded[3].matches("service demo;export;bind \\d+"), folded[3]);
+    }
+
+    @Test
+    public void testDisabled() {
+        StartupTracer.setEnabled(false);
+        StartupPhase phase = StartupTracer.start("service", "demo");
+        Assertions.assertSame(phase, StartupTracer.start("config"));
+        Assertions.assertFalse(phase.isRoot());
+        phase.close();
+        Assertions.assertTrue(StartupTracer.getPhases().isEmpty());
+    }
+
+    @Test
+    public void testStartNested() {
+        StartupTracer.setEnabled(true);
+        Assertions.assertFalse(StartupTracer.startNested("extension", "demo").isRoot());
+        try (StartupPhase service = StartupTracer.start("service")) {
+            StartupTracer.startNested("extension", "demo").close();
+            Assertions.assertEquals("extension demo", service.getChildren().get(0).getName());
+        }
+        Assertions.assertEquals(1, StartupTracer.getPhases().size());
+    }
+
+    @Test
+    public void testPhasesOfOtherThreads() throws Exception {
+        StartupTracer.setEnabled(true);
+        try (StartupPhase service = StartupTracer.start("service")) {
+            Thread thread = new Thread(() -> StartupTracer.start("export").close());
+            thread.start();
+            thread.join();
+            Assertions.assertTrue(service.getChildren().isEmpty());
+        }
+        Assertions.assertEquals(2, StartupTracer.getPhases().size());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.monitored;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.threadlocal.InternalThread;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.support.AbortPolicyWithReport;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class MonitoredThreadPoolTest {
+
+    @Test
+    public void getExecutor() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.THREADPOOL_KEY + "=monitored&" +
+                Constants.THREAD_NAME_KEY + "=demo&" +
+                Constants.THREADS_KEY + "=2&" +
+                Constants.QUEUES_KEY + "=10");
+        ThreadPool threadPool = ExtensionLoader.getExtensionLoader(ThreadPool.class).getAdaptiveExtension();
+        MonitoredThreadPoolExecutor executor = (MonitoredThreadPoolExecutor) threadPool.getExecutor(url);
+        assertThat(executor.getCorePoolSize(), is(2));
+        assertThat(executor.getMaximumPoolSize(), is(2));
+        assertThat(executor.getQueue(), Matchers.<BlockingQueue<Runnable>>instanceOf(LinkedBlockingQueue.class));
+        assertThat(executor.getRejectedExecutionHandler(),
+                Matchers.<RejectedExecutionHandler>instanceOf(AbortPolicyWithReport.class));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> {
+            Thread thread = Thread.currentThread();
+            assertThat(thread, instanceOf(InternalThread.class));
+            assertThat(thread.getName(), startsWith("demo"));
+            sleep(10);
+            latch.countDown();
+        });
+        latch.await();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        assertThat(executor.getQueueWait().getCount(), is(1L));
+        assertThat(executor.getExecution().getCount(), is(1L));
+        assertThat(executor.getExecution().getMax(), greaterThan(TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void testAdjustCorePoolSize() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.CORE_THREADS_KEY + "=1&" +
+                Constants.THREADS_KEY + "=8&" +
+                Constants.QUEUES_KEY + "=-1&" +
+                Constants.QUEUE_WAIT_TARGET_KEY + "=1&" +
+                Constants.CORE_THREADS_ADJUST_INTERVAL_KEY + "=5");
+        MonitoredThreadPoolExecutor executor = (MonitoredThreadPoolExecutor) new MonitoredThreadPool().getExecutor(url);
+        assertThat(executor.getCorePoolSize(), is(1));
+
+        // the tasks pile up in the queue behind a single thread
+        CountDownLatch latch = new CountDownLatch(40);
+        for (int i = 0; i < 40; i++) {
+            executor.execute(() -> {
+                sleep(5);
+                latch.countDown();
+            });
+        }
+        latch.await();
+        assertThat(executor.getCorePoolSize(), greaterThan(1));
+        assertThat(executor.getQueueWait().getPercentile(99), greaterThan(TimeUnit.MILLISECONDS.toNanos(1)));
+
+        // an idle pool shrinks back to the initial core size
+        for (int i = 0; i < 100 && executor.getCorePoolSize() > 1; i++) {
+            sleep(10);
+            executor.execute(() -> {
+            });
+        }
+        assertThat(executor.getCorePoolSize(), is(1));
+        executor.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.support.fixed.FixedThreadPool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs 10k concurrent calls of a service blocking 100ms on the virtual and the default fixed thread pool.
+ * <p>
+ * mvn test -Dtest=VirtualThreadPoolPerformanceTest -Dbenchmark=true -Dconcurrent=10000 -Dblock=100
+ */
+public class VirtualThreadPoolPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPoolPerformanceTest.class);
+
+    @Test
+    public void testBlockingService() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the virtual thread pool benchmark");
+            return;
+        }
+        int concurrent = Integer.getInteger("concurrent", 10000);
+        long block = Long.getLong("block", 100);
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo");
+
+        // the fixed thread pool queues the calls it can not run at once
+        long fixed = run((ExecutorService) new FixedThreadPool().getExecutor(
+                url.addParameter(Constants.QUEUES_KEY, -1)), concurrent, block);
+        long virtual = run((ExecutorService) new VirtualThreadPool().getExecutor(url), concurrent, block);
+        logger.info(concurrent + " calls blocking " + block + "ms, fixed " + Constants.DEFAULT_THREADS
+                + " threads: " + fixed + "ms, virtual" + (VirtualThreadPool.isSupported() ? "" : " (cached fallback)")
+                + ": " + virtual + "ms");
+    }
+
+    private static long run(ExecutorService executor, int concurrent, long block) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(concurrent);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < concurrent; i++) {
+            executor.execute(() -> {
+                try {
+                    // the blocking service
+                    Thread.sleep(block);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsed = System.currentTimeMillis() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return elapsed;
+    }
+}
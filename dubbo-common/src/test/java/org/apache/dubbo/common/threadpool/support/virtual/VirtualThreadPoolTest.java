@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.threadlocal.InternalThreadLocal;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class VirtualThreadPoolTest {
+
+    @Test
+    public void getExecutor() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.THREADPOOL_KEY + "=virtual&" +
+                Constants.THREAD_NAME_KEY + "=demo");
+        ThreadPool threadPool = ExtensionLoader.getExtensionLoader(ThreadPool.class).getAdaptiveExtension();
+        Executor executor = threadPool.getExecutor(url);
+        if (VirtualThreadPool.isSupported()) {
+            assertThat(executor, instanceOf(VirtualThreadExecutor.class));
+            assertThat(((VirtualThreadExecutor) executor).getLimit(), is(0));
+        } else {
+            // falls back to the cached thread pool
+            assertThat(executor, instanceOf(ThreadPoolExecutor.class));
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(latch::countDown);
+        Assertions.assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(Thread::new, "demo", 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                await(blocked);
+            });
+        }
+        started.await();
+        assertThat(executor.getRunningCount(), is(2));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+
+        blocked.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(executor.isTerminated());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+    }
+
+    @Test
+    public void testInternalThreadLocalRemoved() throws Exception {
+        AtomicInteger sizeAfterTask = new AtomicInteger(-1);
+        CountDownLatch done = new CountDownLatch(1);
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(task -> new Thread(() -> {
+            task.run();
+            sizeAfterTask.set(InternalThreadLocal.size());
+            done.countDown();
+        }), "demo", 0);
+
+        InternalThreadLocal<String> local = new InternalThreadLocal<>();
+        executor.execute(() -> local.set("value"));
+        done.await();
+        assertThat(sizeAfterTask.get(), is(0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
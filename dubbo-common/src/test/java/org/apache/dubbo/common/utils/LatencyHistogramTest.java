@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getMean());
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.25, "p50: " + p50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99: " + p99);
+        assertEquals(1000, histogram.getPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(0));
+    }
+
+    @Test
+    public void testWindow() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(600, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1000);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+
+        // the old values leave the window, only the recent ones are read
+        Thread.sleep(700);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        histogram.record(10);
+        assertEquals(1, histogram.getCount());
+        assertEquals(10, histogram.getMax());
+        assertEquals(10, histogram.getPercentile(99));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(1, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 100, 12345, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "value: " + value);
+            assertTrue(index == 0 || LatencyHistogram.upperBoundOf(index - 1) < value, "value: " + value);
+        }
+    }
+}
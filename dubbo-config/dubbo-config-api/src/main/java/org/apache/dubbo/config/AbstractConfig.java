@@ -24,9 +24,10 @@ import org.apache.dubbo.common.config.InmemoryConfiguration;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.CollectionUtils;
-import org.apache.dubbo.common.utils.MethodUtils;
 import org.apache.dubbo.common.utils.ReflectUtils;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.config.support.Parameter;
@@ -153,21 +154,12 @@ public abstract class AbstractConfig implements Serializable {
         if (config == null) {
             return;
         }
-        Method[] methods = config.getClass().getMethods();
-        for (Method method : methods) {
+        for (ConfigDescriptor.Property property : ConfigDescriptor.of(config.getClass()).getParameters()) {
             try {
-                String name = method.getName();
-                if (MethodUtils.isGetter(method)) {
-                    Parameter parameter = method.getAnnotation(Parameter.class);
-                    if (method.getReturnType() == Object.class || parameter != null && parameter.excluded()) {
-                        continue;
-                    }
-                    String key;
-                    if (parameter != null && parameter.key().length() > 0) {
-                        key = parameter.key();
-                    } else {
-                        key = calculatePropertyFromGetter(name);
-                    }
+                Method method = property.getMethod();
+                if (!property.isParametersGetter()) {
+                    Parameter parameter = property.getParameter();
+                    String key = property.getKey();
                     Object value = method.invoke(config);
                     String str = String.valueOf(value).trim();
                     if (value != null && str.length() > 0) {
@@ -191,10 +183,7 @@ public abstract class AbstractConfig implements Serializable {
                     } else if (parameter != null && parameter.required()) {
                         throw new IllegalStateException(config.getClass().getSimpleName() + "." + key + " == null");
                     }
-                } else if ("getParameters".equals(name)
-                        && Modifier.isPublic(method.getModifiers())
-                        && method.getParameterTypes().length == 0
-                        && method.getReturnType() == Map.class) {
+                } else {
                     Map<String, String> map = (Map<String, String>) method.invoke(config, new Object[0]);
                     if (map != null && map.size() > 0) {
                         String pre = (prefix != null && prefix.length() > 0 ? prefix + "." : "");
@@ -217,28 +206,15 @@ public abstract class AbstractConfig implements Serializable {
         if (config == null) {
             return;
         }
-        Method[] methods = config.getClass().getMethods();
-        for (Method method : methods) {
+        for (ConfigDescriptor.Property property : ConfigDescriptor.of(config.getClass()).getAttributes()) {
             try {
-                Parameter parameter = method.getAnnotation(Parameter.class);
-                if (parameter == null || !parameter.attribute()) {
-                    continue;
-                }
-                String name = method.getName();
-                if (MethodUtils.isGetter(method)) {
-                    String key;
-                    if (parameter.key().length() > 0) {
-                        key = parameter.key();
-                    } else {
-                        key = calculateAttributeFromGetter(name);
-                    }
-                    Object value = method.invoke(config);
-                    if (value != null) {
-                        if (prefix != null && prefix.length() > 0) {
-                            key = prefix + "." + key;
-                        }
-                        parameters.put(key, value);
+                String key = property.getKey();
+                Object value = property.getMethod().invoke(config);
+                if (value != null) {
+                    if (prefix != null && prefix.length() > 0) {
+                        key = prefix + "." + key;
                     }
+                    parameters.put(key, value);
                 }
             } catch (Exception e) {
                 throw new IllegalStateException(e.getMessage(), e);
@@ -391,33 +367,6 @@ public abstract class AbstractConfig implements Serializable {
         }).collect(Collectors.toSet());
     }
 
-    private static String extractPropertyName(Class<?> clazz, Method setter) throws Exception {
-        String propertyName = setter.getName().substring("set".length());
-        Method getter = null;
-        try {
-            getter = clazz.getMethod("get" + propertyName);
-        } catch (NoSuchMethodException e) {
-            getter = clazz.getMethod("is" + propertyName);
-        }
-        Parameter parameter = getter.getAnnotation(Parameter.class);
-        if (parameter != null && StringUtils.isNotEmpty(parameter.key()) && parameter.useKeyAsProperty()) {
-            propertyName = parameter.key();
-        } else {
-            propertyName = propertyName.substring(0, 1).toLowerCase() + propertyName.substring(1);
-        }
-        return propertyName;
-    }
-
-    private static String calculatePropertyFromGetter(String name) {
-        int i = name.startsWith("get") ? 3 : 2;
-        return StringUtils.camelToSplitName(name.substring(i, i + 1).toLowerCase() + name.substring(i + 1), ".");
-    }
-
-    private static String calculateAttributeFromGetter(String getter) {
-        int i = getter.startsWith("get") ? 3 : 2;
-        return getter.substring(i, i + 1).toLowerCase() + getter.substring(i + 1);
-    }
-
     @Parameter(excluded = true)
     public String getId() {
         return id;
@@ -482,19 +431,11 @@ public abstract class AbstractConfig implements Serializable {
      */
     public Map<String, String> getMetaData() {
         Map<String, String> metaData = new HashMap<>();
-        Method[] methods = this.getClass().getMethods();
-        for (Method method : methods) {
+        for (ConfigDescriptor.Property property : ConfigDescriptor.of(getClass()).getMetaData()) {
             try {
-                String name = method.getName();
-                if (isMetaMethod(method)) {
-                    String prop = calculateAttributeFromGetter(name);
-                    String key;
-                    Parameter parameter = method.getAnnotation(Parameter.class);
-                    if (parameter != null && parameter.key().length() > 0 && parameter.useKeyAsProperty()) {
-                        key = parameter.key();
-                    } else {
-                        key = prop;
-                    }
+                Method method = property.getMethod();
+                if (!property.isParametersGetter()) {
+                    String key = property.getKey();
                     // treat url and configuration differently, the value should always present in configuration though it may not need to present in url.
                     //if (method.getReturnType() == Object.class || parameter != null && parameter.excluded()) {
                     if (method.getReturnType() == Object.class) {
@@ -508,10 +449,7 @@ public abstract class AbstractConfig implements Serializable {
                     } else {
                         metaData.put(key, null);
                     }
-                } else if ("getParameters".equals(name)
-                        && Modifier.isPublic(method.getModifiers())
-                        && method.getParameterTypes().length == 0
-                        && method.getReturnType() == Map.class) {
+                } else {
                     Map<String, String> map = (Map<String, String>) method.invoke(this, new Object[0]);
                     if (map != null && map.size() > 0) {
 //                            String pre = (prefix != null && prefix.length() > 0 ? prefix + "." : "");
@@ -541,7 +479,7 @@ public abstract class AbstractConfig implements Serializable {
      * overriding of customized parameters stored in 'parameters'.
      */
     public void refresh() {
-        try {
+        try (StartupPhase phase = StartupTracer.start("refresh", getClass().getSimpleName())) {
             CompositeConfiguration compositeConfiguration = Environment.getInstance().getConfiguration(getPrefix(), getId());
             InmemoryConfiguration config = new InmemoryConfiguration(getPrefix(), getId());
             config.addProperties(getMetaData());
@@ -553,21 +491,21 @@ public abstract class AbstractConfig implements Serializable {
                 compositeConfiguration.addConfiguration(1, config);
             }
 
-            // loop methods, get override value and set the new value back to method
-            Method[] methods = getClass().getMethods();
-            for (Method method : methods) {
-                if (MethodUtils.isSetter(method)) {
-                    try {
-                        String value = StringUtils.trim(compositeConfiguration.getString(extractPropertyName(getClass(), method)));
-                        // isTypeMatch() is called to avoid duplicate and incorrect update, for example, we have two 'setGeneric' methods in ReferenceConfig.
-                        if (StringUtils.isNotEmpty(value) && ClassUtils.isTypeMatch(method.getParameterTypes()[0], value)) {
-                            method.invoke(this, ClassUtils.convertPrimitive(method.getParameterTypes()[0], value));
-                        }
-                    } catch (NoSuchMethodException e) {
-                        logger.info("Failed to override the property " + method.getName() + " in " +
-                                this.getClass().getSimpleName() +
-                                ", please make sure every property has getter/setter method provided.");
-                    }
+            // resolve every property at once, then set the override values back through the setters
+            ConfigDescriptor descriptor = ConfigDescriptor.of(getClass());
+            Map<String, String> overrides = compositeConfiguration.snapshot(descriptor.getPropertyNames());
+            for (ConfigDescriptor.Property setter : descriptor.getSetters()) {
+                Method method = setter.getMethod();
+                if (setter.getKey() == null) {
+                    logger.info("Failed to override the property " + method.getName() + " in " +
+                            this.getClass().getSimpleName() +
+                            ", please make sure every property has getter/setter method provided.");
+                    continue;
+                }
+                String value = StringUtils.trim(overrides.get(setter.getKey()));
+                // isTypeMatch() is called to avoid duplicate and incorrect update, for example, we have two 'setGeneric' methods in ReferenceConfig.
+                if (StringUtils.isNotEmpty(value) && ClassUtils.isTypeMatch(method.getParameterTypes()[0], value)) {
+                    method.invoke(this, ClassUtils.convertPrimitive(method.getParameterTypes()[0], value));
                 }
             }
         } catch (Exception e) {
@@ -581,20 +519,15 @@ public abstract class AbstractConfig implements Serializable {
             StringBuilder buf = new StringBuilder();
             buf.append("<dubbo:");
             buf.append(getTagName(getClass()));
-            Method[] methods = getClass().getMethods();
-            for (Method method : methods) {
+            for (ConfigDescriptor.Property getter : ConfigDescriptor.of(getClass()).getGetters()) {
                 try {
-                    if (MethodUtils.isGetter(method)) {
-                        String name = method.getName();
-                        String key = calculateAttributeFromGetter(name);
-                        Object value = method.invoke(this);
-                        if (value != null) {
-                            buf.append(" ");
-                            buf.append(key);
-                            buf.append("=\"");
-                            buf.append(value);
-                            buf.append("\"");
-                        }
+                    Object value = getter.getMethod().invoke(this);
+                    if (value != null) {
+                        buf.append(" ");
+                        buf.append(getter.getKey());
+                        buf.append("=\"");
+                        buf.append(value);
+                        buf.append("\"");
                     }
                 } catch (Exception e) {
                     logger.warn(e.getMessage(), e);
@@ -616,44 +549,21 @@ public abstract class AbstractConfig implements Serializable {
         return true;
     }
 
-    private boolean isMetaMethod(Method method) {
-        String name = method.getName();
-        if (!(name.startsWith("get") || name.startsWith("is"))) {
-            return false;
-        }
-        if ("get".equals(name)) {
-            return false;
-        }
-        if ("getClass".equals(name)) {
-            return false;
-        }
-        if (!Modifier.isPublic(method.getModifiers())) {
-            return false;
-        }
-        if (method.getParameterTypes().length != 0) {
-            return false;
-        }
-        if (!ClassUtils.isPrimitive(method.getReturnType())) {
-            return false;
-        }
-        return true;
-    }
-
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj.getClass().getName().equals(this.getClass().getName()))) {
             return false;
         }
 
-        Method[] methods = this.getClass().getMethods();
-        for (Method method1 : methods) {
-            if (MethodUtils.isGetter(method1) && ClassUtils.isPrimitive(method1.getReturnType())) {
-                Parameter parameter = method1.getAnnotation(Parameter.class);
+        for (ConfigDescriptor.Property getter : ConfigDescriptor.of(getClass()).getGetters()) {
+            Method method1 = getter.getMethod();
+            if (ClassUtils.isPrimitive(method1.getReturnType())) {
+                Parameter parameter = getter.getParameter();
                 if (parameter != null && parameter.excluded()) {
                     continue;
                 }
                 try {
-                    Method method2 = obj.getClass().getMethod(method1.getName(), method1.getParameterTypes());
+                    Method method2 = obj.getClass() == getClass() ? method1 : obj.getClass().getMethod(method1.getName(), method1.getParameterTypes());
                     Object value1 = method1.invoke(this, new Object[]{});
                     Object value2 = method2.invoke(obj, new Object[]{});
                     if ((value1 != null && value2 != null) && !value1.equals(value2)) {
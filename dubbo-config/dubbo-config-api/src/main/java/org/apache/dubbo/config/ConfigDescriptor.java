@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.utils.ClassUtils;
+import org.apache.dubbo.common.utils.MethodUtils;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.config.support.Parameter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The getters and setters of a config class, sorted out once per class by what {@link AbstractConfig} uses them for,
+ * so that appending parameters, collecting metadata and refreshing a config need no reflective scan of its methods.
+ * The properties keep the order of {@link Class#getMethods()}, which decides which value wins when two of them map
+ * to the same key.
+ */
+final class ConfigDescriptor {
+
+    private static final ConcurrentMap<Class<?>, ConfigDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+    private final List<Property> parameters = new ArrayList<>();
+    private final List<Property> attributes = new ArrayList<>();
+    private final List<Property> metaData = new ArrayList<>();
+    private final List<Property> getters = new ArrayList<>();
+    private final List<Property> setters = new ArrayList<>();
+    private final List<String> propertyNames = new ArrayList<>();
+
+    private ConfigDescriptor(Class<?> clazz) {
+        for (Method method : clazz.getMethods()) {
+            String name = method.getName();
+            Parameter parameter = method.getAnnotation(Parameter.class);
+            boolean parametersGetter = "getParameters".equals(name)
+                    && Modifier.isPublic(method.getModifiers())
+                    && method.getParameterTypes().length == 0
+                    && method.getReturnType() == Map.class;
+            if (MethodUtils.isGetter(method)) {
+                if (method.getReturnType() != Object.class && (parameter == null || !parameter.excluded())) {
+                    String key = parameter != null && parameter.key().length() > 0 ? parameter.key() : calculatePropertyFromGetter(name);
+                    parameters.add(new Property(method, key, parameter, false));
+                }
+                if (parameter != null && parameter.attribute()) {
+                    String key = parameter.key().length() > 0 ? parameter.key() : calculateAttributeFromGetter(name);
+                    attributes.add(new Property(method, key, parameter, false));
+                }
+                getters.add(new Property(method, calculateAttributeFromGetter(name), parameter, false));
+            } else if (parametersGetter) {
+                parameters.add(new Property(method, null, parameter, true));
+            }
+            if (isMetaMethod(method)) {
+                String key = parameter != null && parameter.key().length() > 0 && parameter.useKeyAsProperty()
+                        ? parameter.key() : calculateAttributeFromGetter(name);
+                metaData.add(new Property(method, key, parameter, false));
+            } else if (parametersGetter) {
+                metaData.add(new Property(method, null, parameter, true));
+            }
+            if (MethodUtils.isSetter(method)) {
+                String propertyName = extractPropertyName(clazz, method);
+                setters.add(new Property(method, propertyName, null, false));
+                if (propertyName != null) {
+                    propertyNames.add(propertyName);
+                }
+            }
+        }
+    }
+
+    static ConfigDescriptor of(Class<?> clazz) {
+        return DESCRIPTORS.computeIfAbsent(clazz, ConfigDescriptor::new);
+    }
+
+    /**
+     * @return the getters to append to the URL parameters, including getParameters()
+     */
+    List<Property> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the getters annotated as {@link Parameter#attribute()}
+     */
+    List<Property> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return the getters making up {@link AbstractConfig#getMetaData()}, including getParameters()
+     */
+    List<Property> getMetaData() {
+        return metaData;
+    }
+
+    List<Property> getGetters() {
+        return getters;
+    }
+
+    /**
+     * @return the setters, keyed by the property name they are refreshed from, or by null if they have no getter
+     */
+    List<Property> getSetters() {
+        return setters;
+    }
+
+    /**
+     * @return the names of all the properties a config of this class is refreshed from
+     */
+    List<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    private static String extractPropertyName(Class<?> clazz, Method setter) {
+        String propertyName = setter.getName().substring("set".length());
+        Method getter;
+        try {
+            try {
+                getter = clazz.getMethod("get" + propertyName);
+            } catch (NoSuchMethodException e) {
+                getter = clazz.getMethod("is" + propertyName);
+            }
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        Parameter parameter = getter.getAnnotation(Parameter.class);
+        if (parameter != null && StringUtils.isNotEmpty(parameter.key()) && parameter.useKeyAsProperty()) {
+            propertyName = parameter.key();
+        } else {
+            propertyName = propertyName.substring(0, 1).toLowerCase() + propertyName.substring(1);
+        }
+        return propertyName;
+    }
+
+    private static String calculatePropertyFromGetter(String name) {
+        int i = name.startsWith("get") ? 3 : 2;
+        return StringUtils.camelToSplitName(name.substring(i, i + 1).toLowerCase() + name.substring(i + 1), ".");
+    }
+
+    private static String calculateAttributeFromGetter(String getter) {
+        int i = getter.startsWith("get") ? 3 : 2;
+        return getter.substring(i, i + 1).toLowerCase() + getter.substring(i + 1);
+    }
+
+    private static boolean isMetaMethod(Method method) {
+        String name = method.getName();
+        if (!(name.startsWith("get") || name.startsWith("is"))) {
+            return false;
+        }
+        if ("get".equals(name)) {
+            return false;
+        }
+        if ("getClass".equals(name)) {
+            return false;
+        }
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        if (method.getParameterTypes().length != 0) {
+            return false;
+        }
+        if (!ClassUtils.isPrimitive(method.getReturnType())) {
+            return false;
+        }
+        return true;
+    }
+
+    static final class Property {
+        private final Method method;
+        private final String key;
+        private final Parameter parameter;
+        private final boolean parametersGetter;
+
+        private Property(Method method, String key, Parameter parameter, boolean parametersGetter) {
+            this.method = method;
+            this.key = key;
+            this.parameter = parameter;
+            this.parametersGetter = parametersGetter;
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        Parameter getParameter() {
+            return parameter;
+        }
+
+        /**
+         * @return whether this is getParameters(), whose entries are appended one by one instead of under a key
+         */
+        boolean isParametersGetter() {
+            return parametersGetter;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.config.ConfigurationUtils;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.registry.Registry;
+import org.apache.dubbo.registry.RegistryFactory;
+import org.apache.dubbo.registry.support.ProviderConsumerRegTable;
+import org.apache.dubbo.registry.support.ProviderInvokerWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports services and refers references concurrently on a bounded executor, and waits for all of them.
+ * <p>
+ * By default the registration of the exported services is deferred until every service has been exported
+ * and every reference has been referred, then the providers are registered together, concurrently.
+ * So the application is only discoverable once it is fully ready. The configs are left as they are, the exports
+ * run with {@link ProviderConsumerRegTable#setRegisterDeferred(boolean)} instead. A service with a
+ * <code>delay</code> is not waited for, it exports and registers on its own once the delay is over.
+ * <pre>
+ *     new ParallelBootstrap(16).addServices(services).addReferences(references).start();
+ * </pre>
+ */
+public class ParallelBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelBootstrap.class);
+
+    private static final RegistryFactory REGISTRY_FACTORY = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getAdaptiveExtension();
+
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final List<ServiceConfig<?>> services = new ArrayList<>();
+
+    private final List<ReferenceConfig<?>> references = new ArrayList<>();
+
+    private final int threads;
+
+    private boolean deferRegister = true;
+
+    /**
+     * phase name -> elapsed millis
+     */
+    private final Map<String, Long> phaseCosts = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * service or reference key -> elapsed millis of its export or refer
+     */
+    private final Map<String, Long> costs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public ParallelBootstrap() {
+        this(getDefaultThreads());
+    }
+
+    public ParallelBootstrap(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive, but was " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * whether the parallel bootstrap is turned on by <code>dubbo.bootstrap.parallel</code>.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigurationUtils.getProperty(Constants.PARALLEL_BOOTSTRAP_KEY, "false"));
+    }
+
+    private static int getDefaultThreads() {
+        String threads = ConfigurationUtils.getProperty(Constants.PARALLEL_BOOTSTRAP_THREADS_KEY);
+        return StringUtils.isNotEmpty(threads) ? Integer.parseInt(threads.trim()) : DEFAULT_THREADS;
+    }
+
+    public ParallelBootstrap addService(ServiceConfig<?> service) {
+        services.add(service);
+        return this;
+    }
+
+    public ParallelBootstrap addServices(List<? extends ServiceConfig<?>> services) {
+        this.services.addAll(services);
+        return this;
+    }
+
+    public ParallelBootstrap addReference(ReferenceConfig<?> reference) {
+        references.add(reference);
+        return this;
+    }
+
+    public ParallelBootstrap addReferences(List<? extends ReferenceConfig<?>> references) {
+        this.references.addAll(references);
+        return this;
+    }
+
+    public ParallelBootstrap setDeferRegister(boolean deferRegister) {
+        this.deferRegister = deferRegister;
+        return this;
+    }
+
+    /**
+     * export all services and refer all references, return when all of them are done.
+     *
+     * @throws IllegalStateException if any of them failed, the other failures are added as suppressed
+     */
+    public synchronized void start() {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("DubboParallelBootstrap", true));
+        try {
+            List<ServiceConfig<?>> deferred = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (ServiceConfig<?> service : services) {
+                boolean defer = deferRegister && !isDelayed(service);
+                if (defer) {
+                    deferred.add(service);
+                }
+                String key = "export " + URL.buildKey(service.getInterface(), service.getGroup(), service.getVersion());
+                futures.add(executor.submit(() -> timed(key, () -> export(service, defer))));
+            }
+            for (ReferenceConfig<?> reference : references) {
+                String key = "refer " + URL.buildKey(reference.getInterface(), reference.getGroup(), reference.getVersion());
+                futures.add(executor.submit(() -> timed(key, reference::get)));
+            }
+            await(futures);
+            phaseCosts.put("export and refer", System.currentTimeMillis() - start);
+
+            long registerStart = System.currentTimeMillis();
+            await(registerDeferred(executor, deferred));
+            phaseCosts.put("register", System.currentTimeMillis() - registerStart);
+        } finally {
+            executor.shutdownNow();
+            phaseCosts.put("total", System.currentTimeMillis() - start);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Parallel bootstrap exported " + services.size() + " services and referred "
+                    + references.size() + " references with " + threads + " threads, phase costs(ms): " + phaseCosts
+                    + ", slowest: " + getSlowest());
+        }
+    }
+
+    private static boolean isDelayed(ServiceConfig<?> service) {
+        Integer delay = service.getDelay();
+        return delay != null && delay > 0;
+    }
+
+    private static void export(ServiceConfig<?> service, boolean deferRegister) {
+        ProviderConsumerRegTable.setRegisterDeferred(deferRegister);
+        try {
+            service.export();
+        } finally {
+            ProviderConsumerRegTable.setRegisterDeferred(false);
+        }
+    }
+
+    /**
+     * the registry has no bulk registration, the whole batch is submitted at once instead, one task per provider
+     */
+    private List<Future<?>> registerDeferred(ExecutorService executor, List<ServiceConfig<?>> deferred) {
+        // a service exported by several protocols lists its providers for each of them
+        Set<ProviderInvokerWrapper> wrappers = new LinkedHashSet<>();
+        for (ServiceConfig<?> service : deferred) {
+            for (URL url : service.getExportedUrls()) {
+                for (ProviderInvokerWrapper wrapper : ProviderConsumerRegTable.getProviderInvoker(url.getServiceKey())) {
+                    // providers of register=false are kept unregistered
+                    if (!wrapper.isReg() && wrapper.getProviderUrl().getParameter(Constants.REGISTER_KEY, true)) {
+                        wrappers.add(wrapper);
+                    }
+                }
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (ProviderInvokerWrapper wrapper : wrappers) {
+            String key = "register " + wrapper.getProviderUrl().getServiceKey() + " to " + wrapper.getRegistryUrl().getAddress();
+            futures.add(executor.submit(() -> timed(key, () -> {
+                Registry registry = REGISTRY_FACTORY.getRegistry(wrapper.getRegistryUrl());
+                registry.register(wrapper.getProviderUrl());
+                wrapper.setReg(true);
+            })));
+        }
+        return futures;
+    }
+
+    private void timed(String key, Runnable task) {
+        long start = System.currentTimeMillis();
+        try {
+            task.run();
+        } finally {
+            costs.put(key, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void await(List<Future<?>> futures) {
+        IllegalStateException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parallel bootstrap", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (failure == null) {
+                    failure = new IllegalStateException("Parallel bootstrap failed: " + cause.getMessage(), cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private String getSlowest() {
+        synchronized (costs) {
+            return costs.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(e -> e.getKey() + "(" + e.getValue() + "ms)")
+                    .orElse("none");
+        }
+    }
+
+    /**
+     * @return elapsed millis of the phases of the last start, in phase order
+     */
+    public Map<String, Long> getPhaseCosts() {
+        synchronized (phaseCosts) {
+            return new LinkedHashMap<>(phaseCosts);
+        }
+    }
+
+    /**
+     * @return elapsed millis of each export, refer and registration of the last start
+     */
+    public Map<String, Long> getCosts() {
+        synchronized (costs) {
+            return new LinkedHashMap<>(costs);
+        }
+    }
+}
@@ -21,6 +21,8 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.bytecode.Wrapper;
 import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.common.utils.ConfigUtils;
@@ -223,13 +225,28 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
     }
 
     public synchronized T get() {
-        checkAndUpdateSubConfigs();
+        if (ref != null && !destroyed) {
+            // only trace the first call, which is the startup of the reference
+            checkAndUpdateSubConfigs();
+            return ref;
+        }
+        StartupPhase phase = StartupTracer.start("reference", interfaceName);
+        try {
+            try (StartupPhase config = StartupTracer.start("config")) {
+                checkAndUpdateSubConfigs();
+            }
 
-        if (destroyed) {
-            throw new IllegalStateException("The invoker of ReferenceConfig(" + url + ") has already destroyed!");
+            if (destroyed) {
+                throw new IllegalStateException("The invoker of ReferenceConfig(" + url + ") has already destroyed!");
+            }
+            if (ref == null) {
+                init();
+            }
+        } finally {
+            phase.close();
         }
-        if (ref == null) {
-            init();
+        if (phase.isRoot()) {
+            logger.info("Startup trace of reference " + interfaceName + ":\n" + StartupTracer.report(phase));
         }
         return ref;
     }
@@ -313,6 +330,10 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
 
         String serviceKey = URL.buildKey(interfaceName, group, version);
         ApplicationModel.initConsumerModel(serviceKey, buildConsumerModel(serviceKey, attributes));
+
+        if (StartupWarmup.isEnabled()) {
+            StartupWarmup.warmupReference(interfaceClass, invoker.getUrl());
+        }
     }
 
     private ConsumerModel buildConsumerModel(String serviceKey, Map<String, Object> attributes) {
@@ -333,7 +354,7 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
     private T createProxy(Map<String, String> map) {
         if (shouldJvmRefer(map)) {
             URL url = new URL(Constants.LOCAL_PROTOCOL, Constants.LOCALHOST_VALUE, 0, interfaceClass.getName()).addParameters(map);
-            invoker = REF_PROTOCOL.refer(interfaceClass, url);
+            invoker = refer(url);
             if (logger.isInfoEnabled()) {
                 logger.info("Using injvm service " + interfaceClass.getName());
             }
@@ -371,12 +392,12 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
             }
 
             if (urls.size() == 1) {
-                invoker = REF_PROTOCOL.refer(interfaceClass, urls.get(0));
+                invoker = refer(urls.get(0));
             } else {
                 List<Invoker<?>> invokers = new ArrayList<Invoker<?>>();
                 URL registryURL = null;
                 for (URL url : urls) {
-                    invokers.add(REF_PROTOCOL.refer(interfaceClass, url));
+                    invokers.add(refer(url));
                     if (Constants.REGISTRY_PROTOCOL.equals(url.getProtocol())) {
                         registryURL = url; // use last registry url
                     }
@@ -407,10 +428,20 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
         MetadataReportService metadataReportService = null;
         if ((metadataReportService = getMetadataReportService()) != null) {
             URL consumerURL = new URL(Constants.CONSUMER_PROTOCOL, map.remove(Constants.REGISTER_IP_KEY), 0, map.get(Constants.INTERFACE_KEY), map);
-            metadataReportService.publishConsumer(consumerURL);
+            try (StartupPhase phase = StartupTracer.start("metadata")) {
+                metadataReportService.publishConsumer(consumerURL);
+            }
         }
         // create service proxy
-        return (T) PROXY_FACTORY.getProxy(invoker);
+        try (StartupPhase phase = StartupTracer.start("proxy")) {
+            return (T) PROXY_FACTORY.getProxy(invoker);
+        }
+    }
+
+    private Invoker<?> refer(URL url) {
+        try (StartupPhase phase = StartupTracer.start("refer", url.getProtocol())) {
+            return REF_PROTOCOL.refer(interfaceClass, url);
+        }
     }
 
     /**
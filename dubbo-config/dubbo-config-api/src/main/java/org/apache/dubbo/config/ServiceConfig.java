@@ -23,6 +23,8 @@ import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.bytecode.Wrapper;
 import org.apache.dubbo.common.config.Environment;
 import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.common.utils.ConfigUtils;
@@ -57,6 +59,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -101,7 +104,7 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
     /**
      * A random port cache, the different protocols who has no port specified have different random port
      */
-    private static final Map<String, Integer> RANDOM_PORT_MAP = new HashMap<String, Integer>();
+    private static final Map<String, Integer> RANDOM_PORT_MAP = new ConcurrentHashMap<String, Integer>();
 
     /**
      * A delayed exposure service timer
@@ -237,12 +240,15 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
         return RANDOM_PORT_MAP.getOrDefault(protocol, Integer.MIN_VALUE);
     }
 
-    private static void putRandomPort(String protocol, Integer port) {
+    private static Integer putRandomPort(String protocol, Integer port) {
         protocol = protocol.toLowerCase();
-        if (!RANDOM_PORT_MAP.containsKey(protocol)) {
-            RANDOM_PORT_MAP.put(protocol, port);
-            logger.warn("Use random available port(" + port + ") for protocol " + protocol);
+        // services may be exported concurrently, the first random port of the protocol wins
+        Integer previous = RANDOM_PORT_MAP.putIfAbsent(protocol, port);
+        if (previous != null) {
+            return previous;
         }
+        logger.warn("Use random available port(" + port + ") for protocol " + protocol);
+        return port;
     }
 
     public URL toUrl() {
@@ -328,16 +334,42 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
     }
 
     public synchronized void export() {
-        checkAndUpdateSubConfigs();
+        StartupPhase phase = StartupTracer.start("service", interfaceName);
+        boolean delayed = false;
+        try {
+            try (StartupPhase config = StartupTracer.start("config")) {
+                checkAndUpdateSubConfigs();
+            }
 
-        if (!shouldExport()) {
-            return;
+            if (!shouldExport()) {
+                return;
+            }
+
+            if (shouldDelay()) {
+                delayed = true;
+                delayExportExecutor.schedule(() -> delayedExport(phase), getDelay(), TimeUnit.MILLISECONDS);
+            } else {
+                doExport();
+            }
+        } finally {
+            phase.close();
+        }
+        // a delayed export is logged once doExport has run
+        if (phase.isRoot() && !delayed) {
+            logger.info("Startup trace of service " + interfaceName + ":\n" + StartupTracer.report(phase));
         }
+    }
 
-        if (shouldDelay()) {
-            delayExportExecutor.schedule(this::doExport, getDelay(), TimeUnit.MILLISECONDS);
-        } else {
+    private void delayedExport(StartupPhase exportPhase) {
+        StartupPhase phase = StartupTracer.start("delayed service", interfaceName);
+        try {
             doExport();
+        } finally {
+            phase.close();
+        }
+        if (phase.isRoot()) {
+            logger.info("Startup trace of service " + interfaceName + ":\n" + StartupTracer.report(exportPhase)
+                    + StartupTracer.report(phase));
         }
     }
 
@@ -374,7 +406,12 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
         if (StringUtils.isEmpty(path)) {
             path = interfaceName;
         }
-        doExportUrls();
+        try (StartupPhase phase = StartupTracer.start("export")) {
+            doExportUrls();
+        }
+        if (StartupWarmup.isEnabled()) {
+            StartupWarmup.warmupService(ref, interfaceClass, new ArrayList<>(urls));
+        }
     }
 
     private void checkRef() {
@@ -559,18 +596,16 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
                             registryURL = registryURL.addParameter(Constants.PROXY_KEY, proxy);
                         }
 
-                        Invoker<?> invoker = proxyFactory.getInvoker(ref, (Class) interfaceClass, registryURL.addParameterAndEncoded(Constants.EXPORT_KEY, url.toFullString()));
+                        Invoker<?> invoker = getInvoker(registryURL.addParameterAndEncoded(Constants.EXPORT_KEY, url.toFullString()));
                         DelegateProviderMetaDataInvoker wrapperInvoker = new DelegateProviderMetaDataInvoker(invoker, this);
 
-                        Exporter<?> exporter = protocol.export(wrapperInvoker);
-                        exporters.add(exporter);
+                        exporters.add(exportInvoker(wrapperInvoker));
                     }
                 } else {
-                    Invoker<?> invoker = proxyFactory.getInvoker(ref, (Class) interfaceClass, url);
+                    Invoker<?> invoker = getInvoker(url);
                     DelegateProviderMetaDataInvoker wrapperInvoker = new DelegateProviderMetaDataInvoker(invoker, this);
 
-                    Exporter<?> exporter = protocol.export(wrapperInvoker);
-                    exporters.add(exporter);
+                    exporters.add(exportInvoker(wrapperInvoker));
                 }
                 /**
                  * @since 2.7.0
@@ -578,7 +613,9 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
                  */
                 MetadataReportService metadataReportService = null;
                 if ((metadataReportService = getMetadataReportService()) != null) {
-                    metadataReportService.publishProvider(url);
+                    try (StartupPhase phase = StartupTracer.start("metadata")) {
+                        metadataReportService.publishProvider(url);
+                    }
                 }
             }
         }
@@ -593,13 +630,25 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
                     .setHost(LOCALHOST_VALUE)
                     .setPort(0)
                     .build();
-            Exporter<?> exporter = protocol.export(
-                    proxyFactory.getInvoker(ref, (Class) interfaceClass, local));
+            Exporter<?> exporter = exportInvoker(getInvoker(local));
             exporters.add(exporter);
             logger.info("Export dubbo service " + interfaceClass.getName() + " to local registry");
         }
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Invoker<?> getInvoker(URL url) {
+        try (StartupPhase phase = StartupTracer.start("proxy", url.getProtocol())) {
+            return proxyFactory.getInvoker(ref, (Class) interfaceClass, url);
+        }
+    }
+
+    private Exporter<?> exportInvoker(Invoker<?> invoker) {
+        try (StartupPhase phase = StartupTracer.start("protocol", invoker.getUrl().getProtocol())) {
+            return protocol.export(invoker);
+        }
+    }
+
     private Optional<String> getContextPath(ProtocolConfig protocolConfig) {
         String contextPath = protocolConfig.getContextpath();
         if (StringUtils.isEmpty(contextPath) && provider != null) {
@@ -712,8 +761,7 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
             if (portToBind == null || portToBind <= 0) {
                 portToBind = getRandomPort(name);
                 if (portToBind == null || portToBind < 0) {
-                    portToBind = getAvailablePort(defaultPort);
-                    putRandomPort(name, portToBind);
+                    portToBind = putRandomPort(name, getAvailablePort(defaultPort));
                 }
             }
         }
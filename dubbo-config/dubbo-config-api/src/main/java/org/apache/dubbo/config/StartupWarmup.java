@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.bytecode.GeneratedClasses;
+import org.apache.dubbo.common.bytecode.Wrapper;
+import org.apache.dubbo.common.config.ConfigurationUtils;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms up the generated classes of the exported and referred services on a background thread, so that a newly
+ * started instance serves at full speed sooner. Enabled by <code>dubbo.startup.warmup</code>.
+ * <ul>
+ * <li>Every method of an exported service is invoked with synthetic arguments through its {@link Wrapper}, on a
+ * proxy of the interface returning default values, so the successful dispatch is profiled without reaching the
+ * implementation. A wrapper generated for the implementation class only accepts the implementation, it is linked by
+ * a single pass on a null instance instead.</li>
+ * <li>Every method of a reference is invoked through a proxy of the same interfaces over a local invoker returning
+ * empty results, nothing is sent.</li>
+ * </ul>
+ * Each service runs <code>dubbo.startup.warmup.iterations</code> rounds, 1000 by default, and stops early after a
+ * second.
+ * With <code>dubbo.startup.classlist=&lt;file&gt;</code> the AppCDS class list of the generated classes is written
+ * once no warm-up has been pending for a second, together with the {@link org.apache.dubbo.common.bytecode.PrecompiledClassGenerator} specs of
+ * the classes generated at runtime into <code>&lt;file&gt;.precompile</code>.
+ */
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final ProxyFactory PROXY_FACTORY = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+
+    private static final int DEFAULT_ITERATIONS = 1000;
+
+    private static final long MAX_WARMUP_MILLIS = 1000;
+
+    private static final String PRECOMPILE_SUFFIX = ".precompile";
+
+    private static final long WRITE_DELAY_MILLIS = 1000;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("DubboStartupWarmup", true));
+
+    private static final AtomicInteger PENDING = new AtomicInteger();
+
+    // accessed by the executor thread only
+
+    private static ScheduledFuture<?> scheduledWrite;
+
+    private static long writtenVersion = -1;
+
+    private StartupWarmup() {
+    }
+
+    /**
+     * whether either the warm-up or the class list is turned on
+     */
+    public static boolean isEnabled() {
+        return isWarmupEnabled() || StringUtils.isNotEmpty(getClassListFile());
+    }
+
+    private static boolean isWarmupEnabled() {
+        return Boolean.parseBoolean(ConfigurationUtils.getProperty(Constants.STARTUP_WARMUP_KEY, "false"));
+    }
+
+    private static int getIterations() {
+        String iterations = ConfigurationUtils.getProperty(Constants.STARTUP_WARMUP_ITERATIONS_KEY);
+        return StringUtils.isNotEmpty(iterations) ? Integer.parseInt(iterations.trim()) : DEFAULT_ITERATIONS;
+    }
+
+    private static String getClassListFile() {
+        return ConfigurationUtils.getProperty(Constants.STARTUP_CLASS_LIST_KEY);
+    }
+
+    /**
+     * warm up the wrapper of an exported service in background
+     */
+    public static Future<?> warmupService(Object ref, Class<?> interfaceClass, List<URL> urls) {
+        return submit(() -> {
+            if (isWarmupEnabled() && usesWrapper(urls)) {
+                // the same wrapper as JavassistProxyFactory
+                Class<?> wrapped = ref.getClass().getName().indexOf('$') < 0 ? ref.getClass() : interfaceClass;
+                Wrapper wrapper = Wrapper.getWrapper(wrapped);
+                List<Method> methods = getMethods(interfaceClass);
+                long start = System.currentTimeMillis();
+                if (wrapped.isInterface()) {
+                    Object target = Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[]{interfaceClass},
+                            (proxy, method, args) -> getDefaultValue(method.getReturnType()));
+                    int rounds = repeat(() -> {
+                        for (Method method : methods) {
+                            invokeWrapper(wrapper, target, method);
+                        }
+                    });
+                    logger.info("Warmed up " + methods.size() + " methods of service " + interfaceClass.getName()
+                            + " in " + rounds + " rounds, " + (System.currentTimeMillis() - start) + "ms");
+                } else {
+                    for (Method method : methods) {
+                        invokeWrapper(wrapper, null, method);
+                    }
+                    logger.info("Linked the wrapper of service " + interfaceClass.getName()
+                            + " in " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        });
+    }
+
+    private static boolean usesWrapper(List<URL> urls) {
+        for (URL url : urls) {
+            if (!"jdk".equals(url.getParameter(Constants.PROXY_KEY))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * run the rounds until the iterations are done or the time is up, returns the number of rounds run
+     */
+    private static int repeat(Runnable round) {
+        int iterations = getIterations();
+        long deadline = System.currentTimeMillis() + MAX_WARMUP_MILLIS;
+        int i = 0;
+        while (i < iterations && System.currentTimeMillis() < deadline) {
+            round.run();
+            i++;
+        }
+        return i;
+    }
+
+    private static void invokeWrapper(Wrapper wrapper, Object target, Method method) {
+        try {
+            wrapper.invokeMethod(target, method.getName(), method.getParameterTypes(), getArguments(method));
+        } catch (InvocationTargetException e) {
+            // expected on a null instance
+        } catch (Throwable t) {
+            logger.debug("Failed to warm up " + method, t);
+        }
+    }
+
+    /**
+     * warm up the proxy of a reference in background, with a proxy of the same url over an invoker doing nothing
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Future<?> warmupReference(Class<?> interfaceClass, URL url) {
+        return submit(() -> {
+            if (isWarmupEnabled()) {
+                // without the stub, which is application code
+                URL noopUrl = url.removeParameters(Constants.STUB_KEY, Constants.LOCAL_KEY);
+                Object proxy = PROXY_FACTORY.getProxy(new NoopInvoker(interfaceClass, noopUrl));
+                List<Method> methods = getMethods(interfaceClass);
+                long start = System.currentTimeMillis();
+                int rounds = repeat(() -> {
+                    for (Method method : methods) {
+                        invokeProxy(proxy, method);
+                    }
+                });
+                logger.info("Warmed up " + methods.size() + " methods of reference " + interfaceClass.getName()
+                        + " in " + rounds + " rounds, " + (System.currentTimeMillis() - start) + "ms");
+            }
+        });
+    }
+
+    private static Future<?> submit(Runnable warmup) {
+        PENDING.incrementAndGet();
+        return EXECUTOR.submit(() -> {
+            try {
+                warmup.run();
+            } finally {
+                if (PENDING.decrementAndGet() == 0) {
+                    scheduleWrite();
+                }
+            }
+        });
+    }
+
+    /**
+     * the class list is written once the startup settles, not after each of the services
+     */
+    private static void scheduleWrite() {
+        if (StringUtils.isEmpty(getClassListFile())) {
+            return;
+        }
+        if (scheduledWrite != null) {
+            scheduledWrite.cancel(false);
+        }
+        scheduledWrite = EXECUTOR.schedule(StartupWarmup::writeClassList, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void invokeProxy(Object proxy, Method method) {
+        try {
+            method.invoke(proxy, getArguments(method));
+        } catch (Throwable t) {
+            logger.debug("Failed to warm up " + method, t);
+        }
+    }
+
+    private static List<Method> getMethods(Class<?> interfaceClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : interfaceClass.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() != Object.class) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * default values of primitives, empty strings and nulls for the others
+     */
+    static Object[] getArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = getDefaultValue(types[i]);
+        }
+        return args;
+    }
+
+    static Object getDefaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == double.class) {
+            return 0D;
+        } else if (type == String.class) {
+            return "";
+        }
+        return null;
+    }
+
+    private static void writeClassList() {
+        String file = getClassListFile();
+        long version = GeneratedClasses.getVersion();
+        if (StringUtils.isEmpty(file) || version == writtenVersion) {
+            return;
+        }
+        try {
+            GeneratedClasses.writeClassList(new File(file));
+            GeneratedClasses.writeSpecs(new File(file + PRECOMPILE_SUFFIX));
+            writtenVersion = version;
+        } catch (IOException e) {
+            logger.warn("Failed to write the class list to " + file, e);
+        }
+    }
+
+    private static class NoopInvoker<T> implements Invoker<T> {
+
+        private final Class<T> type;
+
+        private final URL url;
+
+        NoopInvoker(Class<T> type, URL url) {
+            this.type = type;
+            this.url = url;
+        }
+
+        @Override
+        public Class<T> getInterface() {
+            return type;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            return new RpcResult();
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
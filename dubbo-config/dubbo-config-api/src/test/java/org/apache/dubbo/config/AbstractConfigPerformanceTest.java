@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+/**
+ * Measures the time of refreshing a config from the environment and of appending its URL parameters, for a
+ * reference and for a method config.
+ * <p>
+ * mvn test -Dtest=AbstractConfigPerformanceTest -Dbenchmark=true -Druns=100000
+ */
+public class AbstractConfigPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractConfigPerformanceTest.class);
+
+    @Test
+    public void testPerformance() {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the config benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 100000);
+        ReferenceConfig<Object> reference = new ReferenceConfig<>();
+        reference.setInterface("org.apache.dubbo.config.api.DemoService");
+        reference.setTimeout(3000);
+        reference.setRetries(2);
+        MethodConfig method = new MethodConfig();
+        method.setName("sayName");
+        method.setTimeout(1000);
+
+        long referenceRefresh = measure(runs, reference::refresh);
+        long methodRefresh = measure(runs, method::refresh);
+        long referenceParameters = measure(runs, () -> AbstractConfig.appendParameters(new HashMap<>(), reference));
+        long methodParameters = measure(runs, () -> AbstractConfig.appendParameters(new HashMap<>(), method, "sayName"));
+
+        logger.info("Config of " + runs + " runs, reference refresh: " + referenceRefresh / runs
+                + " ns/op, method refresh: " + methodRefresh / runs + " ns/op, reference parameters: "
+                + referenceParameters / runs + " ns/op, method parameters: " + methodParameters / runs + " ns/op");
+    }
+
+    private static long measure(int runs, Runnable task) {
+        // warm up before measuring
+        for (int i = 0; i < runs / 10; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
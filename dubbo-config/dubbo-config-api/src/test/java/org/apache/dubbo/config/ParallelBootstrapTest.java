@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.config.api.DemoService;
+import org.apache.dubbo.config.context.ConfigManager;
+import org.apache.dubbo.config.mock.MockProtocol2;
+import org.apache.dubbo.config.mock.MockRegistryFactory2;
+import org.apache.dubbo.config.provider.impl.DemoServiceImpl;
+import org.apache.dubbo.registry.Registry;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Protocol;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelBootstrapTest {
+
+    private Protocol protocolDelegate = Mockito.mock(Protocol.class);
+    private Registry registryDelegate = Mockito.mock(Registry.class);
+    private Exporter exporter = Mockito.mock(Exporter.class);
+
+    private static final AtomicInteger GROUP_COUNTER = new AtomicInteger();
+
+    private List<ServiceConfig<DemoServiceImpl>> services = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockProtocol2.delegate = protocolDelegate;
+        MockRegistryFactory2.registry = registryDelegate;
+        Mockito.when(protocolDelegate.export(Mockito.any(Invoker.class))).thenReturn(exporter);
+        ConfigManager.getInstance().clear();
+
+        ApplicationConfig app = new ApplicationConfig("app");
+        ProtocolConfig protocolConfig = new ProtocolConfig("mockprotocol2");
+        RegistryConfig registry = new RegistryConfig("mockprotocol2://127.0.0.1:2181");
+        for (int i = 0; i < 4; i++) {
+            ServiceConfig<DemoServiceImpl> service = new ServiceConfig<>();
+            service.setApplication(app);
+            service.setProtocol(protocolConfig);
+            service.setRegistry(registry);
+            service.setInterface(DemoService.class);
+            service.setRef(new DemoServiceImpl());
+            service.setGroup("parallel" + GROUP_COUNTER.incrementAndGet());
+            services.add(service);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (ServiceConfig<DemoServiceImpl> service : services) {
+            service.unexport();
+        }
+        ConfigManager.getInstance().clear();
+    }
+
+    @Test
+    public void testExportAndRegisterTogether() {
+        ParallelBootstrap bootstrap = new ParallelBootstrap(2).addServices(services);
+        bootstrap.start();
+
+        for (ServiceConfig<DemoServiceImpl> service : services) {
+            assertTrue(service.isExported());
+            assertEquals(Boolean.TRUE, service.isRegister());
+            for (URL url : service.getExportedUrls()) {
+                assertTrue(url.getParameter("register", true));
+            }
+        }
+        ArgumentCaptor<URL> captor = ArgumentCaptor.forClass(URL.class);
+        Mockito.verify(registryDelegate, Mockito.times(services.size())).register(captor.capture());
+        for (URL url : captor.getAllValues()) {
+            assertTrue(url.getParameter("group").startsWith("parallel"));
+        }
+
+        Map<String, Long> phaseCosts = bootstrap.getPhaseCosts();
+        assertThat(phaseCosts, hasKey("export and refer"));
+        assertThat(phaseCosts, hasKey("register"));
+        assertThat(phaseCosts, hasKey("total"));
+        assertEquals(services.size() * 2, bootstrap.getCosts().size());
+    }
+
+    @Test
+    public void testNotRegisteredServiceIsKept() {
+        services.get(0).setRegister(false);
+        new ParallelBootstrap(2).addServices(services).start();
+
+        assertEquals(Boolean.FALSE, services.get(0).isRegister());
+        Mockito.verify(registryDelegate, Mockito.times(services.size() - 1)).register(Mockito.any(URL.class));
+    }
+
+    @Test
+    public void testDelayedServiceRegistersOnItsOwn() {
+        services.get(0).setDelay(300);
+        new ParallelBootstrap(2).addServices(services).start();
+
+        Mockito.verify(registryDelegate, Mockito.times(services.size() - 1)).register(Mockito.any(URL.class));
+        Mockito.verify(registryDelegate, Mockito.timeout(5000).times(services.size())).register(Mockito.any(URL.class));
+    }
+
+    @Test
+    public void testRegisterWhileExporting() {
+        new ParallelBootstrap(2).addServices(services).setDeferRegister(false).start();
+
+        Mockito.verify(registryDelegate, Mockito.times(services.size())).register(Mockito.any(URL.class));
+    }
+
+    @Test
+    public void testFailure() {
+        services.get(1).setRef(null);
+        services.get(2).setRef(null);
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> new ParallelBootstrap(2).addServices(services).start());
+        assertEquals(1, e.getSuppressed().length);
+        Mockito.verify(registryDelegate, Mockito.never()).register(Mockito.any(URL.class));
+    }
+}
@@ -19,6 +19,8 @@ package org.apache.dubbo.config;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.config.api.DemoService;
 import org.apache.dubbo.config.api.Greeting;
 import org.apache.dubbo.config.context.ConfigManager;
@@ -162,6 +164,22 @@ public class ServiceConfigTest {
         assertThat(delayService.getExportedUrls(), hasSize(1));
     }
 
+    @Test
+    public void testDelayExportTrace() throws Exception {
+        StartupTracer.setEnabled(true);
+        try {
+            delayService.export();
+            TimeUnit.MILLISECONDS.sleep(delayService.getDelay() + 300);
+            StartupPhase delayed = StartupTracer.getPhases().stream()
+                    .filter(phase -> phase.getName().equals("delayed service " + DemoService.class.getName()))
+                    .findFirst().get();
+            assertThat(delayed.getChildren().get(0).getName(), equalTo("export"));
+        } finally {
+            StartupTracer.setEnabled(false);
+            StartupTracer.clear();
+        }
+    }
+
     @Test
     @Disabled("cannot pass in travis")
     public void testUnexport() throws Exception {
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.config;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.bytecode.GeneratedClasses;
+import org.apache.dubbo.config.api.Box;
+import org.apache.dubbo.config.api.DemoService;
+import org.apache.dubbo.config.api.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StartupWarmupTest {
+
+    private static final URL SERVICE_URL = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName());
+
+    @BeforeEach
+    public void setUp() {
+        System.setProperty(Constants.STARTUP_WARMUP_KEY, "true");
+        System.setProperty(Constants.STARTUP_WARMUP_ITERATIONS_KEY, "10");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty(Constants.STARTUP_WARMUP_KEY);
+        System.clearProperty(Constants.STARTUP_WARMUP_ITERATIONS_KEY);
+        System.clearProperty(Constants.STARTUP_CLASS_LIST_KEY);
+    }
+
+    @Test
+    public void testWarmupServiceNotInvokingImplementation() throws Exception {
+        Assertions.assertTrue(StartupWarmup.isEnabled());
+        CountingDemoService service = new CountingDemoService();
+        StartupWarmup.warmupService(service, DemoService.class, Collections.singletonList(SERVICE_URL)).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(0, service.count.get());
+        Assertions.assertTrue(GeneratedClasses.getClasses().containsKey("wrapper:" + DemoService.class.getName()));
+    }
+
+    @Test
+    public void testWarmupStopsInTime() throws Exception {
+        System.setProperty(Constants.STARTUP_WARMUP_ITERATIONS_KEY, String.valueOf(Integer.MAX_VALUE));
+        CountingDemoService service = new CountingDemoService();
+        StartupWarmup.warmupService(service, DemoService.class, Collections.singletonList(SERVICE_URL)).get(10, TimeUnit.SECONDS);
+        StartupWarmup.warmupReference(DemoService.class, SERVICE_URL).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(0, service.count.get());
+    }
+
+    @Test
+    public void testWarmupReference() throws Exception {
+        StartupWarmup.warmupReference(DemoService.class, SERVICE_URL).get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(GeneratedClasses.getClasses().keySet().stream()
+                .anyMatch(spec -> spec.startsWith("proxy:" + DemoService.class.getName())));
+    }
+
+    @Test
+    public void testWriteClassList(@TempDir Path dir) throws Exception {
+        File file = dir.resolve("dubbo.classlist").toFile();
+        System.setProperty(Constants.STARTUP_CLASS_LIST_KEY, file.getPath());
+        StartupWarmup.warmupService(new CountingDemoService(), DemoService.class, Collections.singletonList(SERVICE_URL));
+        StartupWarmup.warmupReference(DemoService.class, SERVICE_URL).get(10, TimeUnit.SECONDS);
+
+        // written once, a while after the last warm-up
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!file.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        List<String> classList = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertTrue(classList.contains("org/apache/dubbo/config/api/DemoService"), classList.toString());
+        List<String> specs = Files.readAllLines(new File(file.getPath() + ".precompile").toPath(), StandardCharsets.UTF_8);
+        Assertions.assertTrue(specs.contains("wrapper:" + DemoService.class.getName()), specs.toString());
+        Assertions.assertTrue(specs.stream().anyMatch(spec -> spec.startsWith("proxy:" + DemoService.class.getName())), specs.toString());
+    }
+
+    @Test
+    public void testGetArguments() throws Exception {
+        Object[] args = StartupWarmup.getArguments(DemoService.class.getMethod("echo", int.class));
+        Assertions.assertArrayEquals(new Object[]{0}, args);
+        args = StartupWarmup.getArguments(DemoService.class.getMethod("sayName", String.class));
+        Assertions.assertArrayEquals(new Object[]{""}, args);
+        args = StartupWarmup.getArguments(DemoService.class.getMethod("getUsers", List.class));
+        Assertions.assertArrayEquals(new Object[]{null}, args);
+    }
+
+    @Test
+    public void testGetDefaultValue() {
+        Assertions.assertEquals(false, StartupWarmup.getDefaultValue(boolean.class));
+        Assertions.assertEquals(0L, StartupWarmup.getDefaultValue(long.class));
+        Assertions.assertEquals("", StartupWarmup.getDefaultValue(String.class));
+        Assertions.assertNull(StartupWarmup.getDefaultValue(void.class));
+        Assertions.assertNull(StartupWarmup.getDefaultValue(Box.class));
+    }
+
+    public static class CountingDemoService implements DemoService {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String sayName(String name) {
+            count.incrementAndGet();
+            return name;
+        }
+
+        @Override
+        public Box getBox() {
+            count.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        public void throwDemoException() {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public List<User> getUsers(List<User> users) {
+            count.incrementAndGet();
+            return users;
+        }
+
+        @Override
+        public int echo(int i) {
+            return count.incrementAndGet();
+        }
+    }
+}
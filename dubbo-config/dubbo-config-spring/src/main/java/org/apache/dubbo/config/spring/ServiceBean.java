@@ -28,6 +28,7 @@ import org.apache.dubbo.config.ConfigCenterConfig;
 import org.apache.dubbo.config.MetadataReportConfig;
 import org.apache.dubbo.config.MonitorConfig;
 import org.apache.dubbo.config.ModuleConfig;
+import org.apache.dubbo.config.ParallelBootstrap;
 import org.apache.dubbo.config.ApplicationConfig;
 import org.apache.dubbo.config.annotation.Service;
 import org.apache.dubbo.config.spring.context.event.ServiceBeanExportedEvent;
@@ -108,6 +109,10 @@ public class ServiceBean<T> extends ServiceConfig<T> implements InitializingBean
     @Override
     public void onApplicationEvent(ContextRefreshedEvent event) {
         if (!isExported() && !isUnexported()) {
+            if (ParallelBootstrap.isEnabled()) {
+                exportInParallel(event.getApplicationContext());
+                return;
+            }
             if (logger.isInfoEnabled()) {
                 logger.info("The service ready on spring started. service: " + getInterface());
             }
@@ -115,6 +120,23 @@ public class ServiceBean<T> extends ServiceConfig<T> implements InitializingBean
         }
     }
 
+    /**
+     * The first service bean receiving the refreshed event exports all services of the context together,
+     * the following ones find themselves exported already.
+     */
+    private void exportInParallel(ApplicationContext context) {
+        List<ServiceBean<?>> services = new ArrayList<>();
+        for (ServiceBean<?> service : BeanFactoryUtils.beansOfTypeIncludingAncestors(context, ServiceBean.class, false, false).values()) {
+            if (!service.isExported() && !service.isUnexported()) {
+                services.add(service);
+            }
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Export " + services.size() + " services in parallel on spring started.");
+        }
+        new ParallelBootstrap().addServices(services).start();
+    }
+
     @Override
     @SuppressWarnings({"unchecked", "deprecation"})
     public void afterPropertiesSet() throws Exception {
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache;
+
+import org.apache.dubbo.cache.support.key.BinaryCacheKeyGenerator;
+import org.apache.dubbo.common.extension.SPI;
+import org.apache.dubbo.rpc.Invocation;
+
+/**
+ * Generates the key a return value is cached against from the arguments of the invocation. The generator is chosen
+ * per method by the <b>cache.key</b> parameter, e.g. &lt;dubbo:method name="find" cache="lru"&gt; &lt;dubbo:parameter
+ * key="cache.key" value="string" /&gt; &lt;/dubbo:method&gt;.
+ *
+ * @see org.apache.dubbo.cache.support.key.BinaryCacheKeyGenerator
+ * @see org.apache.dubbo.cache.support.key.StringCacheKeyGenerator
+ */
+@SPI(BinaryCacheKeyGenerator.NAME)
+public interface CacheKeyGenerator {
+
+    /**
+     * Keys generated from equal arguments must be equal, and the keys must be serializable for the caches that store
+     * them out of the process.
+     * @param invocation invocation whose arguments are cached against
+     * @return key of the arguments
+     */
+    Object generateKey(Invocation invocation);
+
+}
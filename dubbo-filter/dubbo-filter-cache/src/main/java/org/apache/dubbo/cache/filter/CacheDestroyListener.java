@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.filter;
+
+import org.apache.dubbo.cache.CacheFactory;
+import org.apache.dubbo.cache.support.AbstractCacheFactory;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.ExporterListener;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.InvokerListener;
+import org.apache.dubbo.rpc.RpcException;
+
+/**
+ * Drops the caches of the methods of an invoker as it is destroyed, or of a service as it is unexported, from the
+ * {@link CacheFilter} and from the cache factories, so that the caches taking memory or files beyond the heap release
+ * them, rather than piling up as the providers of a service come and go.
+ *
+ * @see AbstractCacheFactory#destroyCaches(URL)
+ */
+@Activate(Constants.CACHE_KEY)
+public class CacheDestroyListener implements InvokerListener, ExporterListener {
+
+    @Override
+    public void referred(Invoker<?> invoker) throws RpcException {
+    }
+
+    @Override
+    public void destroyed(Invoker<?> invoker) {
+        destroyCaches(invoker.getUrl());
+    }
+
+    @Override
+    public void exported(Exporter<?> exporter) throws RpcException {
+    }
+
+    @Override
+    public void unexported(Exporter<?> exporter) {
+        destroyCaches(exporter.getInvoker().getUrl());
+    }
+
+    private static void destroyCaches(URL url) {
+        Filter filter = ExtensionLoader.getExtensionLoader(Filter.class).getLoadedExtension(Constants.CACHE_KEY);
+        if (filter instanceof CacheFilter) {
+            ((CacheFilter) filter).destroyCaches(url);
+        }
+        ExtensionLoader<CacheFactory> loader = ExtensionLoader.getExtensionLoader(CacheFactory.class);
+        for (String name : loader.getLoadedExtensions()) {
+            CacheFactory factory = loader.getLoadedExtension(name);
+            if (factory instanceof AbstractCacheFactory) {
+                ((AbstractCacheFactory) factory).destroyCaches(url);
+            }
+        }
+    }
+}
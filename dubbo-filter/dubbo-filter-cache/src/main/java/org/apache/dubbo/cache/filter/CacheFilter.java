@@ -18,18 +18,32 @@ package org.apache.dubbo.cache.filter;
 
 import org.apache.dubbo.cache.Cache;
 import org.apache.dubbo.cache.CacheFactory;
+import org.apache.dubbo.cache.CacheKeyGenerator;
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ConfigUtils;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Filter;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.RpcResult;
 
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CacheFilter is a core component of dubbo.Enabling <b>cache</b> key of service,method,consumer or provider dubbo will cache method return value.
@@ -50,6 +64,18 @@ import java.io.Serializable;
  *be backed by <b>lru</b>
  *</pre>
  *
+ * The cache of a method and the {@link CacheKeyGenerator} its keys are generated by, chosen by the <b>cache.key</b>
+ * parameter, are resolved on the first call of the method on an invoker, and kept for the next calls.
+ * <p>
+ * With <b>cache.refresh.seconds</b> set on a method, a value cached for longer than that is still returned, while one
+ * call at a time per key refreshes it in the background, so that the callers don't wait for the provider as the value
+ * expires. A value cached for longer than <b>cache.seconds</b> is not returned any more, and the call goes on to the
+ * provider as on a miss.
+ * <pre>
+ *   e.g. &lt;dubbo:method name="getConfig" cache="lru" &gt; &lt;dubbo:parameter key="cache.refresh.seconds" value="60" /&gt;
+ *        &lt;dubbo:parameter key="cache.seconds" value="600" /&gt; &lt;/dubbo:method&gt;
+ * </pre>
+ *
  * @see org.apache.dubbo.rpc.Filter
  * @see org.apache.dubbo.cache.support.lru.LruCacheFactory
  * @see org.apache.dubbo.cache.support.lru.LruCache
@@ -64,8 +90,29 @@ import java.io.Serializable;
 @Activate(group = {Constants.CONSUMER, Constants.PROVIDER}, value = Constants.CACHE_KEY)
 public class CacheFilter implements Filter {
 
+    private static final Logger logger = LoggerFactory.getLogger(CacheFilter.class);
+
+    private static final int REFRESH_THREADS = 4;
+
+    private static final int REFRESH_QUEUE_SIZE = 1024;
+
+    /**
+     * Runs the calls refreshing stale values, which are dropped when it is full, as the next stale hit tries again
+     */
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE), new NamedThreadFactory("DubboCacheRefresh", true));
+
+    static {
+        REFRESH_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     private CacheFactory cacheFactory;
 
+    /**
+     * The caches of the methods by the url of the invoker and the method name
+     */
+    private final ConcurrentMap<URL, ConcurrentMap<String, MethodCache>> methodCaches = new ConcurrentHashMap<>();
+
     /**
      * Dubbo will populate and set the cache factory instance based on service/method/consumer/provider configured
      * cache attribute value. Dubbo will search for the class name implementing configured <b>cache</b> in file org.apache.dubbo.cache.CacheFactory
@@ -75,6 +122,7 @@ public class CacheFilter implements Filter {
      */
     public void setCacheFactory(CacheFactory cacheFactory) {
         this.cacheFactory = cacheFactory;
+        methodCaches.clear();
     }
 
     /**
@@ -88,21 +136,33 @@ public class CacheFilter implements Filter {
      */
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
-        if (cacheFactory != null && ConfigUtils.isNotEmpty(invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.CACHE_KEY))) {
-            Cache cache = cacheFactory.getCache(invoker.getUrl(), invocation);
-            if (cache != null) {
-                String key = StringUtils.toArgumentString(invocation.getArguments());
+        if (cacheFactory != null) {
+            MethodCache methodCache = getMethodCache(invoker, invocation);
+            if (methodCache != MethodCache.NONE) {
+                Cache cache = methodCache.cache;
+                Object key = methodCache.keyGenerator.generateKey(invocation);
                 Object value = cache.get(key);
                 if (value != null) {
                     if (value instanceof ValueWrapper) {
-                        return new RpcResult(((ValueWrapper)value).get());
+                        ValueWrapper wrapper = (ValueWrapper) value;
+                        if (methodCache.refreshMillis > 0) {
+                            long age = System.currentTimeMillis() - wrapper.getWritten();
+                            if (methodCache.hardMillis <= 0 || age < methodCache.hardMillis) {
+                                if (age >= methodCache.refreshMillis) {
+                                    refresh(methodCache, key, invoker, invocation);
+                                }
+                                return new RpcResult(wrapper.get());
+                            }
+                        } else {
+                            return new RpcResult(wrapper.get());
+                        }
                     } else {
                         return new RpcResult(value);
                     }
                 }
                 Result result = invoker.invoke(invocation);
                 if (!result.hasException()) {
-                    cache.put(key, new ValueWrapper(result.getValue()));
+                    cache.put(key, new ValueWrapper(result.getValue(), System.currentTimeMillis()));
                 }
                 return result;
             }
@@ -110,21 +170,141 @@ public class CacheFilter implements Filter {
         return invoker.invoke(invocation);
     }
 
+    /**
+     * Drops the caches of the methods of the given url, as its invoker is destroyed or its service unexported
+     *
+     * @see CacheDestroyListener
+     */
+    void destroyCaches(URL url) {
+        methodCaches.remove(url);
+    }
+
+    /**
+     * Calls the invoker again in the background for the stale value of the key, unless it is being refreshed already
+     */
+    private void refresh(MethodCache methodCache, Object key, Invoker<?> invoker, Invocation invocation) {
+        if (methodCache.refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        RpcInvocation refreshInvocation = new RpcInvocation(invocation);
+        try {
+            REFRESH_EXECUTOR.execute(() -> {
+                try {
+                    Result result = invoker.invoke(refreshInvocation);
+                    if (result instanceof AsyncRpcResult) {
+                        result = ((AsyncRpcResult) result).getResultFuture().get();
+                    }
+                    if (!result.hasException()) {
+                        methodCache.cache.put(key, new ValueWrapper(result.getValue(), System.currentTimeMillis()));
+                    } else {
+                        logger.warn("Failed to refresh the cached result of " + refreshInvocation.getMethodName()
+                                + " on " + invoker.getUrl(), result.getException());
+                    }
+                } catch (Throwable t) {
+                    logger.warn("Failed to refresh the cached result of " + refreshInvocation.getMethodName()
+                            + " on " + invoker.getUrl(), t);
+                } finally {
+                    methodCache.refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            methodCache.refreshing.remove(key);
+        }
+    }
+
+    private MethodCache getMethodCache(Invoker<?> invoker, Invocation invocation) {
+        URL url = invoker.getUrl();
+        ConcurrentMap<String, MethodCache> caches = methodCaches.get(url);
+        if (caches == null) {
+            methodCaches.putIfAbsent(url, new ConcurrentHashMap<>());
+            caches = methodCaches.get(url);
+        }
+        String methodName = invocation.getMethodName();
+        MethodCache methodCache = caches.get(methodName);
+        if (methodCache == null) {
+            methodCache = MethodCache.NONE;
+            if (ConfigUtils.isNotEmpty(url.getMethodParameter(methodName, Constants.CACHE_KEY))) {
+                Cache cache = cacheFactory.getCache(url, invocation);
+                if (cache != null) {
+                    String generator = url.getMethodParameter(methodName, Constants.CACHE_KEY_GENERATOR_KEY);
+                    methodCache = new MethodCache(cache, StringUtils.isEmpty(generator)
+                            ? ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class).getDefaultExtension()
+                            : ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class).getExtension(generator),
+                            TimeUnit.SECONDS.toMillis(url.getMethodParameter(methodName, "cache.refresh.seconds", 0L)),
+                            TimeUnit.SECONDS.toMillis(url.getMethodParameter(methodName, "cache.seconds", 0L)));
+                }
+            }
+            MethodCache old = caches.putIfAbsent(methodName, methodCache);
+            if (old != null) {
+                methodCache = old;
+            }
+        }
+        return methodCache;
+    }
+
+    /**
+     * The cache of a method, the generator of its keys and the ages its values are refreshed and dropped at
+     */
+    private static class MethodCache {
+
+        static final MethodCache NONE = new MethodCache(null, null, 0, 0);
+
+        final Cache cache;
+
+        final CacheKeyGenerator keyGenerator;
+
+        /**
+         * The age a value is refreshed at in milliseconds, not refreshed if 0
+         */
+        final long refreshMillis;
+
+        /**
+         * The age a refreshed value is not returned any more at in milliseconds, returned until evicted if 0
+         */
+        final long hardMillis;
+
+        /**
+         * The keys being refreshed
+         */
+        final ConcurrentMap<Object, Boolean> refreshing = new ConcurrentHashMap<>();
+
+        MethodCache(Cache cache, CacheKeyGenerator keyGenerator, long refreshMillis, long hardMillis) {
+            this.cache = cache;
+            this.keyGenerator = keyGenerator;
+            this.refreshMillis = refreshMillis;
+            this.hardMillis = hardMillis;
+        }
+    }
+
     /**
      * Cache value wrapper.
      */
-    static class ValueWrapper implements Serializable{
+    public static class ValueWrapper implements Serializable{
 
         private static final long serialVersionUID = -1777337318019193256L;
 
         private final Object value;
 
+        private final long written;
+
         public ValueWrapper(Object value){
+            this(value, 0);
+        }
+
+        public ValueWrapper(Object value, long written) {
             this.value = value;
+            this.written = written;
         }
 
         public Object get() {
             return this.value;
         }
+
+        /**
+         * @return the time the value was cached at in milliseconds, 0 if unknown
+         */
+        public long getWritten() {
+            return written;
+        }
     }
 }
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.filter;
+
+import org.apache.dubbo.cache.CacheKeyGenerator;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * CoalesceFilter lets the concurrent calls of a method with the same arguments on a consumer share one remote call.
+ * The first call goes on to the provider, and the calls made before its result is back wait for that result instead
+ * of calling again, so that a hot key missing in the cache after it expired is loaded once rather than by every
+ * caller.
+ *
+ * <pre>
+ *   e.g. &lt;dubbo:reference interface="..."&gt; &lt;dubbo:method name="findItem" cache="lru" coalesce="true" /&gt; &lt;/dubbo:reference&gt;
+ * </pre>
+ *
+ * Calls are the same when they are made on the same service, by group, interface and version, to the same method,
+ * with arguments giving the same key by the {@link CacheKeyGenerator} chosen by the <b>cache.key</b> parameter. The
+ * attachments of the calls are not compared, so it should only be enabled for the methods that are idempotent and
+ * whose result depends on the arguments only. Oneway and streamed calls are never coalesced.
+ * <p>
+ * Each caller gets a copy of the result, as a sync or an async result as it called, and the share of the calls that
+ * were coalesced is counted per method in {@link #getStatistics()}.
+ *
+ * @see CacheFilter
+ * @see CoalesceStatistics
+ */
+@Activate(group = Constants.CONSUMER, value = Constants.COALESCE_KEY, order = 1)
+public class CoalesceFilter implements Filter {
+
+    /**
+     * The remote calls in flight, by the service, the method and the key of the arguments
+     */
+    private final ConcurrentMap<FlightKey, CompletableFuture<Result>> flights = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CoalesceStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        URL url = invoker.getUrl();
+        String methodName = invocation.getMethodName();
+        if (!url.getMethodParameter(methodName, Constants.COALESCE_KEY, false)
+                || RpcUtils.isOneway(url, invocation) || RpcUtils.isReturnTypeStream(invocation)) {
+            return invoker.invoke(invocation);
+        }
+        String serviceMethod = url.getServiceKey() + "." + methodName;
+        CoalesceStatistics methodStatistics = getStatistics(serviceMethod);
+        methodStatistics.recordCall();
+
+        FlightKey key = new FlightKey(serviceMethod, getKeyGenerator(url, methodName).generateKey(invocation));
+        CompletableFuture<Result> flight = new CompletableFuture<>();
+        CompletableFuture<Result> leading = flights.putIfAbsent(key, flight);
+        if (leading != null) {
+            methodStatistics.recordCoalesced();
+            return follow(leading, url, invocation);
+        }
+        return lead(key, flight, invoker, invocation);
+    }
+
+    private Result lead(FlightKey key, CompletableFuture<Result> flight, Invoker<?> invoker, Invocation invocation) {
+        Result result;
+        try {
+            result = invoker.invoke(invocation);
+        } catch (RuntimeException | Error e) {
+            land(key, flight, null, e);
+            throw e;
+        }
+        if (result instanceof AsyncRpcResult) {
+            ((AsyncRpcResult) result).getResultFuture().whenComplete((r, t) -> land(key, flight, r, t));
+        } else {
+            land(key, flight, result, null);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the flight before completing it, so that no call made after it is done waits for it
+     */
+    private void land(FlightKey key, CompletableFuture<Result> flight, Result result, Throwable t) {
+        flights.remove(key, flight);
+        if (t != null) {
+            flight.completeExceptionally(t);
+        } else {
+            flight.complete(copyOf(result));
+        }
+    }
+
+    private Result follow(CompletableFuture<Result> flight, URL url, Invocation invocation) {
+        if (RpcUtils.isAsync(url, invocation)) {
+            CompletableFuture<Object> valueFuture = new CompletableFuture<>();
+            CompletableFuture<Result> resultFuture = new CompletableFuture<>();
+            flight.whenComplete((r, t) -> {
+                Result result = t == null ? copyOf(r) : new RpcResult(unwrap(t));
+                resultFuture.complete(result);
+                if (result.hasException()) {
+                    valueFuture.completeExceptionally(result.getException());
+                } else {
+                    valueFuture.complete(result.getValue());
+                }
+            });
+            RpcContext.getContext().setFuture(valueFuture);
+            if (RpcUtils.isReturnTypeFuture(invocation)) {
+                return new AsyncRpcResult(valueFuture, resultFuture, false);
+            }
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        }
+
+        RpcContext.getContext().setFuture(null);
+        int timeout = url.getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        try {
+            return copyOf(flight.get(timeout, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while waiting for the coalesced call of " + invocation.getMethodName()
+                    + " to the service " + url.getServiceKey(), e);
+        } catch (TimeoutException e) {
+            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Waiting for the coalesced call of "
+                    + invocation.getMethodName() + " to the service " + url.getServiceKey() + " timed out after "
+                    + timeout + " ms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RpcException(cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+
+    /**
+     * A result of its own for each caller, as the filters may change the attachments of the result they return
+     */
+    private static Result copyOf(Result result) {
+        RpcResult copy = new RpcResult();
+        if (result.hasException()) {
+            copy.setException(result.getException());
+        } else {
+            copy.setValue(result.getValue());
+        }
+        copy.setAttachments(new HashMap<>(result.getAttachments()));
+        return copy;
+    }
+
+    private static CacheKeyGenerator getKeyGenerator(URL url, String methodName) {
+        String generator = url.getMethodParameter(methodName, Constants.CACHE_KEY_GENERATOR_KEY);
+        ExtensionLoader<CacheKeyGenerator> loader = ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class);
+        return StringUtils.isEmpty(generator) ? loader.getDefaultExtension() : loader.getExtension(generator);
+    }
+
+    private CoalesceStatistics getStatistics(String serviceMethod) {
+        CoalesceStatistics methodStatistics = statistics.get(serviceMethod);
+        if (methodStatistics == null) {
+            statistics.putIfAbsent(serviceMethod, new CoalesceStatistics());
+            methodStatistics = statistics.get(serviceMethod);
+        }
+        return methodStatistics;
+    }
+
+    /**
+     * @return the statistics of the coalesced methods by the service key and the method name, as in
+     * group/service:version.method
+     */
+    public Map<String, CoalesceStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private static final class FlightKey {
+
+        private final String serviceMethod;
+
+        private final Object argumentKey;
+
+        FlightKey(String serviceMethod, Object argumentKey) {
+            this.serviceMethod = serviceMethod;
+            this.argumentKey = argumentKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey other = (FlightKey) o;
+            return serviceMethod.equals(other.serviceMethod) && argumentKey.equals(other.argumentKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * serviceMethod.hashCode() + argumentKey.hashCode();
+        }
+    }
+}
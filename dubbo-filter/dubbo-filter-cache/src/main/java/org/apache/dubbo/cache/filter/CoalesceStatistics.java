@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.filter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the calls of one method through {@link CoalesceFilter}, and of those that shared the remote call of
+ * another.
+ */
+public class CoalesceStatistics {
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    void recordCall() {
+        calls.increment();
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return the number of calls that got the result of a remote call made for another one
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the coalesced calls divided by the calls, 0 if nothing was called
+     */
+    public double getCollapseRatio() {
+        long call = calls.sum();
+        return call == 0 ? 0 : (double) coalesced.sum() / call;
+    }
+
+    @Override
+    public String toString() {
+        return "calls: " + getCalls() + ", coalesced: " + getCoalesced()
+                + ", collapse ratio: " + String.format("%.3f", getCollapseRatio());
+    }
+}
@@ -28,7 +28,8 @@ import java.util.concurrent.ConcurrentMap;
 /**
  * AbstractCacheFactory is a default implementation of {@link CacheFactory}. It abstract out the key formation from URL along with
  * invocation method. It initially check if the value for key already present in own local in-memory store then it won't check underlying storage cache {@link Cache}.
- * Internally it used {@link ConcurrentHashMap} to store do level-1 caching.
+ * Internally it used {@link ConcurrentHashMap} to store do level-1 caching. The caches of a url are dropped by
+ * {@link #destroyCaches(URL)}, as its invoker is destroyed or its service unexported.
  *
  * @see CacheFactory
  * @see org.apache.dubbo.cache.support.jcache.JCacheFactory
@@ -39,9 +40,9 @@ import java.util.concurrent.ConcurrentMap;
 public abstract class AbstractCacheFactory implements CacheFactory {
 
     /**
-     * This is used to store factory level-1 cached data.
+     * This is used to store factory level-1 cached data, by the url and the url of the method.
      */
-    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<String, Cache>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Cache>> caches = new ConcurrentHashMap<>();
 
     /**
      *  Takes URL and invocation instance and return cache instance for a given url.
@@ -51,16 +52,30 @@ public abstract class AbstractCacheFactory implements CacheFactory {
      */
     @Override
     public Cache getCache(URL url, Invocation invocation) {
-        url = url.addParameter(Constants.METHOD_KEY, invocation.getMethodName());
-        String key = url.toFullString();
-        Cache cache = caches.get(key);
+        ConcurrentMap<String, Cache> methodCaches = caches.computeIfAbsent(url.toFullString(),
+                k -> new ConcurrentHashMap<>());
+        URL methodUrl = url.addParameter(Constants.METHOD_KEY, invocation.getMethodName());
+        String key = methodUrl.toFullString();
+        Cache cache = methodCaches.get(key);
         if (cache == null) {
-            caches.put(key, createCache(url));
-            cache = caches.get(key);
+            cache = methodCaches.computeIfAbsent(key, k -> createCache(methodUrl));
         }
         return cache;
     }
 
+    /**
+     * Drops the caches of the methods of the given url, releasing what they hold by {@link #destroyCache(Cache)}.
+     * @param url url of the invoker or the service
+     */
+    public void destroyCaches(URL url) {
+        ConcurrentMap<String, Cache> methodCaches = caches.remove(url.toFullString());
+        if (methodCaches != null) {
+            for (Cache cache : methodCaches.values()) {
+                destroyCache(cache);
+            }
+        }
+    }
+
     /**
      * Takes url as an method argument and return new instance of cache store implemented by AbstractCacheFactory subclass.
      * @param url url of the method
@@ -68,4 +83,11 @@ public abstract class AbstractCacheFactory implements CacheFactory {
      */
     protected abstract Cache createCache(URL url);
 
+    /**
+     * Releases what a dropped cache holds beyond the heap, nothing by default.
+     * @param cache cache created by {@link #createCache(URL)}
+     */
+    protected void destroyCache(Cache cache) {
+    }
+
 }
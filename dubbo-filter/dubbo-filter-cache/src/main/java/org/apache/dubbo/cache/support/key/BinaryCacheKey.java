@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.key;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Key of the arguments written by {@link BinaryCacheKeyGenerator}, equal to the key of the same bytes.
+ */
+public final class BinaryCacheKey implements Serializable {
+
+    private static final long serialVersionUID = 6094375532915839862L;
+
+    private final byte[] bytes;
+
+    private final int hash;
+
+    public BinaryCacheKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BinaryCacheKey)) {
+            return false;
+        }
+        BinaryCacheKey other = (BinaryCacheKey) obj;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryCacheKey[" + bytes.length + " bytes, hash " + Integer.toHexString(hash) + "]";
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.key;
+
+import org.apache.dubbo.cache.CacheKeyGenerator;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Invocation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Generates binary keys, writing the arguments by their structure: primitives and strings as their bytes, arrays,
+ * collections and maps element by element, enums by name, the other classes of the JDK as their string, and the
+ * other objects by the fields that are not static or transient, in the order of the names. Classes are written as a
+ * 64 bit hash of their name. The elements of sets and
+ * the entries of maps are written in the order of their bytes, so that equal sets and maps have equal keys whatever
+ * their iteration order.
+ * <p>
+ * Arguments nested deeper than {@value #MAX_DEPTH}, which is taken for a cycle, or that cannot be read get the key
+ * of {@link StringCacheKeyGenerator} instead.
+ */
+public class BinaryCacheKeyGenerator implements CacheKeyGenerator {
+
+    public static final String NAME = "binary";
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryCacheKeyGenerator.class);
+
+    private static final int MAX_DEPTH = 64;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte LATIN_STRING = 11;
+    private static final byte ARRAY = 12;
+    private static final byte LIST = 13;
+    private static final byte SET = 14;
+    private static final byte MAP = 15;
+    private static final byte ENUM = 16;
+    private static final byte CLASS = 17;
+    private static final byte DATE = 18;
+    private static final byte VALUE = 19;
+    private static final byte OBJECT = 20;
+
+    private static final ThreadLocal<KeyWriter> WRITERS = ThreadLocal.withInitial(KeyWriter::new);
+
+    private static final ConcurrentMap<Class<?>, TypeDescriptor> TYPES = new ConcurrentHashMap<>();
+
+    private final CacheKeyGenerator fallback = new StringCacheKeyGenerator();
+
+    @Override
+    public Object generateKey(Invocation invocation) {
+        KeyWriter writer = WRITERS.get();
+        writer.reset();
+        try {
+            for (Object argument : invocation.getArguments()) {
+                write(writer, argument, 0);
+            }
+        } catch (RuntimeException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Failed to generate the binary cache key of method " + invocation.getMethodName()
+                        + ", the string key is used instead, cause: " + e.getMessage(), e);
+            }
+            return fallback.generateKey(invocation);
+        }
+        return new BinaryCacheKey(writer.toBytes());
+    }
+
+    private static void write(KeyWriter writer, Object value, int depth) {
+        if (value == null) {
+            writer.writeByte(NULL);
+            return;
+        }
+        if (depth > MAX_DEPTH) {
+            throw new IllegalStateException("Arguments nested deeper than " + MAX_DEPTH + ", may be a cycle");
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            writer.writeString((String) value);
+        } else if (type == Integer.class) {
+            writer.writeByte(INT);
+            writer.writeInt((Integer) value);
+        } else if (type == Long.class) {
+            writer.writeByte(LONG);
+            writer.writeLong((Long) value);
+        } else if (type == Boolean.class) {
+            writer.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (type == Double.class) {
+            writer.writeByte(DOUBLE);
+            writer.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (type == Float.class) {
+            writer.writeByte(FLOAT);
+            writer.writeInt(Float.floatToIntBits((Float) value));
+        } else if (type == Short.class) {
+            writer.writeByte(SHORT);
+            writer.writeInt((Short) value);
+        } else if (type == Byte.class) {
+            writer.writeByte(BYTE);
+            writer.writeByte((Byte) value);
+        } else if (type == Character.class) {
+            writer.writeByte(CHAR);
+            writer.writeInt((Character) value);
+        } else {
+            TypeDescriptor descriptor = getTypeDescriptor(type);
+            switch (descriptor.tag) {
+                case ARRAY:
+                    writeArray(writer, value, type.getComponentType(), depth);
+                    break;
+                case ENUM:
+                    writer.writeByte(ENUM);
+                    writer.writeLong(descriptor.fingerprint);
+                    writer.writeString(((Enum<?>) value).name());
+                    break;
+                case SET:
+                    writer.writeByte(SET);
+                    writeUnordered(writer, ((Set<?>) value).iterator(), ((Set<?>) value).size(), false, depth);
+                    break;
+                case LIST:
+                    writer.writeByte(LIST);
+                    writer.writeInt(((Collection<?>) value).size());
+                    for (Object element : (Collection<?>) value) {
+                        write(writer, element, depth + 1);
+                    }
+                    break;
+                case MAP:
+                    writer.writeByte(MAP);
+                    writeUnordered(writer, ((Map<?, ?>) value).entrySet().iterator(), ((Map<?, ?>) value).size(), true, depth);
+                    break;
+                case CLASS:
+                    writer.writeByte(CLASS);
+                    writer.writeString(((Class<?>) value).getName());
+                    break;
+                case DATE:
+                    writer.writeByte(DATE);
+                    writer.writeLong(((Date) value).getTime());
+                    break;
+                case VALUE:
+                    writer.writeByte(VALUE);
+                    writer.writeLong(descriptor.fingerprint);
+                    writer.writeString(value.toString());
+                    break;
+                default:
+                    writer.writeByte(OBJECT);
+                    writer.writeLong(descriptor.fingerprint);
+                    try {
+                        for (Field field : descriptor.fields) {
+                            write(writer, field.get(value), depth + 1);
+                        }
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+            }
+        }
+    }
+
+    private static void writeArray(KeyWriter writer, Object array, Class<?> componentType, int depth) {
+        writer.writeByte(ARRAY);
+        int length = Array.getLength(array);
+        if (componentType == byte.class) {
+            writer.writeByte(BYTE);
+            writer.writeInt(length);
+            writer.writeBytes((byte[]) array);
+        } else if (componentType == int.class) {
+            writer.writeByte(INT);
+            writer.writeInt(length);
+            for (int element : (int[]) array) {
+                writer.writeInt(element);
+            }
+        } else if (componentType == long.class) {
+            writer.writeByte(LONG);
+            writer.writeInt(length);
+            for (long element : (long[]) array) {
+                writer.writeLong(element);
+            }
+        } else if (componentType.isPrimitive()) {
+            // the tag of the component is written for each element
+            writer.writeByte(NULL);
+            writer.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                write(writer, Array.get(array, i), depth + 1);
+            }
+        } else {
+            writer.writeByte(OBJECT);
+            writer.writeInt(length);
+            for (Object element : (Object[]) array) {
+                write(writer, element, depth + 1);
+            }
+        }
+    }
+
+    private static void writeUnordered(KeyWriter writer, Iterator<?> elements, int size, boolean entries, int depth) {
+        writer.writeInt(size);
+        int[] starts = new int[size + 1];
+        int count = 0;
+        while (elements.hasNext() && count < size) {
+            starts[count++] = writer.size();
+            if (entries) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) elements.next();
+                write(writer, entry.getKey(), depth + 1);
+                write(writer, entry.getValue(), depth + 1);
+            } else {
+                write(writer, elements.next(), depth + 1);
+            }
+        }
+        if (count != size) {
+            throw new IllegalStateException("Modified while generating the cache key");
+        }
+        starts[count] = writer.size();
+        writer.sortSegments(starts, count);
+    }
+
+    private static TypeDescriptor getTypeDescriptor(Class<?> type) {
+        TypeDescriptor descriptor = TYPES.get(type);
+        if (descriptor == null) {
+            descriptor = new TypeDescriptor(type);
+            TYPES.putIfAbsent(type, descriptor);
+        }
+        return descriptor;
+    }
+
+    /**
+     * How the values of a class are written, resolved on the first value of the class
+     */
+    private static final class TypeDescriptor {
+
+        private final byte tag;
+
+        /**
+         * FNV-1a hash of the class name, written instead of the name
+         */
+        private final long fingerprint;
+
+        private final Field[] fields;
+
+        TypeDescriptor(Class<?> type) {
+            if (type.isArray()) {
+                tag = ARRAY;
+            } else if (Enum.class.isAssignableFrom(type)) {
+                tag = ENUM;
+                type = type.isEnum() ? type : type.getSuperclass();
+            } else if (Set.class.isAssignableFrom(type)) {
+                tag = SET;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                tag = LIST;
+            } else if (Map.class.isAssignableFrom(type)) {
+                tag = MAP;
+            } else if (type == Class.class) {
+                tag = CLASS;
+            } else if (type == Date.class) {
+                tag = DATE;
+            } else if (type.getName().startsWith("java.")) {
+                // the fields of the classes of the JDK may be caches, as the precision of a BigDecimal is
+                tag = VALUE;
+            } else {
+                tag = OBJECT;
+            }
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : type.getName().getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+            }
+            fingerprint = hash;
+            fields = tag == OBJECT ? getFields(type) : null;
+        }
+
+        private static Field[] getFields(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            fields.sort(Comparator.comparing(Field::getName).thenComparing(field -> field.getDeclaringClass().getName()));
+            return fields.toArray(new Field[0]);
+        }
+    }
+
+    /**
+     * Buffer of the key, reused by the thread
+     */
+    private static final class KeyWriter {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+        private int size;
+
+        void reset() {
+            if (buffer.length > MAX_RETAINED_CAPACITY) {
+                buffer = new byte[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeString(String value) {
+            int length = value.length();
+            int start = size;
+            writeByte(LATIN_STRING);
+            writeInt(length);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c > 0xFF) {
+                    size = start;
+                    writeUtf16(value);
+                    return;
+                }
+                buffer[size++] = (byte) c;
+            }
+        }
+
+        private void writeUtf16(String value) {
+            int length = value.length();
+            writeByte(STRING);
+            writeInt(length);
+            ensure(length * 2);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                buffer[size++] = (byte) (c >>> 8);
+                buffer[size++] = (byte) c;
+            }
+        }
+
+        /**
+         * Sorts the segments between the given starts by their bytes, the last start being the end of the last segment
+         */
+        void sortSegments(int[] starts, int count) {
+            if (count < 2) {
+                return;
+            }
+            byte[][] segments = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                segments[i] = Arrays.copyOfRange(buffer, starts[i], starts[i + 1]);
+            }
+            Arrays.sort(segments, KeyWriter::compare);
+            int position = starts[0];
+            for (byte[] segment : segments) {
+                System.arraycopy(segment, 0, buffer, position, segment.length);
+                position += segment.length;
+            }
+        }
+
+        private static int compare(byte[] a, byte[] b) {
+            int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+
+        private void ensure(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+    }
+}
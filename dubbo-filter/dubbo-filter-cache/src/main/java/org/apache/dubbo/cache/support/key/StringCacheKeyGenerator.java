@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.key;
+
+import org.apache.dubbo.cache.CacheKeyGenerator;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.Invocation;
+
+/**
+ * Generates the arguments joined as a string, each argument that is not primitive written as JSON. These are the keys
+ * used before the keys were pluggable, kept for caches shared with consumers that still use them.
+ */
+public class StringCacheKeyGenerator implements CacheKeyGenerator {
+
+    public static final String NAME = "string";
+
+    @Override
+    public Object generateKey(Invocation invocation) {
+        return StringUtils.toArgumentString(invocation.getArguments());
+    }
+
+}
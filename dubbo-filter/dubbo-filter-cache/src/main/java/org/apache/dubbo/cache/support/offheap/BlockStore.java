@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+/**
+ * Memory, or a file, divided into blocks of the same size, which the bytes of an entry are written to as many blocks
+ * as they take, so that any freed blocks can be reused for another entry without compacting. Not thread safe.
+ */
+abstract class BlockStore {
+
+    private final int blockSize;
+
+    private final int[] freeBlocks;
+
+    private int freeCount;
+
+    BlockStore(long capacity, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("The block size must be positive, but is " + blockSize);
+        }
+        long blocks = capacity / blockSize;
+        if (blocks <= 0 || blocks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The capacity " + capacity + " must hold between 1 and "
+                    + Integer.MAX_VALUE + " blocks of " + blockSize + " bytes");
+        }
+        this.blockSize = blockSize;
+        this.freeBlocks = new int[(int) blocks];
+        // handed out from the start, so that a file only grows as far as it is used
+        for (int i = 0; i < freeBlocks.length; i++) {
+            freeBlocks[i] = freeBlocks.length - 1 - i;
+        }
+        this.freeCount = freeBlocks.length;
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    int getBlockCount() {
+        return freeBlocks.length;
+    }
+
+    int getFreeCount() {
+        return freeCount;
+    }
+
+    int blocksOf(int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * @return the blocks to write the given number of bytes to, or null if there are not enough free blocks
+     */
+    int[] allocate(int length) {
+        int count = blocksOf(length);
+        if (count > freeCount) {
+            return null;
+        }
+        int[] blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = freeBlocks[--freeCount];
+        }
+        return blocks;
+    }
+
+    void free(int[] blocks) {
+        for (int i = blocks.length - 1; i >= 0; i--) {
+            freeBlocks[freeCount++] = blocks[i];
+        }
+    }
+
+    void write(int[] blocks, byte[] bytes) {
+        for (int i = 0, offset = 0; offset < bytes.length; i++, offset += blockSize) {
+            write(blocks[i], bytes, offset, Math.min(blockSize, bytes.length - offset));
+        }
+    }
+
+    byte[] read(int[] blocks, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0, offset = 0; offset < length; i++, offset += blockSize) {
+            read(blocks[i], bytes, offset, Math.min(blockSize, length - offset));
+        }
+        return bytes;
+    }
+
+    protected abstract void write(int block, byte[] source, int offset, int length);
+
+    protected abstract void read(int block, byte[] target, int offset, int length);
+
+    /**
+     * Releases the memory or the file of the blocks, which are not used any more
+     */
+    abstract void destroy();
+}
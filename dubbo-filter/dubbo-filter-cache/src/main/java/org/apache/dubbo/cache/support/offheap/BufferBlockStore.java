@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Blocks in direct buffers, or in buffers mapped to a temporary file, allocated in chunks of about 1 MB as their blocks
+ * are first written, so that the memory is only taken as far as it is used.
+ */
+class BufferBlockStore extends BlockStore {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final ByteBuffer[] chunks;
+
+    private final int blocksPerChunk;
+
+    /**
+     * The file the chunks are mapped to, null if direct
+     */
+    private final File file;
+
+    private final FileChannel channel;
+
+    private BufferBlockStore(long capacity, int blockSize, File mappedDirectory) throws IOException {
+        super(capacity, blockSize);
+        this.blocksPerChunk = Math.max(1, CHUNK_SIZE / blockSize);
+        this.chunks = new ByteBuffer[(getBlockCount() + blocksPerChunk - 1) / blocksPerChunk];
+        if (mappedDirectory == null) {
+            this.file = null;
+            this.channel = null;
+        } else {
+            this.file = File.createTempFile("dubbo-cache-", ".mapped", mappedDirectory);
+            file.deleteOnExit();
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+        }
+    }
+
+    static BufferBlockStore direct(long capacity, int blockSize) {
+        try {
+            return new BufferBlockStore(capacity, blockSize, null);
+        } catch (IOException e) {
+            // never thrown for direct buffers
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static BufferBlockStore mapped(long capacity, int blockSize, File directory) throws IOException {
+        return new BufferBlockStore(capacity, blockSize, directory);
+    }
+
+    /**
+     * @return the bytes of the chunks allocated so far
+     */
+    long getAllocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                bytes += chunk.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    private ByteBuffer chunkOf(int block) {
+        int index = block / blocksPerChunk;
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+            int size = Math.min(blocksPerChunk, getBlockCount() - index * blocksPerChunk) * getBlockSize();
+            if (channel == null) {
+                chunk = ByteBuffer.allocateDirect(size);
+            } else {
+                try {
+                    // the file grows as far as the mapped chunks
+                    long position = (long) index * blocksPerChunk * getBlockSize();
+                    chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    @Override
+    protected void write(int block, byte[] source, int offset, int length) {
+        ByteBuffer chunk = chunkOf(block);
+        chunk.position((block % blocksPerChunk) * getBlockSize());
+        chunk.put(source, offset, length);
+    }
+
+    @Override
+    protected void read(int block, byte[] target, int offset, int length) {
+        ByteBuffer chunk = chunkOf(block);
+        chunk.position((block % blocksPerChunk) * getBlockSize());
+        chunk.get(target, offset, length);
+    }
+
+    /**
+     * Drops the chunks, whose memory is freed by the garbage collector once unreachable, and deletes the mapped file
+     */
+    @Override
+    void destroy() {
+        Arrays.fill(chunks, null);
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore, the file is deleted anyway
+            }
+            // or on exit, if it is still open elsewhere
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * The order the keys of a tier of an {@link OffHeapCache} are evicted in. Not thread safe.
+ */
+abstract class EvictionOrder {
+
+    static final String LRU = "lru";
+
+    static final String LFU = "lfu";
+
+    static EvictionOrder of(String name) {
+        if (LRU.equals(name)) {
+            return new Lru();
+        }
+        if (LFU.equals(name)) {
+            return new Lfu();
+        }
+        throw new IllegalArgumentException("Unsupported eviction " + name + ", expected " + LRU + " or " + LFU);
+    }
+
+    abstract void add(Object key);
+
+    abstract void access(Object key);
+
+    abstract void remove(Object key);
+
+    /**
+     * @return the key to evict next, or null if there is none
+     */
+    abstract Object victim();
+
+    /**
+     * Evicts the least recently used key first
+     */
+    private static class Lru extends EvictionOrder {
+
+        private final LinkedHashSet<Object> keys = new LinkedHashSet<>();
+
+        @Override
+        void add(Object key) {
+            keys.add(key);
+        }
+
+        @Override
+        void access(Object key) {
+            if (keys.remove(key)) {
+                keys.add(key);
+            }
+        }
+
+        @Override
+        void remove(Object key) {
+            keys.remove(key);
+        }
+
+        @Override
+        Object victim() {
+            Iterator<Object> iterator = keys.iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /**
+     * Evicts the least frequently used key first, and of those the least recently used, in constant time by keeping
+     * the keys in a list per frequency
+     */
+    private static class Lfu extends EvictionOrder {
+
+        private final Map<Object, Integer> frequencies = new HashMap<>();
+
+        private final Map<Integer, LinkedHashSet<Object>> lists = new HashMap<>();
+
+        private int minFrequency;
+
+        @Override
+        void add(Object key) {
+            frequencies.put(key, 1);
+            lists.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(key);
+            minFrequency = 1;
+        }
+
+        @Override
+        void access(Object key) {
+            Integer frequency = frequencies.get(key);
+            if (frequency == null) {
+                return;
+            }
+            unlink(key, frequency);
+            if (minFrequency == frequency && !lists.containsKey(frequency)) {
+                minFrequency = frequency + 1;
+            }
+            frequencies.put(key, frequency + 1);
+            lists.computeIfAbsent(frequency + 1, f -> new LinkedHashSet<>()).add(key);
+        }
+
+        @Override
+        void remove(Object key) {
+            Integer frequency = frequencies.remove(key);
+            if (frequency != null) {
+                unlink(key, frequency);
+            }
+        }
+
+        private void unlink(Object key, int frequency) {
+            LinkedHashSet<Object> list = lists.get(frequency);
+            list.remove(key);
+            if (list.isEmpty()) {
+                lists.remove(frequency);
+            }
+        }
+
+        @Override
+        Object victim() {
+            if (frequencies.isEmpty()) {
+                return null;
+            }
+            LinkedHashSet<Object> list = lists.get(minFrequency);
+            if (list == null) {
+                // the least frequent key was removed, so look for the next frequency
+                int frequency = Integer.MAX_VALUE;
+                for (Integer f : lists.keySet()) {
+                    frequency = Math.min(frequency, f);
+                }
+                minFrequency = frequency;
+                list = lists.get(frequency);
+            }
+            return list.iterator().next();
+        }
+    }
+}
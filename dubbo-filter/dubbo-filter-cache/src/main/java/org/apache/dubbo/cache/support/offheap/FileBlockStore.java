@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Blocks in a temporary file, read and written at their position in the file, which grows as far as blocks are used.
+ */
+class FileBlockStore extends BlockStore {
+
+    private final File file;
+
+    private final FileChannel channel;
+
+    FileBlockStore(long capacity, int blockSize, File directory) throws IOException {
+        super(capacity, blockSize);
+        this.file = File.createTempFile("dubbo-cache-", ".overflow", directory);
+        file.deleteOnExit();
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    @Override
+    protected void write(int block, byte[] source, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(source, offset, length);
+        long position = (long) block * getBlockSize();
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void read(int block, byte[] target, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(target, offset, length);
+        long position = (long) block * getBlockSize();
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of the cache file at " + position);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    void destroy() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore, the file is deleted anyway
+        }
+        // or on exit, if it is still open elsewhere
+        file.delete();
+    }
+}
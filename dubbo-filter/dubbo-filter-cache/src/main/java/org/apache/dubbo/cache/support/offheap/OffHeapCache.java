@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.UnsafeByteArrayInputStream;
+import org.apache.dubbo.common.io.UnsafeByteArrayOutputStream;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.common.utils.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache storing the values serialized out of the heap, so that large values kept for long don't add to the work of
+ * the garbage collector. The values are serialized by the {@link Serialization} of the url, hessian2 by default, into
+ * blocks of direct or memory mapped buffers bounded by their size in bytes, and deserialized on each hit. The entries
+ * evicted from the memory can overflow to a file on the local disk, also bounded in bytes, from which they are
+ * brought back to the memory when hit. The buffers are allocated in chunks as they are first used, and the memory and
+ * the file are released when the cache is destroyed, as its invoker is destroyed or its service unexported.
+ * <p>
+ * As the caches are per method of an invoker, a consumer has a cache per provider and method, each bounded by
+ * <b>cache.bytes</b> on its own, so the memory they may take in all is that many times the bound, to keep in mind
+ * when configuring a method of a service with many providers.
+ * <p>
+ * The keys and the positions of their blocks stay on the heap, under one lock, which is not held while serializing
+ * and deserializing the values.
+ * <p>
+ * Configured by the parameters of the url of the method:
+ * <li><b>cache.bytes</b> - maximum size of the values in memory, 64 MB by default</li>
+ * <li><b>cache.block</b> - size of the blocks the values are stored in, 8 KB by default</li>
+ * <li><b>cache.eviction</b> - <b>lru</b> or <b>lfu</b>, lru by default</li>
+ * <li><b>cache.mapped</b> - whether the memory is mapped to a temporary file rather than direct, false by default</li>
+ * <li><b>cache.overflow.dir</b> - directory of the file the evicted values overflow to, none by default</li>
+ * <li><b>cache.overflow.bytes</b> - maximum size of the values on disk, 1 GB by default</li>
+ *
+ * @see OffHeapCacheFactory
+ */
+public class OffHeapCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCache.class);
+
+    private static final long DEFAULT_BYTES = 64L * 1024 * 1024;
+
+    private static final int DEFAULT_BLOCK_SIZE = 8 * 1024;
+
+    private static final long DEFAULT_OVERFLOW_BYTES = 1024L * 1024 * 1024;
+
+    private final URL url;
+
+    private final Serialization serialization;
+
+    private final Tier memory;
+
+    /**
+     * The tier on disk, null if the evicted values don't overflow
+     */
+    private final Tier disk;
+
+    // guarded by this
+
+    private final Map<Object, Entry> entries = new HashMap<>();
+
+    private boolean destroyed;
+
+    public OffHeapCache(URL url) {
+        this(url, tiersOf(url));
+    }
+
+    private OffHeapCache(URL url, Tier[] tiers) {
+        this.url = url;
+        this.serialization = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(
+                url.getParameter(Constants.SERIALIZATION_KEY, Constants.DEFAULT_REMOTING_SERIALIZATION));
+        this.memory = tiers[0];
+        this.disk = tiers[1];
+    }
+
+    private static Tier[] tiersOf(URL url) {
+        String method = url.getParameter(Constants.METHOD_KEY, "");
+        int blockSize = url.getMethodParameter(method, "cache.block", DEFAULT_BLOCK_SIZE);
+        long bytes = url.getMethodParameter(method, "cache.bytes", DEFAULT_BYTES);
+        String eviction = url.getMethodParameter(method, "cache.eviction", EvictionOrder.LRU);
+        String overflow = url.getMethodParameter(method, "cache.overflow.dir");
+        try {
+            BlockStore memory = url.getMethodParameter(method, "cache.mapped", false)
+                    ? BufferBlockStore.mapped(bytes, blockSize, null) : BufferBlockStore.direct(bytes, blockSize);
+            Tier disk = null;
+            if (StringUtils.isNotEmpty(overflow)) {
+                File directory = new File(overflow);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Failed to create the cache overflow directory " + directory);
+                }
+                disk = new Tier(new FileBlockStore(url.getMethodParameter(method, "cache.overflow.bytes",
+                        DEFAULT_OVERFLOW_BYTES), blockSize, directory), EvictionOrder.of(eviction));
+            }
+            return new Tier[]{new Tier(memory, EvictionOrder.of(eviction)), disk};
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create the off heap cache of " + url, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            synchronized (this) {
+                remove(key);
+            }
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = serialize(value);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to serialize the value of " + key + " to cache it off heap, " + e.getMessage(), e);
+            return;
+        }
+        synchronized (this) {
+            if (destroyed) {
+                return;
+            }
+            remove(key);
+            try {
+                if (!store(memory, key, bytes) && (disk == null || !store(disk, key, bytes))) {
+                    logger.warn("The value of " + key + " of " + bytes.length + " bytes is larger than the cache, not cached");
+                }
+            } catch (UncheckedIOException e) {
+                logger.warn("Failed to write the cache overflow file, " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        byte[] bytes;
+        synchronized (this) {
+            Entry entry = destroyed ? null : entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.tier == memory) {
+                bytes = memory.store.read(entry.blocks, entry.length);
+                memory.order.access(key);
+            } else {
+                try {
+                    bytes = disk.store.read(entry.blocks, entry.length);
+                    // brought back to the memory, unless it doesn't fit there
+                    remove(key);
+                    if (!store(memory, key, bytes)) {
+                        store(disk, key, bytes);
+                    }
+                } catch (UncheckedIOException e) {
+                    logger.warn("Failed to read the cache overflow file, " + e.getMessage(), e);
+                    remove(key);
+                    return null;
+                }
+            }
+        }
+        try {
+            return deserialize(bytes);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            logger.warn("Failed to deserialize the cached value of " + key + ", " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Drops the entries and releases the memory and the file they are stored in, after which nothing is cached any more
+     */
+    public synchronized void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        for (Object key : new ArrayList<>(entries.keySet())) {
+            remove(key);
+        }
+        memory.store.destroy();
+        if (disk != null) {
+            disk.store.destroy();
+        }
+    }
+
+    /**
+     * @return the number of entries, in memory and on disk
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the bytes of the blocks used in memory
+     */
+    public synchronized long getMemoryBytes() {
+        return memory.usedBytes();
+    }
+
+    /**
+     * @return the bytes of the blocks used on disk
+     */
+    public synchronized long getDiskBytes() {
+        return disk == null ? 0 : disk.usedBytes();
+    }
+
+    /**
+     * Stores the bytes in the tier, evicting its entries to make room, which move to the disk from the memory
+     *
+     * @return false if the bytes are larger than the tier
+     */
+    private boolean store(Tier tier, Object key, byte[] bytes) {
+        BlockStore store = tier.store;
+        if (store.blocksOf(bytes.length) > store.getBlockCount()) {
+            return false;
+        }
+        int[] blocks;
+        while ((blocks = store.allocate(bytes.length)) == null) {
+            Object victim = tier.order.victim();
+            if (tier == memory && disk != null) {
+                Entry evicted = entries.get(victim);
+                byte[] evictedBytes = store.read(evicted.blocks, evicted.length);
+                remove(victim);
+                store(disk, victim, evictedBytes);
+            } else {
+                remove(victim);
+            }
+        }
+        store.write(blocks, bytes);
+        entries.put(key, new Entry(tier, blocks, bytes.length));
+        tier.order.add(key);
+        return true;
+    }
+
+    /**
+     * Frees the blocks of the key in any tier
+     */
+    private void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.tier.store.free(entry.blocks);
+            entry.tier.order.remove(key);
+        }
+    }
+
+    private byte[] serialize(Object value) throws IOException {
+        UnsafeByteArrayOutputStream bytes = new UnsafeByteArrayOutputStream(1024);
+        ObjectOutput output = serialization.serialize(url, bytes);
+        output.writeObject(value);
+        output.flushBuffer();
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        return serialization.deserialize(url, new UnsafeByteArrayInputStream(bytes)).readObject();
+    }
+
+    private static class Tier {
+
+        final BlockStore store;
+
+        final EvictionOrder order;
+
+        Tier(BlockStore store, EvictionOrder order) {
+            this.store = store;
+            this.order = order;
+        }
+
+        long usedBytes() {
+            return (long) (store.getBlockCount() - store.getFreeCount()) * store.getBlockSize();
+        }
+    }
+
+    private static class Entry {
+
+        final Tier tier;
+
+        final int[] blocks;
+
+        final int length;
+
+        Entry(Tier tier, int[] blocks, int length) {
+            this.tier = tier;
+            this.blocks = blocks;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the lookups and of the entries removed from one {@link TinyLfuCache}.
+ */
+public class CacheStatistics {
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder evictedWeight = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction(int weight) {
+        evictions.increment();
+        evictedWeight.add(weight);
+    }
+
+    void recordExpiration() {
+        expirations.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the hits divided by the lookups, 1 if nothing was looked up
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long lookups = hit + misses.sum();
+        return lookups == 0 ? 1 : (double) hit / lookups;
+    }
+
+    /**
+     * @return the number of entries evicted to keep the cache within its bound
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getEvictedWeight() {
+        return evictedWeight.sum();
+    }
+
+    /**
+     * @return the number of entries removed as their time to live elapsed
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses()
+                + ", hit rate: " + String.format("%.3f", getHitRate())
+                + ", evictions: " + getEvictions() + ", evicted weight: " + getEvictedWeight()
+                + ", expirations: " + getExpirations();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.filter.CacheFilter;
+import org.apache.dubbo.cache.support.key.BinaryCacheKey;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Weighs each entry by the estimated bytes of its key and value: strings, arrays, collections and maps by their
+ * length, and the other objects by their fields that are not static, nested up to {@value #MAX_DEPTH} levels. The
+ * estimate is rough, meant to bound caches of values of quite different sizes by memory rather than by count.
+ */
+public class SizeWeigher implements Weigher {
+
+    public static final String NAME = "size";
+
+    private static final int MAX_DEPTH = 4;
+
+    private static final int HEADER = 16;
+
+    private static final int REFERENCE = 8;
+
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return (int) Math.min(estimate(key, 0) + estimate(value, 0), Integer.MAX_VALUE);
+    }
+
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CacheFilter.ValueWrapper) {
+            return HEADER + REFERENCE + estimate(((CacheFilter.ValueWrapper) value).get(), depth);
+        }
+        if (value instanceof String) {
+            return HEADER + 24 + 2L * ((String) value).length();
+        }
+        if (value instanceof BinaryCacheKey) {
+            return HEADER + 8 + HEADER + ((BinaryCacheKey) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return HEADER;
+        }
+        if (depth >= MAX_DEPTH) {
+            return HEADER;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            if (type.getComponentType().isPrimitive()) {
+                return HEADER + (long) length * primitiveSize(type.getComponentType());
+            }
+            long size = HEADER + (long) length * REFERENCE;
+            for (Object element : (Object[]) value) {
+                size += estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 2 * HEADER;
+            for (Object element : (Collection<?>) value) {
+                size += REFERENCE + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 3 * HEADER;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += HEADER + 3 * REFERENCE + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        long size = HEADER;
+        for (Field field : getFields(type)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                size += primitiveSize(fieldType);
+                continue;
+            }
+            size += REFERENCE;
+            try {
+                size += estimate(field.get(value), depth + 1);
+            } catch (IllegalAccessException e) {
+                // counted as a reference only
+            }
+        }
+        return size;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static Field[] getFields(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields == null) {
+            List<Field> list = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        list.add(field);
+                    } catch (RuntimeException e) {
+                        // not readable, not counted
+                    }
+                }
+            }
+            fields = list.toArray(new Field[0]);
+            FIELDS.putIfAbsent(type, fields);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.support.tinylfu.TinyLfuCache.Node;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed wheel of the entries that expire, 64 buckets of a tick each, an entry being in the bucket of the tick it
+ * expires in. Advancing the wheel scans the buckets of the ticks elapsed since, so that each entry is looked at once
+ * if it expires within a turn of the wheel, and once a turn until it expires otherwise. Not thread safe, used under
+ * the eviction lock of {@link TinyLfuCache}.
+ */
+final class TimerWheel {
+
+    private static final int BUCKETS = 64;
+
+    private static final int MASK = BUCKETS - 1;
+
+    private static final int MIN_SHIFT = 20;
+
+    private static final int MAX_SHIFT = 30;
+
+    private final Node[] buckets = new Node[BUCKETS];
+
+    /**
+     * Nanoseconds of a tick as a power of two
+     */
+    private final int shift;
+
+    private long ticks;
+
+    private int scheduled;
+
+    /**
+     * @param expireAfterWrite the time to live of the entries if they have one, the ticks are about a 32th of it
+     * between a millisecond and a second
+     * @param now the time in nanoseconds, not negative
+     */
+    TimerWheel(long expireAfterWrite, long now) {
+        long tick = expireAfterWrite > 0 ? expireAfterWrite / 32 : 1L << MAX_SHIFT;
+        this.shift = Math.min(Math.max(63 - Long.numberOfLeadingZeros(Math.max(tick, 1)), MIN_SHIFT), MAX_SHIFT);
+        this.ticks = now >>> shift;
+        for (int i = 0; i < BUCKETS; i++) {
+            Node sentinel = new Node(null, null, 0, 0);
+            sentinel.wheelPrevious = sentinel;
+            sentinel.wheelNext = sentinel;
+            buckets[i] = sentinel;
+        }
+    }
+
+    void schedule(Node node) {
+        // an entry expired already goes in the bucket scanned next
+        Node sentinel = buckets[(int) Math.max(node.expiresAt >>> shift, ticks) & MASK];
+        node.wheelPrevious = sentinel.wheelPrevious;
+        node.wheelNext = sentinel;
+        sentinel.wheelPrevious.wheelNext = node;
+        sentinel.wheelPrevious = node;
+        scheduled++;
+    }
+
+    void deschedule(Node node) {
+        if (node.wheelNext != null) {
+            node.wheelNext.wheelPrevious = node.wheelPrevious;
+            node.wheelPrevious.wheelNext = node.wheelNext;
+            node.wheelNext = null;
+            node.wheelPrevious = null;
+            scheduled--;
+        }
+    }
+
+    /**
+     * @return whether no entry is to expire
+     */
+    boolean isEmpty() {
+        return scheduled == 0;
+    }
+
+    /**
+     * Passes the entries expired at the given time, in the buckets of the ticks elapsed, to the given consumer, which
+     * is to deschedule them
+     */
+    void advance(long now, Consumer<Node> expired) {
+        long previous = ticks;
+        long current = now >>> shift;
+        ticks = current;
+        long end = Math.min(current, previous + BUCKETS);
+        for (long tick = previous; tick < end; tick++) {
+            Node sentinel = buckets[(int) tick & MASK];
+            Node node = sentinel.wheelNext;
+            while (node != sentinel) {
+                Node next = node.wheelNext;
+                if (node.expiresAt - now <= 0) {
+                    expired.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache bounded by the W-TinyLFU policy: new entries go to a window LRU of 1% of the maximum, and leaving it they
+ * are only admitted to the main SLRU, 80% of which is protected, if their key was accessed more often than the key
+ * the main SLRU would evict for them, as estimated by a {@link FrequencySketch}. Entries expire after their time to
+ * live, reclaimed by a {@link TimerWheel}.
+ * <p>
+ * Lookups and writes go to a {@link ConcurrentHashMap} without locking. The policy is updated under a lock that is
+ * only ever tried: lookups are recorded into striped buffers that drop them when full, writes into a queue, and the
+ * buffers are drained by the thread that gets the lock when they fill up, so that no thread waits for it, unless the writes
+ * queued grow over a bound as the thread holding the lock is descheduled.
+ * <p>
+ * Configured by the parameters of the url of the method:
+ * <li><b>cache.size</b> - maximum number of entries, 1000 by default</li>
+ * <li><b>cache.weight</b> - maximum weight of the entries, bounding by weight rather than by size if set</li>
+ * <li><b>cache.weigher</b> - {@link Weigher} of the entries if bounded by weight, <b>size</b> by default</li>
+ * <li><b>cache.seconds</b> - time to live of the entries, none by default</li>
+ *
+ * @see TinyLfuCacheFactory
+ */
+public class TinyLfuCache implements Cache {
+
+    private static final int NONE = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int DEAD = 4;
+
+    private static final int READ_BUFFER_SIZE = 16;
+
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    /**
+     * Writes queued before they are drained, with the lookups
+     */
+    private static final int WRITE_BUFFER_THRESHOLD = 16;
+
+    /**
+     * Writes queued at most before the writers wait for the lock, bounding the entries over the maximum
+     */
+    private static final int WRITE_BUFFER_MAXIMUM = 128;
+
+    private final ConcurrentMap<Object, Node> data = new ConcurrentHashMap<>();
+
+    private final long maximum;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final Weigher weigher;
+
+    private final long expireAfterWrite;
+
+    private final LongSupplier ticker;
+
+    private final long origin;
+
+    private final ReadBuffer[] readBuffers;
+
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    // guarded by the eviction lock
+
+    private final FrequencySketch sketch;
+
+    private final TimerWheel wheel;
+
+    private final AccessOrder window = new AccessOrder();
+
+    private final AccessOrder probation = new AccessOrder();
+
+    private final AccessOrder protectedOrder = new AccessOrder();
+
+    private long weightedSize;
+
+    private long windowWeightedSize;
+
+    private long protectedWeightedSize;
+
+    public TinyLfuCache(URL url) {
+        this(maximumOf(url), weigherOf(url), TimeUnit.SECONDS.toNanos(
+                url.getMethodParameter(url.getParameter(Constants.METHOD_KEY, ""), "cache.seconds", 0L)),
+                System::nanoTime);
+    }
+
+    /**
+     * @param maximum maximum weight of the entries
+     * @param weigher weigher of the entries
+     * @param expireAfterWrite time to live of the entries in nanoseconds, 0 for none
+     * @param ticker time in nanoseconds
+     */
+    public TinyLfuCache(long maximum, Weigher weigher, long expireAfterWrite, LongSupplier ticker) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("The maximum of the cache must be positive, but is " + maximum);
+        }
+        this.maximum = maximum;
+        this.windowMaximum = Math.max(1, maximum / 100);
+        this.protectedMaximum = (maximum - windowMaximum) * 80 / 100;
+        this.weigher = weigher;
+        this.expireAfterWrite = expireAfterWrite;
+        this.ticker = ticker;
+        this.origin = ticker.getAsLong();
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        // bounded by weight, the entries are taken to weigh 64 on average to size the sketch
+        this.sketch = new FrequencySketch(weigher instanceof EntryWeigher ? maximum : maximum / 64);
+        this.wheel = new TimerWheel(expireAfterWrite, 0);
+    }
+
+    private static long maximumOf(URL url) {
+        String method = url.getParameter(Constants.METHOD_KEY, "");
+        long weight = url.getMethodParameter(method, "cache.weight", 0L);
+        return weight > 0 ? weight : url.getMethodParameter(method, "cache.size", 1000L);
+    }
+
+    private static Weigher weigherOf(URL url) {
+        String method = url.getParameter(Constants.METHOD_KEY, "");
+        if (url.getMethodParameter(method, "cache.weight", 0L) <= 0) {
+            return EntryWeigher.INSTANCE;
+        }
+        String weigher = url.getMethodParameter(method, "cache.weigher");
+        return weigher == null || weigher.length() == 0
+                ? ExtensionLoader.getExtensionLoader(Weigher.class).getDefaultExtension()
+                : ExtensionLoader.getExtensionLoader(Weigher.class).getExtension(weigher);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        put(key, value, expireAfterWrite);
+    }
+
+    /**
+     * Puts the entry with its own time to live
+     */
+    public void put(Object key, Object value, long duration, TimeUnit unit) {
+        put(key, value, unit.toNanos(duration));
+    }
+
+    private void put(Object key, Object value, long timeToLive) {
+        Node node = new Node(key, value, weigher.weigh(key, value), timeToLive > 0 ? now() + timeToLive : 0);
+        Node prior = data.put(key, node);
+        writeBuffer.add(() -> {
+            if (prior != null) {
+                remove(prior);
+            }
+            // the tasks of concurrent puts of the key may be queued out of order, a replaced node is never added
+            if (data.get(key) == node) {
+                add(node);
+            }
+        });
+        int pending = pendingWrites.incrementAndGet();
+        if (pending > WRITE_BUFFER_MAXIMUM) {
+            cleanUp();
+        } else if (pending >= WRITE_BUFFER_THRESHOLD) {
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        Node node = data.get(key);
+        if (node == null || (node.expiresAt != 0 && now() - node.expiresAt >= 0)) {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        if (!buffer.offer(node)) {
+            // dropped only if another thread is draining the full buffer
+            scheduleDrain();
+            buffer.offer(node);
+        }
+        return node.value;
+    }
+
+    /**
+     * @return the number of entries, including the ones written but not yet evicted
+     */
+    public int size() {
+        return data.size();
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Applies the recorded lookups and writes, and evicts the entries over the maximum and the entries expired
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private long now() {
+        return ticker.getAsLong() - origin;
+    }
+
+    private void scheduleDrain() {
+        // the writes queued while another thread holds the lock are drained by it, as it checks again once unlocked
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (pendingWrites.get() >= WRITE_BUFFER_THRESHOLD);
+    }
+
+    private void maintenance() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(this);
+        }
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        if (!wheel.isEmpty()) {
+            wheel.advance(now(), node -> evict(node, true));
+        }
+        evict();
+    }
+
+    private void add(Node node) {
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowWeightedSize += node.weight;
+        weightedSize += node.weight;
+        sketch.increment(node.key);
+        if (node.expiresAt != 0) {
+            wheel.schedule(node);
+        }
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedOrder.addLast(node);
+                protectedWeightedSize += node.weight;
+                while (protectedWeightedSize > protectedMaximum) {
+                    Node demoted = protectedOrder.first();
+                    protectedOrder.remove(demoted);
+                    protectedWeightedSize -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedOrder.moveToLast(node);
+                break;
+            default:
+                // added later or removed already
+        }
+    }
+
+    private void evict() {
+        while (windowWeightedSize > windowMaximum) {
+            Node node = window.first();
+            window.remove(node);
+            windowWeightedSize -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+        }
+        while (weightedSize > maximum) {
+            Node victim = probation.first();
+            if (victim == null) {
+                victim = protectedOrder.first() != null ? protectedOrder.first() : window.first();
+                if (victim == null) {
+                    break;
+                }
+                evict(victim, false);
+                continue;
+            }
+            Node candidate = probation.last();
+            if (candidate == victim || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim, false);
+            } else {
+                evict(candidate, false);
+            }
+        }
+    }
+
+    private void evict(Node node, boolean expired) {
+        remove(node);
+        data.remove(node.key, node);
+        if (expired) {
+            statistics.recordExpiration();
+        } else {
+            statistics.recordEviction(node.weight);
+        }
+    }
+
+    private void remove(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowWeightedSize -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedOrder.remove(node);
+                protectedWeightedSize -= node.weight;
+                break;
+            default:
+                return;
+        }
+        weightedSize -= node.weight;
+        node.queue = DEAD;
+        wheel.deschedule(node);
+    }
+
+    static final class Node {
+
+        final Object key;
+
+        final Object value;
+
+        final int weight;
+
+        /**
+         * Time the entry expires at, 0 if it does not
+         */
+        final long expiresAt;
+
+        // guarded by the eviction lock
+
+        int queue = NONE;
+
+        Node previous;
+
+        Node next;
+
+        Node wheelPrevious;
+
+        Node wheelNext;
+
+        Node(Object key, Object value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Doubly linked list of the entries from the least recently accessed
+     */
+    private static final class AccessOrder {
+
+        private Node head;
+
+        private Node tail;
+
+        Node first() {
+            return head;
+        }
+
+        Node last() {
+            return tail;
+        }
+
+        void addLast(Node node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Ring of the entries looked up, written by the threads of a stripe and read under the eviction lock, that drops
+     * the lookups when full
+     */
+    private static final class ReadBuffer {
+
+        private final AtomicLong writeCounter = new AtomicLong();
+
+        private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+        private volatile long readCounter;
+
+        /**
+         * @return false if the buffer is full
+         */
+        boolean offer(Node node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) tail & READ_BUFFER_MASK, node);
+            }
+            return true;
+        }
+
+        void drain(TinyLfuCache cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) head & READ_BUFFER_MASK;
+                Node node = buffer.get(index);
+                if (node == null) {
+                    // not yet published by its writer
+                    break;
+                }
+                buffer.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readCounter = head;
+        }
+    }
+}
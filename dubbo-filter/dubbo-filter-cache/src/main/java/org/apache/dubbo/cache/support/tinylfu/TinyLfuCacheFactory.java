@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.cache.support.AbstractCacheFactory;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * TinyLfuCacheFactory is factory class to provide instance of {@link TinyLfuCache}, and the statistics of the caches
+ * it created.
+ *
+ * @see AbstractCacheFactory
+ * @see TinyLfuCache
+ * @see Cache
+ */
+public class TinyLfuCacheFactory extends AbstractCacheFactory {
+
+    private final ConcurrentMap<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Takes url as an method argument and return new instance of cache store implemented by TinyLfuCache.
+     * @param url url of the method
+     * @return TinyLfuCache instance of cache
+     */
+    @Override
+    protected Cache createCache(URL url) {
+        TinyLfuCache cache = new TinyLfuCache(url);
+        statistics.put(url.getServiceKey() + "." + url.getParameter(Constants.METHOD_KEY, ""), cache.getStatistics());
+        return cache;
+    }
+
+    /**
+     * @return the statistics of the caches by the service key and the method name, as in group/service:version.method
+     */
+    public Map<String, CacheStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.filter;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.cache.CacheFactory;
+import org.apache.dubbo.cache.support.lru.LruCacheFactory;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the latency of a cache hit through the filter, with the cache resolved once and binary or string keys,
+ * with the lookup done before, which resolved the cache from the full string of the url and keyed it by the string
+ * of the arguments, for a method taking a string, a number and an object of a few fields.
+ * <p>
+ * mvn test -Dtest=CacheFilterPerformanceTest -Dbenchmark=true -Druns=1000000
+ */
+public class CacheFilterPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheFilterPerformanceTest.class);
+
+    private static final String URL_STRING = "dubbo://10.20.130.230:20880/org.apache.dubbo.demo.DemoService"
+            + "?anyhost=true&application=demo-consumer&check=false&dubbo=2.0.2&generic=false"
+            + "&interface=org.apache.dubbo.demo.DemoService&methods=find,sayHello&pid=10023&register.ip=10.20.130.230"
+            + "&side=consumer&timeout=3000&timestamp=1557834568123&find.cache=lru";
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the cache filter benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 1000000);
+
+        long before = measure(runs, URL.valueOf(URL_STRING), new LookupBefore(new LruCacheFactory()));
+        long string = measure(runs, URL.valueOf(URL_STRING + "&find.cache.key=string"), newCacheFilter());
+        long binary = measure(runs, URL.valueOf(URL_STRING), newCacheFilter());
+
+        logger.info("Cache hit of " + runs + " runs, before: " + before / runs + " ns/op, string keys: "
+                + string / runs + " ns/op, binary keys: " + binary / runs + " ns/op");
+    }
+
+    private static CacheFilter newCacheFilter() {
+        CacheFilter filter = new CacheFilter();
+        filter.setCacheFactory(new LruCacheFactory());
+        return filter;
+    }
+
+    private static long measure(int runs, URL url, CacheFilter filter) {
+        Invoker<?> invoker = new HitInvoker(url);
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("find");
+        invocation.setParameterTypes(new Class<?>[]{String.class, int.class, Query.class});
+        invocation.setArguments(new Object[]{"demo", 100, new Query("name", Arrays.asList("a", "b", "c"), 20L)});
+        // warm up before measuring, the first call fills the cache
+        for (int i = 0; i < runs / 10; i++) {
+            filter.invoke(invoker, invocation);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            Assertions.assertEquals("value", filter.invoke(invoker, invocation).getValue());
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The lookup as done before
+     */
+    private static class LookupBefore extends CacheFilter {
+
+        private final CacheFactory cacheFactory;
+
+        LookupBefore(CacheFactory cacheFactory) {
+            this.cacheFactory = cacheFactory;
+        }
+
+        @Override
+        public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+            Cache cache = cacheFactory.getCache(invoker.getUrl(), invocation);
+            String key = StringUtils.toArgumentString(invocation.getArguments());
+            Object value = cache.get(key);
+            if (value != null) {
+                return new RpcResult(((ValueWrapper) value).get());
+            }
+            Result result = invoker.invoke(invocation);
+            cache.put(key, new ValueWrapper(result.getValue()));
+            return result;
+        }
+    }
+
+    private static class HitInvoker implements Invoker<Object> {
+
+        private final URL url;
+
+        private boolean invoked;
+
+        HitInvoker(URL url) {
+            this.url = url;
+        }
+
+        @Override
+        public Class<Object> getInterface() {
+            return Object.class;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            Assertions.assertFalse(invoked, "Invoked after the value is cached");
+            invoked = true;
+            return new RpcResult("value");
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    public static class Query {
+
+        private String name;
+
+        private List<String> tags;
+
+        private long limit;
+
+        public Query(String name, List<String> tags, long limit) {
+            this.name = name;
+            this.tags = tags;
+            this.limit = limit;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+    }
+}
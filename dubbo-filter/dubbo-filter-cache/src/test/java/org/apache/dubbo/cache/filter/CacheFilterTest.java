@@ -16,25 +16,41 @@
  */
 package org.apache.dubbo.cache.filter;
 
+import org.apache.dubbo.cache.Cache;
 import org.apache.dubbo.cache.CacheFactory;
 import org.apache.dubbo.cache.support.expiring.ExpiringCacheFactory;
 import org.apache.dubbo.cache.support.jcache.JCacheFactory;
 import org.apache.dubbo.cache.support.lru.LruCacheFactory;
+import org.apache.dubbo.cache.support.offheap.OffHeapCache;
 import org.apache.dubbo.cache.support.threadlocal.ThreadLocalCacheFactory;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.RpcResult;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class CacheFilterTest {
     private RpcInvocation invocation;
@@ -133,4 +149,115 @@ public class CacheFilterTest {
         Assertions.assertEquals(rpcResult1.getValue(), null);
         Assertions.assertEquals(rpcResult2.getValue(), null);
     }
+
+    @Test
+    public void testMethodCacheResolvedOnce() {
+        AtomicInteger created = new AtomicInteger();
+        Map<Object, Object> store = new HashMap<>();
+        cacheFilter.setCacheFactory((url, invocation) -> {
+            created.incrementAndGet();
+            return new Cache() {
+                @Override
+                public void put(Object key, Object value) {
+                    store.put(key, value);
+                }
+
+                @Override
+                public Object get(Object key) {
+                    return store.get(key);
+                }
+            };
+        });
+        invocation = new RpcInvocation();
+        invocation.setArguments(new Object[]{"arg1"});
+        given(invoker.invoke(invocation)).willReturn(new RpcResult("value"));
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://test:11/test?echo.cache=lru&echo.cache.key=string"));
+
+        invocation.setMethodName("echo");
+        Assertions.assertEquals("value", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals("value", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals(1, created.get());
+        Assertions.assertEquals(Collections.singleton("arg1"), store.keySet());
+        verify(invoker, times(1)).invoke(invocation);
+
+        // not cached
+        invocation.setMethodName("echo1");
+        cacheFilter.invoke(invoker, invocation);
+        cacheFilter.invoke(invoker, invocation);
+        Assertions.assertEquals(1, created.get());
+        verify(invoker, times(3)).invoke(invocation);
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        Map<Object, Object> store = new ConcurrentHashMap<>();
+        cacheFilter.setCacheFactory((url, invocation) -> new Cache() {
+            @Override
+            public void put(Object key, Object value) {
+                store.put(key, value);
+            }
+
+            @Override
+            public Object get(Object key) {
+                return store.get(key);
+            }
+        });
+        invocation = new RpcInvocation();
+        invocation.setMethodName("getConfig");
+        invocation.setArguments(new Object[]{"key"});
+        AtomicInteger invoked = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://test:11/test?getConfig.cache=lru&getConfig.cache.key=string"
+                + "&getConfig.cache.refresh.seconds=60&getConfig.cache.seconds=600"));
+        given(invoker.invoke(any(Invocation.class))).willAnswer(i -> {
+            if (invoked.incrementAndGet() > 1) {
+                Assertions.assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return new RpcResult("value" + invoked.get());
+        });
+
+        Assertions.assertEquals("value1", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals("value1", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals(1, invoked.get());
+
+        // stale, returned while one call refreshes it in the background
+        store.put("key", new CacheFilter.ValueWrapper("stale", System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(120)));
+        Assertions.assertEquals("stale", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals("stale", cacheFilter.invoke(invoker, invocation).getValue());
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"value2".equals(((CacheFilter.ValueWrapper) store.get("key")).get())) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals("value2", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals(2, invoked.get());
+
+        // past the hard ttl, called as on a miss
+        store.put("key", new CacheFilter.ValueWrapper("expired", System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(700)));
+        Assertions.assertEquals("value3", cacheFilter.invoke(invoker, invocation).getValue());
+        Assertions.assertEquals("value3", ((CacheFilter.ValueWrapper) store.get("key")).get());
+    }
+
+    @Test
+    public void testCachesDroppedWithInvoker() {
+        CacheFilter filter = (CacheFilter) ExtensionLoader.getExtensionLoader(Filter.class).getExtension("cache");
+        URL url = URL.valueOf("test://test:12/test?cache=offheap");
+        Invoker<?> provider = mock(Invoker.class);
+        given(provider.getUrl()).willReturn(url);
+        AtomicInteger invoked = new AtomicInteger();
+        given(provider.invoke(any(Invocation.class))).willAnswer(i -> new RpcResult("value" + invoked.incrementAndGet()));
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{}, new Object[]{});
+
+        Assertions.assertEquals("value1", filter.invoke(provider, invocation).getValue());
+        Assertions.assertEquals("value1", filter.invoke(provider, invocation).getValue());
+        OffHeapCache cache = (OffHeapCache) ExtensionLoader.getExtensionLoader(CacheFactory.class).getExtension("offheap")
+                .getCache(url, invocation);
+        Assertions.assertEquals(1, cache.size());
+
+        new CacheDestroyListener().destroyed(provider);
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals("value2", filter.invoke(provider, invocation).getValue());
+        Assertions.assertEquals("value2", filter.invoke(provider, invocation).getValue());
+    }
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.filter;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class CoalesceFilterTest {
+
+    private static final int CALLERS = 8;
+
+    private final CoalesceFilter coalesceFilter = new CoalesceFilter();
+
+    private final AtomicInteger invoked = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        RpcContext.removeContext();
+    }
+
+    private Invoker<?> newInvoker(String parameters, Function<Invocation, Result> invoke) {
+        Invoker<?> invoker = mock(Invoker.class);
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://test:11/test?findItem.coalesce=true&timeout=5000" + parameters));
+        given(invoker.invoke(any(Invocation.class))).willAnswer(i -> {
+            invoked.incrementAndGet();
+            return invoke.apply(i.getArgument(0));
+        });
+        return invoker;
+    }
+
+    private static RpcInvocation newInvocation(String methodName, Object argument) {
+        return new RpcInvocation(methodName, new Class<?>[]{String.class}, new Object[]{argument});
+    }
+
+    private void awaitCoalesced(long coalesced) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        CoalesceStatistics statistics;
+        // the statistics are created by the first call, which may not have been made yet
+        while ((statistics = coalesceFilter.getStatistics().get("test.findItem")) == null
+                || statistics.getCoalesced() < coalesced) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testSyncCallsShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Invoker<?> invoker = newInvoker("", invocation -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            RpcResult result = new RpcResult("value of " + invocation.getArguments()[0]);
+            result.setAttachment("shared", "true");
+            return result;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalesceFilter.invoke(invoker, newInvocation("findItem", "a"))));
+            }
+            awaitCoalesced(CALLERS - 1);
+            release.countDown();
+
+            List<Result> distinct = new ArrayList<>();
+            for (Future<Result> future : results) {
+                Result result = future.get(5, TimeUnit.SECONDS);
+                Assertions.assertEquals("value of a", result.getValue());
+                Assertions.assertEquals("true", result.getAttachment("shared"));
+                Assertions.assertFalse(distinct.stream().anyMatch(r -> r == result));
+                distinct.add(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, invoked.get());
+        CoalesceStatistics statistics = coalesceFilter.getStatistics().get("test.findItem");
+        Assertions.assertEquals(CALLERS, statistics.getCalls());
+        Assertions.assertEquals((double) (CALLERS - 1) / CALLERS, statistics.getCollapseRatio(), 0.0001);
+
+        // the flight is over, so the next call goes on to the provider, as do other arguments and methods
+        Assertions.assertEquals("value of a", coalesceFilter.invoke(invoker, newInvocation("findItem", "a")).getValue());
+        Assertions.assertEquals("value of b", coalesceFilter.invoke(invoker, newInvocation("findItem", "b")).getValue());
+        Assertions.assertEquals("value of c", coalesceFilter.invoke(invoker, newInvocation("getItem", "c")).getValue());
+        Assertions.assertEquals(4, invoked.get());
+        Assertions.assertNull(coalesceFilter.getStatistics().get("test.getItem"));
+    }
+
+    @Test
+    public void testAsyncCallsShareOneCall() throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Invoker<?> invoker = newInvoker("&findItem.async=true", invocation -> new AsyncRpcResult(future));
+
+        RpcInvocation leaderInvocation = newInvocation("findItem", "a");
+        leaderInvocation.setAttachment(Constants.FUTURE_RETURNTYPE_KEY, "true");
+        AsyncRpcResult leader = (AsyncRpcResult) coalesceFilter.invoke(invoker, leaderInvocation);
+
+        RpcInvocation followerInvocation = newInvocation("findItem", "a");
+        followerInvocation.setAttachment(Constants.FUTURE_RETURNTYPE_KEY, "true");
+        AsyncRpcResult follower = (AsyncRpcResult) coalesceFilter.invoke(invoker, followerInvocation);
+        CompletableFuture<?> contextFuture = (CompletableFuture<?>) RpcContext.getContext().getFuture();
+        Assertions.assertSame(follower.recreate(), contextFuture);
+
+        // a caller that doesn't return a future gets a result that recreates nothing
+        AsyncRpcResult other = (AsyncRpcResult) coalesceFilter.invoke(invoker, newInvocation("findItem", "a"));
+        Assertions.assertNull(other.recreate());
+        Assertions.assertFalse(contextFuture.isDone());
+
+        future.complete("value");
+        Assertions.assertEquals("value", leader.getResultFuture().get().getValue());
+        Assertions.assertEquals("value", follower.getResultFuture().get(5, TimeUnit.SECONDS).getValue());
+        Assertions.assertEquals("value", contextFuture.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("value", other.getResultFuture().get(5, TimeUnit.SECONDS).getValue());
+        Assertions.assertEquals(1, invoked.get());
+        Assertions.assertEquals(2, coalesceFilter.getStatistics().get("test.findItem").getCoalesced());
+    }
+
+    @Test
+    public void testExceptionShared() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Invoker<?> invoker = newInvoker("&findItem.async=true", invocation -> new AsyncRpcResult(future));
+        AsyncRpcResult leader = (AsyncRpcResult) coalesceFilter.invoke(invoker, newInvocation("findItem", "a"));
+        AsyncRpcResult follower = (AsyncRpcResult) coalesceFilter.invoke(invoker, newInvocation("findItem", "a"));
+        CompletableFuture<?> contextFuture = (CompletableFuture<?>) RpcContext.getContext().getFuture();
+
+        IllegalStateException exception = new IllegalStateException("failed");
+        future.completeExceptionally(exception);
+        Assertions.assertSame(exception, leader.getResultFuture().get().getException());
+        Assertions.assertSame(exception, follower.getResultFuture().get(5, TimeUnit.SECONDS).getException());
+        ExecutionException thrown = Assertions.assertThrows(ExecutionException.class, () -> contextFuture.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(exception, thrown.getCause());
+        Assertions.assertEquals(1, invoked.get());
+    }
+
+    @Test
+    public void testThrownExceptionShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RpcException exception = new RpcException(RpcException.NETWORK_EXCEPTION, "unreachable");
+        Invoker<?> invoker = newInvoker("", invocation -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw exception;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Result> leader = executor.submit(() -> coalesceFilter.invoke(invoker, newInvocation("findItem", "a")));
+            Future<Result> follower = executor.submit(() -> coalesceFilter.invoke(invoker, newInvocation("findItem", "a")));
+            awaitCoalesced(1);
+            release.countDown();
+            for (Future<Result> future : new Future[]{leader, follower}) {
+                ExecutionException thrown = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                Assertions.assertSame(exception, thrown.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, invoked.get());
+    }
+
+    @Test
+    public void testNotCoalesced() {
+        Invoker<?> invoker = newInvoker("&findItem.return=false", invocation -> new RpcResult("value"));
+        coalesceFilter.invoke(invoker, newInvocation("findItem", "a"));
+        Assertions.assertTrue(coalesceFilter.getStatistics().isEmpty());
+        Assertions.assertEquals(1, invoked.get());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.key;
+
+import org.apache.dubbo.cache.CacheKeyGenerator;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+public class BinaryCacheKeyGeneratorTest {
+
+    private final CacheKeyGenerator generator = new BinaryCacheKeyGenerator();
+
+    private Object key(Object... arguments) {
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("find");
+        invocation.setArguments(arguments);
+        return generator.generateKey(invocation);
+    }
+
+    @Test
+    public void testDefaultExtension() {
+        Assertions.assertTrue(ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class).getDefaultExtension()
+                instanceof BinaryCacheKeyGenerator);
+        Assertions.assertTrue(ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class)
+                .getExtension(StringCacheKeyGenerator.NAME) instanceof StringCacheKeyGenerator);
+    }
+
+    @Test
+    public void testPrimitives() {
+        Assertions.assertTrue(key() instanceof BinaryCacheKey);
+        Assertions.assertEquals(key(1, 2L, "a", true, 'c', 1.5d), key(1, 2L, "a", true, 'c', 1.5d));
+        Assertions.assertNotEquals(key(1), key(1L));
+        Assertions.assertNotEquals(key(1, 2), key(2, 1));
+        Assertions.assertNotEquals(key("ab", "c"), key("a", "bc"));
+        Assertions.assertNotEquals(key((Object) null), key("null"));
+        Assertions.assertEquals(key("中文"), key("中文"));
+        Assertions.assertNotEquals(key("中"), key("文"));
+        Assertions.assertNotEquals(key(0.0d), key(-0.0d));
+    }
+
+    @Test
+    public void testContainers() {
+        Assertions.assertEquals(key(new int[]{1, 2}), key(new int[]{1, 2}));
+        Assertions.assertNotEquals(key(new int[]{1, 2}), key(new long[]{1, 2}));
+        Assertions.assertEquals(key((Object) new String[]{"a", null}), key((Object) new String[]{"a", null}));
+        Assertions.assertEquals(key(Arrays.asList(1, 2)), key(new ArrayList<>(Arrays.asList(1, 2))));
+        Assertions.assertNotEquals(key(Arrays.asList(1, 2)), key(Arrays.asList(2, 1)));
+
+        // equal sets and maps whatever their order
+        Assertions.assertEquals(key(new HashSet<>(Arrays.asList("b", "a", "c"))), key(new TreeSet<>(Arrays.asList("c", "b", "a"))));
+        Map<String, Object> map = new HashMap<>();
+        Map<String, Object> linked = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+            linked.put("key" + (99 - i), 99 - i);
+        }
+        Assertions.assertEquals(key(map), key(linked));
+        linked.put("key0", 1);
+        Assertions.assertNotEquals(key(map), key(linked));
+    }
+
+    @Test
+    public void testObjects() {
+        Assertions.assertEquals(key(new Person("jack", 20, new Date(1000))), key(new Person("jack", 20, new Date(1000))));
+        Assertions.assertNotEquals(key(new Person("jack", 20, null)), key(new Person("jack", 21, null)));
+        Assertions.assertNotEquals(key(new Person("jack", 20, null)), key(new Other("jack", 20, null)));
+        Assertions.assertEquals(key(TimeUnit.SECONDS), key(TimeUnit.SECONDS));
+        Assertions.assertNotEquals(key(TimeUnit.SECONDS), key(TimeUnit.MINUTES));
+        Assertions.assertEquals(key(new BigDecimal("1.10")), key(new BigDecimal("1.10")));
+        Assertions.assertNotEquals(key(new BigDecimal("1.10")), key(new BigDecimal("1.1")));
+    }
+
+    @Test
+    public void testCycle() {
+        Person person = new Person("jack", 20, null);
+        person.friend = person;
+        // falls back to the string key
+        Assertions.assertTrue(key(person) instanceof String);
+    }
+
+    static class Person {
+
+        private final String name;
+
+        private final int age;
+
+        private final Date birthday;
+
+        private transient int hash;
+
+        Person friend;
+
+        Person(String name, int age, Date birthday) {
+            this.name = name;
+            this.age = age;
+            this.birthday = birthday;
+            this.hash = (int) System.nanoTime();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public int getHash() {
+            return hash;
+        }
+    }
+
+    static class Other extends Person {
+
+        Other(String name, int age, Date birthday) {
+            super(name, age, birthday);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.cache.support.AbstractCacheFactory;
+import org.apache.dubbo.cache.support.AbstractCacheFactoryTest;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class OffHeapCacheFactoryTest extends AbstractCacheFactoryTest {
+    @Test
+    public void testOffHeapCacheFactory() throws Exception {
+        Cache cache = super.constructCache();
+        assertThat(cache instanceof OffHeapCache, is(true));
+    }
+
+    @Test
+    public void testDestroyCaches() {
+        AbstractCacheFactory factory = getCacheFactory();
+        URL url = URL.valueOf("test://test:11/test?cache=offheap");
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("echo");
+        OffHeapCache cache = (OffHeapCache) factory.getCache(url, invocation);
+        cache.put("key", "value");
+        Assertions.assertSame(cache, factory.getCache(url, invocation));
+
+        factory.destroyCaches(url);
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(0, cache.size());
+        Cache recreated = factory.getCache(url, invocation);
+        Assertions.assertNotSame(cache, recreated);
+        recreated.put("key", "value");
+        Assertions.assertEquals("value", recreated.get("key"));
+    }
+
+    @Override
+    protected AbstractCacheFactory getCacheFactory() {
+        return new OffHeapCacheFactory();
+    }
+}
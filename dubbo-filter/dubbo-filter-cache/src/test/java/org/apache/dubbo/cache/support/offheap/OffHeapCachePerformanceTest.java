@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.cache.filter.CacheFilter;
+import org.apache.dubbo.cache.support.lru.LruCache;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the on heap lru cache and the off heap cache holding 128 responses of 10000 strings each, on lookups of
+ * keys drawn from twice as many keys, the response being built and put on a miss, by the time and the number of the
+ * garbage collections during the lookups, and the time of a full collection with the cache filled.
+ * <p>
+ * mvn test -Dtest=OffHeapCachePerformanceTest -Dbenchmark=true -Druns=5000
+ */
+public class OffHeapCachePerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCachePerformanceTest.class);
+
+    private static final int ENTRIES = 128;
+
+    private static final int STRINGS = 10000;
+
+    @Test
+    public void testPerformance() {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the off heap cache benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 5000);
+        String lru = measure(new LruCache(URL.valueOf("test://test:11/test?cache.size=" + ENTRIES)), runs);
+        // a response takes 4 blocks serialized, so that both hold the same number of entries
+        String offHeap = measure(new OffHeapCache(URL.valueOf("test://test:11/test?cache.bytes=" + ENTRIES * (256 << 10)
+                + "&cache.block=" + (64 << 10))), runs);
+
+        logger.info("Cache of " + ENTRIES + " responses of " + STRINGS + " strings, " + runs + " lookups, lru: "
+                + lru + "; offheap: " + offHeap);
+    }
+
+    private static String measure(Cache cache, int runs) {
+        Random random = new Random(0);
+        int hits = 0;
+        // filled before measuring
+        for (int i = 0; i < ENTRIES; i++) {
+            cache.put(i, new CacheFilter.ValueWrapper(response(i)));
+        }
+        System.gc();
+        long[] before = collections();
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            int key = random.nextInt(2 * ENTRIES);
+            Object value = cache.get(key);
+            if (value != null) {
+                Assertions.assertEquals(STRINGS, ((List<?>) ((CacheFilter.ValueWrapper) value).get()).size());
+                hits++;
+            } else {
+                cache.put(key, new CacheFilter.ValueWrapper(response(key)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] after = collections();
+        long fullStart = System.nanoTime();
+        System.gc();
+        long full = System.nanoTime() - fullStart;
+        return hits + " hits, " + elapsed / runs / 1000 + " us/op, " + (after[0] - before[0]) + " collections taking "
+                + (after[1] - before[1]) + " ms, full collection " + full / 1000000 + " ms";
+    }
+
+    private static ArrayList<String> response(int key) {
+        ArrayList<String> strings = new ArrayList<>(STRINGS);
+        for (int i = 0; i < STRINGS; i++) {
+            strings.add("response " + key + " item " + i);
+        }
+        return strings;
+    }
+
+    /**
+     * @return the number and the time in milliseconds of the collections so far
+     */
+    private static long[] collections() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.offheap;
+
+import org.apache.dubbo.cache.filter.CacheFilter;
+import org.apache.dubbo.common.URL;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OffHeapCacheTest {
+
+    private static final int BLOCK = 1024;
+
+    /**
+     * A value taking one block once serialized
+     */
+    private static String valueOf(String key) {
+        char[] chars = new char[800];
+        Arrays.fill(chars, key.charAt(0));
+        return new String(chars);
+    }
+
+    private static OffHeapCache newCache(String parameters) {
+        return new OffHeapCache(URL.valueOf("test://test:11/test?method=echo&echo.cache.block=" + BLOCK + parameters));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        OffHeapCache cache = newCache("");
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "dubbo");
+        value.put("ports", Arrays.asList(20880, 20881));
+        cache.put("key", new CacheFilter.ValueWrapper(value));
+
+        Object cached = cache.get("key");
+        Assertions.assertTrue(cached instanceof CacheFilter.ValueWrapper);
+        Assertions.assertEquals(value, ((CacheFilter.ValueWrapper) cached).get());
+        Assertions.assertNotSame(cached, cache.get("key"));
+        Assertions.assertNull(cache.get("other"));
+
+        cache.put("key", "replaced");
+        Assertions.assertEquals("replaced", cache.get("key"));
+        Assertions.assertEquals(1, cache.size());
+        cache.put("key", null);
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(0, cache.getMemoryBytes());
+    }
+
+    @Test
+    public void testLruEviction() {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 4 * BLOCK);
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            cache.put(key, valueOf(key));
+        }
+        Assertions.assertEquals(4 * BLOCK, cache.getMemoryBytes());
+        Assertions.assertEquals(valueOf("a"), cache.get("a"));
+
+        cache.put("e", valueOf("e"));
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(valueOf("a"), cache.get("a"));
+        Assertions.assertEquals(valueOf("e"), cache.get("e"));
+    }
+
+    @Test
+    public void testLfuEviction() {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 4 * BLOCK + "&echo.cache.eviction=lfu");
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            cache.put(key, valueOf(key));
+        }
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.get("d");
+
+        // c was never hit
+        cache.put("e", valueOf("e"));
+        Assertions.assertNull(cache.get("c"));
+        // b, d and e were hit once, and b least recently
+        cache.get("e");
+        cache.put("f", valueOf("f"));
+        Assertions.assertNull(cache.get("b"));
+        for (String key : new String[]{"a", "d", "e", "f"}) {
+            Assertions.assertEquals(valueOf(key), cache.get(key));
+        }
+    }
+
+    @Test
+    public void testOverflow(@TempDir Path dir) {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 2 * BLOCK + "&echo.cache.overflow.dir=" + dir
+                + "&echo.cache.overflow.bytes=" + 3 * BLOCK);
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            cache.put(key, valueOf(key));
+        }
+        Assertions.assertEquals(4, cache.size());
+        Assertions.assertEquals(2 * BLOCK, cache.getMemoryBytes());
+        Assertions.assertEquals(2 * BLOCK, cache.getDiskBytes());
+
+        // brought back to the memory, moving the least recently used there to the disk
+        Assertions.assertEquals(valueOf("a"), cache.get("a"));
+        Assertions.assertEquals(valueOf("b"), cache.get("b"));
+        Assertions.assertEquals(valueOf("a"), cache.get("a"));
+        Assertions.assertEquals(2 * BLOCK, cache.getMemoryBytes());
+
+        cache.put("e", valueOf("e"));
+        cache.put("f", valueOf("f"));
+        // c was the least recently used on the disk when a overflowed to it
+        Assertions.assertEquals(5, cache.size());
+        Assertions.assertEquals(3 * BLOCK, cache.getDiskBytes());
+        Assertions.assertNull(cache.get("c"));
+        for (String key : new String[]{"a", "b", "d", "e", "f"}) {
+            Assertions.assertEquals(valueOf(key), cache.get(key));
+        }
+    }
+
+    @Test
+    public void testLargeValues(@TempDir Path dir) {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 2 * BLOCK + "&echo.cache.overflow.dir=" + dir
+                + "&echo.cache.overflow.bytes=" + 8 * BLOCK);
+        char[] chars = new char[4 * BLOCK];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+        cache.put("large", large);
+        Assertions.assertEquals(0, cache.getMemoryBytes());
+        Assertions.assertEquals(large, cache.get("large"));
+
+        cache.put("huge", large + large);
+        Assertions.assertNull(cache.get("huge"));
+        Assertions.assertEquals(large, cache.get("large"));
+    }
+
+    @Test
+    public void testMapped() {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 4 * BLOCK + "&echo.cache.mapped=true");
+        for (String key : new String[]{"a", "b", "c", "d", "e"}) {
+            cache.put(key, valueOf(key));
+        }
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(valueOf("e"), cache.get("e"));
+    }
+
+    @Test
+    public void testAllocatedAsUsed() {
+        BufferBlockStore store = BufferBlockStore.direct(64L * 1024 * 1024, BLOCK);
+        Assertions.assertEquals(0, store.getAllocatedBytes());
+        store.write(store.allocate(3 * BLOCK), new byte[3 * BLOCK]);
+        Assertions.assertEquals(1024 * 1024, store.getAllocatedBytes());
+
+        store.destroy();
+        Assertions.assertEquals(0, store.getAllocatedBytes());
+    }
+
+    @Test
+    public void testDestroy(@TempDir Path dir) {
+        OffHeapCache cache = newCache("&echo.cache.bytes=" + 2 * BLOCK + "&echo.cache.overflow.dir=" + dir);
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.put(key, valueOf(key));
+        }
+        Assertions.assertEquals(BLOCK, cache.getDiskBytes());
+        Assertions.assertEquals(1, dir.toFile().list().length);
+
+        cache.destroy();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getMemoryBytes());
+        Assertions.assertEquals(0, cache.getDiskBytes());
+        Assertions.assertEquals(0, dir.toFile().list().length);
+        Assertions.assertNull(cache.get("c"));
+        cache.put("d", valueOf("d"));
+        Assertions.assertNull(cache.get("d"));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.Cache;
+import org.apache.dubbo.cache.support.lru.LruCache;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the lru and the tinylfu caches of 1000 entries on lookups of keys drawn from 100000 keys by a skewed
+ * distribution, the value being put on a miss, each thread drawing its own keys, by the hit rate and the time per lookup of threads looking up at once.
+ * <p>
+ * mvn test -Dtest=TinyLfuCachePerformanceTest -Dbenchmark=true -Dthreads=8 -Druns=1000000
+ */
+public class TinyLfuCachePerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinyLfuCachePerformanceTest.class);
+
+    private static final int KEYS = 100000;
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the tinylfu cache benchmark");
+            return;
+        }
+        int threads = Integer.getInteger("threads", 8);
+        int runs = Integer.getInteger("runs", 1000000);
+        int[][] keys = new int[threads][];
+        for (int t = 0; t < threads; t++) {
+            keys[t] = skewedKeys(runs, t);
+        }
+
+        URL url = URL.valueOf("test://test:11/test?cache.size=1000");
+        String lru = measure(new LruCache(url), keys, threads);
+        String tinyLfu = measure(new TinyLfuCache(url), keys, threads);
+
+        logger.info("Cache of 1000 entries, " + runs + " lookups by each of " + threads + " threads, lru: " + lru
+                + "; tinylfu: " + tinyLfu);
+    }
+
+    /**
+     * Keys drawn with the probability of the key of rank k about 1/k
+     */
+    private static int[] skewedKeys(int runs, int seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[runs];
+        for (int i = 0; i < runs; i++) {
+            keys[i] = (int) Math.pow(KEYS, random.nextDouble()) - 1;
+        }
+        return keys;
+    }
+
+    private static String measure(Cache cache, int[][] keys, int threads) throws Exception {
+        AtomicLong hits = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int[] sequence = keys[t];
+            new Thread(() -> {
+                try {
+                    start.await();
+                    long hit = 0;
+                    for (int i = 0; i < sequence.length; i++) {
+                        Integer key = sequence[i];
+                        if (cache.get(key) != null) {
+                            hit++;
+                        } else {
+                            cache.put(key, key);
+                        }
+                    }
+                    hits.addAndGet(hit);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Assertions.assertTrue(done.await(10, TimeUnit.MINUTES));
+        long time = System.nanoTime() - begin;
+        long lookups = (long) keys[0].length * threads;
+        return String.format("hit rate %.3f, %d ns/op", (double) hits.get() / lookups, time / lookups);
+    }
+}
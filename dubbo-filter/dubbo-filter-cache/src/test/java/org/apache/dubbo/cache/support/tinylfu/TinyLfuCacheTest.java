@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.cache.support.tinylfu;
+
+import org.apache.dubbo.cache.CacheFactory;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TinyLfuCacheTest {
+
+    private final AtomicLong time = new AtomicLong();
+
+    @Test
+    public void testBoundedBySize() {
+        TinyLfuCache cache = new TinyLfuCache(100, EntryWeigher.INSTANCE, 0, time::get);
+        for (int i = 0; i < 2000; i++) {
+            cache.put(i, "value" + i);
+        }
+        cache.cleanUp();
+        Assertions.assertEquals(100, cache.size());
+        Assertions.assertEquals(1900, cache.getStatistics().getEvictions());
+        // the last one is in the window
+        Assertions.assertEquals("value1999", cache.get(1999));
+    }
+
+    @Test
+    public void testFrequentKeysAdmitted() {
+        TinyLfuCache cache = new TinyLfuCache(100, EntryWeigher.INSTANCE, 0, time::get);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                Assertions.assertEquals(i, cache.get("hot" + i));
+            }
+            cache.cleanUp();
+        }
+        // a scan of keys seen once does not flush the keys seen often
+        for (int i = 0; i < 1000; i++) {
+            cache.put("cold" + i, i);
+        }
+        cache.cleanUp();
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot" + i) != null) {
+                hot++;
+            }
+        }
+        Assertions.assertEquals(50, hot);
+        Assertions.assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testExpiration() {
+        TinyLfuCache cache = new TinyLfuCache(100, EntryWeigher.INSTANCE, TimeUnit.SECONDS.toNanos(10), time::get);
+        cache.put("default", "value");
+        cache.put("short", "value", 1, TimeUnit.SECONDS);
+        cache.put("long", "value", 1, TimeUnit.HOURS);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assertions.assertNull(cache.get("short"));
+        Assertions.assertEquals("value", cache.get("default"));
+        cache.cleanUp();
+        Assertions.assertEquals(2, cache.size());
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assertions.assertNull(cache.get("default"));
+        Assertions.assertEquals("value", cache.get("long"));
+        cache.cleanUp();
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(2, cache.getStatistics().getExpirations());
+
+        time.addAndGet(TimeUnit.HOURS.toNanos(1));
+        cache.cleanUp();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(3, cache.getStatistics().getExpirations());
+        Assertions.assertEquals(0, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void testBoundedByWeight() {
+        URL url = URL.valueOf("test://test:11/test?cache=tinylfu&method=find&find.cache.weight=100000");
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("find");
+        CacheFactory factory = ExtensionLoader.getExtensionLoader(CacheFactory.class).getExtension("tinylfu");
+        TinyLfuCache cache = (TinyLfuCache) factory.getCache(url, invocation);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.append('x');
+        }
+        String value = builder.toString();
+        int weight = new SizeWeigher().weigh(0, value);
+        Assertions.assertTrue(weight > 2000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, value);
+        }
+        cache.cleanUp();
+        Assertions.assertEquals(100000 / weight, cache.size());
+        Assertions.assertEquals(1000 - 100000 / weight, cache.getStatistics().getEvictions());
+        Assertions.assertTrue(((TinyLfuCacheFactory) factory).getStatistics().containsKey("test.find"));
+    }
+
+    @Test
+    public void testStatistics() {
+        TinyLfuCache cache = new TinyLfuCache(10, EntryWeigher.INSTANCE, 0, time::get);
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("other");
+        Assertions.assertEquals(2, cache.getStatistics().getHits());
+        Assertions.assertEquals(1, cache.getStatistics().getMisses());
+        Assertions.assertEquals(2.0 / 3, cache.getStatistics().getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        TinyLfuCache cache = new TinyLfuCache(500, EntryWeigher.INSTANCE, 0, System::nanoTime);
+        int threads = 8;
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100000; i++) {
+                        int key = random.nextInt(2000);
+                        Object value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            Assertions.assertEquals(key, value);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        Assertions.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        Assertions.assertNull(failure.get());
+        cache.cleanUp();
+        Assertions.assertEquals(500, cache.size());
+        Assertions.assertTrue(cache.getStatistics().getHits() > 0);
+    }
+
+    @Test
+    public void testConcurrentPutsOfSameKeys() throws Exception {
+        TinyLfuCache cache = new TinyLfuCache(100, EntryWeigher.INSTANCE, 0, System::nanoTime);
+        int threads = 8;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100000; i++) {
+                        int key = random.nextInt(50);
+                        cache.put(key, key);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        Assertions.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        cache.cleanUp();
+        // the replaced nodes are not counted, so the live entries all fit
+        Assertions.assertEquals(50, cache.size());
+        Assertions.assertEquals(0, cache.getStatistics().getEvictions());
+    }
+}
@@ -55,6 +55,7 @@ import javax.validation.ValidatorFactory;
 import javax.validation.groups.Default;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -66,23 +67,38 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of JValidation. JValidation is invoked if configuration validation attribute value is 'jvalidation'.
  * <pre>
  *     e.g. &lt;dubbo:method name="save" validation="jvalidation" /&gt;
  * </pre>
+ * What is needed to validate a method, its groups and the class of the bean its constrained parameters are copied
+ * into, is resolved on its first call into a {@link ValidationPlan}, and kept for the next calls.
  */
 public class JValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(JValidator.class);
 
+    private static final Class<?>[] EMPTY_CLASS_ARRAY = new Class<?>[0];
+
     private final Class<?> clazz;
 
     private final Map<String, Class> methodClassMap;
 
     private final javax.validation.Validator validator;
 
+    /**
+     * The plans of the methods by name, one per overload
+     */
+    private final ConcurrentMap<String, ValidationPlan[]> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the classes of the arguments have constraints, as the others are not validated
+     */
+    private final ConcurrentMap<Class<?>, Boolean> constrainedClasses = new ConcurrentHashMap<>();
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     public JValidator(URL url) {
         this.clazz = ReflectUtils.forName(url.getServiceInterface());
@@ -109,7 +125,12 @@ public class JValidator implements Validator {
                 || Number.class.isAssignableFrom(cls) || Date.class.isAssignableFrom(cls);
     }
 
-    private static Object getMethodParameterBean(Class<?> clazz, Method method, Object[] args) {
+    /**
+     * @return the class of the bean the arguments of the method are copied into to validate the constraints of its
+     * parameters, generated with a field per parameter and a constructor taking the arguments, or null if none of
+     * the parameters is constrained
+     */
+    private static Class<?> getMethodParameterClass(Class<?> clazz, Method method) {
         if (!hasConstraintParameter(method)) {
             return null;
         }
@@ -156,20 +177,37 @@ public class JValidator implements Validator {
                     ctField.getFieldInfo().addAttribute(attribute);
                     ctClass.addField(ctField);
                 }
+                ctClass.addConstructor(CtNewConstructor.make(new CtClass[]{pool.get(Object[].class.getName())},
+                        new CtClass[0], generateConstructorBody(method), ctClass));
                 parameterClass = ctClass.toClass(clazz.getClassLoader(), null);
             }
-            Object parameterBean = parameterClass.newInstance();
-            for (int i = 0; i < args.length; i++) {
-                Field field = parameterClass.getField(method.getName() + "Argument" + i);
-                field.set(parameterBean, args[i]);
-            }
-            return parameterBean;
+            return parameterClass;
         } catch (Throwable e) {
             logger.warn(e.getMessage(), e);
             return null;
         }
     }
 
+    /**
+     * The body of the constructor of the parameter bean, assigning each argument to its field
+     */
+    private static String generateConstructorBody(Method method) {
+        StringBuilder body = new StringBuilder("{");
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            body.append("this.").append(method.getName()).append("Argument").append(i).append(" = ");
+            if (type.isPrimitive()) {
+                String wrapper = ReflectUtils.getBoxedClass(type).getName();
+                body.append("((").append(wrapper).append(") $1[").append(i).append("]).")
+                        .append(type.getName()).append("Value();");
+            } else {
+                body.append("(").append(type.getCanonicalName()).append(") $1[").append(i).append("];");
+            }
+        }
+        return body.append("}").toString();
+    }
+
     private static String generateMethodParameterClassName(Class<?> clazz, Method method) {
         StringBuilder builder = new StringBuilder().append(clazz.getName())
                 .append("_")
@@ -243,32 +281,22 @@ public class JValidator implements Validator {
 
     @Override
     public void validate(String methodName, Class<?>[] parameterTypes, Object[] arguments) throws Exception {
-        List<Class<?>> groups = new ArrayList<>();
-        Class<?> methodClass = methodClass(methodName);
-        if (methodClass != null) {
-            groups.add(methodClass);
+        ValidationPlan plan = getPlan(methodName, parameterTypes == null ? EMPTY_CLASS_ARRAY : parameterTypes);
+        if (plan.isUnconstrained()) {
+            return;
         }
+        Class<?>[] classgroups = plan.groups;
         Set<ConstraintViolation<?>> violations = new HashSet<>();
-        Method method = clazz.getMethod(methodName, parameterTypes);
-        Class<?>[] methodClasses;
-        if (method.isAnnotationPresent(MethodValidated.class)){
-            methodClasses = method.getAnnotation(MethodValidated.class).value();
-            groups.addAll(Arrays.asList(methodClasses));
-        }
-        // add into default group
-        groups.add(0, Default.class);
-        groups.add(1, clazz);
-
-        // convert list to array
-        Class<?>[] classgroups = groups.toArray(new Class[groups.size()]);
 
-        Object parameterBean = getMethodParameterBean(clazz, method, arguments);
+        Object parameterBean = plan.newParameterBean(arguments);
         if (parameterBean != null) {
             violations.addAll(validator.validate(parameterBean, classgroups ));
         }
 
-        for (Object arg : arguments) {
-            validate(violations, arg, classgroups);
+        if (plan.validatesArguments) {
+            for (Object arg : arguments) {
+                validate(violations, arg, classgroups);
+            }
         }
 
         if (!violations.isEmpty()) {
@@ -277,6 +305,54 @@ public class JValidator implements Validator {
         }
     }
 
+    private ValidationPlan getPlan(String methodName, Class<?>[] parameterTypes) throws NoSuchMethodException {
+        ValidationPlan[] methodPlans = plans.get(methodName);
+        if (methodPlans != null) {
+            for (ValidationPlan plan : methodPlans) {
+                if (Arrays.equals(plan.parameterTypes, parameterTypes)) {
+                    return plan;
+                }
+            }
+        }
+        ValidationPlan plan = createPlan(clazz.getMethod(methodName, parameterTypes));
+        plans.merge(methodName, new ValidationPlan[]{plan}, (existing, added) -> {
+            for (ValidationPlan other : existing) {
+                if (Arrays.equals(other.parameterTypes, plan.parameterTypes)) {
+                    return existing;
+                }
+            }
+            ValidationPlan[] merged = Arrays.copyOf(existing, existing.length + 1);
+            merged[existing.length] = plan;
+            return merged;
+        });
+        return plan;
+    }
+
+    private ValidationPlan createPlan(Method method) {
+        List<Class<?>> groups = new ArrayList<>();
+        Class<?> methodClass = methodClass(method.getName());
+        if (methodClass != null) {
+            groups.add(methodClass);
+        }
+        if (method.isAnnotationPresent(MethodValidated.class)){
+            groups.addAll(Arrays.asList(method.getAnnotation(MethodValidated.class).value()));
+        }
+        // add into default group
+        groups.add(0, Default.class);
+        groups.add(1, clazz);
+
+        boolean validatesArguments = false;
+        for (Class<?> type : method.getParameterTypes()) {
+            // the arguments of the other types are never validated, whatever their class
+            if (!isPrimitives(type)) {
+                validatesArguments = true;
+                break;
+            }
+        }
+        return new ValidationPlan(method, groups.toArray(new Class<?>[0]), getMethodParameterClass(clazz, method),
+                validatesArguments);
+    }
+
     private Class methodClass(String methodName) {
         Class<?> methodClass = null;
         String methodClassName = clazz.getName() + "$" + toUpperMethoName(methodName);
@@ -308,10 +384,93 @@ public class JValidator implements Validator {
                     validate(violations, entry.getKey(), groups);
                     validate(violations, entry.getValue(), groups);
                 }
-            } else {
+            } else if (isConstrained(arg.getClass())) {
                 violations.addAll(validator.validate(arg, groups));
             }
         }
     }
 
+    private boolean isConstrained(Class<?> argClass) {
+        Boolean constrained = constrainedClasses.get(argClass);
+        if (constrained == null) {
+            constrained = validator.getConstraintsForClass(argClass).isBeanConstrained();
+            constrainedClasses.putIfAbsent(argClass, constrained);
+        }
+        return constrained;
+    }
+
+    /**
+     * The groups a method is validated in, and the bean its constrained parameters are copied into
+     */
+    private static class ValidationPlan {
+
+        final Class<?>[] parameterTypes;
+
+        final Class<?>[] groups;
+
+        /**
+         * Whether any of the parameters may be given an argument to validate as a bean
+         */
+        final boolean validatesArguments;
+
+        /**
+         * The constructor of the parameter bean taking the arguments, null if no parameter is constrained
+         */
+        private final Constructor<?> beanConstructor;
+
+        /**
+         * The fields of the parameter bean, if it was generated without the constructor taking the arguments
+         */
+        private final Field[] beanFields;
+
+        ValidationPlan(Method method, Class<?>[] groups, Class<?> parameterClass, boolean validatesArguments) {
+            this.parameterTypes = method.getParameterTypes();
+            this.groups = groups;
+            this.validatesArguments = validatesArguments;
+            Constructor<?> constructor = null;
+            Field[] fields = null;
+            if (parameterClass != null) {
+                try {
+                    constructor = parameterClass.getConstructor(Object[].class);
+                } catch (NoSuchMethodException e) {
+                    try {
+                        fields = new Field[parameterTypes.length];
+                        for (int i = 0; i < fields.length; i++) {
+                            fields[i] = parameterClass.getField(method.getName() + "Argument" + i);
+                        }
+                        constructor = parameterClass.getConstructor();
+                    } catch (NoSuchMethodException | NoSuchFieldException ex) {
+                        logger.warn(ex.getMessage(), ex);
+                        fields = null;
+                    }
+                }
+            }
+            this.beanConstructor = constructor;
+            this.beanFields = fields;
+        }
+
+        boolean isUnconstrained() {
+            return beanConstructor == null && !validatesArguments;
+        }
+
+        Object newParameterBean(Object[] args) {
+            if (beanConstructor == null) {
+                return null;
+            }
+            try {
+                if (beanFields == null) {
+                    return beanConstructor.newInstance((Object) args);
+                }
+                Object parameterBean = beanConstructor.newInstance();
+                for (int i = 0; i < args.length; i++) {
+                    beanFields[i].set(parameterBean, args[i]);
+                }
+                return parameterBean;
+            } catch (Throwable e) {
+                logger.warn(e.getMessage(), e);
+                return null;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.validation.support.jvalidation;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.validation.support.jvalidation.mock.ValidationParameter;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the time of validating the calls of a method without constraints, of one with constrained parameters,
+ * and of one with a bean argument.
+ * <p>
+ * mvn test -Dtest=JValidatorPerformanceTest -Dbenchmark=true -Druns=1000000
+ */
+public class JValidatorPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JValidatorPerformanceTest.class);
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the validator benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 1000000);
+        JValidator jValidator = new JValidator(
+                URL.valueOf("test://test:11/org.apache.dubbo.validation.support.jvalidation.mock.JValidatorTestTarget"));
+
+        long unconstrained = measure(runs, jValidator, "someMethod6", new Class<?>[]{String.class}, new Object[]{"name"});
+        long parameters = measure(runs, jValidator, "someMethod6", new Class<?>[]{int.class, String.class},
+                new Object[]{1, "name"});
+        long bean = measure(runs, jValidator, "someMethod2", new Class<?>[]{ValidationParameter.class},
+                new Object[]{new ValidationParameter("parameter")});
+
+        logger.info("Validation of " + runs + " calls, without constraints: " + unconstrained / runs
+                + " ns/op, constrained parameters: " + parameters / runs + " ns/op, bean argument: " + bean / runs + " ns/op");
+    }
+
+    private static long measure(int runs, JValidator jValidator, String methodName, Class<?>[] parameterTypes,
+                                Object[] arguments) throws Exception {
+        // warm up before measuring
+        for (int i = 0; i < runs / 10; i++) {
+            jValidator.validate(methodName, parameterTypes, arguments);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            jValidator.validate(methodName, parameterTypes, arguments);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -83,4 +83,18 @@ public class JValidatorTest {
         map.put("key", "value");
         jValidator.validate("someMethod5", new Class<?>[]{Map.class}, new Object[]{map});
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testItWithPrimitiveConstrainedArg() throws Exception {
+        URL url = URL.valueOf("test://test:11/org.apache.dubbo.validation.support.jvalidation.mock.JValidatorTestTarget");
+        JValidator jValidator = new JValidator(url);
+        for (int i = 0; i < 2; i++) {
+            jValidator.validate("someMethod6", new Class<?>[]{int.class, String.class}, new Object[]{1, "name"});
+            ConstraintViolationException e = Assertions.assertThrows(ConstraintViolationException.class, () ->
+                    jValidator.validate("someMethod6", new Class<?>[]{int.class, String.class}, new Object[]{0, null}));
+            Assertions.assertEquals(2, e.getConstraintViolations().size());
+            // the overload without constraints
+            jValidator.validate("someMethod6", new Class<?>[]{String.class}, new Object[]{null});
+        }
+    }
+}
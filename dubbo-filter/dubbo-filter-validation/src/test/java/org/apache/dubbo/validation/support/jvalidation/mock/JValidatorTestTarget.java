@@ -18,6 +18,7 @@ package org.apache.dubbo.validation.support.jvalidation.mock;
 
 import org.apache.dubbo.validation.MethodValidated;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,10 @@ public interface JValidatorTestTarget {
 
     public void someMethod5(Map<String, String> map);
 
+    public void someMethod6(@Min(1) int count, @NotNull String name);
+
+    public void someMethod6(String name);
+
     @interface Test2 {
     }
 
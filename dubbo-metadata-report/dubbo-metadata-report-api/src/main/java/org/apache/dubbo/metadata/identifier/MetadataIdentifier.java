@@ -19,6 +19,8 @@ package org.apache.dubbo.metadata.identifier;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 
+import java.util.Objects;
+
 /**
  * 2018/10/25
  */
@@ -121,6 +123,27 @@ public class MetadataIdentifier {
         this.application = application;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetadataIdentifier)) {
+            return false;
+        }
+        MetadataIdentifier that = (MetadataIdentifier) o;
+        return Objects.equals(serviceInterface, that.serviceInterface)
+                && Objects.equals(version, that.version)
+                && Objects.equals(group, that.group)
+                && Objects.equals(side, that.side)
+                && Objects.equals(application, that.application);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serviceInterface, version, group, side, application);
+    }
+
     public static enum KeyTypeEnum {
         PATH, UNIQUE_KEY
     }
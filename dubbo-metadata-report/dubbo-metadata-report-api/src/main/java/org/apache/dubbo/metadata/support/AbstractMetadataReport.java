@@ -36,8 +36,13 @@ import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
@@ -60,6 +65,12 @@ public abstract class AbstractMetadataReport implements MetadataReport {
 
     private static final int ONE_DAY_IN_MIll = 60 * 24 * 60 * 1000;
     private static final int FOUR_HOURS_IN_MIll = 60 * 4 * 60 * 1000;
+    // the cache file is compacted once it grows beyond this many times its live size
+    private static final int CACHE_FILE_COMPACT_RATIO = 2;
+    // an unchanged definition is not reported again within this period, which collapses the duplicated reports of an
+    // export or refer burst while still repairing entries removed from the metadata center by a later report
+    private static final int DUPLICATE_REPORT_WINDOW_IN_MIll = 1000;
+    private static final Gson GSON = new Gson();
     // Log output
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -67,6 +78,13 @@ public abstract class AbstractMetadataReport implements MetadataReport {
     final Properties properties = new Properties();
     private final ExecutorService reportCacheExecutor = Executors.newFixedThreadPool(1, new NamedThreadFactory("DubboSaveMetadataReport", true));
     final Map<MetadataIdentifier, Object> allMetadataReports = new ConcurrentHashMap<>(4);
+    // reports waiting for the next flush, guarded by itself; a newer report of the same identifier replaces the older one
+    private final Map<MetadataIdentifier, PendingReport> pendingReports = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // the last definition successfully reported for each identifier
+    private final Map<MetadataIdentifier, ReportedDigest> reportedDigests = new ConcurrentHashMap<>(4);
+    // entries changed since the last save, appended to the cache file by the next save
+    private final Map<String, String> unsavedProperties = new ConcurrentHashMap<>(4);
 
     private final AtomicLong lastCacheChanged = new AtomicLong();
     final Map<MetadataIdentifier, Object> failedReports = new ConcurrentHashMap<>(4);
@@ -141,9 +159,7 @@ public abstract class AbstractMetadataReport implements MetadataReport {
                     if (!file.exists()) {
                         file.createNewFile();
                     }
-                    try (FileOutputStream outputFile = new FileOutputStream(file)) {
-                        properties.store(outputFile, "Dubbo metadataReport Cache");
-                    }
+                    saveUnsavedProperties();
                 } finally {
                     lock.release();
                 }
@@ -158,6 +174,43 @@ public abstract class AbstractMetadataReport implements MetadataReport {
         }
     }
 
+    /**
+     * Appends the entries changed since the last save to the cache file, later lines overriding earlier ones when the
+     * file is loaded. The whole file is rewritten only when the superseded lines make it too large.
+     */
+    private void saveUnsavedProperties() throws IOException {
+        if (unsavedProperties.isEmpty()) {
+            return;
+        }
+        Properties changed = new Properties();
+        for (Iterator<Map.Entry<String, String>> iterator = unsavedProperties.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, String> entry = iterator.next();
+            changed.setProperty(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        try {
+            long liveSize = 0;
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                liveSize += ((String) entry.getKey()).length() + ((String) entry.getValue()).length() + 2;
+            }
+            if (file.length() > liveSize * CACHE_FILE_COMPACT_RATIO) {
+                try (FileOutputStream outputFile = new FileOutputStream(file)) {
+                    properties.store(outputFile, "Dubbo metadataReport Cache");
+                }
+            } else {
+                try (FileOutputStream outputFile = new FileOutputStream(file, true)) {
+                    changed.store(outputFile, null);
+                }
+            }
+        } catch (IOException e) {
+            // keep the changes for the next save unless they have been superseded meanwhile
+            for (Map.Entry<Object, Object> entry : changed.entrySet()) {
+                unsavedProperties.putIfAbsent((String) entry.getKey(), (String) entry.getValue());
+            }
+            throw e;
+        }
+    }
+
     void loadProperties() {
         if (file != null && file.exists()) {
             try (InputStream in = new FileInputStream(file)) {
@@ -171,16 +224,16 @@ public abstract class AbstractMetadataReport implements MetadataReport {
         }
     }
 
-    private void saveProperties(MetadataIdentifier metadataIdentifier, String value, boolean add, boolean sync) {
+    private void saveProperties(Map<MetadataIdentifier, String> metadata, boolean sync) {
         if (file == null) {
             return;
         }
 
         try {
-            if (add) {
-                properties.setProperty(metadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY), value);
-            } else {
-                properties.remove(metadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY));
+            for (Map.Entry<MetadataIdentifier, String> entry : metadata.entrySet()) {
+                String key = entry.getKey().getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY);
+                properties.setProperty(key, entry.getValue());
+                unsavedProperties.put(key, entry.getValue());
             }
             long version = lastCacheChanged.incrementAndGet();
             if (sync) {
@@ -214,58 +267,119 @@ public abstract class AbstractMetadataReport implements MetadataReport {
 
     @Override
     public void storeProviderMetadata(MetadataIdentifier providerMetadataIdentifier, FullServiceDefinition serviceDefinition) {
+        if (logger.isInfoEnabled()) {
+            logger.info("store provider metadata. Identifier : " + providerMetadataIdentifier + "; definition: " + serviceDefinition);
+        }
+        report(providerMetadataIdentifier, serviceDefinition, false);
+    }
+
+    @Override
+    public void storeConsumerMetadata(MetadataIdentifier consumerMetadataIdentifier, Map<String, String> serviceParameterMap) {
+        if (logger.isInfoEnabled()) {
+            logger.info("store consumer metadata. Identifier : " + consumerMetadataIdentifier + "; definition: " + serviceParameterMap);
+        }
+        report(consumerMetadataIdentifier, serviceParameterMap, false);
+    }
+
+    public void storeConsumerMetadataTask(MetadataIdentifier consumerMetadataIdentifier, Map<String, String> serviceParameterMap) {
+        allMetadataReports.put(consumerMetadataIdentifier, serviceParameterMap);
+        storeMetadataTask(Collections.singletonList(new PendingReport(consumerMetadataIdentifier, serviceParameterMap, false)));
+    }
+
+    /**
+     * Queues the metadata for the next flush, which reports everything queued meanwhile as one batch.
+     *
+     * @param force report even if the same definition has already been reported
+     */
+    private void report(MetadataIdentifier metadataIdentifier, Object metadata, boolean force) {
+        allMetadataReports.put(metadataIdentifier, metadata);
         if (syncReport) {
-            storeProviderMetadataTask(providerMetadataIdentifier, serviceDefinition);
-        } else {
-            reportCacheExecutor.execute(() -> storeProviderMetadataTask(providerMetadataIdentifier, serviceDefinition));
+            storeMetadataTask(Collections.singletonList(new PendingReport(metadataIdentifier, metadata, force)));
+            return;
         }
+        synchronized (pendingReports) {
+            PendingReport previous = pendingReports.get(metadataIdentifier);
+            pendingReports.put(metadataIdentifier, new PendingReport(metadataIdentifier, metadata, force || (previous != null && previous.force)));
+            if (!flushScheduled) {
+                flushScheduled = true;
+                reportCacheExecutor.execute(this::flushPendingReports);
+            }
+        }
+    }
+
+    private void flushPendingReports() {
+        List<PendingReport> batch;
+        synchronized (pendingReports) {
+            batch = new ArrayList<>(pendingReports.values());
+            pendingReports.clear();
+            flushScheduled = false;
+        }
+        storeMetadataTask(batch);
     }
 
-    private void storeProviderMetadataTask(MetadataIdentifier providerMetadataIdentifier, FullServiceDefinition serviceDefinition) {
+    private void storeMetadataTask(List<PendingReport> batch) {
+        Map<MetadataIdentifier, String> changed = new LinkedHashMap<>();
+        Map<MetadataIdentifier, ReportedDigest> digests = new HashMap<>();
+        long now = System.currentTimeMillis();
         try {
-            if (logger.isInfoEnabled()) {
-                logger.info("store provider metadata. Identifier : " + providerMetadataIdentifier + "; definition: " + serviceDefinition);
+            for (PendingReport report : batch) {
+                failedReports.remove(report.identifier);
+                String data = GSON.toJson(report.metadata);
+                long hash = contentHash(data);
+                ReportedDigest last = reportedDigests.get(report.identifier);
+                if (!report.force && last != null && last.hash == hash && now - last.time < DUPLICATE_REPORT_WINDOW_IN_MIll) {
+                    continue;
+                }
+                changed.put(report.identifier, data);
+                digests.put(report.identifier, new ReportedDigest(hash, now));
+            }
+            if (changed.isEmpty()) {
+                return;
             }
-            allMetadataReports.put(providerMetadataIdentifier, serviceDefinition);
-            failedReports.remove(providerMetadataIdentifier);
-            Gson gson = new Gson();
-            String data = gson.toJson(serviceDefinition);
-            doStoreProviderMetadata(providerMetadataIdentifier, data);
-            saveProperties(providerMetadataIdentifier, data, true, !syncReport);
+            doStoreMetadata(changed);
+            reportedDigests.putAll(digests);
+            saveProperties(changed, !syncReport);
         } catch (Exception e) {
             // retry again. If failed again, throw exception.
-            failedReports.put(providerMetadataIdentifier, serviceDefinition);
+            for (PendingReport report : batch) {
+                failedReports.put(report.identifier, report.metadata);
+            }
             metadataReportRetry.startRetryTask();
-            logger.error("Failed to put provider metadata " + providerMetadataIdentifier + " in  " + serviceDefinition + ", cause: " + e.getMessage(), e);
+            logger.error("Failed to put metadata " + changed.keySet() + ", cause: " + e.getMessage(), e);
         }
     }
 
-    @Override
-    public void storeConsumerMetadata(MetadataIdentifier consumerMetadataIdentifier, Map<String, String> serviceParameterMap) {
-        if (syncReport) {
-            storeConsumerMetadataTask(consumerMetadataIdentifier, serviceParameterMap);
-        } else {
-            reportCacheExecutor.execute(() -> storeConsumerMetadataTask(consumerMetadataIdentifier, serviceParameterMap));
+    /**
+     * 64-bit FNV-1a hash of the serialized metadata, used to skip reporting unchanged definitions.
+     */
+    static long contentHash(String data) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < data.length(); i++) {
+            hash ^= data.charAt(i);
+            hash *= 0x100000001b3L;
         }
+        return hash;
     }
 
-    public void storeConsumerMetadataTask(MetadataIdentifier consumerMetadataIdentifier, Map<String, String> serviceParameterMap) {
-        try {
-            if (logger.isInfoEnabled()) {
-                logger.info("store consumer metadata. Identifier : " + consumerMetadataIdentifier + "; definition: " + serviceParameterMap);
-            }
-            allMetadataReports.put(consumerMetadataIdentifier, serviceParameterMap);
-            failedReports.remove(consumerMetadataIdentifier);
+    private static class ReportedDigest {
+        private final long hash;
+        private final long time;
 
-            Gson gson = new Gson();
-            String data = gson.toJson(serviceParameterMap);
-            doStoreConsumerMetadata(consumerMetadataIdentifier, data);
-            saveProperties(consumerMetadataIdentifier, data, true, !syncReport);
-        } catch (Exception e) {
-            // retry again. If failed again, throw exception.
-            failedReports.put(consumerMetadataIdentifier, serviceParameterMap);
-            metadataReportRetry.startRetryTask();
-            logger.error("Failed to put consumer metadata " + consumerMetadataIdentifier + ";  " + serviceParameterMap + ", cause: " + e.getMessage(), e);
+        private ReportedDigest(long hash, long time) {
+            this.hash = hash;
+            this.time = time;
+        }
+    }
+
+    private static class PendingReport {
+        private final MetadataIdentifier identifier;
+        private final Object metadata;
+        private final boolean force;
+
+        private PendingReport(MetadataIdentifier identifier, Object metadata, boolean force) {
+            this.identifier = identifier;
+            this.metadata = metadata;
+            this.force = force;
         }
     }
 
@@ -280,20 +394,19 @@ public abstract class AbstractMetadataReport implements MetadataReport {
      * @return if need to continue
      */
     public boolean retry() {
-        return doHandleMetadataCollection(failedReports);
+        return doHandleMetadataCollection(failedReports, false);
     }
 
-    private boolean doHandleMetadataCollection(Map<MetadataIdentifier, Object> metadataMap) {
+    private boolean doHandleMetadataCollection(Map<MetadataIdentifier, Object> metadataMap, boolean force) {
         if (metadataMap.isEmpty()) {
             return true;
         }
         Iterator<Map.Entry<MetadataIdentifier, Object>> iterable = metadataMap.entrySet().iterator();
         while (iterable.hasNext()) {
             Map.Entry<MetadataIdentifier, Object> item = iterable.next();
-            if (Constants.PROVIDER_SIDE.equals(item.getKey().getSide())) {
-                this.storeProviderMetadata(item.getKey(), (FullServiceDefinition) item.getValue());
-            } else if (Constants.CONSUMER_SIDE.equals(item.getKey().getSide())) {
-                this.storeConsumerMetadata(item.getKey(), (Map) item.getValue());
+            if (Constants.PROVIDER_SIDE.equals(item.getKey().getSide())
+                    || Constants.CONSUMER_SIDE.equals(item.getKey().getSide())) {
+                this.report(item.getKey(), item.getValue(), force);
             }
 
         }
@@ -305,7 +418,7 @@ public abstract class AbstractMetadataReport implements MetadataReport {
      */
     void publishAll() {
         logger.info("start to publish all metadata.");
-        this.doHandleMetadataCollection(allMetadataReports);
+        this.doHandleMetadataCollection(allMetadataReports, true);
     }
 
     /**
@@ -375,6 +488,20 @@ public abstract class AbstractMetadataReport implements MetadataReport {
         }
     }
 
+    /**
+     * Stores a batch of changed metadata, keyed by identifier with the serialized metadata as value. Stores each entry
+     * separately by default; override to write the whole batch in one round trip when the backend supports it.
+     */
+    protected void doStoreMetadata(Map<MetadataIdentifier, String> metadata) {
+        for (Map.Entry<MetadataIdentifier, String> entry : metadata.entrySet()) {
+            if (Constants.PROVIDER_SIDE.equals(entry.getKey().getSide())) {
+                doStoreProviderMetadata(entry.getKey(), entry.getValue());
+            } else {
+                doStoreConsumerMetadata(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     protected abstract void doStoreProviderMetadata(MetadataIdentifier providerMetadataIdentifier, String serviceDefinitions);
 
     protected abstract void doStoreConsumerMetadata(MetadataIdentifier consumerMetadataIdentifier, String serviceParameterString);
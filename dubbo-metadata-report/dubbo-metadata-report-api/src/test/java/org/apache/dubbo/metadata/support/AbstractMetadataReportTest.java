@@ -28,11 +28,20 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -232,6 +241,89 @@ public class AbstractMetadataReportTest {
         checkParam(v3Map, application, version + "_3");
     }
 
+    @Test
+    public void testUnchangedMetadataNotReportedAgain() throws ClassNotFoundException {
+        abstractMetadataReport.syncReport = true;
+        String interfaceName = "org.apache.dubbo.metadata.integration.InterfaceNameTestService";
+        storePrivider(abstractMetadataReport, interfaceName, "1.0.0", null, "vic");
+        Assertions.assertEquals(1, abstractMetadataReport.storeTimes.get());
+
+        storePrivider(abstractMetadataReport, interfaceName, "1.0.0", null, "vic");
+        Assertions.assertEquals(1, abstractMetadataReport.storeTimes.get());
+
+        storePrivider(abstractMetadataReport, interfaceName, "1.0.0", "changed", "vic");
+        Assertions.assertEquals(2, abstractMetadataReport.storeTimes.get());
+
+        Map<String, String> parameters = new HashMap<>();
+        MetadataIdentifier consumerMetadataIdentifier = storeConsumer(abstractMetadataReport, interfaceName, "1.0.0", null, "vic", parameters);
+        abstractMetadataReport.storeConsumerMetadata(consumerMetadataIdentifier, new HashMap<>(parameters));
+        Assertions.assertEquals(3, abstractMetadataReport.storeTimes.get());
+
+        // the daily republish reports everything even if nothing has changed
+        abstractMetadataReport.publishAll();
+        Assertions.assertEquals(6, abstractMetadataReport.storeTimes.get());
+    }
+
+    @Test
+    public void testReportInBatch() throws ClassNotFoundException, InterruptedException {
+        URL url = URL.valueOf("batchReport://" + NetUtils.getLocalAddress().getHostName() + ":4444/org.apache.dubbo.TestService?version=1.0.0&application=vic.batch");
+        BatchMetadataReport batchReport = new BatchMetadataReport(url);
+        String interfaceName = "org.apache.dubbo.metadata.integration.InterfaceNameTestService";
+
+        storePrivider(batchReport, interfaceName, "1.0.0", null, "vic");
+        Assertions.assertTrue(batchReport.flushing.await(5, TimeUnit.SECONDS));
+        // reported while the first batch is still being stored, so they are flushed together
+        storePrivider(batchReport, interfaceName, "2.0.0", null, "vic");
+        storePrivider(batchReport, interfaceName, "3.0.0", null, "vic");
+        storePrivider(batchReport, interfaceName, "2.0.0", "changed", "vic");
+        batchReport.release.countDown();
+
+        for (int i = 0; i < 100 && batchReport.store.size() < 4; i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(4, batchReport.store.size());
+        Assertions.assertEquals(2, batchReport.batchSizes.size());
+        Assertions.assertEquals(1, (int) batchReport.batchSizes.get(0));
+        Assertions.assertEquals(3, (int) batchReport.batchSizes.get(1));
+    }
+
+    @Test
+    public void testCacheFileAppendedIncrementally() throws ClassNotFoundException, InterruptedException, IOException {
+        URL url = URL.valueOf("zookeeper://" + NetUtils.getLocalAddress().getHostName() + ":4444/org.apache.dubbo.TestService?version=1.0.0&application=vic.incremental");
+        NewMetadataReport report = new NewMetadataReport(url);
+        report.syncReport = true;
+        String interfaceName = "org.apache.dubbo.metadata.integration.InterfaceNameTestService";
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("k", "v1");
+        MetadataIdentifier consumerMetadataIdentifier = storeConsumer(report, interfaceName, "1.0.0", null, "vic", parameters);
+        MetadataIdentifier providerMetadataIdentifier = storePrivider(report, interfaceName, "1.0.0", null, "vic");
+        parameters.put("k", "v2");
+        report.storeConsumerMetadata(consumerMetadataIdentifier, parameters);
+        String consumerKey = consumerMetadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY);
+        String providerKey = providerMetadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY);
+
+        Properties saved = new Properties();
+        for (int i = 0; i < 100 && !report.store.get(consumerKey).equals(saved.getProperty(consumerKey)); i++) {
+            Thread.sleep(50);
+            saved.clear();
+            if (report.file.exists()) {
+                try (InputStream in = new FileInputStream(report.file)) {
+                    saved.load(in);
+                }
+            }
+        }
+        Assertions.assertEquals(2, saved.size());
+        Assertions.assertEquals(report.store.get(consumerKey), saved.getProperty(consumerKey));
+        Assertions.assertEquals(report.store.get(providerKey), saved.getProperty(providerKey));
+        Assertions.assertEquals("v2", new Gson().fromJson(saved.getProperty(consumerKey), Map.class).get("k"));
+    }
+
+    @Test
+    public void testContentHash() {
+        Assertions.assertEquals(AbstractMetadataReport.contentHash("{\"k\":\"v\"}"), AbstractMetadataReport.contentHash("{\"k\":\"v\"}"));
+        Assertions.assertNotEquals(AbstractMetadataReport.contentHash("{\"k\":\"v\"}"), AbstractMetadataReport.contentHash("{\"k\":\"w\"}"));
+    }
+
     @Test
     public void testCalculateStartTime() {
         for (int i = 0; i < 300; i++) {
@@ -271,6 +363,7 @@ public class AbstractMetadataReportTest {
     private static class NewMetadataReport extends AbstractMetadataReport {
 
         Map<String, String> store = new ConcurrentHashMap<>();
+        AtomicInteger storeTimes = new AtomicInteger();
 
         public NewMetadataReport(URL metadataReportURL) {
             super(metadataReportURL);
@@ -278,15 +371,40 @@ public class AbstractMetadataReportTest {
 
         @Override
         protected void doStoreProviderMetadata(MetadataIdentifier providerMetadataIdentifier, String serviceDefinitions) {
+            storeTimes.incrementAndGet();
             store.put(providerMetadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY), serviceDefinitions);
         }
 
         @Override
         protected void doStoreConsumerMetadata(MetadataIdentifier consumerMetadataIdentifier, String serviceParameterString) {
+            storeTimes.incrementAndGet();
             store.put(consumerMetadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY), serviceParameterString);
         }
     }
 
+    private static class BatchMetadataReport extends NewMetadataReport {
+
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        public BatchMetadataReport(URL metadataReportURL) {
+            super(metadataReportURL);
+        }
+
+        @Override
+        protected void doStoreMetadata(Map<MetadataIdentifier, String> metadata) {
+            batchSizes.add(metadata.size());
+            flushing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.doStoreMetadata(metadata);
+        }
+    }
+
     private static class RetryMetadataReport extends AbstractMetadataReport {
 
         Map<String, String> store = new ConcurrentHashMap<>();
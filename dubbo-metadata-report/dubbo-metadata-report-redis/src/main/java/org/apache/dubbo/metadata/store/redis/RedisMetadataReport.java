@@ -27,6 +27,8 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.util.Map;
+
 /**
  * RedisMetadataReport
  */
@@ -52,6 +54,22 @@ public class RedisMetadataReport extends AbstractMetadataReport {
         this.storeMetadata(consumerMetadataIdentifier, value);
     }
 
+    @Override
+    protected void doStoreMetadata(Map<MetadataIdentifier, String> metadata) {
+        String[] keysValues = new String[metadata.size() * 2];
+        int i = 0;
+        for (Map.Entry<MetadataIdentifier, String> entry : metadata.entrySet()) {
+            keysValues[i++] = entry.getKey().getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY);
+            keysValues[i++] = entry.getValue();
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.mset(keysValues);
+        } catch (Throwable e) {
+            logger.error("Failed to put " + metadata.keySet() + " to redis, cause: " + e.getMessage(), e);
+            throw new RpcException("Failed to put " + metadata.keySet() + " to redis, cause: " + e.getMessage(), e);
+        }
+    }
+
     private void storeMetadata(MetadataIdentifier metadataIdentifier, String v) {
         try (Jedis jedis = pool.getResource()) {
             jedis.set(metadataIdentifier.getUniqueKey(MetadataIdentifier.KeyTypeEnum.UNIQUE_KEY), v);
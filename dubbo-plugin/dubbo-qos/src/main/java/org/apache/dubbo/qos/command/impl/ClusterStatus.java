@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.qos.command.BaseCommand;
+import org.apache.dubbo.qos.command.CommandContext;
+import org.apache.dubbo.qos.command.annotation.Cmd;
+import org.apache.dubbo.qos.textui.TTable;
+import org.apache.dubbo.rpc.cluster.support.FailbackClusterInvoker;
+import org.apache.dubbo.rpc.cluster.support.HedgingClusterInvoker;
+
+import java.util.Map;
+
+@Cmd(name = "cluster", summary = "show the statistics of the hedging and failback clusters", example = {
+        "cluster"
+})
+public class ClusterStatus implements BaseCommand {
+
+    @Override
+    public String execute(CommandContext commandContext, String[] args) {
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Map<String, Object> hedgingClusters = dataStore.get(HedgingClusterInvoker.class.getName());
+
+        TTable tTable = new TTable(new TTable.ColumnDefine[]{
+                new TTable.ColumnDefine(TTable.Align.LEFT),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE)
+        });
+
+        //Header
+        tTable.addRow("Hedging Service", "Requests", "Hedges", "Hedge Rate", "Win Rate", "Budget Exhausted");
+
+        //Content
+        for (Object value : hedgingClusters.values()) {
+            HedgingClusterInvoker<?> invoker = (HedgingClusterInvoker<?>) value;
+            tTable.addRow(invoker.getUrl().getServiceKey(), invoker.getRequestCount(), invoker.getHedgeCount(),
+                    percent(invoker.getHedgeRate()), percent(invoker.getHedgeWinRate()),
+                    invoker.getBudgetExhaustedCount());
+        }
+
+        return tTable.rendering() + failbackClusters(dataStore);
+    }
+
+    private static String failbackClusters(DataStore dataStore) {
+        Map<String, Object> failbackClusters = dataStore.get(FailbackClusterInvoker.class.getName());
+
+        TTable tTable = new TTable(new TTable.ColumnDefine[]{
+                new TTable.ColumnDefine(TTable.Align.LEFT),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE)
+        });
+
+        //Header
+        tTable.addRow("Failback Service", "Pending Retries", "Oldest Pending(ms)");
+
+        //Content
+        for (Object value : failbackClusters.values()) {
+            FailbackClusterInvoker<?> invoker = (FailbackClusterInvoker<?>) value;
+            tTable.addRow(invoker.getUrl().getServiceKey(), invoker.getPendingRetryCount(),
+                    invoker.getOldestPendingRetryAge());
+        }
+
+        return tTable.rendering();
+    }
+
+    private static String percent(double rate) {
+        return String.format("%.2f%%", rate * 100);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.profiler.StartupTracer;
+import org.apache.dubbo.common.utils.ArrayUtils;
+import org.apache.dubbo.qos.command.BaseCommand;
+import org.apache.dubbo.qos.command.CommandContext;
+import org.apache.dubbo.qos.command.annotation.Cmd;
+
+@Cmd(name = "startup", summary = "show the phase timings of service export and reference", example = {
+        "startup",
+        "startup folded",
+        "startup clear"
+})
+public class Startup implements BaseCommand {
+
+    private static final String FOLDED = "folded";
+
+    private static final String CLEAR = "clear";
+
+    @Override
+    public String execute(CommandContext commandContext, String[] args) {
+        if (!StartupTracer.isEnabled()) {
+            return "Startup trace is disabled, please start with -D" + Constants.STARTUP_TRACE_KEY + "=true";
+        }
+        if (ArrayUtils.isNotEmpty(args)) {
+            if (FOLDED.equals(args[0])) {
+                return StartupTracer.folded();
+            }
+            if (CLEAR.equals(args[0])) {
+                StartupTracer.clear();
+                return "OK";
+            }
+            return "Unsupported argument " + args[0] + ", please use " + FOLDED + " or " + CLEAR;
+        }
+        return StartupTracer.report();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.common.threadpool.support.monitored.MonitoredThreadPoolExecutor;
+import org.apache.dubbo.common.threadpool.support.virtual.VirtualThreadExecutor;
+import org.apache.dubbo.common.utils.LatencyHistogram;
+import org.apache.dubbo.qos.command.BaseCommand;
+import org.apache.dubbo.qos.command.CommandContext;
+import org.apache.dubbo.qos.command.annotation.Cmd;
+import org.apache.dubbo.qos.textui.TTable;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Cmd(name = "threadpool", summary = "show the status of the server thread pools, with the latencies of the last minute", example = {
+        "threadpool"
+})
+public class ThreadPoolStatus implements BaseCommand {
+
+    private static final String NONE = "-";
+
+    @Override
+    public String execute(CommandContext commandContext, String[] args) {
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Map<String, Object> executors = dataStore.get(Constants.EXECUTOR_SERVICE_COMPONENT_KEY);
+
+        TTable tTable = new TTable(new TTable.ColumnDefine[]{
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE),
+                new TTable.ColumnDefine(TTable.Align.MIDDLE)
+        });
+
+        //Header
+        tTable.addRow("Port", "Core", "Max", "Active", "Queue", "Completed",
+                "Queue Wait(ms) p50/p99/max", "Execution(ms) p50/p99/max");
+
+        //Content
+        for (Map.Entry<String, Object> entry : executors.entrySet()) {
+            if (entry.getValue() instanceof VirtualThreadExecutor) {
+                VirtualThreadExecutor executor = (VirtualThreadExecutor) entry.getValue();
+                tTable.addRow(entry.getKey(), NONE, executor.getLimit() > 0 ? executor.getLimit() : NONE,
+                        executor.getRunningCount(), NONE, NONE, NONE, NONE);
+                continue;
+            }
+            if (!(entry.getValue() instanceof ThreadPoolExecutor)) {
+                continue;
+            }
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) entry.getValue();
+            String queueWait = NONE;
+            String execution = NONE;
+            if (executor instanceof MonitoredThreadPoolExecutor) {
+                queueWait = format(((MonitoredThreadPoolExecutor) executor).getQueueWait());
+                execution = format(((MonitoredThreadPoolExecutor) executor).getExecution());
+            }
+            tTable.addRow(entry.getKey(), executor.getCorePoolSize(), executor.getMaximumPoolSize(),
+                    executor.getActiveCount(), executor.getQueue().size(), executor.getCompletedTaskCount(),
+                    queueWait, execution);
+        }
+
+        return tTable.rendering();
+    }
+
+    private static String format(LatencyHistogram histogram) {
+        return toMillis(histogram.getPercentile(50)) + "/" + toMillis(histogram.getPercentile(99))
+                + "/" + toMillis(histogram.getMax());
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.qos.command.CommandContext;
+import org.apache.dubbo.rpc.cluster.Directory;
+import org.apache.dubbo.rpc.cluster.support.FailbackClusterInvoker;
+import org.apache.dubbo.rpc.cluster.support.HedgingClusterInvoker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class ClusterStatusTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExecute() throws Exception {
+        Directory<ClusterStatusTest> directory = mock(Directory.class);
+        given(directory.getUrl()).willReturn(URL.valueOf("consumer://127.0.0.1/org.apache.dubbo.demo.HedgedService"));
+        HedgingClusterInvoker<ClusterStatusTest> invoker = new HedgingClusterInvoker<>(directory);
+        Directory<ClusterStatusTest> failbackDirectory = mock(Directory.class);
+        given(failbackDirectory.getUrl()).willReturn(URL.valueOf("consumer://127.0.0.1/org.apache.dubbo.demo.NotifyService"));
+        FailbackClusterInvoker<ClusterStatusTest> failback = new FailbackClusterInvoker<>(failbackDirectory);
+
+        String output = new ClusterStatus().execute(mock(CommandContext.class), null);
+        assertThat(output, containsString("Hedge Rate"));
+        assertThat(output, containsString("org.apache.dubbo.demo.HedgedService"));
+        assertThat(output, containsString("Pending Retries"));
+        assertThat(output, containsString("org.apache.dubbo.demo.NotifyService"));
+
+        invoker.destroy();
+        failback.destroy();
+        output = new ClusterStatus().execute(mock(CommandContext.class), null);
+        assertThat(output, not(containsString("org.apache.dubbo.demo.HedgedService")));
+        assertThat(output, not(containsString("org.apache.dubbo.demo.NotifyService")));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
+import org.apache.dubbo.qos.command.CommandContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.isEmptyString;
+import static org.mockito.Mockito.mock;
+
+public class StartupTest {
+
+    @AfterEach
+    public void tearDown() {
+        StartupTracer.clear();
+        StartupTracer.setEnabled(false);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        StartupTracer.setEnabled(true);
+        try (StartupPhase service = StartupTracer.start("service", "demo")) {
+            try (StartupPhase bind = StartupTracer.start("bind")) {
+                Thread.sleep(1);
+            }
+        }
+
+        Startup startup = new Startup();
+        assertThat(startup.execute(mock(CommandContext.class), null), containsString("  bind "));
+        assertThat(startup.execute(mock(CommandContext.class), new String[]{"folded"}), containsString("service demo;bind "));
+        assertThat(startup.execute(mock(CommandContext.class), new String[]{"clear"}), containsString("OK"));
+        assertThat(startup.execute(mock(CommandContext.class), null), isEmptyString());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        StartupTracer.setEnabled(false);
+        String output = new Startup().execute(mock(CommandContext.class), null);
+        assertThat(output, containsString("dubbo.startup.trace"));
+    }
+}
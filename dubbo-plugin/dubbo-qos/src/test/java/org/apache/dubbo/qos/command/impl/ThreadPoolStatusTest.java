@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.qos.command.impl;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.common.threadpool.support.monitored.MonitoredThreadPool;
+import org.apache.dubbo.qos.command.CommandContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.mock;
+
+public class ThreadPoolStatusTest {
+
+    private DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+
+    @AfterEach
+    public void tearDown() {
+        dataStore.remove(Constants.EXECUTOR_SERVICE_COMPONENT_KEY, "20999");
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        ExecutorService executor = (ExecutorService) new MonitoredThreadPool().getExecutor(
+                URL.valueOf("dubbo://127.0.0.1:20999/demo?" + Constants.THREADS_KEY + "=3"));
+        dataStore.put(Constants.EXECUTOR_SERVICE_COMPONENT_KEY, "20999", executor);
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(latch::countDown);
+        latch.await();
+
+        String output = new ThreadPoolStatus().execute(mock(CommandContext.class), null);
+        assertThat(output, containsString("20999"));
+        assertThat(output, containsString("Queue Wait(ms) p50/p99/max"));
+        executor.shutdown();
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.dubbo.common.config.ConfigurationUtils;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.profiler.StartupPhase;
+import org.apache.dubbo.common.profiler.StartupTracer;
 import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.common.utils.StringUtils;
@@ -190,13 +192,17 @@ public class RegistryProtocol implements Protocol {
                 registryUrl, registeredProviderUrl);
         //to judge if we need to delay publish
         boolean register = registeredProviderUrl.getParameter("register", true);
-        if (register) {
-            register(registryUrl, registeredProviderUrl);
+        if (register && !ProviderConsumerRegTable.isRegisterDeferred()) {
+            try (StartupPhase phase = StartupTracer.start("register", registryUrl.getProtocol())) {
+                register(registryUrl, registeredProviderUrl);
+            }
             providerInvokerWrapper.setReg(true);
         }
 
         // Deprecated! Subscribe to override rules in 2.6.x or before.
-        registry.subscribe(overrideSubscribeUrl, overrideSubscribeListener);
+        try (StartupPhase phase = StartupTracer.start("subscribe", registryUrl.getProtocol())) {
+            registry.subscribe(overrideSubscribeUrl, overrideSubscribeListener);
+        }
 
         exporter.setRegisterUrl(registeredProviderUrl);
         exporter.setSubscribeUrl(overrideSubscribeUrl);
@@ -269,8 +275,13 @@ public class RegistryProtocol implements Protocol {
      * @return
      */
     private Registry getRegistry(final Invoker<?> originInvoker) {
-        URL registryUrl = getRegistryUrl(originInvoker);
-        return registryFactory.getRegistry(registryUrl);
+        return getRegistry(getRegistryUrl(originInvoker));
+    }
+
+    private Registry getRegistry(URL registryUrl) {
+        try (StartupPhase phase = StartupTracer.start("registry", registryUrl.getProtocol())) {
+            return registryFactory.getRegistry(registryUrl);
+        }
     }
 
     private URL getRegistryUrl(Invoker<?> originInvoker) {
@@ -351,7 +362,7 @@ public class RegistryProtocol implements Protocol {
                 .setProtocol(url.getParameter(REGISTRY_KEY, DEFAULT_REGISTRY))
                 .removeParameter(REGISTRY_KEY)
                 .build();
-        Registry registry = registryFactory.getRegistry(url);
+        Registry registry = getRegistry(url);
         if (RegistryService.class.equals(type)) {
             return proxyFactory.getInvoker((T) registry, type, url);
         }
@@ -380,11 +391,15 @@ public class RegistryProtocol implements Protocol {
         URL subscribeUrl = new URL(CONSUMER_PROTOCOL, parameters.remove(REGISTER_IP_KEY), 0, type.getName(), parameters);
         if (!ANY_VALUE.equals(url.getServiceInterface()) && url.getParameter(REGISTER_KEY, true)) {
             directory.setRegisteredConsumerUrl(getRegisteredConsumerUrl(subscribeUrl, url));
-            registry.register(directory.getRegisteredConsumerUrl());
+            try (StartupPhase phase = StartupTracer.start("register", url.getProtocol())) {
+                registry.register(directory.getRegisteredConsumerUrl());
+            }
         }
         directory.buildRouterChain(subscribeUrl);
-        directory.subscribe(subscribeUrl.addParameter(CATEGORY_KEY,
-                PROVIDERS_CATEGORY + "," + CONFIGURATORS_CATEGORY + "," + ROUTERS_CATEGORY));
+        try (StartupPhase phase = StartupTracer.start("subscribe", url.getProtocol())) {
+            directory.subscribe(subscribeUrl.addParameter(CATEGORY_KEY,
+                    PROVIDERS_CATEGORY + "," + CONFIGURATORS_CATEGORY + "," + ROUTERS_CATEGORY));
+        }
 
         Invoker invoker = cluster.join(directory);
         ProviderConsumerRegTable.registerConsumer(invoker, url, subscribeUrl, directory);
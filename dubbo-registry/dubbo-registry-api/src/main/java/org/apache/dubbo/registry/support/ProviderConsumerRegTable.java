@@ -36,6 +36,24 @@ public class ProviderConsumerRegTable {
     public static ConcurrentHashMap<String, ConcurrentMap<Invoker, ProviderInvokerWrapper>> providerInvokers = new ConcurrentHashMap<>();
     public static ConcurrentHashMap<String, Set<ConsumerInvokerWrapper>> consumerInvokers = new ConcurrentHashMap<>();
 
+    private static final ThreadLocal<Boolean> REGISTER_DEFERRED = new ThreadLocal<>();
+
+    /**
+     * Exports on the current thread leave their providers unregistered, so that the caller registers them later,
+     * see {@link ProviderInvokerWrapper#isReg()}.
+     */
+    public static void setRegisterDeferred(boolean deferred) {
+        if (deferred) {
+            REGISTER_DEFERRED.set(Boolean.TRUE);
+        } else {
+            REGISTER_DEFERRED.remove();
+        }
+    }
+
+    public static boolean isRegisterDeferred() {
+        return Boolean.TRUE.equals(REGISTER_DEFERRED.get());
+    }
+
     public static <T> ProviderInvokerWrapper<T> registerProvider(Invoker<T> invoker, URL registryUrl, URL providerUrl) {
         ProviderInvokerWrapper<T> wrapperInvoker = new ProviderInvokerWrapper<>(invoker, registryUrl, providerUrl);
         String serviceUniqueName = providerUrl.getServiceKey();
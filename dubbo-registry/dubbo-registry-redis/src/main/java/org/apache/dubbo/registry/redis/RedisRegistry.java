@@ -34,6 +34,10 @@ import org.apache.dubbo.rpc.RpcException;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,6 +49,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -65,12 +70,24 @@ public class RedisRegistry extends FailbackRegistry {
 
     private final static String DEFAULT_ROOT = "dubbo";
 
+    /**
+     * the max commands sent in one pipeline, and the keys asked for in one scan
+     */
+    private static final int BATCH_SIZE = 1000;
+
     private final ScheduledExecutorService expireExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboRegistryExpireTimer", true));
 
     private final ScheduledFuture<?> expireFuture;
 
     private final String root;
 
+    /**
+     * the hash of the admin instances sharing the cleaning of the expired urls, it does not match the keys under the root
+     */
+    private final String cleanersKey;
+
+    private final String cleanerId = UUID.randomUUID().toString();
+
     private final Map<String, JedisPool> jedisPools = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<String, Notifier> notifiers = new ConcurrentHashMap<>();
@@ -155,6 +172,7 @@ public class RedisRegistry extends FailbackRegistry {
             group = group + Constants.PATH_SEPARATOR;
         }
         this.root = group;
+        this.cleanersKey = group.substring(0, group.length() - 1) + ".cleaners";
 
         this.expirePeriod = url.getParameter(Constants.SESSION_TIMEOUT_KEY, Constants.DEFAULT_SESSION_TIMEOUT);
         this.expireFuture = expireExecutor.scheduleWithFixedDelay(() -> {
@@ -166,19 +184,12 @@ public class RedisRegistry extends FailbackRegistry {
         }, expirePeriod / 2, expirePeriod / 2, TimeUnit.MILLISECONDS);
     }
 
-    private void deferExpired() {
+    void deferExpired() {
         for (Map.Entry<String, JedisPool> entry : jedisPools.entrySet()) {
             JedisPool jedisPool = entry.getValue();
             try {
                 try (Jedis jedis = jedisPool.getResource()) {
-                    for (URL url : new HashSet<>(getRegistered())) {
-                        if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
-                            String key = toCategoryPath(url);
-                            if (jedis.hset(key, url.toFullString(), String.valueOf(System.currentTimeMillis() + expirePeriod)) == 1) {
-                                jedis.publish(key, Constants.REGISTER);
-                            }
-                        }
-                    }
+                    deferExpired(jedis);
                     if (admin) {
                         clean(jedis);
                     }
@@ -192,34 +203,119 @@ public class RedisRegistry extends FailbackRegistry {
         }
     }
 
+    // Renew the registered urls in pipelines, and publish the keys of the urls which had expired in another
+    private void deferExpired(Jedis jedis) {
+        String expire = String.valueOf(System.currentTimeMillis() + expirePeriod);
+        List<String> keys = new ArrayList<>();
+        List<Response<Long>> responses = new ArrayList<>();
+        Set<String> created = new HashSet<>();
+        Pipeline pipeline = jedis.pipelined();
+        for (URL url : new HashSet<>(getRegistered())) {
+            if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
+                String key = toCategoryPath(url);
+                keys.add(key);
+                responses.add(pipeline.hset(key, url.toFullString(), expire));
+                if (responses.size() == BATCH_SIZE) {
+                    collectCreated(pipeline, keys, responses, created);
+                }
+            }
+        }
+        collectCreated(pipeline, keys, responses, created);
+        if (!created.isEmpty()) {
+            for (String key : created) {
+                pipeline.publish(key, Constants.REGISTER);
+            }
+            pipeline.sync();
+        }
+    }
+
+    private static void collectCreated(Pipeline pipeline, List<String> keys, List<Response<Long>> responses, Set<String> created) {
+        pipeline.sync();
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i).get() == 1) {
+                created.add(keys.get(i));
+            }
+        }
+        keys.clear();
+        responses.clear();
+    }
+
     // The monitoring center is responsible for deleting outdated dirty data
-    private void clean(Jedis jedis) {
-        Set<String> keys = jedis.keys(root + Constants.ANY_VALUE);
-        if (CollectionUtils.isNotEmpty(keys)) {
-            for (String key : keys) {
-                Map<String, String> values = jedis.hgetAll(key);
-                if (CollectionUtils.isNotEmptyMap(values)) {
-                    boolean delete = false;
-                    long now = System.currentTimeMillis();
-                    for (Map.Entry<String, String> entry : values.entrySet()) {
-                        URL url = URL.valueOf(entry.getKey());
-                        if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
-                            long expire = Long.parseLong(entry.getValue());
-                            if (expire < now) {
-                                jedis.hdel(key, entry.getKey());
-                                delete = true;
-                                if (logger.isWarnEnabled()) {
-                                    logger.warn("Delete expired key: " + key + " -> value: " + entry.getKey() + ", expire: " + new Date(expire) + ", now: " + new Date(now));
-                                }
+    void clean(Jedis jedis) {
+        long now = System.currentTimeMillis();
+        int[] shard = getCleanShard(jedis, now);
+        ScanParams params = new ScanParams().match(root + Constants.ANY_VALUE).count(BATCH_SIZE);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> result = jedis.scan(cursor, params);
+            cursor = result.getStringCursor();
+            List<String> keys = new ArrayList<>();
+            for (String key : result.getResult()) {
+                if ((key.hashCode() & Integer.MAX_VALUE) % shard[1] == shard[0]) {
+                    keys.add(key);
+                }
+            }
+            if (!keys.isEmpty()) {
+                clean(jedis, keys, now);
+            }
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
+
+    private void clean(Jedis jedis, List<String> keys, long now) {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<Map<String, String>>> responses = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            responses.add(pipeline.hgetAll(key));
+        }
+        pipeline.sync();
+
+        boolean delete = false;
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            Map<String, String> values = responses.get(i).get();
+            if (CollectionUtils.isNotEmptyMap(values)) {
+                List<String> expired = new ArrayList<>();
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    URL url = URL.valueOf(entry.getKey());
+                    if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
+                        long expire = Long.parseLong(entry.getValue());
+                        if (expire < now) {
+                            expired.add(entry.getKey());
+                            if (logger.isWarnEnabled()) {
+                                logger.warn("Delete expired key: " + key + " -> value: " + entry.getKey() + ", expire: " + new Date(expire) + ", now: " + new Date(now));
                             }
                         }
                     }
-                    if (delete) {
-                        jedis.publish(key, Constants.UNREGISTER);
-                    }
                 }
+                if (!expired.isEmpty()) {
+                    pipeline.hdel(key, expired.toArray(new String[0]));
+                    pipeline.publish(key, Constants.UNREGISTER);
+                    delete = true;
+                }
+            }
+        }
+        if (delete) {
+            pipeline.sync();
+        }
+    }
+
+    /**
+     * Renew this instance in the hash of the cleaners, the live cleaners in id order split the keys by hash code.
+     *
+     * @return the index of this instance and the number of live cleaners
+     */
+    private int[] getCleanShard(Jedis jedis, long now) {
+        jedis.hset(cleanersKey, cleanerId, String.valueOf(now + expirePeriod));
+        List<String> cleaners = new ArrayList<>();
+        for (Map.Entry<String, String> entry : jedis.hgetAll(cleanersKey).entrySet()) {
+            if (Long.parseLong(entry.getValue()) < now) {
+                jedis.hdel(cleanersKey, entry.getKey());
+            } else {
+                cleaners.add(entry.getKey());
             }
         }
+        Collections.sort(cleaners);
+        return new int[]{cleaners.indexOf(cleanerId), cleaners.size()};
     }
 
     @Override
@@ -253,6 +349,14 @@ public class RedisRegistry extends FailbackRegistry {
         for (Map.Entry<String, JedisPool> entry : jedisPools.entrySet()) {
             JedisPool jedisPool = entry.getValue();
             try {
+                if (admin) {
+                    // hand the keys of this instance over to the other cleaners at once
+                    try (Jedis jedis = jedisPool.getResource()) {
+                        jedis.hdel(cleanersKey, cleanerId);
+                    } catch (Throwable t) {
+                        logger.warn("Failed to leave the cleaners of redis registry. registry: " + entry.getKey() + ", cause: " + t.getMessage(), t);
+                    }
+                }
                 jedisPool.destroy();
             } catch (Throwable t) {
                 logger.warn("Failed to destroy the redis registry client. registry: " + entry.getKey() + ", cause: " + t.getMessage(), t);
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.redis;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NetUtils;
+
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the renewal and the cleaning of the redis registry with one command per url and per key.
+ * <p>
+ * mvn test -Dtest=RedisRegistryPerformanceTest -Dbenchmark=true -Durls=10000
+ */
+public class RedisRegistryPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRegistryPerformanceTest.class);
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the redis registry benchmark");
+            return;
+        }
+        int urls = Integer.getInteger("urls", 10000);
+        int port = NetUtils.getAvailablePort();
+        RedisServer redisServer = new RedisServer(port);
+        redisServer.start();
+        RedisRegistry registry = new RedisRegistry(URL.valueOf("redis://127.0.0.1:" + port));
+        try (Jedis jedis = new Jedis("127.0.0.1", port)) {
+            for (int i = 0; i < urls; i++) {
+                // ten providers per service
+                registry.register(URL.valueOf("dubbo://10.0.0." + (i % 10) + ":20880/org.apache.dubbo.demo.Service" + (i / 10)
+                        + "?interface=org.apache.dubbo.demo.Service" + (i / 10) + "&side=provider"));
+            }
+
+            long start = System.nanoTime();
+            for (URL url : registry.getRegistered()) {
+                String key = "/dubbo/" + url.getServiceInterface() + "/providers";
+                if (jedis.hset(key, url.toFullString(), String.valueOf(System.currentTimeMillis() + 60000)) == 1) {
+                    jedis.publish(key, "register");
+                }
+            }
+            long renewOneByOne = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            registry.deferExpired();
+            long renewPipelined = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Set<String> keys = jedis.keys("/dubbo/*");
+            for (String key : keys) {
+                Map<String, String> values = jedis.hgetAll(key);
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    URL.valueOf(entry.getKey());
+                    Long.parseLong(entry.getValue());
+                }
+            }
+            long cleanKeys = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            registry.clean(jedis);
+            long cleanScan = System.nanoTime() - start;
+
+            logger.info("Redis registry with " + urls + " urls in " + keys.size() + " keys, renew one by one: "
+                    + renewOneByOne / 1000000 + "ms, pipelined: " + renewPipelined / 1000000
+                    + "ms, clean with keys and hgetall: " + cleanKeys / 1000000 + "ms, with scan and pipelines: "
+                    + cleanScan / 1000000 + "ms");
+        } finally {
+            registry.destroy();
+            redisServer.stop();
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
 import redis.embedded.RedisServer;
 
 import java.util.List;
@@ -121,4 +122,54 @@ public class RedisRegistryTest {
 
         assertThat(registry.isAvailable(), is(true));
     }
+
+    @Test
+    public void testDeferExpired() {
+        redisRegistry.register(serviceUrl);
+        String key = "/dubbo/" + service + "/providers";
+        try (Jedis jedis = new Jedis(registryUrl.getHost(), registryUrl.getPort())) {
+            jedis.hdel(key, serviceUrl.toFullString());
+
+            redisRegistry.deferExpired();
+            String expire = jedis.hget(key, serviceUrl.toFullString());
+            assertThat(Long.parseLong(expire) > System.currentTimeMillis(), is(true));
+        }
+    }
+
+    @Test
+    public void testCleanShards() {
+        RedisRegistry other = (RedisRegistry) new RedisRegistryFactory().createRegistry(registryUrl.addParameter("other", true));
+        try (Jedis jedis = new Jedis(registryUrl.getHost(), registryUrl.getPort())) {
+            // join the cleaners, nothing to clean yet
+            other.clean(jedis);
+
+            String expired = String.valueOf(System.currentTimeMillis() - 1);
+            String alive = String.valueOf(System.currentTimeMillis() + 60000);
+            for (int i = 0; i < 100; i++) {
+                String key = "/dubbo/" + service + i + "/providers";
+                jedis.hset(key, "dubbo://127.0.0.1:20880/" + service + i + "?dynamic=true", expired);
+                jedis.hset(key, "dubbo://127.0.0.2:20880/" + service + i, alive);
+            }
+
+            redisRegistry.clean(jedis);
+            long cleaned = countCleaned(jedis);
+            assertThat(cleaned > 0 && cleaned < 100, is(true));
+
+            other.clean(jedis);
+            assertThat(countCleaned(jedis), is(100L));
+            assertThat(jedis.keys("/dubbo/*").size(), is(100));
+        } finally {
+            other.destroy();
+        }
+    }
+
+    private long countCleaned(Jedis jedis) {
+        long cleaned = 0;
+        for (int i = 0; i < 100; i++) {
+            if (!jedis.hexists("/dubbo/" + service + i + "/providers", "dubbo://127.0.0.1:20880/" + service + i + "?dynamic=true")) {
+                cleaned++;
+            }
+        }
+        return cleaned;
+    }
 }
\ No newline at end of file
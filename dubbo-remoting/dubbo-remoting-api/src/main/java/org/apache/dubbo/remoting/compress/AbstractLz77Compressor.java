@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Greedy LZ77 match finder shared by the byte oriented block formats.
+ * <p>
+ * Every 4 byte sequence is hashed into a table of its last position, a candidate is taken if it repeats within
+ * 64KB. The last 5 bytes are always literals and no match starts in the last 12 bytes, as the LZ4 block format
+ * requires.
+ */
+public abstract class AbstractLz77Compressor implements Compressor {
+
+    protected static final int MIN_MATCH = 4;
+
+    protected static final int MAX_DISTANCE = 0xffff;
+
+    private static final int HASH_LOG = 14;
+
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MATCH_FIND_LIMIT = 12;
+
+    /**
+     * after 64 misses in a row the step grows, so incompressible data is skipped quickly
+     */
+    private static final int SKIP_STRENGTH = 6;
+
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) throws IOException {
+        int end = srcOffset + length;
+        int matchLimit = end - LAST_LITERALS;
+        int findLimit = end - MATCH_FIND_LIMIT;
+        int anchor = srcOffset;
+        int pos = srcOffset;
+        int d = writeHeader(dst, dstOffset, length);
+
+        int[] table = HASH_TABLE.get();
+        // positions are stored plus one, 0 is an empty slot
+        Arrays.fill(table, 0);
+        int misses = 0;
+        while (pos < findLimit) {
+            int sequence = readInt(src, pos);
+            int hash = (sequence * -1640531535) >>> (Integer.SIZE - HASH_LOG);
+            int ref = table[hash] - 1;
+            table[hash] = pos + 1;
+            if (ref < srcOffset || pos - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                pos += 1 + (misses++ >>> SKIP_STRENGTH);
+                continue;
+            }
+            misses = 0;
+            while (pos > anchor && ref > srcOffset && src[pos - 1] == src[ref - 1]) {
+                pos--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            while (pos + matchLength < matchLimit && src[pos + matchLength] == src[ref + matchLength]) {
+                matchLength++;
+            }
+            d = writeSequence(dst, d, src, anchor, pos - anchor, pos - ref, matchLength);
+            pos += matchLength;
+            anchor = pos;
+        }
+        d = writeLastLiterals(dst, d, src, anchor, end - anchor);
+        return d - dstOffset;
+    }
+
+    /**
+     * @return the offset after the header of the block
+     */
+    protected int writeHeader(byte[] dst, int offset, int length) {
+        return offset;
+    }
+
+    /**
+     * write the literals followed by a copy of <code>matchLength</code> bytes from <code>distance</code> bytes back.
+     *
+     * @return the offset after the sequence
+     */
+    protected abstract int writeSequence(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength,
+                                         int distance, int matchLength);
+
+    /**
+     * @return the offset after the literals, the end of the block
+     */
+    protected abstract int writeLastLiterals(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength);
+
+    /**
+     * copy <code>length</code> bytes from <code>distance</code> bytes back, the ranges may overlap.
+     */
+    protected static void copyMatch(byte[] dst, int offset, int distance, int length) {
+        int from = offset - distance;
+        if (distance >= length) {
+            System.arraycopy(dst, from, dst, offset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = dst[from + i];
+            }
+        }
+    }
+
+    protected static IOException malformed(String format) {
+        return new IOException("Malformed " + format + " compressed data");
+    }
+
+    private static int readInt(byte[] src, int offset) {
+        return (src[offset] & 0xff) | (src[offset + 1] & 0xff) << 8
+                | (src[offset + 2] & 0xff) << 16 | (src[offset + 3] & 0xff) << 24;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the bodies compressed and decompressed with one {@link Compressor}, times are in nanoseconds.
+ */
+public class CompressionStatistics {
+
+    private final LongAdder compressed = new LongAdder();
+
+    private final LongAdder incompressible = new LongAdder();
+
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    private final LongAdder compressedBytes = new LongAdder();
+
+    private final LongAdder compressTime = new LongAdder();
+
+    private final LongAdder decompressed = new LongAdder();
+
+    private final LongAdder decompressTime = new LongAdder();
+
+    void recordCompress(int uncompressedLength, int compressedLength, long time) {
+        if (compressedLength < uncompressedLength) {
+            compressed.increment();
+        } else {
+            incompressible.increment();
+        }
+        uncompressedBytes.add(uncompressedLength);
+        compressedBytes.add(Math.min(compressedLength, uncompressedLength));
+        compressTime.add(time);
+    }
+
+    void recordDecompress(long time) {
+        decompressed.increment();
+        decompressTime.add(time);
+    }
+
+    /**
+     * @return the number of bodies sent compressed
+     */
+    public long getCompressed() {
+        return compressed.sum();
+    }
+
+    /**
+     * @return the number of bodies sent uncompressed as the compressed body was not smaller
+     */
+    public long getIncompressible() {
+        return incompressible.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /**
+     * @return the bytes sent for the bodies, the uncompressed length of the incompressible ones
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * @return the sent bytes divided by the uncompressed bytes, 1 if nothing was compressed
+     */
+    public double getCompressionRatio() {
+        long uncompressed = uncompressedBytes.sum();
+        return uncompressed == 0 ? 1 : (double) compressedBytes.sum() / uncompressed;
+    }
+
+    public long getCompressTime() {
+        return compressTime.sum();
+    }
+
+    public long getDecompressed() {
+        return decompressed.sum();
+    }
+
+    public long getDecompressTime() {
+        return decompressTime.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "compressed: " + getCompressed() + ", incompressible: " + getIncompressible()
+                + ", ratio: " + String.format("%.3f", getCompressionRatio())
+                + ", compress time: " + getCompressTime() + "ns, decompressed: " + getDecompressed()
+                + ", decompress time: " + getDecompressTime() + "ns";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import org.apache.dubbo.common.extension.SPI;
+
+import java.io.IOException;
+
+/**
+ * Block compression of message bodies. (SPI, Singleton, ThreadSafe)
+ * <p>
+ * The compressor of a connection is configured on the provider and negotiated through its url:
+ * <pre>
+ *     e.g. &lt;dubbo:parameter key="compressor" value="lz4" /&gt;
+ * </pre>
+ *
+ * @see CompressorSupport
+ */
+@SPI("lz4")
+public interface Compressor {
+
+    /**
+     * Get the unique id written before the compressed body, must be greater than 0.
+     *
+     * @return content type id
+     */
+    byte getContentTypeId();
+
+    /**
+     * @param length the length of the uncompressed bytes
+     * @return the max length of the compressed bytes
+     */
+    int maxCompressedLength(int length);
+
+    /**
+     * Compress <code>src[srcOffset, srcOffset + length)</code> into <code>dst</code>, which has at least
+     * {@link #maxCompressedLength(int)} bytes available from <code>dstOffset</code>.
+     *
+     * @return the length of the compressed bytes
+     */
+    int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) throws IOException;
+
+    /**
+     * Decompress <code>src[srcOffset, srcOffset + length)</code> into exactly <code>dstLength</code> bytes.
+     *
+     * @throws IOException if the compressed bytes are malformed or do not decompress to <code>dstLength</code> bytes
+     */
+    void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int dstLength) throws IOException;
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.Bytes;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compresses and decompresses message bodies in place in the channel buffer.
+ * <p>
+ * A compressed body starts with the id of the compressor and the uncompressed length, so the receiver
+ * decompresses it with any compressor it knows, whatever is configured on its side.
+ */
+public class CompressorSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressorSupport.class);
+
+    /**
+     * compressor id and uncompressed length
+     */
+    public static final int BODY_HEADER_LENGTH = 5;
+
+    /**
+     * larger compressed bodies are not kept in the per thread buffer
+     */
+    private static final int MAX_BUFFER_LENGTH = 1 << 20;
+
+    private static final ThreadLocal<byte[]> COMPRESS_BUFFER = new ThreadLocal<byte[]>();
+
+    private static final Map<Byte, Compressor> ID_COMPRESSOR_MAP = new HashMap<Byte, Compressor>();
+
+    private static final Map<String, CompressionStatistics> NAME_STATISTICS_MAP = new HashMap<String, CompressionStatistics>();
+
+    private static final Map<Byte, CompressionStatistics> ID_STATISTICS_MAP = new HashMap<Byte, CompressionStatistics>();
+
+    static {
+        Set<String> supportedExtensions = ExtensionLoader.getExtensionLoader(Compressor.class).getSupportedExtensions();
+        for (String name : supportedExtensions) {
+            Compressor compressor = ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+            byte idByte = compressor.getContentTypeId();
+            if (idByte <= 0 || ID_COMPRESSOR_MAP.containsKey(idByte)) {
+                logger.error("Compressor extension " + compressor.getClass().getName()
+                        + " has invalid or duplicate id " + idByte + ", ignore this Compressor extension");
+                continue;
+            }
+            CompressionStatistics statistics = new CompressionStatistics();
+            ID_COMPRESSOR_MAP.put(idByte, compressor);
+            ID_STATISTICS_MAP.put(idByte, statistics);
+            NAME_STATISTICS_MAP.put(name, statistics);
+        }
+    }
+
+    private CompressorSupport() {
+    }
+
+    public static Compressor getCompressorById(byte id) {
+        return ID_COMPRESSOR_MAP.get(id);
+    }
+
+    /**
+     * @return the compressor configured by the <code>compressor</code> parameter, or null if none is configured
+     */
+    public static Compressor getCompressor(URL url) {
+        String name = url.getParameter(Constants.COMPRESSOR_KEY);
+        if (StringUtils.isEmpty(name)) {
+            return null;
+        }
+        return ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+    }
+
+    /**
+     * @return the statistics of the compressor, or null if it is unknown
+     */
+    public static CompressionStatistics getStatistics(String name) {
+        return NAME_STATISTICS_MAP.get(name);
+    }
+
+    /**
+     * Replace the body at <code>index</code> with its compressed form if that is smaller. The input is read from
+     * the backing array of the buffer when it has one and copied out of a direct buffer. The output is written into
+     * a per thread array, reused up to 1MB, and copied back into the buffer.
+     *
+     * @return the length of the body, the given length if it is kept uncompressed
+     */
+    public static int compress(Compressor compressor, ChannelBuffer buffer, int index, int length) throws IOException {
+        long start = System.nanoTime();
+        byte[] src;
+        int srcOffset;
+        if (buffer.hasArray()) {
+            src = buffer.array();
+            srcOffset = buffer.arrayOffset() + index;
+        } else {
+            src = new byte[length];
+            srcOffset = 0;
+            buffer.getBytes(index, src);
+        }
+
+        int dstLength = BODY_HEADER_LENGTH + compressor.maxCompressedLength(length);
+        byte[] dst = COMPRESS_BUFFER.get();
+        if (dst == null || dst.length < dstLength) {
+            dst = new byte[dstLength];
+            if (dstLength <= MAX_BUFFER_LENGTH) {
+                COMPRESS_BUFFER.set(dst);
+            }
+        }
+        dst[0] = compressor.getContentTypeId();
+        Bytes.int2bytes(length, dst, 1);
+        int compressedLength = BODY_HEADER_LENGTH + compressor.compress(src, srcOffset, length, dst, BODY_HEADER_LENGTH);
+        CompressionStatistics statistics = ID_STATISTICS_MAP.get(dst[0]);
+        if (statistics != null) {
+            statistics.recordCompress(length, compressedLength, System.nanoTime() - start);
+        }
+        if (compressedLength >= length) {
+            return length;
+        }
+        buffer.setBytes(index, dst, 0, compressedLength);
+        return compressedLength;
+    }
+
+    /**
+     * Read and decompress a body of <code>length</code> bytes from the reader index of the buffer. The input is read
+     * from the backing array of the buffer when it has one and copied out of a direct buffer, the output is a new
+     * array.
+     *
+     * @param payload the max uncompressed length, not checked if not greater than 0
+     * @return the uncompressed body
+     */
+    public static byte[] decompress(ChannelBuffer buffer, int length, int payload) throws IOException {
+        if (length < BODY_HEADER_LENGTH) {
+            throw new IOException("Compressed body of " + length + " bytes is too short");
+        }
+        long start = System.nanoTime();
+        byte[] header = new byte[BODY_HEADER_LENGTH];
+        buffer.readBytes(header);
+        Compressor compressor = getCompressorById(header[0]);
+        if (compressor == null) {
+            throw new IOException("Unexpected compressor id:" + header[0] + " received from network, please check if the peer send the right id.");
+        }
+        int uncompressedLength = Bytes.bytes2int(header, 1);
+        if (uncompressedLength < 0 || (payload > 0 && uncompressedLength > payload)) {
+            throw new IOException("Data length too large: " + uncompressedLength + ", max payload: " + payload);
+        }
+
+        int compressedLength = length - BODY_HEADER_LENGTH;
+        byte[] src;
+        int srcOffset;
+        if (buffer.hasArray()) {
+            src = buffer.array();
+            srcOffset = buffer.arrayOffset() + buffer.readerIndex();
+            buffer.skipBytes(compressedLength);
+        } else {
+            src = new byte[compressedLength];
+            srcOffset = 0;
+            buffer.readBytes(src);
+        }
+        byte[] body = new byte[uncompressedLength];
+        compressor.decompress(src, srcOffset, compressedLength, body, 0, uncompressedLength);
+        ID_STATISTICS_MAP.get(header[0]).recordDecompress(System.nanoTime() - start);
+        return body;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Raw deflate of the jdk at the fastest level, slower than the LZ77 only formats but with a better ratio.
+ */
+public class DeflateCompressor implements Compressor {
+
+    public static final String NAME = "deflate";
+
+    @Override
+    public byte getContentTypeId() {
+        return 3;
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        // the bound of zlib for stored blocks, plus the end of stream
+        return length + (length >>> 12) + (length >>> 14) + (length >>> 25) + 13 + 5;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(src, srcOffset, length);
+            deflater.finish();
+            int capacity = maxCompressedLength(length);
+            int written = 0;
+            while (!deflater.finished()) {
+                if (written >= capacity) {
+                    throw new IOException("Deflated data exceeds " + capacity + " bytes");
+                }
+                written += deflater.deflate(dst, dstOffset + written, capacity - written);
+            }
+            return written;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int dstLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(src, srcOffset, length);
+            int read = 0;
+            while (read < dstLength) {
+                int n = inflater.inflate(dst, dstOffset + read, dstLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Malformed " + NAME + " compressed data");
+                }
+                read += n;
+            }
+            // the end of the stream follows the last byte
+            if (!inflater.finished() && (inflater.inflate(new byte[1]) != 0 || !inflater.finished())) {
+                throw new IOException("Malformed " + NAME + " compressed data");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed " + NAME + " compressed data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import java.io.IOException;
+
+/**
+ * LZ4 block format, without the frame header, fast on both sides with a moderate ratio.
+ */
+public class Lz4Compressor extends AbstractLz77Compressor {
+
+    public static final String NAME = "lz4";
+
+    private static final int RUN_MASK = 0x0f;
+
+    @Override
+    public byte getContentTypeId() {
+        return 1;
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    @Override
+    protected int writeSequence(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength,
+                                int distance, int matchLength) {
+        int token = offset++;
+        offset = writeLiterals(dst, offset, token, src, literalOffset, literalLength);
+        dst[offset++] = (byte) distance;
+        dst[offset++] = (byte) (distance >>> 8);
+        int length = matchLength - MIN_MATCH;
+        if (length >= RUN_MASK) {
+            dst[token] |= RUN_MASK;
+            offset = writeLength(dst, offset, length - RUN_MASK);
+        } else {
+            dst[token] |= length;
+        }
+        return offset;
+    }
+
+    @Override
+    protected int writeLastLiterals(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength) {
+        int token = offset++;
+        return writeLiterals(dst, offset, token, src, literalOffset, literalLength);
+    }
+
+    private static int writeLiterals(byte[] dst, int offset, int token, byte[] src, int literalOffset, int literalLength) {
+        if (literalLength >= RUN_MASK) {
+            dst[token] = (byte) (RUN_MASK << 4);
+            offset = writeLength(dst, offset, literalLength - RUN_MASK);
+        } else {
+            dst[token] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalOffset, dst, offset, literalLength);
+        return offset + literalLength;
+    }
+
+    private static int writeLength(byte[] dst, int offset, int length) {
+        while (length >= 0xff) {
+            dst[offset++] = (byte) 0xff;
+            length -= 0xff;
+        }
+        dst[offset++] = (byte) length;
+        return offset;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int dstLength) throws IOException {
+        int s = srcOffset;
+        int srcEnd = srcOffset + length;
+        int d = dstOffset;
+        int dstEnd = dstOffset + dstLength;
+        while (true) {
+            if (s >= srcEnd) {
+                throw malformed(NAME);
+            }
+            int token = src[s++] & 0xff;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw malformed(NAME);
+                    }
+                    b = src[s++] & 0xff;
+                    literalLength += b;
+                } while (b == 0xff);
+            }
+            if (literalLength < 0 || literalLength > srcEnd - s || literalLength > dstEnd - d) {
+                throw malformed(NAME);
+            }
+            System.arraycopy(src, s, dst, d, literalLength);
+            s += literalLength;
+            d += literalLength;
+            if (s == srcEnd) {
+                break;
+            }
+
+            if (srcEnd - s < 2) {
+                throw malformed(NAME);
+            }
+            int distance = (src[s] & 0xff) | (src[s + 1] & 0xff) << 8;
+            s += 2;
+            if (distance == 0 || distance > d - dstOffset) {
+                throw malformed(NAME);
+            }
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw malformed(NAME);
+                    }
+                    b = src[s++] & 0xff;
+                    matchLength += b;
+                } while (b == 0xff);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength < 0 || matchLength > dstEnd - d) {
+                throw malformed(NAME);
+            }
+            copyMatch(dst, d, distance, matchLength);
+            d += matchLength;
+        }
+        if (d != dstEnd) {
+            throw malformed(NAME);
+        }
+    }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+
+/**
+ * Snappy raw format, without the framing format: the uncompressed length as a varint followed by
+ * literal and copy elements.
+ * <p>
+ * The native library of the optional snappy-java is used when it is on the class path and loads, the pure Java
+ * implementation below otherwise. Both write the same format, so the peers need not agree on it.
+ */
+public class SnappyCompressor extends AbstractLz77Compressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnappyCompressor.class);
+
+    public static final String NAME = "snappy";
+
+    private static final boolean NATIVE = isNativeAvailable();
+
+    private static final int LITERAL = 0;
+
+    private static final int COPY_1_BYTE_OFFSET = 1;
+
+    private static final int COPY_2_BYTE_OFFSET = 2;
+
+    private static final int MAX_COPY_LENGTH = 64;
+
+    @Override
+    public byte getContentTypeId() {
+        return 2;
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return 32 + length + length / 6;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) throws IOException {
+        if (NATIVE) {
+            return Snappy.rawCompress(src, srcOffset, length, dst, dstOffset);
+        }
+        return super.compress(src, srcOffset, length, dst, dstOffset);
+    }
+
+    @Override
+    protected int writeHeader(byte[] dst, int offset, int length) {
+        while ((length & ~0x7f) != 0) {
+            dst[offset++] = (byte) ((length & 0x7f) | 0x80);
+            length >>>= 7;
+        }
+        dst[offset++] = (byte) length;
+        return offset;
+    }
+
+    @Override
+    protected int writeSequence(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength,
+                                int distance, int matchLength) {
+        if (literalLength > 0) {
+            offset = writeLiteral(dst, offset, src, literalOffset, literalLength);
+        }
+        // split long matches so the last copy is never shorter than 4 bytes
+        while (matchLength >= MAX_COPY_LENGTH + MIN_MATCH) {
+            offset = writeCopy(dst, offset, distance, MAX_COPY_LENGTH);
+            matchLength -= MAX_COPY_LENGTH;
+        }
+        if (matchLength > MAX_COPY_LENGTH) {
+            offset = writeCopy(dst, offset, distance, MAX_COPY_LENGTH - MIN_MATCH);
+            matchLength -= MAX_COPY_LENGTH - MIN_MATCH;
+        }
+        return writeCopy(dst, offset, distance, matchLength);
+    }
+
+    @Override
+    protected int writeLastLiterals(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength) {
+        return literalLength > 0 ? writeLiteral(dst, offset, src, literalOffset, literalLength) : offset;
+    }
+
+    private static int writeLiteral(byte[] dst, int offset, byte[] src, int literalOffset, int literalLength) {
+        int n = literalLength - 1;
+        if (n < 60) {
+            dst[offset++] = (byte) (n << 2 | LITERAL);
+        } else {
+            int bytes = n < (1 << 8) ? 1 : n < (1 << 16) ? 2 : n < (1 << 24) ? 3 : 4;
+            dst[offset++] = (byte) ((59 + bytes) << 2 | LITERAL);
+            for (int i = 0; i < bytes; i++) {
+                dst[offset++] = (byte) (n >>> (i * 8));
+            }
+        }
+        System.arraycopy(src, literalOffset, dst, offset, literalLength);
+        return offset + literalLength;
+    }
+
+    private static int writeCopy(byte[] dst, int offset, int distance, int length) {
+        if (length < 12 && distance < 2048) {
+            dst[offset++] = (byte) (COPY_1_BYTE_OFFSET | (length - 4) << 2 | (distance >>> 8) << 5);
+            dst[offset++] = (byte) distance;
+        } else {
+            dst[offset++] = (byte) (COPY_2_BYTE_OFFSET | (length - 1) << 2);
+            dst[offset++] = (byte) distance;
+            dst[offset++] = (byte) (distance >>> 8);
+        }
+        return offset;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int dstLength) throws IOException {
+        if (NATIVE) {
+            // the native side writes as many bytes as the header says, check them against dst first
+            if (Snappy.uncompressedLength(src, srcOffset, length) != dstLength
+                    || !Snappy.isValidCompressedBuffer(src, srcOffset, length)
+                    || Snappy.rawUncompress(src, srcOffset, length, dst, dstOffset) != dstLength) {
+                throw malformed(NAME);
+            }
+            return;
+        }
+        decompressJava(src, srcOffset, length, dst, dstOffset, dstLength);
+    }
+
+    void decompressJava(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int dstLength) throws IOException {
+        int s = srcOffset;
+        int srcEnd = srcOffset + length;
+        int uncompressedLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (s >= srcEnd || shift > 28) {
+                throw malformed(NAME);
+            }
+            int b = src[s++] & 0xff;
+            uncompressedLength |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (uncompressedLength != dstLength) {
+            throw malformed(NAME);
+        }
+
+        int d = dstOffset;
+        int dstEnd = dstOffset + dstLength;
+        while (s < srcEnd) {
+            int tag = src[s++] & 0xff;
+            int elementLength;
+            int distance;
+            switch (tag & 3) {
+                case LITERAL:
+                    elementLength = (tag >>> 2) + 1;
+                    if (elementLength > 60) {
+                        int bytes = elementLength - 60;
+                        if (bytes > srcEnd - s) {
+                            throw malformed(NAME);
+                        }
+                        elementLength = 0;
+                        for (int i = 0; i < bytes; i++) {
+                            elementLength |= (src[s++] & 0xff) << (i * 8);
+                        }
+                        elementLength++;
+                    }
+                    if (elementLength <= 0 || elementLength > srcEnd - s || elementLength > dstEnd - d) {
+                        throw malformed(NAME);
+                    }
+                    System.arraycopy(src, s, dst, d, elementLength);
+                    s += elementLength;
+                    d += elementLength;
+                    continue;
+                case COPY_1_BYTE_OFFSET:
+                    if (s >= srcEnd) {
+                        throw malformed(NAME);
+                    }
+                    elementLength = ((tag >>> 2) & 7) + 4;
+                    distance = (tag >>> 5) << 8 | (src[s++] & 0xff);
+                    break;
+                case COPY_2_BYTE_OFFSET:
+                    if (srcEnd - s < 2) {
+                        throw malformed(NAME);
+                    }
+                    elementLength = (tag >>> 2) + 1;
+                    distance = (src[s] & 0xff) | (src[s + 1] & 0xff) << 8;
+                    s += 2;
+                    break;
+                default:
+                    // a copy with a 4 byte offset, never written by this compressor
+                    if (srcEnd - s < 4) {
+                        throw malformed(NAME);
+                    }
+                    elementLength = (tag >>> 2) + 1;
+                    distance = (src[s] & 0xff) | (src[s + 1] & 0xff) << 8
+                            | (src[s + 2] & 0xff) << 16 | (src[s + 3] & 0xff) << 24;
+                    s += 4;
+                    break;
+            }
+            if (distance <= 0 || distance > d - dstOffset || elementLength > dstEnd - d) {
+                throw malformed(NAME);
+            }
+            copyMatch(dst, d, distance, elementLength);
+            d += elementLength;
+        }
+        if (d != dstEnd) {
+            throw malformed(NAME);
+        }
+    }
+
+    /**
+     * pure Java compression, whether or not the native library is loaded
+     */
+    int compressJava(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) throws IOException {
+        return super.compress(src, srcOffset, length, dst, dstOffset);
+    }
+
+    static boolean isNative() {
+        return NATIVE;
+    }
+
+    private static boolean isNativeAvailable() {
+        try {
+            Class.forName("org.xerial.snappy.Snappy", false, SnappyCompressor.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        try {
+            Snappy.maxCompressedLength(0);
+            return true;
+        } catch (Throwable t) {
+            logger.warn("Failed to load the native library of snappy-java, use the pure Java snappy instead", t);
+            return false;
+        }
+    }
+
+}
@@ -43,6 +43,8 @@ public class Request {
 
     private Object mData;
 
+    private int mResponseCompressThreshold = -1;
+
     public Request() {
         mId = newId();
     }
@@ -119,6 +121,17 @@ public class Request {
         mData = msg;
     }
 
+    /**
+     * @return the body length above which the requester accepts a compressed response, -1 if it does not
+     */
+    public int getResponseCompressThreshold() {
+        return mResponseCompressThreshold;
+    }
+
+    public void setResponseCompressThreshold(int responseCompressThreshold) {
+        mResponseCompressThreshold = responseCompressThreshold;
+    }
+
     public boolean isHeartbeat() {
         return mEvent && HEARTBEAT_EVENT == mData;
     }
@@ -30,6 +30,16 @@ public class Response {
      */
     public static final byte OK = 20;
 
+    /**
+     * an element of a stream answering the request, its body starts with the index of the element.
+     */
+    public static final byte STREAM = 21;
+
+    /**
+     * the end of a stream answering the request, its body starts with the number of elements sent before.
+     */
+    public static final byte STREAM_END = 22;
+
     /**
      * client side timeout.
      */
@@ -92,6 +102,10 @@ public class Response {
 
     private Object mResult;
 
+    private int mCompressThreshold = -1;
+
+    private int mSequence;
+
     public Response() {
     }
 
@@ -160,6 +174,35 @@ public class Response {
         mResult = msg;
     }
 
+    /**
+     * @return the body length above which the response may be compressed, -1 if the requester does not accept it
+     */
+    public int getCompressThreshold() {
+        return mCompressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        mCompressThreshold = compressThreshold;
+    }
+
+    /**
+     * @return the index of a stream element, or the number of elements sent before the end of a stream
+     */
+    public int getSequence() {
+        return mSequence;
+    }
+
+    public void setSequence(int sequence) {
+        mSequence = sequence;
+    }
+
+    /**
+     * @return true if the body holds a result, as an OK response or a part of a stream
+     */
+    public boolean hasResult() {
+        return mStatus == OK || mStatus == STREAM || mStatus == STREAM_END;
+    }
+
     public String getErrorMessage() {
         return mErrorMsg;
     }
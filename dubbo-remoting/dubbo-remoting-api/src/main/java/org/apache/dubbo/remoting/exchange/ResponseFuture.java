@@ -55,4 +55,19 @@ public interface ResponseFuture {
      */
     boolean isDone();
 
+    /**
+     * Take the elements of a stream answering the request, the response itself is the end of the stream. At most
+     * window elements are sent ahead of the ones taken, and the timeout applies to the wait for each element.
+     * <p>
+     * Supported by {@link org.apache.dubbo.remoting.exchange.support.DefaultFuture}, the future of the requests sent
+     * over a header exchange channel, and by {@link org.apache.dubbo.remoting.exchange.support.SimpleFuture}, whose
+     * value ends a stream without elements. Other futures throw {@link UnsupportedOperationException}.
+     *
+     * @param window the number of elements sent before any is taken
+     * @return the elements, in the order they were sent
+     */
+    default ResponseStreamIterator stream(int window) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support streams");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange;
+
+/**
+ * The reply of a request answered by a stream of elements, each one sent in a response of its own before the response
+ * that ends the stream. The elements are sent as the requester takes them, at most a window of them ahead.
+ * (API, Prototype, NonThreadSafe)
+ *
+ * @see ExchangeHandler#reply(ExchangeChannel, Object)
+ * @see ResponseFuture#stream(int)
+ */
+public interface ResponseStream {
+
+    /**
+     * @return the number of elements that may be sent before the requester takes any
+     */
+    int getWindow();
+
+    /**
+     * @return true if there is another element to send
+     */
+    boolean hasNext();
+
+    /**
+     * @return the result of the response of the next element
+     */
+    Object next();
+
+    /**
+     * @param cause the failure that ends the stream early, or null when all the elements are sent
+     * @return the result of the response ending the stream
+     */
+    Object end(Throwable cause);
+
+    /**
+     * Release the stream, once it ended or the requester cancelled it.
+     */
+    void close();
+
+}
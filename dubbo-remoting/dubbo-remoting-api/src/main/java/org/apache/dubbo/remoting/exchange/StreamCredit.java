@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange;
+
+import java.io.Serializable;
+
+/**
+ * The event a requester sends to take more elements of a stream answering its request, or to cancel it.
+ *
+ * @see ResponseStream
+ */
+public class StreamCredit implements Serializable {
+
+    private static final long serialVersionUID = 2683426187374950236L;
+
+    private long id;
+
+    private int credits;
+
+    public StreamCredit() {
+    }
+
+    public StreamCredit(long id, int credits) {
+        this.id = id;
+        this.credits = credits;
+    }
+
+    /**
+     * @return the id of the request answered by the stream
+     */
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the number of elements the requester has taken since the last credits, 0 to cancel the stream
+     */
+    public int getCredits() {
+        return credits;
+    }
+
+    public void setCredits(int credits) {
+        this.credits = credits;
+    }
+
+    public boolean isCancel() {
+        return credits <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamCredit [id=" + id + ", credits=" + credits + "]";
+    }
+}
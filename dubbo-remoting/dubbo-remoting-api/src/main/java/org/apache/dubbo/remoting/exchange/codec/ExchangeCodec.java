@@ -16,9 +16,11 @@
  */
 package org.apache.dubbo.remoting.exchange.codec;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.io.Bytes;
 import org.apache.dubbo.common.io.StreamUtils;
+import org.apache.dubbo.common.io.UnsafeByteArrayInputStream;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.serialize.Cleanable;
@@ -31,6 +33,8 @@ import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.buffer.ChannelBuffer;
 import org.apache.dubbo.remoting.buffer.ChannelBufferInputStream;
 import org.apache.dubbo.remoting.buffer.ChannelBufferOutputStream;
+import org.apache.dubbo.remoting.compress.Compressor;
+import org.apache.dubbo.remoting.compress.CompressorSupport;
 import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
@@ -57,6 +61,11 @@ public class ExchangeCodec extends TelnetCodec {
     protected static final byte FLAG_TWOWAY = (byte) 0x40;
     protected static final byte FLAG_EVENT = (byte) 0x20;
     protected static final int SERIALIZATION_MASK = 0x1f;
+    // status byte flag of a compressed body, the response status codes are below it.
+    protected static final byte FLAG_COMPRESSED = (byte) 0x80;
+    // status byte bits of a request with the accepted response compress threshold, as a power of two.
+    private static final int RESPONSE_COMPRESS_THRESHOLD_SHIFT = 2;
+    private static final int RESPONSE_COMPRESS_THRESHOLD_MASK = 0x1f;
     private static final Logger logger = LoggerFactory.getLogger(ExchangeCodec.class);
 
     public Short getMagicCode() {
@@ -115,11 +124,28 @@ public class ExchangeCodec extends TelnetCodec {
             return DecodeResult.NEED_MORE_INPUT;
         }
 
-        // limit input stream.
-        ChannelBufferInputStream is = new ChannelBufferInputStream(buffer, len);
+        InputStream is;
+        if ((header[3] & FLAG_COMPRESSED) != 0) {
+            header[3] &= ~FLAG_COMPRESSED;
+            is = decompressBody(channel, buffer, len);
+        } else {
+            // limit input stream.
+            is = new ChannelBufferInputStream(buffer, len);
+        }
 
         try {
-            return decodeBody(channel, is, header);
+            boolean stream = (header[2] & FLAG_REQUEST) == 0
+                    && (header[3] == Response.STREAM || header[3] == Response.STREAM_END);
+            int sequence = stream ? readSequence(is) : 0;
+            Object msg = decodeBody(channel, is, header);
+            if (stream && msg instanceof Response) {
+                ((Response) msg).setSequence(sequence);
+            }
+            if (msg instanceof Request) {
+                int exponent = (header[3] >>> RESPONSE_COMPRESS_THRESHOLD_SHIFT) & RESPONSE_COMPRESS_THRESHOLD_MASK;
+                ((Request) msg).setResponseCompressThreshold(exponent == 0 ? -1 : 1 << (exponent - 1));
+            }
+            return msg;
         } finally {
             if (is.available() > 0) {
                 try {
@@ -134,6 +160,30 @@ public class ExchangeCodec extends TelnetCodec {
         }
     }
 
+    private static int readSequence(InputStream is) throws IOException {
+        byte[] bytes = new byte[4];
+        for (int read = 0; read < bytes.length; ) {
+            int count = is.read(bytes, read, bytes.length - read);
+            if (count < 0) {
+                throw new IOException("Stream response body is too short");
+            }
+            read += count;
+        }
+        return Bytes.bytes2int(bytes);
+    }
+
+    private InputStream decompressBody(Channel channel, ChannelBuffer buffer, int len) throws IOException {
+        int end = buffer.readerIndex() + len;
+        try {
+            int payload = channel.getUrl().getParameter(Constants.PAYLOAD_KEY, Constants.DEFAULT_PAYLOAD);
+            return new UnsafeByteArrayInputStream(CompressorSupport.decompress(buffer, len, payload));
+        } catch (IOException e) {
+            // skip the broken message, the following ones are still readable
+            buffer.readerIndex(end);
+            throw e;
+        }
+    }
+
     protected Object decodeBody(Channel channel, InputStream is, byte[] header) throws IOException {
         byte flag = header[2], proto = (byte) (flag & SERIALIZATION_MASK);
         // get request id.
@@ -149,7 +199,7 @@ public class ExchangeCodec extends TelnetCodec {
             res.setStatus(status);
             try {
                 ObjectInput in = CodecSupport.deserialize(channel.getUrl(), is, proto);
-                if (status == Response.OK) {
+                if (res.hasResult()) {
                     Object data;
                     if (res.isHeartbeat()) {
                         data = decodeHeartbeatData(channel, in);
@@ -224,6 +274,17 @@ public class ExchangeCodec extends TelnetCodec {
             header[2] |= FLAG_EVENT;
         }
 
+        // set request body flags, the status byte is only used by responses.
+        header[3] = getRequestBodyFlags(channel, req);
+        Compressor compressor = req.isEvent() ? null : CompressorSupport.getCompressor(channel.getUrl());
+        int compressThreshold = compressor == null ? -1 : getCompressThreshold(channel, req);
+        if (compressThreshold >= 0) {
+            // round up to a power of two, so it fits in the rest of the status byte.
+            int exponent = compressThreshold <= 1 ? 1
+                    : Math.min(RESPONSE_COMPRESS_THRESHOLD_MASK, Integer.SIZE + 1 - Integer.numberOfLeadingZeros(compressThreshold - 1));
+            header[3] |= exponent << RESPONSE_COMPRESS_THRESHOLD_SHIFT;
+        }
+
         // set request id.
         Bytes.long2bytes(req.getId(), header, 4);
 
@@ -245,6 +306,13 @@ public class ExchangeCodec extends TelnetCodec {
         bos.close();
         int len = bos.writtenBytes();
         checkPayload(channel, len);
+        if (compressThreshold >= 0 && len > compressThreshold) {
+            int compressedLen = CompressorSupport.compress(compressor, buffer, savedWriteIndex + HEADER_LENGTH, len);
+            if (compressedLen < len) {
+                len = compressedLen;
+                header[3] |= FLAG_COMPRESSED;
+            }
+        }
         Bytes.int2bytes(len, header, 12);
 
         // write
@@ -253,6 +321,25 @@ public class ExchangeCodec extends TelnetCodec {
         buffer.writerIndex(savedWriteIndex + HEADER_LENGTH + len);
     }
 
+    /**
+     * Flags describing how the body of the request is encoded, written to the status byte of the request header.
+     *
+     * @return 0 if the body is encoded as usual
+     */
+    protected byte getRequestBodyFlags(Channel channel, Request req) {
+        return 0;
+    }
+
+    /**
+     * The body length above which the request is compressed when the url has a compressor, it is also sent to the
+     * provider as the threshold of the response, rounded up to a power of two.
+     *
+     * @return a negative value if neither the request nor the response is compressed
+     */
+    protected int getCompressThreshold(Channel channel, Request req) {
+        return channel.getUrl().getParameter(Constants.COMPRESS_THRESHOLD_KEY, Constants.DEFAULT_COMPRESS_THRESHOLD);
+    }
+
     protected void encodeResponse(Channel channel, ChannelBuffer buffer, Response res) throws IOException {
         int savedWriteIndex = buffer.writerIndex();
         try {
@@ -274,9 +361,13 @@ public class ExchangeCodec extends TelnetCodec {
 
             buffer.writerIndex(savedWriteIndex + HEADER_LENGTH);
             ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
+            if (status == Response.STREAM || status == Response.STREAM_END) {
+                // the responses of a stream may be handled out of order, the sequence puts them back in order.
+                bos.write(Bytes.int2bytes(res.getSequence()));
+            }
             ObjectOutput out = serialization.serialize(channel.getUrl(), bos);
             // encode response data or error message.
-            if (status == Response.OK) {
+            if (res.hasResult()) {
                 if (res.isHeartbeat()) {
                     encodeHeartbeatData(channel, out, res.getResult());
                 } else {
@@ -294,6 +385,17 @@ public class ExchangeCodec extends TelnetCodec {
 
             int len = bos.writtenBytes();
             checkPayload(channel, len);
+            int compressThreshold = res.getCompressThreshold();
+            if (compressThreshold >= 0 && len > compressThreshold && !res.isEvent()) {
+                Compressor compressor = CompressorSupport.getCompressor(channel.getUrl());
+                if (compressor != null) {
+                    int compressedLen = CompressorSupport.compress(compressor, buffer, savedWriteIndex + HEADER_LENGTH, len);
+                    if (compressedLen < len) {
+                        len = compressedLen;
+                        header[3] |= FLAG_COMPRESSED;
+                    }
+                }
+            }
             Bytes.int2bytes(len, header, 12);
             // write
             buffer.writerIndex(savedWriteIndex);
@@ -17,6 +17,7 @@
 package org.apache.dubbo.remoting.exchange.support;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.timer.HashedWheelTimer;
@@ -31,10 +32,16 @@ import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.ResponseStreamIterator;
+import org.apache.dubbo.remoting.exchange.StreamCredit;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -68,6 +75,16 @@ public class DefaultFuture implements ResponseFuture {
     private volatile long sent;
     private volatile Response response;
     private volatile ResponseCallback callback;
+    // the elements of a stream answering the request, guarded by the lock.
+    private Deque<Object> elements;
+    // the elements received before the ones sent ahead of them.
+    private Map<Integer, Object> earlyElements;
+    private int receivedElements;
+    // the end of the stream, waiting for the elements sent before it.
+    private Response streamEnd;
+    private boolean streamEnded;
+    // the last time the stream was taken, or an element received or taken, the timeout applies from there.
+    private volatile long lastElement;
 
     private DefaultFuture(Channel channel, Request request, int timeout) {
         this.channel = channel;
@@ -143,6 +160,20 @@ public class DefaultFuture implements ResponseFuture {
     }
 
     public static void received(Channel channel, Response response) {
+        if (response.getStatus() == Response.STREAM || response.getStatus() == Response.STREAM_END) {
+            DefaultFuture future = FUTURES.get(response.getId());
+            if (future == null) {
+                if (response.getStatus() == Response.STREAM) {
+                    // cancelled or timed out, the provider may still be sending
+                    sendCredit(channel, response.getId(), 0);
+                }
+                return;
+            }
+            response = future.receivedStream(response);
+            if (response == null) {
+                return;
+            }
+        }
         try {
             DefaultFuture future = FUTURES.remove(response.getId());
             if (future != null) {
@@ -180,6 +211,7 @@ public class DefaultFuture implements ResponseFuture {
                     }
                 }
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
             } finally {
                 lock.unlock();
@@ -191,6 +223,18 @@ public class DefaultFuture implements ResponseFuture {
         return returnFromResponse();
     }
 
+    @Override
+    public ResponseStreamIterator stream(int window) {
+        lock.lock();
+        try {
+            initStream();
+            lastElement = System.currentTimeMillis();
+        } finally {
+            lock.unlock();
+        }
+        return new StreamIterator(Math.max(1, window / 2));
+    }
+
     public void cancel() {
         Response errorResult = new Response(id);
         errorResult.setErrorMessage("request future has been canceled.");
@@ -239,6 +283,15 @@ public class DefaultFuture implements ResponseFuture {
             if (future == null || future.isDone()) {
                 return;
             }
+            long lastElement = future.lastElement;
+            if (lastElement > 0) {
+                long idle = System.currentTimeMillis() - lastElement;
+                if (idle < future.getTimeout()) {
+                    TIME_OUT_TIMER.newTimeout(this, future.getTimeout() - idle, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                sendCredit(future.getChannel(), future.getId(), 0);
+            }
             // create exception response.
             Response timeoutResponse = new Response(future.getId());
             // set timeout status.
@@ -338,6 +391,139 @@ public class DefaultFuture implements ResponseFuture {
         }
     }
 
+    private void initStream() {
+        if (elements == null) {
+            elements = new ArrayDeque<>();
+            earlyElements = new HashMap<>();
+        }
+    }
+
+    /**
+     * @return the response ending the stream, once all the elements before it are received
+     */
+    private Response receivedStream(Response res) {
+        lock.lock();
+        try {
+            if (streamEnded) {
+                return null;
+            }
+            initStream();
+            lastElement = System.currentTimeMillis();
+            if (res.getStatus() == Response.STREAM_END) {
+                streamEnd = res;
+            } else if (res.getSequence() == receivedElements) {
+                elements.add(res.getResult());
+                receivedElements++;
+                while (earlyElements.containsKey(receivedElements)) {
+                    elements.add(earlyElements.remove(receivedElements));
+                    receivedElements++;
+                }
+                done.signalAll();
+            } else {
+                earlyElements.put(res.getSequence(), res.getResult());
+            }
+            if (streamEnd != null && streamEnd.getSequence() == receivedElements) {
+                Response end = streamEnd;
+                end.setStatus(Response.OK);
+                streamEnd = null;
+                streamEnded = true;
+                return end;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void sendCredit(Channel channel, long id, int credits) {
+        Request request = new Request();
+        request.setVersion(Version.getProtocolVersion());
+        request.setTwoWay(false);
+        request.setEvent(true);
+        request.setData(new StreamCredit(id, credits));
+        try {
+            channel.send(request);
+        } catch (RemotingException e) {
+            logger.warn("Failed to send " + request.getData() + " to " + channel.getRemoteAddress() + ", cause: " + e.getMessage(), e);
+        }
+    }
+
+    private class StreamIterator implements ResponseStreamIterator {
+
+        // the elements taken before the provider is given more credits.
+        private final int batch;
+
+        private int taken;
+
+        private boolean closed;
+
+        StreamIterator(int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            lock.lock();
+            try {
+                // the timeout check ends the stream when the next element takes too long
+                while (!closed && elements.isEmpty() && !isDone()) {
+                    done.await();
+                }
+                return !closed && !elements.isEmpty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Object next() {
+            Object element;
+            int credits = 0;
+            lock.lock();
+            try {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                element = elements.poll();
+                lastElement = System.currentTimeMillis();
+                if (++taken >= batch && !streamEnded) {
+                    credits = taken;
+                    taken = 0;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (credits > 0) {
+                sendCredit(channel, id, credits);
+            }
+            return element;
+        }
+
+        @Override
+        public void close() {
+            boolean cancel;
+            lock.lock();
+            try {
+                cancel = !closed && !streamEnded;
+                closed = true;
+                elements.clear();
+                earlyElements.clear();
+                done.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (cancel) {
+                sendCredit(channel, id, 0);
+                if (!isDone()) {
+                    cancel();
+                }
+            }
+        }
+    }
+
     private String getTimeoutMessage(boolean scan) {
         long nowTimestamp = System.currentTimeMillis();
         return (sent > 0 ? "Waiting server-side response timeout" : "Sending request timeout in client-side")
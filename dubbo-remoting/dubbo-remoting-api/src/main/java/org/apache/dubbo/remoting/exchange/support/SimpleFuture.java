@@ -19,6 +19,9 @@ package org.apache.dubbo.remoting.exchange.support;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.ResponseStreamIterator;
+
+import java.util.NoSuchElementException;
 
 /**
  * SimpleFuture
@@ -51,4 +54,26 @@ public class SimpleFuture implements ResponseFuture {
         return true;
     }
 
+    /**
+     * The value is the response ending the stream, so there are no elements before it.
+     */
+    @Override
+    public ResponseStreamIterator stream(int window) {
+        return new ResponseStreamIterator() {
+            @Override
+            public boolean hasNext() {
+                return false;
+            }
+
+            @Override
+            public Object next() {
+                throw new NoSuchElementException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
 }
@@ -30,6 +30,8 @@ import org.apache.dubbo.remoting.exchange.ExchangeChannel;
 import org.apache.dubbo.remoting.exchange.ExchangeHandler;
 import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.ResponseStream;
+import org.apache.dubbo.remoting.exchange.StreamCredit;
 import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
 import org.apache.dubbo.remoting.transport.ChannelHandlerDelegate;
 
@@ -74,11 +76,24 @@ public class HeaderExchangeHandler implements ChannelHandlerDelegate {
     void handlerEvent(Channel channel, Request req) throws RemotingException {
         if (req.getData() != null && req.getData().equals(Request.READONLY_EVENT)) {
             channel.setAttribute(Constants.CHANNEL_ATTRIBUTE_READONLY_KEY, Boolean.TRUE);
+        } else if (req.getData() instanceof StreamCredit) {
+            ResponseStreamSender.credit(channel, (StreamCredit) req.getData());
+        }
+    }
+
+    private static void reply(ExchangeChannel channel, Response res, Object result) throws RemotingException {
+        if (result instanceof ResponseStream) {
+            ResponseStreamSender.send(channel, res, (ResponseStream) result);
+        } else {
+            res.setStatus(Response.OK);
+            res.setResult(result);
+            channel.send(res);
         }
     }
 
     void handleRequest(final ExchangeChannel channel, Request req) throws RemotingException {
         Response res = new Response(req.getId(), req.getVersion());
+        res.setCompressThreshold(req.getResponseCompressThreshold());
         if (req.isBroken()) {
             Object data = req.getData();
 
@@ -102,21 +117,18 @@ public class HeaderExchangeHandler implements ChannelHandlerDelegate {
             // handle data.
             CompletableFuture<Object> future = handler.reply(channel, msg);
             if (future.isDone()) {
-                res.setStatus(Response.OK);
-                res.setResult(future.get());
-                channel.send(res);
+                reply(channel, res, future.get());
                 return;
             }
             future.whenComplete((result, t) -> {
                 try {
                     if (t == null) {
-                        res.setStatus(Response.OK);
-                        res.setResult(result);
+                        reply(channel, res, result);
                     } else {
                         res.setStatus(Response.SERVICE_ERROR);
                         res.setErrorMessage(StringUtils.toString(t));
+                        channel.send(res);
                     }
-                    channel.send(res);
                 } catch (RemotingException e) {
                     logger.warn("Send result to consumer failed, channel is " + channel + ", msg is " + e);
                 } finally {
@@ -151,6 +163,7 @@ public class HeaderExchangeHandler implements ChannelHandlerDelegate {
             handler.disconnected(exchangeChannel);
         } finally {
             DefaultFuture.closeChannel(channel);
+            ResponseStreamSender.cancel(channel);
             HeaderExchangeChannel.removeChannelIfDisconnected(channel);
         }
     }
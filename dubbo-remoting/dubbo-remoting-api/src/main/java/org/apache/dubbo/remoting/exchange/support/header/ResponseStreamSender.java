@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support.header;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.ResponseStream;
+import org.apache.dubbo.remoting.exchange.StreamCredit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the elements of a {@link ResponseStream} as the requester gives credits for them, each one in a response of
+ * its own, then the response that ends the stream. The thread which gives the credits sends, one at a time.
+ */
+final class ResponseStreamSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseStreamSender.class);
+
+    private static final String STREAMS_KEY = "exchange.response.streams";
+
+    private final Channel channel;
+
+    private final Response response;
+
+    private final ResponseStream stream;
+
+    private final AtomicLong credits;
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean cancelled;
+
+    // only used by the sending thread
+    private int sent;
+
+    private boolean ended;
+
+    private ResponseStreamSender(Channel channel, Response response, ResponseStream stream) {
+        this.channel = channel;
+        this.response = response;
+        this.stream = stream;
+        this.credits = new AtomicLong(Math.max(1, stream.getWindow()));
+    }
+
+    /**
+     * Start sending the stream answering the request of the response.
+     */
+    static void send(Channel channel, Response response, ResponseStream stream) {
+        ResponseStreamSender sender = new ResponseStreamSender(channel, response, stream);
+        getStreams(channel, true).put(response.getId(), sender);
+        sender.drain();
+    }
+
+    static void credit(Channel channel, StreamCredit credit) {
+        Map<Long, ResponseStreamSender> streams = getStreams(channel, false);
+        ResponseStreamSender sender = streams == null ? null : streams.get(credit.getId());
+        if (sender == null) {
+            // ended already
+            return;
+        }
+        if (credit.isCancel()) {
+            sender.cancelled = true;
+        } else {
+            sender.credits.addAndGet(credit.getCredits());
+        }
+        sender.drain();
+    }
+
+    /**
+     * Cancel the streams of a channel which is disconnected.
+     */
+    static void cancel(Channel channel) {
+        Map<Long, ResponseStreamSender> streams = getStreams(channel, false);
+        if (streams != null) {
+            for (ResponseStreamSender sender : streams.values()) {
+                sender.cancelled = true;
+                sender.drain();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, ResponseStreamSender> getStreams(Channel channel, boolean create) {
+        Map<Long, ResponseStreamSender> streams = (Map<Long, ResponseStreamSender>) channel.getAttribute(STREAMS_KEY);
+        if (streams == null && create) {
+            synchronized (ResponseStreamSender.class) {
+                streams = (Map<Long, ResponseStreamSender>) channel.getAttribute(STREAMS_KEY);
+                if (streams == null) {
+                    streams = new ConcurrentHashMap<>();
+                    channel.setAttribute(STREAMS_KEY, streams);
+                }
+            }
+        }
+        return streams;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (!ended) {
+                sendElements();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void sendElements() {
+        try {
+            while (!cancelled) {
+                // the stream may produce lazily or block, only pull it when an element can be sent
+                if (credits.get() <= 0) {
+                    return;
+                }
+                if (!stream.hasNext()) {
+                    end(null);
+                    return;
+                }
+                Response res = newResponse(Response.STREAM);
+                res.setSequence(sent++);
+                res.setResult(stream.next());
+                credits.decrementAndGet();
+                channel.send(res);
+            }
+            ended = true;
+            getStreams(channel, true).remove(response.getId());
+            close();
+        } catch (Throwable t) {
+            end(t);
+        }
+    }
+
+    private void end(Throwable cause) {
+        ended = true;
+        getStreams(channel, true).remove(response.getId());
+        try {
+            Response res = newResponse(Response.STREAM_END);
+            res.setSequence(sent);
+            res.setResult(stream.end(cause));
+            channel.send(res);
+        } catch (Throwable t) {
+            logger.warn("Failed to end the stream of response " + response.getId() + " to " + channel.getRemoteAddress()
+                    + (cause == null ? "" : ", which failed with " + cause) + ", cause: " + t.getMessage(), t);
+        } finally {
+            close();
+        }
+    }
+
+    private void close() {
+        try {
+            stream.close();
+        } catch (Throwable t) {
+            logger.warn("Failed to close the stream of response " + response.getId() + ", cause: " + t.getMessage(), t);
+        }
+    }
+
+    private Response newResponse(byte status) {
+        Response res = new Response(response.getId());
+        // the version tells the codec what the requester accepts, such as attachments, only needed by the end
+        if (status == Response.STREAM_END) {
+            res.setVersion(response.getVersion());
+        }
+        res.setStatus(status);
+        res.setCompressThreshold(response.getCompressThreshold());
+        return res;
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.dubbo.remoting.codec;
 
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.io.Bytes;
@@ -39,6 +40,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -461,4 +463,68 @@ public class ExchangeCodecTest extends TelnetCodecTest {
         Assertions.assertEquals(Response.BAD_RESPONSE, receiveMessage.getStatus());
         Assertions.assertTrue(receiveMessage.getErrorMessage().contains("Data length too large: "));
     }
+
+    @Test
+    public void testCompressRequestAndResponse() throws Exception {
+        ExchangeCodec exchangeCodec = new ExchangeCodec();
+        URL compressUrl = url.addParameter(Constants.COMPRESSOR_KEY, "lz4").addParameter(Constants.COMPRESS_THRESHOLD_KEY, 100);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append("compressible data ").append(i % 10).append(',');
+        }
+        String data = builder.toString();
+
+        Request request = new Request(1L);
+        request.setData(data);
+        ChannelBuffer encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+        exchangeCodec.encode(getCliendSideChannel(compressUrl), encodeBuffer, request);
+        byte[] bytes = new byte[encodeBuffer.writerIndex()];
+        encodeBuffer.getBytes(0, bytes);
+        Assertions.assertEquals((byte) 0x80, (byte) (bytes[3] & 0x80));
+        Assertions.assertTrue(bytes.length < data.length() / 2);
+
+        Request decodedRequest = (Request) exchangeCodec.decode(getServerSideChannel(compressUrl), encodeBuffer);
+        Assertions.assertEquals(data, decodedRequest.getData());
+        // 100 is rounded up to a power of two
+        Assertions.assertEquals(128, decodedRequest.getResponseCompressThreshold());
+
+        Response response = new Response(1L);
+        response.setCompressThreshold(decodedRequest.getResponseCompressThreshold());
+        response.setResult(data);
+        encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+        exchangeCodec.encode(getServerSideChannel(compressUrl), encodeBuffer, response);
+        Assertions.assertEquals((byte) (Response.OK | 0x80), encodeBuffer.getByte(3));
+        Response decodedResponse = (Response) exchangeCodec.decode(getCliendSideChannel(compressUrl), encodeBuffer);
+        Assertions.assertEquals(Response.OK, decodedResponse.getStatus());
+        Assertions.assertEquals(data, decodedResponse.getResult());
+    }
+
+    @Test
+    public void testNotCompress() throws Exception {
+        ExchangeCodec exchangeCodec = new ExchangeCodec();
+        URL compressUrl = url.addParameter(Constants.COMPRESSOR_KEY, "lz4").addParameter(Constants.COMPRESS_THRESHOLD_KEY, 1024);
+        Request request = new Request(1L);
+        request.setData("below the threshold");
+        ChannelBuffer encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+        exchangeCodec.encode(getCliendSideChannel(compressUrl), encodeBuffer, request);
+        Assertions.assertEquals(0, encodeBuffer.getByte(3) & 0x80);
+        Request decodedRequest = (Request) exchangeCodec.decode(getServerSideChannel(compressUrl), encodeBuffer);
+        Assertions.assertEquals("below the threshold", decodedRequest.getData());
+        Assertions.assertEquals(1024, decodedRequest.getResponseCompressThreshold());
+
+        // without a compressor on the url, the requester does not accept compressed responses
+        encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+        exchangeCodec.encode(getCliendSideChannel(url), encodeBuffer, request);
+        Assertions.assertEquals(0, encodeBuffer.getByte(3));
+        decodedRequest = (Request) exchangeCodec.decode(getServerSideChannel(url), encodeBuffer);
+        Assertions.assertEquals(-1, decodedRequest.getResponseCompressThreshold());
+
+        char[] chars = new char[4096];
+        Arrays.fill(chars, 'a');
+        Response response = new Response(1L);
+        response.setResult(new String(chars));
+        encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+        exchangeCodec.encode(getServerSideChannel(compressUrl), encodeBuffer, response);
+        Assertions.assertEquals(Response.OK, encodeBuffer.getByte(3));
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.compress;
+
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.Bytes;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompressorTest {
+
+    private static final String[] NAMES = {Lz4Compressor.NAME, SnappyCompressor.NAME, DeflateCompressor.NAME};
+
+    /**
+     * {@link #records()} compressed by LZ4_compress_default of the reference liblz4 1.9.4
+     */
+    private static final String LZ4_RECORDS =
+            "f21d7b226964223a302c226e616d65223a2270726f76696465722d30222c22656e61626c6564223a747275657d2c2c00"
+            + "1e312c001f312c00051e322c001f322c00051e332c000f8400061e342c000f8400061e352c000f8400061e362c000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f8400060f3401000f84"
+            + "00060f3401000f8400060f3401000f8400060f3401000a8400507275657d2c";
+
+    private static byte[] text(int length) {
+        StringBuilder builder = new StringBuilder();
+        Random random = new Random(0);
+        while (builder.length() < length) {
+            builder.append("{\"id\":").append(random.nextInt(1000)).append(",\"name\":\"provider-")
+                    .append(random.nextInt(10)).append("\",\"enabled\":true},");
+        }
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), length);
+    }
+
+    private static byte[] records() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            builder.append("{\"id\":").append(i % 7).append(",\"name\":\"provider-").append(i % 3).append("\",\"enabled\":true},");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static Compressor getCompressor(String name) {
+        return ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+    }
+
+    private static byte[] roundTrip(Compressor compressor, byte[] data) throws IOException {
+        // offsets on both sides, as when compressing the body of a message in a buffer
+        byte[] src = new byte[data.length + 7];
+        System.arraycopy(data, 0, src, 7, data.length);
+        byte[] dst = new byte[compressor.maxCompressedLength(data.length) + 3];
+        int length = compressor.compress(src, 7, data.length, dst, 3);
+        Assertions.assertTrue(length <= compressor.maxCompressedLength(data.length));
+
+        byte[] result = new byte[data.length + 2];
+        compressor.decompress(dst, 3, length, result, 2, data.length);
+        Assertions.assertArrayEquals(data, Arrays.copyOfRange(result, 2, result.length));
+        return Arrays.copyOfRange(dst, 3, 3 + length);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (String name : NAMES) {
+            Compressor compressor = getCompressor(name);
+            for (int length : new int[]{0, 1, 12, 13, 100, 4096, 70000, 300000}) {
+                roundTrip(compressor, text(length));
+                roundTrip(compressor, random(length));
+                roundTrip(compressor, new byte[length]);
+            }
+        }
+    }
+
+    @Test
+    public void testRatio() throws Exception {
+        byte[] data = text(64 * 1024);
+        for (String name : NAMES) {
+            byte[] compressed = roundTrip(getCompressor(name), data);
+            Assertions.assertTrue(compressed.length < data.length / 3, name + " compressed to " + compressed.length);
+        }
+    }
+
+    @Test
+    public void testMalformed() throws Exception {
+        byte[] data = text(8192);
+        for (String name : NAMES) {
+            Compressor compressor = getCompressor(name);
+            byte[] compressed = roundTrip(compressor, data);
+            byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+            Assertions.assertThrows(IOException.class,
+                    () -> compressor.decompress(truncated, 0, truncated.length, new byte[data.length], 0, data.length));
+            Assertions.assertThrows(IOException.class,
+                    () -> compressor.decompress(compressed, 0, compressed.length, new byte[data.length * 2], 0, data.length * 2));
+        }
+    }
+
+    @Test
+    public void testLz4Reference() throws Exception {
+        byte[] data = records();
+        byte[] compressed = Bytes.hex2bytes(LZ4_RECORDS);
+        byte[] result = new byte[data.length];
+        new Lz4Compressor().decompress(compressed, 0, compressed.length, result, 0, data.length);
+        Assertions.assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void testSnappyInterop() throws Exception {
+        Assertions.assertTrue(SnappyCompressor.isNative());
+        SnappyCompressor compressor = new SnappyCompressor();
+        for (byte[] data : new byte[][]{records(), text(70000), random(4096), new byte[0]}) {
+            // pure Java to snappy-java
+            byte[] compressed = new byte[compressor.maxCompressedLength(data.length)];
+            int length = compressor.compressJava(data, 0, data.length, compressed, 0);
+            byte[] result = new byte[Snappy.uncompressedLength(compressed, 0, length)];
+            Snappy.rawUncompress(compressed, 0, length, result, 0);
+            Assertions.assertArrayEquals(data, result);
+
+            // snappy-java to pure Java
+            length = Snappy.rawCompress(data, 0, data.length, compressed, 0);
+            result = new byte[data.length];
+            compressor.decompressJava(compressed, 0, length, result, 0, data.length);
+            Assertions.assertArrayEquals(data, result);
+        }
+    }
+
+    @Test
+    public void testCompressBuffer() throws Exception {
+        byte[] data = text(10000);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(256);
+        buffer.writeBytes(new byte[16]);
+        buffer.writeBytes(data);
+
+        CompressionStatistics statistics = CompressorSupport.getStatistics(SnappyCompressor.NAME);
+        long compressed = statistics.getCompressed();
+        long decompressed = statistics.getDecompressed();
+        int length = CompressorSupport.compress(getCompressor(SnappyCompressor.NAME), buffer, 16, data.length);
+        Assertions.assertTrue(length < data.length);
+        Assertions.assertEquals(compressed + 1, statistics.getCompressed());
+        Assertions.assertTrue(statistics.getCompressionRatio() < 1);
+
+        buffer.readerIndex(16);
+        byte[] body = CompressorSupport.decompress(buffer, length, 0);
+        Assertions.assertArrayEquals(data, body);
+        Assertions.assertEquals(16 + length, buffer.readerIndex());
+        Assertions.assertEquals(decompressed + 1, statistics.getDecompressed());
+
+        // incompressible bodies are kept as they are
+        byte[] noise = random(1000);
+        buffer.clear();
+        buffer.writeBytes(noise);
+        Assertions.assertEquals(noise.length, CompressorSupport.compress(getCompressor(Lz4Compressor.NAME), buffer, 0, noise.length));
+        byte[] kept = new byte[noise.length];
+        buffer.getBytes(0, kept);
+        Assertions.assertArrayEquals(noise, kept);
+    }
+
+    @Test
+    public void testPayload() throws Exception {
+        byte[] data = text(10000);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(256);
+        buffer.writeBytes(data);
+        int length = CompressorSupport.compress(getCompressor(Lz4Compressor.NAME), buffer, 0, data.length);
+        Assertions.assertThrows(IOException.class, () -> CompressorSupport.decompress(buffer, length, 8192));
+    }
+}
@@ -20,6 +20,9 @@ package org.apache.dubbo.remoting.exchange.support;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.TimeoutException;
 import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.ResponseStreamIterator;
+import org.apache.dubbo.remoting.exchange.StreamCredit;
 import org.apache.dubbo.remoting.handler.MockedChannel;
 
 import org.junit.jupiter.api.Assertions;
@@ -27,6 +30,10 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class DefaultFutureTest {
@@ -113,6 +120,104 @@ public class DefaultFutureTest {
         }
     }
 
+    @Test
+    public void streamInOrder() throws Exception {
+        List<Object> sent = new ArrayList<>();
+        Channel channel = new MockedChannel() {
+            @Override
+            public void send(Object message) {
+                sent.add(((Request) message).getData());
+            }
+        };
+        Request request = new Request(index.getAndIncrement());
+        DefaultFuture f = DefaultFuture.newFuture(channel, request, 3000);
+        ResponseStreamIterator elements = f.stream(4);
+
+        // handled out of order by the dispatcher threads
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 1, "b"));
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 0, "a"));
+        Assertions.assertEquals("a", elements.next());
+        Assertions.assertEquals("b", elements.next());
+        // credits for the elements taken
+        Assertions.assertEquals(1, sent.size());
+        StreamCredit credit = (StreamCredit) sent.get(0);
+        Assertions.assertEquals(request.getId(), credit.getId());
+        Assertions.assertEquals(2, credit.getCredits());
+
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM_END, 4, "end"));
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 3, "d"));
+        Assertions.assertFalse(f.isDone());
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 2, "c"));
+        Assertions.assertTrue(f.isDone());
+
+        List<Object> taken = new ArrayList<>();
+        while (elements.hasNext()) {
+            taken.add(elements.next());
+        }
+        Assertions.assertEquals(Arrays.asList("c", "d"), taken);
+        Assertions.assertEquals("end", f.get());
+        // no more credits once the stream ended
+        elements.close();
+        Assertions.assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void streamCancel() throws Exception {
+        List<Object> sent = new ArrayList<>();
+        Channel channel = new MockedChannel() {
+            @Override
+            public void send(Object message) {
+                sent.add(((Request) message).getData());
+            }
+        };
+        Request request = new Request(index.getAndIncrement());
+        DefaultFuture f = DefaultFuture.newFuture(channel, request, 3000);
+        ResponseStreamIterator elements = f.stream(4);
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 0, "a"));
+        Assertions.assertEquals("a", elements.next());
+
+        elements.close();
+        Assertions.assertTrue(((StreamCredit) sent.get(0)).isCancel());
+        Assertions.assertTrue(f.isDone());
+        Assertions.assertFalse(elements.hasNext());
+
+        // elements still on their way are answered with another cancel
+        DefaultFuture.received(channel, streamResponse(request.getId(), Response.STREAM, 1, "b"));
+        Assertions.assertEquals(2, sent.size());
+        Assertions.assertTrue(((StreamCredit) sent.get(1)).isCancel());
+    }
+
+    @Test
+    public void streamInterrupted() {
+        Request request = new Request(index.getAndIncrement());
+        DefaultFuture f = DefaultFuture.newFuture(new MockedChannel(), request, 3000);
+        ResponseStreamIterator elements = f.stream(4);
+        Thread.currentThread().interrupt();
+        try {
+            Assertions.assertThrows(RuntimeException.class, elements::hasNext);
+            // the interrupt stays visible to the caller
+            Assertions.assertTrue(Thread.interrupted());
+        } finally {
+            elements.close();
+        }
+    }
+
+    @Test
+    public void streamOfSimpleFuture() {
+        ResponseStreamIterator elements = new SimpleFuture("end").stream(4);
+        Assertions.assertFalse(elements.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, elements::next);
+        elements.close();
+    }
+
+    private static Response streamResponse(long id, byte status, int sequence, Object result) {
+        Response response = new Response(id);
+        response.setStatus(status);
+        response.setSequence(sequence);
+        response.setResult(result);
+        return response;
+    }
+
     /**
      * mock a default future
      */
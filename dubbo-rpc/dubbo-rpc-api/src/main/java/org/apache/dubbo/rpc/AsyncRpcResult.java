@@ -19,6 +19,8 @@ package org.apache.dubbo.rpc;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -69,6 +71,12 @@ public class AsyncRpcResult extends AbstractResult {
 
     protected CompletableFuture<Result> resultFuture;
 
+    /**
+     * The stage {@link #thenApplyWithSharedContext(Function)} adds its functions to, null once the result future is
+     * exposed or another stage is attached to it, so that the functions added after that go to a stage of their own
+     */
+    private volatile SharedStage sharedStage;
+
     public AsyncRpcResult(CompletableFuture<Object> future) {
         this(future, true);
     }
@@ -139,10 +147,13 @@ public class AsyncRpcResult extends AbstractResult {
     }
 
     public CompletableFuture<Result> getResultFuture() {
+        // the caller may attach a stage, which the functions added later must run after
+        sharedStage = null;
         return resultFuture;
     }
 
     public void setResultFuture(CompletableFuture<Result> resultFuture) {
+        sharedStage = null;
         this.resultFuture = resultFuture;
     }
 
@@ -164,9 +175,82 @@ public class AsyncRpcResult extends AbstractResult {
     }
 
     public void thenApplyWithContext(Function<Result, Result> fn) {
+        sharedStage = null;
         this.resultFuture = resultFuture.thenApply(fn.compose(beforeContext).andThen(afterContext));
     }
 
+    /**
+     * Same as {@link #thenApplyWithContext(Function)}, except that the functions added this way one after another share
+     * one stage, which restores the context once and applies them in the order they are added. A function added after
+     * that stage is done, or after the result future is exposed or another stage is attached to it, starts a new stage,
+     * so that the functions and the stages run in the order they are added either way.
+     */
+    public void thenApplyWithSharedContext(Function<Result, Result> fn) {
+        SharedStage stage = sharedStage;
+        if (stage != null && stage.add(fn)) {
+            return;
+        }
+        stage = new SharedStage(fn);
+        this.resultFuture = resultFuture.thenApply(stage::apply);
+        sharedStage = stage;
+    }
+
+    /**
+     * The functions applied in one stage, guarded by itself
+     */
+    private class SharedStage {
+
+        private final List<Function<Result, Result>> functions = new ArrayList<>(4);
+
+        private boolean applied;
+
+        SharedStage(Function<Result, Result> fn) {
+            functions.add(fn);
+        }
+
+        /**
+         * @return false if the stage is done already
+         */
+        synchronized boolean add(Function<Result, Result> fn) {
+            if (applied) {
+                return false;
+            }
+            functions.add(fn);
+            return true;
+        }
+
+        Result apply(Result result) {
+            RpcContext tmpContext = RpcContext.getContext();
+            RpcContext tmpServerContext = RpcContext.getServerContext();
+            RpcContext.restoreContext(storedContext);
+            RpcContext.restoreServerContext(storedServerContext);
+            try {
+                // functions may still be added while the others are applied, so check for more under the lock each time
+                for (int i = 0; ; i++) {
+                    Function<Result, Result> fn;
+                    synchronized (this) {
+                        if (i == functions.size()) {
+                            applied = true;
+                            return result;
+                        }
+                        fn = functions.get(i);
+                    }
+                    try {
+                        result = fn.apply(result);
+                    } catch (RuntimeException | Error e) {
+                        synchronized (this) {
+                            applied = true;
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                RpcContext.restoreContext(tmpContext);
+                RpcContext.restoreServerContext(tmpServerContext);
+            }
+        }
+    }
+
     @Override
     public Map<String, String> getAttachments() {
         return getRpcResult().getAttachments();
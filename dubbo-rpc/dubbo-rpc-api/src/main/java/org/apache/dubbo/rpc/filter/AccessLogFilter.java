@@ -17,33 +17,27 @@
 package org.apache.dubbo.rpc.filter;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
-import org.apache.dubbo.common.utils.ConcurrentHashSet;
 import org.apache.dubbo.common.utils.ConfigUtils;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.rpc.Filter;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
-import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.support.AccessLogData;
+import org.apache.dubbo.rpc.support.AccessLogWriter;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Record access log for the service.
@@ -64,27 +58,28 @@ public class AccessLogFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(AccessLogFilter.class);
 
-    private static final String ACCESS_LOG_KEY = "dubbo.accesslog";
-
-    private static final int LOG_MAX_BUFFER = 5000;
-
     private static final long LOG_OUTPUT_INTERVAL = 5000;
 
-    private static final String FILE_DATE_FORMAT = "yyyyMMdd";
-
-    // It's safe to declare it as singleton since it runs on single thread only
-    private static final DateFormat FILE_NAME_FORMATTER = new SimpleDateFormat(FILE_DATE_FORMAT);
-
-    private static final Map<String, Set<AccessLogData>> LOG_ENTRIES = new ConcurrentHashMap<String, Set<AccessLogData>>();
+    private static final Map<String, AccessLogWriter> LOG_WRITERS = new ConcurrentHashMap<String, AccessLogWriter>();
 
     private static final ScheduledExecutorService LOG_SCHEDULED = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Dubbo-Access-Log", true));
 
+    private static final AtomicBoolean LOG_WAKEUP = new AtomicBoolean();
+
     /**
      * Default constructor initialize demon thread for writing into access log file with names with access log key
      * defined in url <b>accesslog</b>
      */
     public AccessLogFilter() {
-        LOG_SCHEDULED.scheduleWithFixedDelay(this::writeLogToFile, LOG_OUTPUT_INTERVAL, LOG_OUTPUT_INTERVAL, TimeUnit.MILLISECONDS);
+        LOG_SCHEDULED.scheduleWithFixedDelay(AccessLogFilter::writeLogToFile, LOG_OUTPUT_INTERVAL, LOG_OUTPUT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the writers of the access logs by the <b>accesslog</b> values, with their buffer capacities and
+     * dropped entry counts
+     */
+    public static Map<String, AccessLogWriter> getLogWriters() {
+        return LOG_WRITERS;
     }
 
     /**
@@ -101,7 +96,7 @@ public class AccessLogFilter implements Filter {
             String accessLogKey = invoker.getUrl().getParameter(Constants.ACCESS_LOG_KEY);
             if (ConfigUtils.isNotEmpty(accessLogKey)) {
                 AccessLogData logData = buildAccessLogData(invoker, inv);
-                log(accessLogKey, logData);
+                log(invoker.getUrl(), accessLogKey, logData);
             }
         } catch (Throwable t) {
             logger.warn("Exception in AccessLogFilter of service(" + invoker + " -> " + inv + ")", t);
@@ -109,56 +104,37 @@ public class AccessLogFilter implements Filter {
         return invoker.invoke(inv);
     }
 
-    private void log(String accessLog, AccessLogData accessLogData) {
-        Set<AccessLogData> logSet = LOG_ENTRIES.computeIfAbsent(accessLog, k -> new ConcurrentHashSet<>());
-
-        if (logSet.size() < LOG_MAX_BUFFER) {
-            logSet.add(accessLogData);
-        } else {
-            //TODO we needs use force writing to file so that buffer gets clear and new log can be written.
-            logger.warn("AccessLog buffer is full skipping buffer ");
-        }
+    private void log(URL url, String accessLog, AccessLogData accessLogData) {
+        AccessLogWriter writer = LOG_WRITERS.computeIfAbsent(accessLog, k -> new AccessLogWriter(
+                ConfigUtils.isDefault(k) ? null : k,
+                url.getParameter(Constants.ACCESS_LOG_BUFFER_KEY, Constants.DEFAULT_ACCESS_LOG_BUFFER),
+                url.getParameter(Constants.ACCESS_LOG_POLICY_KEY, AccessLogWriter.POLICY_DROP),
+                TimeUnit.MILLISECONDS.toNanos(LOG_OUTPUT_INTERVAL),
+                AccessLogFilter::wakeup));
+        writer.offer(accessLogData);
     }
 
-    private void writeLogToFile() {
-        if (!LOG_ENTRIES.isEmpty()) {
-            for (Map.Entry<String, Set<AccessLogData>> entry : LOG_ENTRIES.entrySet()) {
-                try {
-                    String accessLog = entry.getKey();
-                    Set<AccessLogData> logSet = entry.getValue();
-                    if (ConfigUtils.isDefault(accessLog)) {
-                        processWithServiceLogger(logSet);
-                    } else {
-                        File file = new File(accessLog);
-                        createIfLogDirAbsent(file);
-                        if (logger.isDebugEnabled()) {
-                            logger.debug("Append log to " + accessLog);
-                        }
-                        renameFile(file);
-                        processWithAccessKeyLogger(logSet, file);
-                    }
-
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
-            }
+    private static void wakeup() {
+        if (LOG_WAKEUP.compareAndSet(false, true)) {
+            LOG_SCHEDULED.execute(AccessLogFilter::writeLogToFile);
         }
     }
 
-    private void processWithAccessKeyLogger(Set<AccessLogData> logSet, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file, true)) {
-            for (Iterator<AccessLogData> iterator = logSet.iterator();
-                 iterator.hasNext();
-                 iterator.remove()) {
-                writer.write(iterator.next().getLogMessage());
-                writer.write("\r\n");
+    private static void writeLogToFile() {
+        LOG_WAKEUP.set(false);
+        for (AccessLogWriter writer : LOG_WRITERS.values()) {
+            try {
+                int count = writer.drain();
+                if (count > 0 && logger.isDebugEnabled()) {
+                    logger.debug("Append " + count + " access log entries to " + (writer.getFile() == null ? "the loggers" : writer.getFile()));
+                }
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
             }
-            writer.flush();
         }
     }
 
     private AccessLogData buildAccessLogData(Invoker<?> invoker, Invocation inv) {
-        RpcContext context = RpcContext.getContext();
         AccessLogData logData = AccessLogData.newLogData();
         logData.setServiceName(invoker.getInterface().getName());
         logData.setMethodName(inv.getMethodName());
@@ -169,31 +145,4 @@ public class AccessLogFilter implements Filter {
         logData.setArguments(inv.getArguments());
         return logData;
     }
-
-    private void processWithServiceLogger(Set<AccessLogData> logSet) {
-        for (Iterator<AccessLogData> iterator = logSet.iterator();
-             iterator.hasNext();
-             iterator.remove()) {
-            AccessLogData logData = iterator.next();
-            LoggerFactory.getLogger(ACCESS_LOG_KEY + "." + logData.getServiceName()).info(logData.getLogMessage());
-        }
-    }
-
-    private void createIfLogDirAbsent(File file) {
-        File dir = file.getParentFile();
-        if (null != dir && !dir.exists()) {
-            dir.mkdirs();
-        }
-    }
-
-    private void renameFile(File file) {
-        if (file.exists()) {
-            String now = FILE_NAME_FORMATTER.format(new Date());
-            String last = FILE_NAME_FORMATTER.format(new Date(file.lastModified()));
-            if (!now.equals(last)) {
-                File archive = new File(file.getAbsolutePath() + "." + last);
-                file.renameTo(archive);
-            }
-        }
-    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+
+import java.util.List;
+
+/**
+ * An invoker that runs the filters in front of the given invoker, compiled once into arrays indexed by the position
+ * of the filter. The filters that don't override {@link Filter#onResponse(Result, Invoker, Invocation)} are not
+ * called back, and on an async result the others are called back in one stage of the result, in the same order
+ * as the nested invokers would.
+ */
+final class FilterChainInvoker<T> implements Invoker<T> {
+
+    private final Invoker<T> invoker;
+
+    private final Filter[] filters;
+
+    /**
+     * Whether the filter at the index overrides onResponse
+     */
+    private final boolean[] responding;
+
+    /**
+     * The invoker given to the filter at the index, which runs the filter after it, or the invoker for the last one
+     */
+    private final Invoker<?>[] nexts;
+
+    FilterChainInvoker(Invoker<T> invoker, List<Filter> filters) {
+        this.invoker = invoker;
+        this.filters = filters.toArray(new Filter[0]);
+        this.responding = new boolean[this.filters.length];
+        this.nexts = new Invoker<?>[this.filters.length];
+        for (int i = 0; i < this.filters.length; i++) {
+            responding[i] = isResponding(this.filters[i]);
+            nexts[i] = i == this.filters.length - 1 ? invoker : new Node(i + 1);
+        }
+    }
+
+    static boolean isResponding(Filter filter) {
+        try {
+            return filter.getClass().getMethod("onResponse", Result.class, Invoker.class, Invocation.class)
+                    .getDeclaringClass() != Filter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public Class<T> getInterface() {
+        return invoker.getInterface();
+    }
+
+    @Override
+    public URL getUrl() {
+        return invoker.getUrl();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return invoker.isAvailable();
+    }
+
+    @Override
+    public Result invoke(Invocation invocation) throws RpcException {
+        return invoke(0, invocation);
+    }
+
+    private Result invoke(int index, Invocation invocation) throws RpcException {
+        Filter filter = filters[index];
+        Result result = filter.invoke(nexts[index], invocation);
+        if (!responding[index]) {
+            return result;
+        }
+        if (result instanceof AsyncRpcResult) {
+            AsyncRpcResult asyncResult = (AsyncRpcResult) result;
+            asyncResult.thenApplyWithSharedContext(r -> filter.onResponse(r, invoker, invocation));
+            return asyncResult;
+        } else {
+            return filter.onResponse(result, invoker, invocation);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        invoker.destroy();
+    }
+
+    @Override
+    public String toString() {
+        return invoker.toString();
+    }
+
+    /**
+     * The part of the chain from a filter on, as seen by the filter before it
+     */
+    private class Node implements Invoker<T> {
+
+        private final int index;
+
+        Node(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Class<T> getInterface() {
+            return invoker.getInterface();
+        }
+
+        @Override
+        public URL getUrl() {
+            return invoker.getUrl();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return invoker.isAvailable();
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            return FilterChainInvoker.this.invoke(index, invocation);
+        }
+
+        @Override
+        public void destroy() {
+            invoker.destroy();
+        }
+
+        @Override
+        public String toString() {
+            return invoker.toString();
+        }
+    }
+}
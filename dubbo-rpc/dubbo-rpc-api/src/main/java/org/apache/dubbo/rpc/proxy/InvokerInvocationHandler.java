@@ -62,6 +62,8 @@ public class InvokerInvocationHandler implements InvocationHandler {
         if (RpcUtils.hasFutureReturnType(method)) {
             invocation.setAttachment(Constants.FUTURE_RETURNTYPE_KEY, "true");
             invocation.setAttachment(Constants.ASYNC_KEY, "true");
+        } else if (RpcUtils.hasStreamReturnType(method)) {
+            invocation.setAttachment(Constants.STREAM_KEY, "true");
         }
         return invocation;
     }
@@ -21,8 +21,8 @@ import org.apache.dubbo.rpc.RpcContext;
 
 import com.alibaba.fastjson.JSON;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -32,13 +32,12 @@ import java.util.Map;
  * AccessLogData is a container for log event data. In internally uses map and store each filed of log as value. It
  * does not generate any dynamic value e.g. time stamp, local jmv machine host address etc. It does not allow any null
  * or empty key.
- *
- * Note: since its date formatter is a singleton, make sure to run it in single thread only.
  */
 public final class AccessLogData {
 
     private static final String MESSAGE_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
-    private static final DateFormat MESSAGE_DATE_FORMATTER = new SimpleDateFormat(MESSAGE_DATE_FORMAT);
+    private static final DateTimeFormatter MESSAGE_DATE_FORMATTER = DateTimeFormatter.ofPattern(MESSAGE_DATE_FORMAT)
+            .withZone(ZoneId.systemDefault());
 
     private static final String VERSION = "version";
     private static final String GROUP = "group";
@@ -189,11 +188,20 @@ public final class AccessLogData {
 
 
     public String getLogMessage() {
-        StringBuilder sn = new StringBuilder();
+        StringBuilder sn = new StringBuilder(128);
+        appendLogMessage(sn);
+        return sn.toString();
+    }
 
-        sn.append("[")
-                .append(MESSAGE_DATE_FORMATTER.format(getInvocationTime()))
-                .append("] ")
+    /**
+     * Append the log message to the builder, so that a writer reuses one builder for all its entries.
+     *
+     * @param sn
+     */
+    public void appendLogMessage(StringBuilder sn) {
+        sn.append("[");
+        MESSAGE_DATE_FORMATTER.formatTo(getInvocationTime().toInstant(), sn);
+        sn.append("] ")
                 .append(get(REMOTE_HOST))
                 .append(":")
                 .append(get(REMOTE_PORT))
@@ -236,8 +244,6 @@ public final class AccessLogData {
         if (args != null && args.length > 0) {
             sn.append(JSON.toJSONString(args));
         }
-
-        return sn.toString();
     }
 
     private Date getInvocationTime() {
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffers the access log entries of one destination in a bounded ring and writes them in order.
+ * <p>
+ * Any thread offers entries without locking, a single writer drains them. When the ring is full, the entry is
+ * dropped, or with the block policy the caller waits for the writer up to the given time and then drops it.
+ * Dropped entries are counted and reported on the next drain. The entries of a file destination are encoded into
+ * a direct buffer and appended through a file channel, which is rotated to <code>file.yyyyMMdd</code> when the day
+ * changes; the entries of the default destination go to the <code>dubbo.accesslog.service</code> loggers.
+ */
+public class AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    public static final String POLICY_DROP = "drop";
+
+    public static final String POLICY_BLOCK = "block";
+
+    private static final String ACCESS_LOG_KEY = "dubbo.accesslog";
+
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final String file;
+
+    private final AccessLogData[] entries;
+
+    /**
+     * The sequence each slot expects next: equal to the offer sequence when free, one more when filled
+     */
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final long blockNanos;
+
+    private final Runnable wakeup;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private long head;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private long reportedDropped;
+
+    private FileChannel channel;
+
+    private LocalDate fileDate;
+
+    private ByteBuffer buffer;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param file       the file to append to, or null to write to the loggers
+     * @param capacity   the max number of buffered entries, rounded up to a power of two
+     * @param policy     {@link #POLICY_DROP} or {@link #POLICY_BLOCK}
+     * @param blockNanos how long the block policy waits for room
+     * @param wakeup     called each time half of the ring has been filled, to drain it early, may be null
+     */
+    public AccessLogWriter(String file, int capacity, String policy, long blockNanos, Runnable wakeup) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal access log buffer capacity " + capacity);
+        }
+        if (!POLICY_DROP.equals(policy) && !POLICY_BLOCK.equals(policy)) {
+            throw new IllegalArgumentException("Unsupported access log policy " + policy + ", only "
+                    + POLICY_DROP + " and " + POLICY_BLOCK + " are supported");
+        }
+        int size = capacity < 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.file = file;
+        this.entries = new AccessLogData[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.blockNanos = POLICY_BLOCK.equals(policy) ? blockNanos : 0;
+        this.wakeup = wakeup;
+    }
+
+    /**
+     * @return false if the entry is dropped because the buffer is full
+     */
+    public boolean offer(AccessLogData data) {
+        long deadline = 0;
+        while (true) {
+            long sequence = tail.get();
+            int index = (int) sequence & mask;
+            long expected = sequences.get(index);
+            if (expected == sequence) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    entries[index] = data;
+                    sequences.lazySet(index, sequence + 1);
+                    if (wakeup != null && (sequence & (mask >> 1)) == 0 && sequence != 0) {
+                        wakeup.run();
+                    }
+                    return true;
+                }
+            } else if (expected < sequence) {
+                // the slot of the previous round is not drained yet, the ring is full
+                if (blockNanos <= 0) {
+                    dropped.increment();
+                    return false;
+                }
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + blockNanos;
+                    if (wakeup != null) {
+                        wakeup.run();
+                    }
+                } else if (now - deadline >= 0) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * Write all the buffered entries in the order they were offered. Closes the file when there is nothing to write,
+     * so that an idle destination does not hold it open.
+     *
+     * @return the number of entries written
+     */
+    public synchronized int drain() throws IOException {
+        reportDropped();
+        if (sequences.get((int) head & mask) != head + 1) {
+            closeFile();
+            return 0;
+        }
+        if (file != null) {
+            openFile();
+        }
+        int count = 0;
+        try {
+            while (true) {
+                int index = (int) head & mask;
+                if (sequences.get(index) != head + 1) {
+                    break;
+                }
+                AccessLogData data = entries[index];
+                entries[index] = null;
+                sequences.lazySet(index, head + mask + 1);
+                head++;
+                if (file == null) {
+                    LoggerFactory.getLogger(ACCESS_LOG_KEY + "." + data.getServiceName()).info(data.getLogMessage());
+                } else {
+                    line.setLength(0);
+                    data.appendLogMessage(line);
+                    line.append("\r\n");
+                    encode();
+                }
+                count++;
+            }
+            if (file != null) {
+                flushBuffer();
+            }
+        } catch (IOException e) {
+            closeFile();
+            throw e;
+        } finally {
+            written.add(count);
+        }
+        return count;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    private void reportDropped() {
+        long total = dropped.sum();
+        if (total > reportedDropped) {
+            logger.warn("Access log buffer of " + (file == null ? "the loggers" : file) + " is full, dropped "
+                    + (total - reportedDropped) + " entries, " + total + " in total. Please increase accesslog.buffer"
+                    + " or use accesslog.policy=" + POLICY_BLOCK + " to slow the callers down instead.");
+            reportedDropped = total;
+        }
+    }
+
+    private void encode() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(buffer);
+            }
+            if (result.isUnderflow()) {
+                return;
+            }
+            if (result.isOverflow()) {
+                flushBuffer();
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void openFile() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel != null && today.equals(fileDate)) {
+            return;
+        }
+        closeFile();
+        File logFile = new File(file);
+        File dir = logFile.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        if (logFile.exists()) {
+            LocalDate last = Instant.ofEpochMilli(logFile.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate();
+            if (!today.equals(last)) {
+                File archive = new File(logFile.getAbsolutePath() + "." + FILE_NAME_FORMATTER.format(last));
+                if (!logFile.renameTo(archive)) {
+                    logger.warn("Failed to rotate access log " + file + " to " + archive);
+                }
+            }
+        }
+        channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileDate = today;
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        }
+        buffer.clear();
+    }
+
+    private void closeFile() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close access log " + file, e);
+            }
+            channel = null;
+        }
+    }
+}
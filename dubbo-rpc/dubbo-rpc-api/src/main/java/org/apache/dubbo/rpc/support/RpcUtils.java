@@ -29,10 +29,12 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * RpcUtils
@@ -191,6 +193,17 @@ public class RpcUtils {
         return CompletableFuture.class.isAssignableFrom(method.getReturnType());
     }
 
+    public static boolean isReturnTypeStream(Invocation inv) {
+        return inv.getAttachment(Constants.STREAM_KEY) != null;
+    }
+
+    /**
+     * @return true if the elements returned by the method may be sent one by one
+     */
+    public static boolean hasStreamReturnType(Method method) {
+        return method.getReturnType() == Iterator.class || method.getReturnType() == Stream.class;
+    }
+
     public static boolean isOneway(URL url, Invocation inv) {
         boolean isOneway;
         if (Boolean.FALSE.toString().equals(inv.getAttachment(Constants.RETURN_KEY))) {
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.support.DemoService;
+import org.apache.dubbo.rpc.support.MockInvocation;
+import org.apache.dubbo.rpc.support.MyInvoker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class FilterChainInvokerTest {
+
+    private final List<String> events = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        RpcContext.removeContext();
+    }
+
+    @Test
+    public void testSyncOrder() {
+        Invoker<DemoService> invoker = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test"));
+        FilterChainInvoker<DemoService> chain = new FilterChainInvoker<>(invoker,
+                Arrays.asList(new RespondingFilter("a"), new PassingFilter("b"), new RespondingFilter("c")));
+
+        Result result = chain.invoke(new MockInvocation());
+        Assertions.assertEquals("alibaba", result.getValue());
+        Assertions.assertEquals(Arrays.asList("invoke a", "invoke b", "invoke c", "respond c", "respond a"), events);
+        Assertions.assertEquals("c", result.getAttachment("c"));
+        Assertions.assertEquals(invoker.getUrl(), chain.getUrl());
+        Assertions.assertEquals(invoker.toString(), chain.toString());
+
+        Assertions.assertTrue(FilterChainInvoker.isResponding(new RespondingFilter("a")));
+        Assertions.assertFalse(FilterChainInvoker.isResponding(new PassingFilter("b")));
+    }
+
+    @Test
+    public void testAsyncOrder() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Invoker<DemoService> invoker = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test")) {
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                RpcContext.getContext().setAttachment("stored", "true");
+                AsyncRpcResult result = new AsyncRpcResult(future);
+                RpcContext.getContext().removeAttachment("stored");
+                return result;
+            }
+        };
+        FilterChainInvoker<DemoService> chain = new FilterChainInvoker<>(invoker,
+                Arrays.asList(new RespondingFilter("a"), new PassingFilter("b"), new RespondingFilter("c")));
+
+        AsyncRpcResult result = (AsyncRpcResult) chain.invoke(new MockInvocation());
+        Assertions.assertEquals(Arrays.asList("invoke a", "invoke b", "invoke c"), events);
+
+        future.complete("value");
+        Assertions.assertEquals("value", result.getResultFuture().get().getValue());
+        // called back with the context of the invocation, which is switched back after
+        Assertions.assertEquals(Arrays.asList("invoke a", "invoke b", "invoke c", "respond c true", "respond a true"), events);
+        Assertions.assertNull(RpcContext.getContext().getAttachment("stored"));
+
+        // added after the shared stage is done
+        result.thenApplyWithSharedContext(r -> {
+            events.add("late");
+            return r;
+        });
+        result.getResultFuture().get();
+        Assertions.assertEquals("late", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void testAsyncOrderWithOwnStages() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Invoker<DemoService> invoker = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test")) {
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                return new AsyncRpcResult(future);
+            }
+        };
+        Filter staging = new Filter() {
+            @Override
+            public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+                AsyncRpcResult result = (AsyncRpcResult) invoker.invoke(invocation);
+                result.thenApplyWithContext(r -> {
+                    events.add("stage b");
+                    return r;
+                });
+                return result;
+            }
+        };
+        FilterChainInvoker<DemoService> chain = new FilterChainInvoker<>(invoker,
+                Arrays.asList(new RespondingFilter("a"), staging, new RespondingFilter("c"), new RespondingFilter("d")));
+
+        AsyncRpcResult result = (AsyncRpcResult) chain.invoke(new MockInvocation());
+        future.complete("value");
+        Assertions.assertEquals("value", result.getResultFuture().get().getValue());
+        // the stage of b runs after the filters inside it, and before the filters outside it
+        Assertions.assertEquals(Arrays.asList("invoke a", "invoke c", "invoke d", "respond d", "respond c",
+                "stage b", "respond a"), events);
+    }
+
+    @Test
+    public void testShortCut() {
+        Invoker<DemoService> invoker = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test"));
+        Filter cache = new Filter() {
+            @Override
+            public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+                events.add("invoke cache");
+                return new RpcResult("cached");
+            }
+        };
+        FilterChainInvoker<DemoService> chain = new FilterChainInvoker<>(invoker,
+                Arrays.asList(new RespondingFilter("a"), cache, new RespondingFilter("c")));
+
+        Assertions.assertEquals("cached", chain.invoke(new MockInvocation()).getValue());
+        Assertions.assertEquals(Arrays.asList("invoke a", "invoke cache", "respond a"), events);
+    }
+
+    private class PassingFilter implements Filter {
+
+        private final String name;
+
+        PassingFilter(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+            events.add("invoke " + name);
+            return invoker.invoke(invocation);
+        }
+    }
+
+    private class RespondingFilter extends PassingFilter {
+
+        private final String name;
+
+        RespondingFilter(String name) {
+            super(name);
+            this.name = name;
+        }
+
+        @Override
+        public Result onResponse(Result result, Invoker<?> invoker, Invocation invocation) {
+            String stored = RpcContext.getContext().getAttachment("stored");
+            events.add("respond " + name + (stored == null ? "" : " " + stored));
+            result.setAttachment(name, name);
+            return result;
+        }
+    }
+}
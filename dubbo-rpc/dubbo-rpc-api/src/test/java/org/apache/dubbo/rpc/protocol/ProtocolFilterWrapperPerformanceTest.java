@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.support.DemoService;
+import org.apache.dubbo.rpc.support.MockInvocation;
+import org.apache.dubbo.rpc.support.MyInvoker;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compares the compiled filter chain with the invokers nested one per filter, which it replaces, on a chain of
+ * 12 filters of which a third override onResponse, with sync results and with async results completed after the
+ * chain returns.
+ * <p>
+ * mvn test -Dtest=ProtocolFilterWrapperPerformanceTest -Dbenchmark=true -Druns=1000000
+ */
+public class ProtocolFilterWrapperPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProtocolFilterWrapperPerformanceTest.class);
+
+    private static final int FILTERS = 12;
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the filter chain benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 1000000);
+        List<Filter> filters = new ArrayList<>(FILTERS);
+        for (int i = 0; i < FILTERS; i++) {
+            filters.add(i % 3 == 0 ? new RespondingFilter() : new PassingFilter());
+        }
+
+        Invoker<DemoService> sync = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test"));
+        long syncNested = measure(runs, buildNestedChain(sync, filters), false);
+        long syncCompiled = measure(runs, new FilterChainInvoker<>(sync, filters), false);
+
+        Invoker<DemoService> async = new MyInvoker<DemoService>(URL.valueOf("test://test:11/test")) {
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                return new AsyncRpcResult(new CompletableFuture<>());
+            }
+        };
+        long asyncNested = measure(runs, buildNestedChain(async, filters), true);
+        long asyncCompiled = measure(runs, new FilterChainInvoker<>(async, filters), true);
+
+        logger.info("Filter chain of " + FILTERS + " filters and " + runs + " runs, sync nested: " + syncNested / runs
+                + " ns/op, compiled: " + syncCompiled / runs + " ns/op; async nested: " + asyncNested / runs
+                + " ns/op, compiled: " + asyncCompiled / runs + " ns/op");
+    }
+
+    private static long measure(int runs, Invoker<DemoService> chain, boolean async) throws Exception {
+        Invocation invocation = new MockInvocation();
+        // warm up before measuring
+        for (int i = 0; i < runs / 10; i++) {
+            call(chain, invocation, async);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            call(chain, invocation, async);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void call(Invoker<DemoService> chain, Invocation invocation, boolean async) throws Exception {
+        Result result = chain.invoke(invocation);
+        if (async) {
+            AsyncRpcResult asyncResult = (AsyncRpcResult) result;
+            asyncResult.getValueFuture().complete("value");
+            result = asyncResult.getResultFuture().get();
+        }
+        Assertions.assertNotNull(result.getValue());
+    }
+
+    /**
+     * The chain as built before, one invoker per filter
+     */
+    private static <T> Invoker<T> buildNestedChain(final Invoker<T> invoker, List<Filter> filters) {
+        Invoker<T> last = invoker;
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            final Filter filter = filters.get(i);
+            final Invoker<T> next = last;
+            last = new InvokerWrapper<T>(invoker, invoker.getUrl()) {
+                @Override
+                public Result invoke(Invocation invocation) throws RpcException {
+                    Result result = filter.invoke(next, invocation);
+                    if (result instanceof AsyncRpcResult) {
+                        AsyncRpcResult asyncResult = (AsyncRpcResult) result;
+                        asyncResult.thenApplyWithContext(r -> filter.onResponse(r, invoker, invocation));
+                        return asyncResult;
+                    } else {
+                        return filter.onResponse(result, invoker, invocation);
+                    }
+                }
+            };
+        }
+        return last;
+    }
+
+    private static class PassingFilter implements Filter {
+
+        @Override
+        public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+            return invoker.invoke(invocation);
+        }
+    }
+
+    private static class RespondingFilter extends PassingFilter {
+
+        @Override
+        public Result onResponse(Result result, Invoker<?> invoker, Invocation invocation) {
+            if (result instanceof RpcResult) {
+                result.setAttachment("responded", "true");
+            }
+            return result;
+        }
+    }
+}
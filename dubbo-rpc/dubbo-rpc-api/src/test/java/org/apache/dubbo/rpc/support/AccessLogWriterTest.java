@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccessLogWriterTest {
+
+    private static AccessLogData newLogData(String methodName) {
+        AccessLogData data = AccessLogData.newLogData();
+        data.setServiceName("org.apache.dubbo.rpc.support.DemoService");
+        data.setMethodName(methodName);
+        data.setInvocationTime(new Date());
+        data.setTypes(new Class[]{String.class});
+        data.setArguments(new Object[]{"中文"});
+        return data;
+    }
+
+    @Test
+    public void testWriteInOrder(@TempDir Path dir) throws Exception {
+        File file = new File(dir.toFile(), "logs/access.log");
+        AccessLogWriter writer = new AccessLogWriter(file.getPath(), 1000, AccessLogWriter.POLICY_DROP, 0, null);
+        Assertions.assertEquals(1024, writer.getCapacity());
+        for (int i = 0; i < 3000; i++) {
+            Assertions.assertTrue(writer.offer(newLogData("sayHello" + i)));
+            if (i % 1000 == 999) {
+                Assertions.assertEquals(1000, writer.drain());
+            }
+        }
+        Assertions.assertEquals(0, writer.drain());
+        Assertions.assertEquals(3000, writer.getWritten());
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(3000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Assertions.assertTrue(lines.get(i).endsWith("DemoService sayHello" + i + "(java.lang.String) [\"中文\"]"), lines.get(i));
+        }
+    }
+
+    @Test
+    public void testDropWhenFull(@TempDir Path dir) throws Exception {
+        File file = new File(dir.toFile(), "access.log");
+        AtomicInteger wakeups = new AtomicInteger();
+        AccessLogWriter writer = new AccessLogWriter(file.getPath(), 8, AccessLogWriter.POLICY_DROP, 0, wakeups::incrementAndGet);
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(writer.offer(newLogData("sayHello")));
+        }
+        Assertions.assertEquals(1, wakeups.get());
+        Assertions.assertFalse(writer.offer(newLogData("sayHello")));
+        Assertions.assertFalse(writer.offer(newLogData("sayHello")));
+        Assertions.assertEquals(2, writer.getDropped());
+
+        Assertions.assertEquals(8, writer.drain());
+        Assertions.assertTrue(writer.offer(newLogData("sayHello")));
+        Assertions.assertEquals(1, writer.drain());
+        Assertions.assertEquals(2, writer.getDropped());
+    }
+
+    @Test
+    public void testBlockUntilDrained(@TempDir Path dir) throws Exception {
+        File file = new File(dir.toFile(), "access.log");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AccessLogWriter[] holder = new AccessLogWriter[1];
+            CountDownLatch drained = new CountDownLatch(1);
+            holder[0] = new AccessLogWriter(file.getPath(), 4, AccessLogWriter.POLICY_BLOCK, TimeUnit.SECONDS.toNanos(10), () -> executor.execute(() -> {
+                try {
+                    holder[0].drain();
+                    drained.countDown();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertTrue(holder[0].offer(newLogData("sayHello")));
+            }
+            Assertions.assertTrue(drained.await(10, TimeUnit.SECONDS));
+            executor.submit(() -> null).get();
+            holder[0].drain();
+            Assertions.assertEquals(0, holder[0].getDropped());
+            Assertions.assertEquals(20, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBlockTimeout(@TempDir Path dir) throws Exception {
+        AccessLogWriter writer = new AccessLogWriter(new File(dir.toFile(), "access.log").getPath(), 2,
+                AccessLogWriter.POLICY_BLOCK, TimeUnit.MILLISECONDS.toNanos(50), null);
+        Assertions.assertTrue(writer.offer(newLogData("sayHello")));
+        Assertions.assertTrue(writer.offer(newLogData("sayHello")));
+        long start = System.nanoTime();
+        Assertions.assertFalse(writer.offer(newLogData("sayHello")));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertEquals(1, writer.getDropped());
+    }
+
+    @Test
+    public void testRotate(@TempDir Path dir) throws Exception {
+        File file = new File(dir.toFile(), "access.log");
+        Files.write(file.toPath(), "old\r\n".getBytes(StandardCharsets.UTF_8));
+        LocalDate last = LocalDate.now().minusDays(2);
+        Assertions.assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+
+        AccessLogWriter writer = new AccessLogWriter(file.getPath(), 16, AccessLogWriter.POLICY_DROP, 0, null);
+        writer.offer(newLogData("sayHello"));
+        Assertions.assertEquals(1, writer.drain());
+
+        File archive = new File(file.getPath() + "." + DateTimeFormatter.ofPattern("yyyyMMdd").format(last));
+        Assertions.assertTrue(archive.exists());
+        Assertions.assertEquals("old", Files.readAllLines(archive.toPath(), StandardCharsets.UTF_8).get(0));
+        Assertions.assertEquals(1, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+}
@@ -53,6 +53,8 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
 
     private volatile boolean hasDecoded;
 
+    private boolean dictionary;
+
     public DecodeableRpcInvocation(Channel channel, Request request, InputStream is, byte id) {
         Assert.notNull(channel, "channel == null");
         Assert.notNull(request, "request == null");
@@ -63,6 +65,14 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
         this.serializationType = id;
     }
 
+    /**
+     * @param dictionary whether the request is encoded with the string dictionary of the channel
+     */
+    public DecodeableRpcInvocation(Channel channel, Request request, InputStream is, byte id, boolean dictionary) {
+        this(channel, request, is, id);
+        this.dictionary = dictionary;
+    }
+
     @Override
     public void decode() throws Exception {
         if (!hasDecoded && channel != null && inputStream != null) {
@@ -89,6 +99,9 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
     public Object decode(Channel channel, InputStream input) throws IOException {
         ObjectInput in = CodecSupport.getSerialization(channel.getUrl(), serializationType)
                 .deserialize(channel.getUrl(), input);
+        if (dictionary) {
+            return decodeWithDictionary(channel, in);
+        }
 
         String dubboVersion = in.readUTF();
         request.setVersion(dubboVersion);
@@ -107,16 +120,7 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
                 args = DubboCodec.EMPTY_OBJECT_ARRAY;
             } else {
                 pts = ReflectUtils.desc2classArray(desc);
-                args = new Object[pts.length];
-                for (int i = 0; i < args.length; i++) {
-                    try {
-                        args[i] = in.readObject(pts[i]);
-                    } catch (Exception e) {
-                        if (log.isWarnEnabled()) {
-                            log.warn("Decode argument failed: " + e.getMessage(), e);
-                        }
-                    }
-                }
+                args = readArguments(in, pts);
             }
             setParameterTypes(pts);
 
@@ -146,4 +150,53 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
         return this;
     }
 
+    private Object decodeWithDictionary(Channel channel, ObjectInput in) throws IOException {
+        StringDictionary.Decoder dictionary = StringDictionary.getDecoder(channel);
+        try {
+            String dubboVersion = dictionary.read(in);
+            request.setVersion(dubboVersion);
+            setAttachment(Constants.DUBBO_VERSION_KEY, dubboVersion);
+
+            setAttachment(Constants.PATH_KEY, dictionary.read(in));
+            setAttachment(Constants.VERSION_KEY, dictionary.read(in));
+
+            setMethodName(dictionary.read(in));
+            Map<String, String> map = dictionary.readAttachments(in);
+            if (map.size() > 0) {
+                getAttachments().putAll(map);
+            }
+
+            Class<?>[] pts = dictionary.readParameterTypes(in);
+            Object[] args = pts.length == 0 ? DubboCodec.EMPTY_OBJECT_ARRAY : readArguments(in, pts);
+            setParameterTypes(pts);
+            //decode argument ,may be callback
+            for (int i = 0; i < args.length; i++) {
+                args[i] = decodeInvocationArgument(channel, this, pts, i, args[i]);
+            }
+
+            setArguments(args);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(StringUtils.toString("Read invocation data failed.", e));
+        } finally {
+            if (in instanceof Cleanable) {
+                ((Cleanable) in).cleanup();
+            }
+        }
+        return this;
+    }
+
+    private Object[] readArguments(ObjectInput in, Class<?>[] pts) {
+        Object[] args = new Object[pts.length];
+        for (int i = 0; i < args.length; i++) {
+            try {
+                args[i] = in.readObject(pts[i]);
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Decode argument failed: " + e.getMessage(), e);
+                }
+            }
+        }
+        return args;
+    }
+
 }
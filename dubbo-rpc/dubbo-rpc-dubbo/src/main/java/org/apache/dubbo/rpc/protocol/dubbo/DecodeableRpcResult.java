@@ -35,6 +35,7 @@ import org.apache.dubbo.rpc.support.RpcUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -125,6 +126,9 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
     private void handleValue(ObjectInput in) throws IOException {
         try {
             Type[] returnTypes = RpcUtils.getReturnTypes(invocation);
+            if (response.getStatus() == Response.STREAM) {
+                returnTypes = getElementTypes(returnTypes);
+            }
             Object value = null;
             if (ArrayUtils.isEmpty(returnTypes)) {
                 value = in.readObject();
@@ -139,6 +143,23 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
         }
     }
 
+    /**
+     * @return the types of the elements of the iterator or stream returned
+     */
+    private static Type[] getElementTypes(Type[] returnTypes) {
+        if (returnTypes == null || returnTypes.length < 2 || !(returnTypes[1] instanceof ParameterizedType)) {
+            return null;
+        }
+        Type elementType = ((ParameterizedType) returnTypes[1]).getActualTypeArguments()[0];
+        if (elementType instanceof Class) {
+            return new Type[]{elementType, elementType};
+        }
+        if (elementType instanceof ParameterizedType) {
+            return new Type[]{((ParameterizedType) elementType).getRawType(), elementType};
+        }
+        return null;
+    }
+
     private void handleException(ObjectInput in) throws IOException {
         try {
             Object obj = in.readObject();
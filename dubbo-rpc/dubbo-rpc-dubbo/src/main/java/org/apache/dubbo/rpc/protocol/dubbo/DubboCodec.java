@@ -27,6 +27,7 @@ import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.utils.ReflectUtils;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
 import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.codec.ExchangeCodec;
@@ -74,7 +75,7 @@ public class DubboCodec extends ExchangeCodec {
             res.setStatus(status);
             try {
                 ObjectInput in = CodecSupport.deserialize(channel.getUrl(), is, proto);
-                if (status == Response.OK) {
+                if (res.hasResult()) {
                     Object data;
                     if (res.isHeartbeat()) {
                         data = decodeHeartbeatData(channel, in);
@@ -124,10 +125,12 @@ public class DubboCodec extends ExchangeCodec {
                     data = decodeEventData(channel, in);
                 } else {
                     DecodeableRpcInvocation inv;
-                    if (channel.getUrl().getParameter(
+                    boolean dictionary = (header[3] & StringDictionary.FLAG_DICTIONARY) != 0;
+                    // the dictionary is updated in request order, so such requests are always decoded in the IO thread
+                    if (dictionary || channel.getUrl().getParameter(
                             Constants.DECODE_IN_IO_THREAD_KEY,
                             Constants.DEFAULT_DECODE_IN_IO_THREAD)) {
-                        inv = new DecodeableRpcInvocation(channel, req, is, proto);
+                        inv = new DecodeableRpcInvocation(channel, req, is, proto, dictionary);
                         inv.decode();
                     } else {
                         inv = new DecodeableRpcInvocation(channel, req,
@@ -168,9 +171,54 @@ public class DubboCodec extends ExchangeCodec {
         encodeResponseData(channel, out, data, DUBBO_VERSION);
     }
 
+    @Override
+    protected byte getRequestBodyFlags(Channel channel, Request req) {
+        return !req.isEvent() && StringDictionary.isEnabled(channel) ? StringDictionary.FLAG_DICTIONARY : 0;
+    }
+
+    @Override
+    protected int getCompressThreshold(Channel channel, Request req) {
+        int threshold = super.getCompressThreshold(channel, req);
+        // the channel may be shared by several services, the method parameters are on the url of the invoker
+        if (req.getData() instanceof Invocation) {
+            Invocation inv = (Invocation) req.getData();
+            if (inv.getInvoker() != null) {
+                threshold = inv.getInvoker().getUrl().getMethodParameter(inv.getMethodName(),
+                        Constants.COMPRESS_THRESHOLD_KEY, threshold);
+            }
+        }
+        return threshold;
+    }
+
+    @Override
+    protected void encodeRequest(Channel channel, ChannelBuffer buffer, Request req) throws IOException {
+        if (req.isEvent() || !StringDictionary.isEnabled(channel)) {
+            super.encodeRequest(channel, buffer, req);
+            return;
+        }
+        StringDictionary.Encoder dictionary = StringDictionary.getEncoder(channel);
+        synchronized (dictionary) {
+            boolean encoded = false;
+            try {
+                super.encodeRequest(channel, buffer, req);
+                encoded = true;
+            } finally {
+                if (encoded) {
+                    dictionary.commit();
+                } else {
+                    dictionary.rollback();
+                }
+            }
+        }
+    }
+
     @Override
     protected void encodeRequestData(Channel channel, ObjectOutput out, Object data, String version) throws IOException {
         RpcInvocation inv = (RpcInvocation) data;
+        if (StringDictionary.isEnabled(channel)) {
+            encodeRequestData(channel, out, inv, version, StringDictionary.getEncoder(channel));
+            return;
+        }
 
         out.writeUTF(version);
         out.writeUTF(inv.getAttachment(Constants.PATH_KEY));
@@ -187,6 +235,27 @@ public class DubboCodec extends ExchangeCodec {
         out.writeObject(RpcUtils.getNecessaryAttachments(inv));
     }
 
+    /**
+     * Encode the request with the dictionary of the channel. The attachments are written before the arguments,
+     * so all the dictionary strings are decoded even if an argument is not.
+     */
+    private void encodeRequestData(Channel channel, ObjectOutput out, RpcInvocation inv, String version,
+                                   StringDictionary.Encoder dictionary) throws IOException {
+        dictionary.write(out, version);
+        dictionary.write(out, inv.getAttachment(Constants.PATH_KEY));
+        dictionary.write(out, inv.getAttachment(Constants.VERSION_KEY));
+
+        dictionary.write(out, inv.getMethodName());
+        dictionary.writeAttachments(out, RpcUtils.getNecessaryAttachments(inv));
+        dictionary.write(out, ReflectUtils.getDesc(inv.getParameterTypes()));
+        Object[] args = inv.getArguments();
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                out.writeObject(encodeInvocationArgument(channel, inv, i));
+            }
+        }
+    }
+
     @Override
     protected void encodeResponseData(Channel channel, ObjectOutput out, Object data, String version) throws IOException {
         Result result = (Result) data;
@@ -89,6 +89,14 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
                 currentClient.send(inv, isSent);
                 RpcContext.getContext().setFuture(null);
                 return new RpcResult();
+            } else if (RpcUtils.isReturnTypeStream(inv)) {
+                // the provider sends the elements as they are taken, at most a window of them ahead
+                int window = getUrl().getMethodParameter(methodName, Constants.STREAM_WINDOW_KEY, Constants.DEFAULT_STREAM_WINDOW);
+                inv.setAttachment(Constants.STREAM_KEY, String.valueOf(window));
+                ResponseFuture future = currentClient.request(inv, timeout);
+                RpcContext.getContext().setFuture(null);
+                ResultStreamIterator elements = new ResultStreamIterator(future, future.stream(window), inv);
+                return new RpcResult(elements.toValue(RpcUtils.getReturnType(inv)));
             } else if (isAsync) {
                 ResponseFuture future = currentClient.request(inv, timeout);
                 // For compatibility
@@ -128,10 +128,10 @@ public class DubboProtocol extends AbstractProtocol {
             Result result = invoker.invoke(inv);
 
             if (result instanceof AsyncRpcResult) {
-                return ((AsyncRpcResult) result).getResultFuture().thenApply(r -> (Object) r);
+                return ((AsyncRpcResult) result).getResultFuture().thenApply(r -> DubboResponseStream.toReply(inv, r));
 
             } else {
-                return CompletableFuture.completedFuture(result);
+                return CompletableFuture.completedFuture(DubboResponseStream.toReply(inv, result));
             }
         }
 
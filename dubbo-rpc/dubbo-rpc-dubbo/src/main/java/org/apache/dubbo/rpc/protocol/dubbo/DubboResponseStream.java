@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.remoting.exchange.ResponseStream;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcResult;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * The elements of the iterator or stream returned by a service method, sent one by one to the consumer which asked
+ * for them with the {@link Constants#STREAM_KEY} attachment, so that neither side holds all of them at once.
+ */
+class DubboResponseStream implements ResponseStream {
+
+    private final Result result;
+
+    private final Iterator<?> iterator;
+
+    private final AutoCloseable closeable;
+
+    private final int window;
+
+    private DubboResponseStream(Result result, Iterator<?> iterator, AutoCloseable closeable, int window) {
+        this.result = result;
+        this.iterator = iterator;
+        this.closeable = closeable;
+        this.window = window;
+    }
+
+    /**
+     * @return the stream of the elements returned, or the result itself if it is not to be streamed
+     */
+    static Object toReply(Invocation inv, Result result) {
+        String window = inv.getAttachment(Constants.STREAM_KEY);
+        if (window == null || result.hasException()) {
+            return result;
+        }
+        int size = StringUtils.isInteger(window) ? Integer.parseInt(window) : Constants.DEFAULT_STREAM_WINDOW;
+        Object value = result.getValue();
+        if (value instanceof Stream) {
+            Stream<?> stream = (Stream<?>) value;
+            return new DubboResponseStream(result, stream.iterator(), stream, size);
+        }
+        if (value instanceof Iterator) {
+            Iterator<?> iterator = (Iterator<?>) value;
+            return new DubboResponseStream(result, iterator,
+                    iterator instanceof AutoCloseable ? (AutoCloseable) iterator : null, size);
+        }
+        return result;
+    }
+
+    @Override
+    public int getWindow() {
+        return window;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    @Override
+    public Object next() {
+        return new RpcResult(iterator.next());
+    }
+
+    @Override
+    public Object end(Throwable cause) {
+        if (cause != null) {
+            return new RpcResult(cause);
+        }
+        RpcResult end = new RpcResult();
+        end.setAttachments(result.getAttachments());
+        return end;
+    }
+
+    @Override
+    public void close() {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close " + closeable + ", cause: " + e.getMessage(), e);
+            }
+        }
+    }
+}
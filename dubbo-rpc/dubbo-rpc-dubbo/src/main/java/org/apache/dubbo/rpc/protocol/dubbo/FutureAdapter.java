@@ -18,6 +18,7 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
 
@@ -62,14 +63,16 @@ public class FutureAdapter<V> extends CompletableFuture<V> {
         return future;
     }
 
+    /**
+     * Stop waiting for the response, which is dropped when it arrives. The request already sent is not withdrawn.
+     */
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        return false;
-    }
-
-    @Override
-    public boolean isCancelled() {
-        return false;
+        if (!(future instanceof DefaultFuture) || future.isDone()) {
+            return false;
+        }
+        ((DefaultFuture) future).cancel();
+        return super.cancel(mayInterruptIfRunning);
     }
 
     @Override
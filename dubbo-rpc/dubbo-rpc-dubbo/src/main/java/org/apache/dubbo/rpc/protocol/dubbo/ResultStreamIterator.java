@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.TimeoutException;
+import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.ResponseStreamIterator;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The elements of a result streamed by the provider, taken as they arrive. The response that ends the stream holds
+ * the exception thrown by the provider while iterating, if any, which is thrown once the elements before it are taken.
+ */
+class ResultStreamIterator implements Iterator<Object>, AutoCloseable {
+
+    private final ResponseFuture future;
+
+    private final ResponseStreamIterator elements;
+
+    private final Invocation invocation;
+
+    private boolean ended;
+
+    ResultStreamIterator(ResponseFuture future, ResponseStreamIterator elements, Invocation invocation) {
+        this.future = future;
+        this.elements = elements;
+        this.invocation = invocation;
+    }
+
+    /**
+     * @return the value of the given return type, an iterator or a stream
+     */
+    Object toValue(Class<?> returnType) {
+        if (returnType == Stream.class) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                    .onClose(this::close);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (elements.hasNext()) {
+            return true;
+        }
+        end();
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ((Result) elements.next()).getValue();
+    }
+
+    @Override
+    public void close() {
+        ended = true;
+        elements.close();
+    }
+
+    private void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        Result result;
+        try {
+            result = (Result) future.get();
+        } catch (TimeoutException e) {
+            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Invoke remote method timeout while streaming the result. method: "
+                    + invocation.getMethodName() + ", cause: " + e.getMessage(), e);
+        } catch (RemotingException e) {
+            throw new RpcException(RpcException.NETWORK_EXCEPTION, "Failed to stream the result of remote method: "
+                    + invocation.getMethodName() + ", cause: " + e.getMessage(), e);
+        } finally {
+            elements.close();
+        }
+        if (result.hasException()) {
+            Throwable exception = result.getException();
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            if (exception instanceof Error) {
+                throw (Error) exception;
+            }
+            throw new RpcException(RpcException.BIZ_EXCEPTION, exception.getMessage(), exception);
+        }
+    }
+}
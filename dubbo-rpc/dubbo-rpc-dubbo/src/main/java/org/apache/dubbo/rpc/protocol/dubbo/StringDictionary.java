@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.utils.ReflectUtils;
+import org.apache.dubbo.remoting.Channel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per connection dictionary of the strings repeated by every request: the dubbo version, the service path and
+ * version, the method name, the parameter descriptor, the attachment keys and the values of the attachments which
+ * are the same for all the requests of a service.
+ * <p>
+ * The first time a string is written, it is defined with the next id: the negative id is followed by the string.
+ * Afterwards only the id is written. A 0 id is followed by a string which is not kept in the dictionary.
+ * Requests are encoded one by one on a connection and decoded in the IO thread, so both sides assign the same ids.
+ * <p>
+ * The consumer only uses the dictionary when the provider URL has <code>codec.dictionary=true</code>, and marks
+ * those requests with {@link #FLAG_DICTIONARY} in the request header.
+ */
+final class StringDictionary {
+
+    static final byte FLAG_DICTIONARY = 0x01;
+
+    /**
+     * strings kept per connection, later strings are written as they are
+     */
+    static final int MAX_SIZE = 4096;
+
+    private static final String ENCODER_KEY = "dubbo.dictionary.encoder";
+
+    private static final String DECODER_KEY = "dubbo.dictionary.decoder";
+
+    private static final Set<String> STABLE_ATTACHMENTS = new HashSet<>(Arrays.asList(
+            Constants.PATH_KEY, Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.VERSION_KEY,
+            Constants.TIMEOUT_KEY, Constants.TOKEN_KEY, Constants.APPLICATION_KEY, Constants.DUBBO_VERSION_KEY));
+
+    private StringDictionary() {
+    }
+
+    /**
+     * @return whether requests sent on the channel are encoded with the dictionary
+     */
+    static boolean isEnabled(Channel channel) {
+        URL url = channel.getUrl();
+        return url != null && url.getParameter(Constants.CODEC_DICTIONARY_KEY, false)
+                && !Constants.PROVIDER_SIDE.equals(url.getParameter(Constants.SIDE_KEY));
+    }
+
+    static Encoder getEncoder(Channel channel) {
+        synchronized (channel) {
+            Encoder encoder = (Encoder) channel.getAttribute(ENCODER_KEY);
+            if (encoder == null) {
+                encoder = new Encoder();
+                channel.setAttribute(ENCODER_KEY, encoder);
+            }
+            return encoder;
+        }
+    }
+
+    static Decoder getDecoder(Channel channel) {
+        synchronized (channel) {
+            Decoder decoder = (Decoder) channel.getAttribute(DECODER_KEY);
+            if (decoder == null) {
+                decoder = new Decoder();
+                channel.setAttribute(DECODER_KEY, decoder);
+            }
+            return decoder;
+        }
+    }
+
+    static final class Encoder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        /**
+         * strings defined by the request being encoded
+         */
+        private final List<String> pending = new ArrayList<>();
+
+        void write(ObjectOutput out, String value) throws IOException {
+            Integer id = ids.get(value);
+            if (id != null) {
+                out.writeInt(id);
+            } else if (ids.size() >= MAX_SIZE) {
+                writeLiteral(out, value);
+            } else {
+                int newId = ids.size() + 1;
+                ids.put(value, newId);
+                pending.add(value);
+                out.writeInt(-newId);
+                out.writeUTF(value);
+            }
+        }
+
+        void writeLiteral(ObjectOutput out, String value) throws IOException {
+            out.writeInt(0);
+            out.writeUTF(value);
+        }
+
+        /**
+         * Write the attachments with a non null value, the values of the attachments which change from request
+         * to request are not kept in the dictionary.
+         */
+        void writeAttachments(ObjectOutput out, Map<String, String> attachments) throws IOException {
+            int size = 0;
+            for (String value : attachments.values()) {
+                if (value != null) {
+                    size++;
+                }
+            }
+            out.writeInt(size);
+            for (Map.Entry<String, String> entry : attachments.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                write(out, entry.getKey());
+                if (STABLE_ATTACHMENTS.contains(entry.getKey())) {
+                    write(out, entry.getValue());
+                } else {
+                    writeLiteral(out, entry.getValue());
+                }
+            }
+        }
+
+        /**
+         * keep the strings defined by the request just encoded
+         */
+        void commit() {
+            pending.clear();
+        }
+
+        /**
+         * forget the strings defined by a request which failed to encode, the peer never receives them
+         */
+        void rollback() {
+            for (String value : pending) {
+                ids.remove(value);
+            }
+            pending.clear();
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+
+    static final class Decoder {
+
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * parameter types of the descriptors in the dictionary, resolved once
+         */
+        private final List<Class<?>[]> types = new ArrayList<>();
+
+        private int lastId;
+
+        String read(ObjectInput in) throws IOException {
+            int id = in.readInt();
+            lastId = id;
+            if (id == 0) {
+                return in.readUTF();
+            }
+            if (id < 0) {
+                lastId = -id;
+                if (lastId != values.size() + 1) {
+                    throw new IOException("Unexpected dictionary id " + lastId + ", expect " + (values.size() + 1));
+                }
+                String value = in.readUTF();
+                values.add(value);
+                types.add(null);
+                return value;
+            }
+            if (id > values.size()) {
+                throw new IOException("Undefined dictionary id " + id + ", the dictionary size is " + values.size());
+            }
+            return values.get(id - 1);
+        }
+
+        Map<String, String> readAttachments(ObjectInput in) throws IOException {
+            int size = in.readInt();
+            Map<String, String> attachments = new HashMap<>(Math.max(size * 4 / 3 + 1, 16));
+            for (int i = 0; i < size; i++) {
+                String key = read(in);
+                attachments.put(key, read(in));
+            }
+            return attachments;
+        }
+
+        /**
+         * Read a parameter descriptor and resolve its parameter types. The descriptor is read before the types are
+         * resolved, so the dictionary stays in sync even if a class is not found.
+         */
+        Class<?>[] readParameterTypes(ObjectInput in) throws IOException, ClassNotFoundException {
+            String desc = read(in);
+            if (desc.length() == 0) {
+                return DubboCodec.EMPTY_CLASS_ARRAY;
+            }
+            if (lastId == 0) {
+                return ReflectUtils.desc2classArray(desc);
+            }
+            Class<?>[] pts = types.get(lastId - 1);
+            if (pts == null) {
+                pts = ReflectUtils.desc2classArray(desc);
+                types.set(lastId - 1, pts);
+            }
+            return pts;
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -22,10 +22,14 @@ import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.status.Status;
 import org.apache.dubbo.common.status.StatusChecker;
 import org.apache.dubbo.common.store.DataStore;
+import org.apache.dubbo.common.threadpool.support.monitored.MonitoredThreadPoolExecutor;
+import org.apache.dubbo.common.threadpool.support.virtual.VirtualThreadExecutor;
+import org.apache.dubbo.common.utils.LatencyHistogram;
 
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ThreadPoolStatusChecker
@@ -47,6 +51,11 @@ public class ThreadPoolStatusChecker implements StatusChecker {
             if (executor instanceof ThreadPoolExecutor) {
                 ThreadPoolExecutor tp = (ThreadPoolExecutor) executor;
                 boolean ok = tp.getActiveCount() < tp.getMaximumPoolSize() - 1;
+                MonitoredThreadPoolExecutor monitored = null;
+                if (executor instanceof MonitoredThreadPoolExecutor) {
+                    monitored = (MonitoredThreadPoolExecutor) executor;
+                    ok = ok && !monitored.isQueueWaitTargetMissed();
+                }
                 Status.Level lvl = Status.Level.OK;
                 if (!ok) {
                     level = Status.Level.WARN;
@@ -63,9 +72,37 @@ public class ThreadPoolStatusChecker implements StatusChecker {
                         + ", active:" + tp.getActiveCount()
                         + ", task:" + tp.getTaskCount()
                         + ", service port: " + port);
+                if (monitored != null) {
+                    msg.append(", queue:" + tp.getQueue().size()
+                            + ", queue wait" + format(monitored.getQueueWait())
+                            + ", execution" + format(monitored.getExecution()));
+                }
+            }
+            if (executor instanceof VirtualThreadExecutor) {
+                VirtualThreadExecutor vt = (VirtualThreadExecutor) executor;
+                Status.Level lvl = Status.Level.OK;
+                if (vt.getLimit() > 0 && vt.getRunningCount() >= vt.getLimit() - 1) {
+                    level = Status.Level.WARN;
+                    lvl = Status.Level.WARN;
+                }
+
+                if (msg.length() > 0) {
+                    msg.append(";");
+                }
+                msg.append("Pool status:" + lvl
+                        + ", virtual threads"
+                        + ", max:" + (vt.getLimit() > 0 ? String.valueOf(vt.getLimit()) : "unlimited")
+                        + ", active:" + vt.getRunningCount()
+                        + ", service port: " + port);
             }
         }
         return msg.length() == 0 ? new Status(Status.Level.UNKNOWN) : new Status(level, msg.toString());
     }
 
+    private static String format(LatencyHistogram histogram) {
+        return " p50:" + TimeUnit.NANOSECONDS.toMillis(histogram.getPercentile(50))
+                + "ms, p99:" + TimeUnit.NANOSECONDS.toMillis(histogram.getPercentile(99))
+                + "ms, max:" + TimeUnit.NANOSECONDS.toMillis(histogram.getMax()) + "ms";
+    }
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the bytes and the encode and decode time of a small request with and without the string dictionary.
+ * <p>
+ * mvn test -Dtest=DubboCodecDictionaryPerformanceTest -Dbenchmark=true -Druns=1000000
+ */
+public class DubboCodecDictionaryPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DubboCodecDictionaryPerformanceTest.class);
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the dubbo codec dictionary benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 1000000);
+        String url = "dubbo://127.0.0.1:" + NetUtils.getAvailablePort() + "/" + DemoService.class.getName();
+
+        // the provider looks up the exported service to decode the callback arguments
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Exporter<DemoService> exporter = DubboProtocol.getDubboProtocol().export(proxy.getInvoker(new DemoServiceImpl(),
+                DemoService.class, URL.valueOf(url + "?group=demo&version=1.0.0")));
+        long[] plain;
+        long[] dictionary;
+        try {
+            // warm up both paths before measuring
+            run(url, url, runs / 10);
+            run(url + "?codec.dictionary=true&side=consumer", url + "?codec.dictionary=true&side=provider", runs / 10);
+
+            plain = run(url, url, runs);
+            dictionary = run(url + "?codec.dictionary=true&side=consumer",
+                    url + "?codec.dictionary=true&side=provider", runs);
+        } finally {
+            exporter.unexport();
+        }
+
+        logger.info("Dubbo codec of " + runs + " requests, plain: " + plain[0] / runs + " bytes/request "
+                + plain[1] / runs + " ns/op, dictionary: " + dictionary[0] / runs + " bytes/request "
+                + dictionary[1] / runs + " ns/op");
+    }
+
+    /**
+     * @return the total bytes and nanoseconds of encoding and decoding the requests
+     */
+    private static long[] run(String clientUrl, String serverUrl, int runs) throws Exception {
+        DubboCodec codec = new DubboCodec();
+        DubboCodecDictionaryTest.DictionaryChannel client = new DubboCodecDictionaryTest.DictionaryChannel(URL.valueOf(clientUrl));
+        DubboCodecDictionaryTest.DictionaryChannel server = new DubboCodecDictionaryTest.DictionaryChannel(URL.valueOf(serverUrl));
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            buffer.clear();
+            codec.encode(client, buffer, DubboCodecDictionaryTest.createRequest(i));
+            bytes += buffer.readableBytes();
+            Request request = (Request) codec.decode(server, buffer);
+            Assertions.assertFalse(request.isBroken(), String.valueOf(request.getData()));
+        }
+        return new long[]{bytes, System.nanoTime() - start};
+    }
+}
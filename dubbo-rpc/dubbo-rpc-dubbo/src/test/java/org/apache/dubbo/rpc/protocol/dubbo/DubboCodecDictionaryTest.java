@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.protocol.dubbo.decode.MockChannel;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DubboCodecDictionaryTest {
+
+    private static final URL CONSUMER_URL = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName()
+            + "?codec.dictionary=true&side=consumer");
+
+    private static final URL PROVIDER_URL = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName()
+            + "?codec.dictionary=true&side=provider");
+
+    private final DubboCodec codec = new DubboCodec();
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        DictionaryChannel client = new DictionaryChannel(CONSUMER_URL);
+        DictionaryChannel server = new DictionaryChannel(PROVIDER_URL);
+
+        int size = 0;
+        for (int i = 0; i < 3; i++) {
+            ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+            codec.encode(client, buffer, createRequest(i));
+            Request request = (Request) codec.decode(server, buffer);
+
+            Assertions.assertFalse(request.isBroken());
+            DecodeableRpcInvocation invocation = (DecodeableRpcInvocation) request.getData();
+            Assertions.assertEquals("echo", invocation.getMethodName());
+            Assertions.assertArrayEquals(new Class<?>[]{String.class}, invocation.getParameterTypes());
+            Assertions.assertArrayEquals(new Object[]{"hello " + i}, invocation.getArguments());
+            Assertions.assertEquals(DemoService.class.getName(), invocation.getAttachment(Constants.PATH_KEY));
+            Assertions.assertEquals("1.0.0", invocation.getAttachment(Constants.VERSION_KEY));
+            Assertions.assertEquals(DubboCodec.DUBBO_VERSION, invocation.getAttachment(Constants.DUBBO_VERSION_KEY));
+            Assertions.assertEquals("3000", invocation.getAttachment(Constants.TIMEOUT_KEY));
+            Assertions.assertEquals("trace-" + i, invocation.getAttachment("trace"));
+            Assertions.assertEquals(StringDictionary.getEncoder(client).size(), StringDictionary.getDecoder(server).size());
+            if (i == 0) {
+                size = StringDictionary.getEncoder(client).size();
+            }
+        }
+        // the trace ids change from request to request, so they are not kept
+        Assertions.assertEquals(size, StringDictionary.getEncoder(client).size());
+    }
+
+    @Test
+    public void testSteadyStateRequestIsSmaller() throws Exception {
+        DictionaryChannel plain = new DictionaryChannel(URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName()));
+        DictionaryChannel client = new DictionaryChannel(CONSUMER_URL);
+
+        int plainSize = encodedSize(plain, createRequest(0));
+        int firstSize = encodedSize(client, createRequest(0));
+        int steadySize = encodedSize(client, createRequest(1));
+
+        Assertions.assertTrue(steadySize < firstSize, steadySize + " >= " + firstSize);
+        Assertions.assertTrue(steadySize < plainSize / 2, steadySize + " >= " + plainSize + " / 2");
+    }
+
+    @Test
+    public void testProviderDoesNotEncodeWithDictionary() {
+        Assertions.assertTrue(StringDictionary.isEnabled(new DictionaryChannel(CONSUMER_URL)));
+        Assertions.assertFalse(StringDictionary.isEnabled(new DictionaryChannel(PROVIDER_URL)));
+        Assertions.assertFalse(StringDictionary.isEnabled(new DictionaryChannel(
+                URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName()))));
+    }
+
+    @Test
+    public void testFailedEncodeIsRolledBack() throws Exception {
+        DictionaryChannel client = new DictionaryChannel(CONSUMER_URL.addParameter(Constants.PAYLOAD_KEY, 64));
+        DictionaryChannel server = new DictionaryChannel(PROVIDER_URL);
+        try {
+            codec.encode(client, ChannelBuffers.dynamicBuffer(1024), createRequest(0));
+            Assertions.fail();
+        } catch (Exception expected) {
+            // exceed the payload
+        }
+        Assertions.assertEquals(0, StringDictionary.getEncoder(client).size());
+
+        client.setUrl(CONSUMER_URL);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(client, buffer, createRequest(1));
+        Request request = (Request) codec.decode(server, buffer);
+        Assertions.assertFalse(request.isBroken());
+        Assertions.assertEquals("echo", ((DecodeableRpcInvocation) request.getData()).getMethodName());
+    }
+
+    private int encodedSize(DictionaryChannel channel, Request request) throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(channel, buffer, request);
+        return buffer.readableBytes();
+    }
+
+    static Request createRequest(int i) {
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello " + i});
+        invocation.setAttachment(Constants.PATH_KEY, DemoService.class.getName());
+        invocation.setAttachment(Constants.INTERFACE_KEY, DemoService.class.getName());
+        invocation.setAttachment(Constants.VERSION_KEY, "1.0.0");
+        invocation.setAttachment(Constants.GROUP_KEY, "demo");
+        invocation.setAttachment(Constants.TIMEOUT_KEY, "3000");
+        invocation.setAttachment(Constants.APPLICATION_KEY, "demo-consumer");
+        invocation.setAttachment("trace", "trace-" + i);
+        Request request = new Request(i);
+        request.setVersion(DubboCodec.DUBBO_VERSION);
+        request.setTwoWay(true);
+        request.setData(invocation);
+        return request;
+    }
+
+    /**
+     * channel with an url and attributes, like the channel of a connection
+     */
+    static class DictionaryChannel extends MockChannel {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private URL url;
+
+        DictionaryChannel(URL url) {
+            this.url = url;
+        }
+
+        void setUrl(URL url) {
+            this.url = url;
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            // a peer on another port, so the provider does not take the request for a callback invocation
+            return new InetSocketAddress(url.getHost(), url.getPort() + 1);
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return new InetSocketAddress(url.getHost(), url.getPort());
+        }
+
+        @Override
+        public boolean hasAttribute(String key) {
+            return attributes.containsKey(key);
+        }
+
+        @Override
+        public Object getAttribute(String key) {
+            return attributes.get(key);
+        }
+
+        @Override
+        public void setAttribute(String key, Object value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void removeAttribute(String key) {
+            attributes.remove(key);
+        }
+    }
+}
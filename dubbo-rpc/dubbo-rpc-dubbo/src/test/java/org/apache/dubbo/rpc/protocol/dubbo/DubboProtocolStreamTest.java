@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.rpc.protocol.dubbo.support.ProtocolUtils;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class DubboProtocolStreamTest {
+
+    private static URL url;
+
+    @BeforeAll
+    public static void setUpBeforeClass() {
+        url = URL.valueOf("dubbo://127.0.0.1:" + NetUtils.getAvailablePort() + "/" + StreamService.class.getName()
+                + "?stream.window=8&timeout=3000");
+        ProtocolUtils.export(new StreamServiceImpl(), StreamService.class, url);
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() {
+        ProtocolUtils.closeAll();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        StreamServiceImpl.produced.set(0);
+        StreamServiceImpl.closed = new CountDownLatch(1);
+    }
+
+    @Test
+    public void testIterator() {
+        StreamService service = ProtocolUtils.refer(StreamService.class, url);
+        Iterator<String> iterator = service.range(1000);
+        List<String> elements = new ArrayList<>();
+        while (iterator.hasNext()) {
+            elements.add(iterator.next());
+        }
+        Assertions.assertEquals(1000, elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            Assertions.assertEquals("element" + i, elements.get(i));
+        }
+        Assertions.assertFalse(service.range(0).hasNext());
+        // the plain methods are not streamed
+        Assertions.assertEquals("echo", service.echo("echo"));
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        StreamService service = ProtocolUtils.refer(StreamService.class, url);
+        Iterator<String> iterator = service.range(1000);
+        Assertions.assertEquals("element0", iterator.next());
+        TimeUnit.MILLISECONDS.sleep(500);
+        // at most a window ahead of the elements taken
+        Assertions.assertTrue(StreamServiceImpl.produced.get() <= 1 + 8, "produced " + StreamServiceImpl.produced.get());
+        int taken = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            taken++;
+        }
+        Assertions.assertEquals(1000, taken);
+    }
+
+    @Test
+    public void testException() {
+        StreamService service = ProtocolUtils.refer(StreamService.class, url);
+        Iterator<String> iterator = service.failing(20);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals("element" + i, iterator.next());
+        }
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, iterator::hasNext);
+        Assertions.assertEquals("failed after 20", e.getMessage());
+    }
+
+    @Test
+    public void testStreamClose() throws Exception {
+        StreamService service = ProtocolUtils.refer(StreamService.class, url);
+        try (Stream<String> stream = service.stream(1000000)) {
+            Assertions.assertEquals(IntStream.range(0, 10).mapToObj(i -> "element" + i).collect(Collectors.toList()),
+                    stream.limit(10).collect(Collectors.toList()));
+        }
+        // closing on the consumer cancels the stream and closes it on the provider
+        Assertions.assertTrue(StreamServiceImpl.closed.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(StreamServiceImpl.produced.get() < 1000);
+    }
+
+    public interface StreamService {
+
+        Iterator<String> range(int count);
+
+        Iterator<String> failing(int count);
+
+        Stream<String> stream(int count);
+
+        String echo(String text);
+    }
+
+    public static class StreamServiceImpl implements StreamService {
+
+        static final AtomicInteger produced = new AtomicInteger();
+
+        static volatile CountDownLatch closed;
+
+        @Override
+        public Iterator<String> range(int count) {
+            return IntStream.range(0, count).peek(i -> produced.incrementAndGet()).mapToObj(i -> "element" + i).iterator();
+        }
+
+        @Override
+        public Iterator<String> failing(int count) {
+            return IntStream.rangeClosed(0, count).mapToObj(i -> {
+                if (i == count) {
+                    throw new IllegalStateException("failed after " + count);
+                }
+                return "element" + i;
+            }).iterator();
+        }
+
+        @Override
+        public Stream<String> stream(int count) {
+            return IntStream.range(0, count).peek(i -> produced.incrementAndGet()).mapToObj(i -> "element" + i)
+                    .onClose(() -> closed.countDown());
+        }
+
+        @Override
+        public String echo(String text) {
+            return text;
+        }
+    }
+}
@@ -20,6 +20,9 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.compress.CompressionStatistics;
+import org.apache.dubbo.remoting.compress.CompressorSupport;
 import org.apache.dubbo.rpc.Protocol;
 import org.apache.dubbo.rpc.ProxyFactory;
 import org.apache.dubbo.rpc.RpcException;
@@ -188,4 +191,29 @@ public class DubboProtocolTest {
             Assertions.assertTrue(e.getMessage().contains("org.apache.dubbo.rpc.protocol.dubbo.support.NonSerialized must implement java.io.Serializable"));
         }
     }
+
+    @Test
+    public void testCompressPerMethod() throws Exception {
+        int port = NetUtils.getAvailablePort();
+        URL url = URL.valueOf("dubbo://127.0.0.1:" + port + "/" + DemoService.class.getName()
+                + "?compressor=lz4&compress.threshold=1000000&echo.compress.threshold=1024");
+        DemoService service = new DemoServiceImpl();
+        protocol.export(proxy.getInvoker(service, DemoService.class, url));
+        service = proxy.getProxy(protocol.refer(DemoService.class, url.addParameter("timeout", 3000L)));
+
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 4096) {
+            builder.append("compress per method,");
+        }
+        String text = builder.toString();
+        CompressionStatistics statistics = CompressorSupport.getStatistics("lz4");
+        long compressed = statistics.getCompressed();
+        assertEquals(text, service.echo(text));
+        // the request and the response
+        assertEquals(compressed + 2, statistics.getCompressed());
+        assertEquals(compressed + 2, statistics.getDecompressed());
+
+        assertEquals(text.length(), service.stringLength(text));
+        assertEquals(compressed + 2, statistics.getCompressed());
+    }
 }
@@ -17,8 +17,6 @@
 package org.apache.dubbo.rpc.protocol.thrift;
 
 import org.apache.dubbo.common.Constants;
-import org.apache.dubbo.common.extension.ExtensionLoader;
-import org.apache.dubbo.common.utils.ClassUtils;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.Codec2;
@@ -33,7 +31,6 @@ import org.apache.dubbo.rpc.protocol.thrift.io.RandomAccessByteArrayOutputStream
 import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TBase;
 import org.apache.thrift.TException;
-import org.apache.thrift.TFieldIdEnum;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TMessage;
 import org.apache.thrift.protocol.TMessageType;
@@ -42,11 +39,6 @@ import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TIOStreamTransport;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -87,8 +79,6 @@ public class ThriftCodec implements Codec2 {
     static final ConcurrentMap<Long, RequestData> CACHED_REQUEST =
             new ConcurrentHashMap<Long, RequestData>();
     private static final AtomicInteger THRIFT_SEQ_ID = new AtomicInteger(0);
-    private static final ConcurrentMap<String, Class<?>> CACHED_CLASS =
-            new ConcurrentHashMap<String, Class<?>>();
 
     private static int nextSeqId() {
         return THRIFT_SEQ_ID.incrementAndGet();
@@ -185,37 +175,14 @@ public class ThriftCodec implements Codec2 {
             result.setAttachment(Constants.PATH_KEY, path);
             result.setMethodName(message.name);
 
-            String argsClassName = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class)
-                    .getExtension(ThriftClassNameGenerator.NAME).generateArgsClassName(serviceName, message.name);
+            ThriftCodecPlan plan = ThriftCodecPlan.forArgs(ThriftClassNameGenerator.NAME, serviceName, message.name);
 
-            if (StringUtils.isEmpty(argsClassName)) {
+            if (plan == null) {
                 throw new RpcException(RpcException.SERIALIZATION_EXCEPTION,
                         "The specified interface name incorrect.");
             }
 
-            Class clazz = CACHED_CLASS.get(argsClassName);
-
-            if (clazz == null) {
-                try {
-
-                    clazz = ClassUtils.forNameWithThreadContextClassLoader(argsClassName);
-
-                    CACHED_CLASS.putIfAbsent(argsClassName, clazz);
-
-                } catch (ClassNotFoundException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
-            }
-
-            TBase args;
-
-            try {
-                args = (TBase) clazz.newInstance();
-            } catch (InstantiationException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            } catch (IllegalAccessException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
+            TBase args = plan.newInstance();
 
             try {
                 args.read(protocol);
@@ -224,46 +191,14 @@ public class ThriftCodec implements Codec2 {
                 throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
             }
 
-            List<Object> parameters = new ArrayList<Object>();
-            List<Class<?>> parameterTypes = new ArrayList<Class<?>>();
-            int index = 1;
-
-            while (true) {
-
-                TFieldIdEnum fieldIdEnum = args.fieldForId(index++);
-
-                if (fieldIdEnum == null) {
-                    break;
-                }
-
-                String fieldName = fieldIdEnum.getFieldName();
-
-                String getMethodName = ThriftUtils.generateGetMethodName(fieldName);
-
-                Method getMethod;
-
-                try {
-                    getMethod = clazz.getMethod(getMethodName);
-                } catch (NoSuchMethodException e) {
-                    throw new RpcException(
-                            RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
-
-                parameterTypes.add(getMethod.getReturnType());
-                try {
-                    parameters.add(getMethod.invoke(args));
-                } catch (IllegalAccessException e) {
-                    throw new RpcException(
-                            RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                } catch (InvocationTargetException e) {
-                    throw new RpcException(
-                            RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
+            Object[] parameters = new Object[plan.size()];
 
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = plan.get(args, i);
             }
 
-            result.setArguments(parameters.toArray());
-            result.setParameterTypes(parameterTypes.toArray(new Class[parameterTypes.size()]));
+            result.setArguments(parameters);
+            result.setParameterTypes(plan.getTypes());
 
             Request request = new Request(id);
             request.setData(result);
@@ -298,38 +233,14 @@ public class ThriftCodec implements Codec2 {
 
         } else if (message.type == TMessageType.REPLY) {
 
-            String resultClassName = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class)
-                    .getExtension(ThriftClassNameGenerator.NAME).generateResultClassName(serviceName, message.name);
+            ThriftCodecPlan plan = ThriftCodecPlan.forResult(ThriftClassNameGenerator.NAME, serviceName, message.name);
 
-            if (StringUtils.isEmpty(resultClassName)) {
+            if (plan == null) {
                 throw new IllegalArgumentException("Could not infer service result class name from service name "
                         + serviceName + ", the service name you specified may not generated by thrift idl compiler");
             }
 
-            Class<?> clazz = CACHED_CLASS.get(resultClassName);
-
-            if (clazz == null) {
-
-                try {
-
-                    clazz = ClassUtils.forNameWithThreadContextClassLoader(resultClassName);
-
-                    CACHED_CLASS.putIfAbsent(resultClassName, clazz);
-
-                } catch (ClassNotFoundException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
-
-            }
-
-            TBase<?, ? extends TFieldIdEnum> result;
-            try {
-                result = (TBase<?, ?>) clazz.newInstance();
-            } catch (InstantiationException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            } catch (IllegalAccessException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
+            TBase result = plan.newInstance();
 
             try {
                 result.read(protocol);
@@ -340,30 +251,9 @@ public class ThriftCodec implements Codec2 {
 
             Object realResult = null;
 
-            int index = 0;
-
-            while (true) {
-
-                TFieldIdEnum fieldIdEnum = result.fieldForId(index++);
-
-                if (fieldIdEnum == null) {
-                    break;
-                }
+            for (int i = 0; i < plan.size(); i++) {
 
-                Field field;
-
-                try {
-                    field = clazz.getDeclaredField(fieldIdEnum.getFieldName());
-                    field.setAccessible(true);
-                } catch (NoSuchFieldException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
-
-                try {
-                    realResult = field.get(result);
-                } catch (IllegalAccessException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                }
+                realResult = plan.get(result, i);
 
                 if (realResult != null) {
                     break;
@@ -413,68 +303,28 @@ public class ThriftCodec implements Codec2 {
                 TMessageType.CALL,
                 seqId);
 
-        String methodArgs = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class)
-                .getExtension(channel.getUrl().getParameter(ThriftConstants.CLASS_NAME_GENERATOR_KEY, ThriftClassNameGenerator.NAME))
-                .generateArgsClassName(serviceName, inv.getMethodName());
+        ThriftCodecPlan plan = ThriftCodecPlan.forArgs(
+                channel.getUrl().getParameter(ThriftConstants.CLASS_NAME_GENERATOR_KEY, ThriftClassNameGenerator.NAME),
+                serviceName, inv.getMethodName());
 
-        if (StringUtils.isEmpty(methodArgs)) {
+        if (plan == null) {
             throw new RpcException(RpcException.SERIALIZATION_EXCEPTION,
                     "Could not encode request, the specified interface may be incorrect.");
         }
 
-        Class<?> clazz = CACHED_CLASS.get(methodArgs);
-
-        if (clazz == null) {
-
-            try {
-
-                clazz = ClassUtils.forNameWithThreadContextClassLoader(methodArgs);
-
-                CACHED_CLASS.putIfAbsent(methodArgs, clazz);
-
-            } catch (ClassNotFoundException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
-
-        }
-
-        TBase args;
+        TBase args = plan.newInstance();
 
-        try {
-            args = (TBase) clazz.newInstance();
-        } catch (InstantiationException e) {
-            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-        } catch (IllegalAccessException e) {
-            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-        }
+        Object[] arguments = inv.getArguments();
 
-        for (int i = 0; i < inv.getArguments().length; i++) {
+        for (int i = 0; i < arguments.length; i++) {
 
-            Object obj = inv.getArguments()[i];
+            Object obj = arguments[i];
 
             if (obj == null) {
                 continue;
             }
 
-            TFieldIdEnum field = args.fieldForId(i + 1);
-
-            String setMethodName = ThriftUtils.generateSetMethodName(field.getFieldName());
-
-            Method method;
-
-            try {
-                method = clazz.getMethod(setMethodName, inv.getParameterTypes()[i]);
-            } catch (NoSuchMethodException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
-
-            try {
-                method.invoke(args, obj);
-            } catch (IllegalAccessException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            } catch (InvocationTargetException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
+            plan.set(args, i, obj);
 
         }
 
@@ -540,68 +390,28 @@ public class ThriftCodec implements Codec2 {
 
         RequestData rd = CACHED_REQUEST.get(response.getId());
 
-        String resultClassName = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class).getExtension(
-                channel.getUrl().getParameter(ThriftConstants.CLASS_NAME_GENERATOR_KEY, ThriftClassNameGenerator.NAME))
-                .generateResultClassName(rd.serviceName, rd.methodName);
+        ThriftCodecPlan plan = ThriftCodecPlan.forResult(
+                channel.getUrl().getParameter(ThriftConstants.CLASS_NAME_GENERATOR_KEY, ThriftClassNameGenerator.NAME),
+                rd.serviceName, rd.methodName);
 
-        if (StringUtils.isEmpty(resultClassName)) {
+        if (plan == null) {
             throw new RpcException(RpcException.SERIALIZATION_EXCEPTION,
                     "Could not encode response, the specified interface may be incorrect.");
         }
 
-        Class clazz = CACHED_CLASS.get(resultClassName);
-
-        if (clazz == null) {
-
-            try {
-                clazz = ClassUtils.forNameWithThreadContextClassLoader(resultClassName);
-                CACHED_CLASS.putIfAbsent(resultClassName, clazz);
-            } catch (ClassNotFoundException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
-
-        }
-
-        TBase resultObj;
-
-        try {
-            resultObj = (TBase) clazz.newInstance();
-        } catch (InstantiationException e) {
-            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-        } catch (IllegalAccessException e) {
-            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-        }
+        TBase resultObj = plan.newInstance();
 
         TApplicationException applicationException = null;
         TMessage message;
 
         if (result.hasException()) {
             Throwable throwable = result.getException();
-            int index = 1;
             boolean found = false;
-            while (true) {
-                TFieldIdEnum fieldIdEnum = resultObj.fieldForId(index++);
-                if (fieldIdEnum == null) {
-                    break;
-                }
-                String fieldName = fieldIdEnum.getFieldName();
-                String getMethodName = ThriftUtils.generateGetMethodName(fieldName);
-                String setMethodName = ThriftUtils.generateSetMethodName(fieldName);
-                Method getMethod;
-                Method setMethod;
-                try {
-                    getMethod = clazz.getMethod(getMethodName);
-                    if (getMethod.getReturnType().equals(throwable.getClass())) {
-                        found = true;
-                        setMethod = clazz.getMethod(setMethodName, throwable.getClass());
-                        setMethod.invoke(resultObj, throwable);
-                    }
-                } catch (NoSuchMethodException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                } catch (InvocationTargetException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-                } catch (IllegalAccessException e) {
-                    throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
+            for (int i = 0; i < plan.size(); i++) {
+                // exception field ids start from 1
+                if (plan.getId(i) > 0 && plan.getType(i).equals(throwable.getClass())) {
+                    found = true;
+                    plan.set(resultObj, i, throwable);
                 }
             }
 
@@ -609,26 +419,9 @@ public class ThriftCodec implements Codec2 {
                 applicationException = new TApplicationException(throwable.getMessage());
             }
 
-        } else {
-            Object realResult = result.getResult();
+        } else if (plan.size() > 0 && plan.getId(0) == 0) {
             // result field id is 0
-            String fieldName = resultObj.fieldForId(0).getFieldName();
-            String setMethodName = ThriftUtils.generateSetMethodName(fieldName);
-            String getMethodName = ThriftUtils.generateGetMethodName(fieldName);
-            Method getMethod;
-            Method setMethod;
-            try {
-                getMethod = clazz.getMethod(getMethodName);
-                setMethod = clazz.getMethod(setMethodName, getMethod.getReturnType());
-                setMethod.invoke(resultObj, realResult);
-            } catch (NoSuchMethodException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            } catch (InvocationTargetException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            } catch (IllegalAccessException e) {
-                throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
-            }
-
+            plan.set(resultObj, 0, result.getResult());
         }
 
         if (applicationException != null) {
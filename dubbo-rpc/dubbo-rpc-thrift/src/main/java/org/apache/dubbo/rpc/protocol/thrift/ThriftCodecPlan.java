@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.thrift;
+
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.ClassUtils;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.rpc.RpcException;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TFieldIdEnum;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The accessors of a thrift generated args or result class, resolved once per service method.
+ * <p>
+ * Encoding and decoding with a plan does no class name generation, no reflection lookup and no
+ * <code>Method.invoke</code>, the constructor and the field accessors are bound {@link MethodHandle}s.
+ * <p>
+ * The fields of an args class are kept in field id order starting from 1, the fields of a result class
+ * start from 0, the <code>success</code> field, which is absent for <code>void</code> methods.
+ */
+final class ThriftCodecPlan {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ConcurrentMap<PlanKey, ThriftCodecPlan> ARGS_PLANS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<PlanKey, ThriftCodecPlan> RESULT_PLANS = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+
+    private final MethodHandle constructor;
+
+    private final short[] ids;
+
+    private final Class<?>[] types;
+
+    private final MethodHandle[] getters;
+
+    private final MethodHandle[] setters;
+
+    private ThriftCodecPlan(Class<?> type, int firstId) {
+        this.type = type;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+            Object instance = constructor.invokeExact();
+            TBase<?, ?> prototype = (TBase<?, ?>) instance;
+
+            List<TFieldIdEnum> fields = new ArrayList<>();
+            for (int id = firstId; ; id++) {
+                TFieldIdEnum field = prototype.fieldForId(id);
+                if (field == null) {
+                    // the success field of a void method is absent, the exceptions follow from id 1
+                    if (id == 0) {
+                        continue;
+                    }
+                    break;
+                }
+                fields.add(field);
+            }
+
+            int size = fields.size();
+            this.ids = new short[size];
+            this.types = new Class<?>[size];
+            this.getters = new MethodHandle[size];
+            this.setters = new MethodHandle[size];
+            for (int i = 0; i < size; i++) {
+                TFieldIdEnum fieldId = fields.get(i);
+                Field field = type.getDeclaredField(fieldId.getFieldName());
+                field.setAccessible(true);
+                ids[i] = fieldId.getThriftFieldId();
+                types[i] = field.getType();
+                getters[i] = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+                // the generated setter also marks the primitive fields as set
+                setters[i] = lookup.unreflect(type.getMethod(ThriftUtils.generateSetMethodName(fieldId.getFieldName()),
+                        field.getType())).asType(SETTER_TYPE);
+            }
+        } catch (RpcException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION,
+                    "Failed to resolve the accessors of thrift class " + type.getName() + ", cause: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * get the plan of the args class of the method.
+     *
+     * @return the plan, or null if the args class name could not be generated
+     */
+    static ThriftCodecPlan forArgs(String generator, String serviceName, String methodName) {
+        PlanKey key = new PlanKey(generator, serviceName, methodName);
+        ThriftCodecPlan plan = ARGS_PLANS.get(key);
+        if (plan == null) {
+            String className = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class)
+                    .getExtension(generator).generateArgsClassName(serviceName, methodName);
+            if (StringUtils.isEmpty(className)) {
+                return null;
+            }
+            ARGS_PLANS.putIfAbsent(key, new ThriftCodecPlan(forName(className), 1));
+            plan = ARGS_PLANS.get(key);
+        }
+        return plan;
+    }
+
+    /**
+     * get the plan of the result class of the method.
+     *
+     * @return the plan, or null if the result class name could not be generated
+     */
+    static ThriftCodecPlan forResult(String generator, String serviceName, String methodName) {
+        PlanKey key = new PlanKey(generator, serviceName, methodName);
+        ThriftCodecPlan plan = RESULT_PLANS.get(key);
+        if (plan == null) {
+            String className = ExtensionLoader.getExtensionLoader(ClassNameGenerator.class)
+                    .getExtension(generator).generateResultClassName(serviceName, methodName);
+            if (StringUtils.isEmpty(className)) {
+                return null;
+            }
+            RESULT_PLANS.putIfAbsent(key, new ThriftCodecPlan(forName(className), 0));
+            plan = RESULT_PLANS.get(key);
+        }
+        return plan;
+    }
+
+    private static Class<?> forName(String className) {
+        try {
+            return ClassUtils.forNameWithThreadContextClassLoader(className);
+        } catch (ClassNotFoundException e) {
+            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
+        }
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    TBase newInstance() {
+        try {
+            Object instance = constructor.invokeExact();
+            return (TBase) instance;
+        } catch (Throwable e) {
+            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of fields
+     */
+    int size() {
+        return ids.length;
+    }
+
+    short getId(int index) {
+        return ids[index];
+    }
+
+    Class<?> getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @return the field types, in field id order
+     */
+    Class<?>[] getTypes() {
+        return types.clone();
+    }
+
+    Object get(TBase target, int index) {
+        try {
+            return getters[index].invokeExact((Object) target);
+        } catch (Throwable e) {
+            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
+        }
+    }
+
+    void set(TBase target, int index, Object value) {
+        try {
+            setters[index].invokeExact((Object) target, value);
+        } catch (Throwable e) {
+            throw new RpcException(RpcException.SERIALIZATION_EXCEPTION, e.getMessage(), e);
+        }
+    }
+
+    private static class PlanKey {
+
+        private final String generator;
+
+        private final String serviceName;
+
+        private final String methodName;
+
+        private final int hashCode;
+
+        PlanKey(String generator, String serviceName, String methodName) {
+            this.generator = generator;
+            this.serviceName = serviceName;
+            this.methodName = methodName;
+            this.hashCode = 31 * (31 * Objects.hashCode(generator) + Objects.hashCode(serviceName)) + Objects.hashCode(methodName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            PlanKey that = (PlanKey) o;
+            return Objects.equals(generator, that.generator)
+                    && Objects.equals(serviceName, that.serviceName)
+                    && Objects.equals(methodName, that.methodName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.thrift;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.gen.thrift.Demo;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TFieldIdEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares the field access of the codec plans with the reflective access the codec used before,
+ * and measures a whole request encode and decode.
+ * <p>
+ * mvn test -Dtest=ThriftCodecPerformanceTest -Dbenchmark=true -Druns=1000000
+ */
+public class ThriftCodecPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThriftCodecPerformanceTest.class);
+
+    @Test
+    public void testPerformance() throws Exception {
+        if (!Boolean.getBoolean("benchmark")) {
+            logger.warn("Please set -Dbenchmark=true to run the thrift codec benchmark");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 1000000);
+        String serviceName = Demo.Iface.class.getName();
+
+        // warm up both paths before measuring
+        for (int i = 0; i < runs / 10; i++) {
+            reflective(serviceName, "Hello, World!");
+            planned(serviceName, "Hello, World!");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            reflective(serviceName, "Hello, World!");
+        }
+        long reflective = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            planned(serviceName, "Hello, World!");
+        }
+        long planned = System.nanoTime() - start;
+
+        ThriftCodec codec = new ThriftCodec();
+        Channel channel = new MockedChannel(URL.valueOf("thrift://127.0.0.1"));
+        Request request = createRequest(serviceName);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            buffer.clear();
+            codec.encode(channel, buffer, request);
+            Assertions.assertTrue(codec.decode(channel, buffer) instanceof Request);
+        }
+        long codecCost = System.nanoTime() - start;
+        ThriftCodec.CACHED_REQUEST.clear();
+
+        logger.info("Thrift codec field access of " + runs + " runs, reflective: " + reflective / runs
+                + " ns/op, plan: " + planned / runs + " ns/op; request encode and decode: " + codecCost / runs + " ns/op");
+    }
+
+    /**
+     * the args class lookup, instantiation and setter and getter invocation the codec did for each request.
+     */
+    private static Object reflective(String serviceName, Object arg) throws Exception {
+        Class<?> clazz = Class.forName(ThriftUtils.generateMethodArgsClassNameThrift(serviceName, "echoString"));
+        TBase<?, ?> args = (TBase<?, ?>) clazz.newInstance();
+        TFieldIdEnum field = args.fieldForId(1);
+        Method setter = clazz.getMethod(ThriftUtils.generateSetMethodName(field.getFieldName()), String.class);
+        setter.invoke(args, arg);
+        Method getter = clazz.getMethod(ThriftUtils.generateGetMethodName(field.getFieldName()));
+        return getter.invoke(args);
+    }
+
+    private static Object planned(String serviceName, Object arg) {
+        ThriftCodecPlan plan = ThriftCodecPlan.forArgs(ThriftClassNameGenerator.NAME, serviceName, "echoString");
+        TBase args = plan.newInstance();
+        plan.set(args, 0, arg);
+        return plan.get(args, 0);
+    }
+
+    private static Request createRequest(String serviceName) {
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("echoString");
+        invocation.setArguments(new Object[]{"Hello, World!"});
+        invocation.setParameterTypes(new Class<?>[]{String.class});
+        invocation.setAttachment(Constants.INTERFACE_KEY, serviceName);
+        invocation.setAttachment(Constants.PATH_KEY, serviceName);
+        Request request = new Request(1L);
+        request.setData(invocation);
+        return request;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.thrift;
+
+import org.apache.dubbo.rpc.gen.thrift.Demo;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ThriftCodecPlanTest {
+
+    @Test
+    public void testArgsPlan() {
+        ThriftCodecPlan plan = ThriftCodecPlan.forArgs(ThriftClassNameGenerator.NAME, Demo.Iface.class.getName(), "echoString");
+        Assertions.assertNotNull(plan);
+        Assertions.assertSame(plan, ThriftCodecPlan.forArgs(ThriftClassNameGenerator.NAME, Demo.Iface.class.getName(), "echoString"));
+        Assertions.assertEquals(Demo.echoString_args.class, plan.getType());
+        Assertions.assertEquals(1, plan.size());
+        Assertions.assertEquals(1, plan.getId(0));
+        Assertions.assertArrayEquals(new Class<?>[]{String.class}, plan.getTypes());
+
+        Demo.echoString_args args = (Demo.echoString_args) plan.newInstance();
+        plan.set(args, 0, "Hello, World!");
+        Assertions.assertEquals("Hello, World!", args.getArg());
+        Assertions.assertEquals("Hello, World!", plan.get(args, 0));
+    }
+
+    @Test
+    public void testResultPlan() {
+        ThriftCodecPlan plan = ThriftCodecPlan.forResult(ThriftClassNameGenerator.NAME, Demo.Iface.class.getName(), "echoBool");
+        Assertions.assertNotNull(plan);
+        Assertions.assertEquals(Demo.echoBool_result.class, plan.getType());
+        Assertions.assertEquals(0, plan.getId(0));
+        Assertions.assertEquals(boolean.class, plan.getType(0));
+
+        Demo.echoBool_result result = (Demo.echoBool_result) plan.newInstance();
+        Assertions.assertFalse(result.isSetSuccess());
+        plan.set(result, 0, true);
+        // the primitive field is marked as set by the generated setter
+        Assertions.assertTrue(result.isSetSuccess());
+        Assertions.assertEquals(Boolean.TRUE, plan.get(result, 0));
+    }
+
+    @Test
+    public void testIncorrectService() {
+        Assertions.assertNull(ThriftCodecPlan.forArgs(ThriftClassNameGenerator.NAME, "IncorrectService", "echoString"));
+        Assertions.assertNull(ThriftCodecPlan.forResult(ThriftClassNameGenerator.NAME, "IncorrectService", "echoString"));
+    }
+
+}